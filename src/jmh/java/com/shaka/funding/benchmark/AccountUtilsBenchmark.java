@@ -0,0 +1,20 @@
+package com.shaka.funding.benchmark;
+
+import com.shaka.funding.utils.AccountUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountUtilsBenchmark {
+
+    @Benchmark
+    public String generateAccountNumber() {
+        return AccountUtils.generateAccountNumber();
+    }
+}
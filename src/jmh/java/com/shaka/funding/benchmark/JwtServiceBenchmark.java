@@ -0,0 +1,53 @@
+package com.shaka.funding.benchmark;
+
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.entity.User;
+import com.shaka.funding.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private User user;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        user = User.builder()
+                .email("john.doe@example.com")
+                .role(Role.USER)
+                .build();
+        userDetails = org.springframework.security.core.userdetails.User.builder()
+                .username(user.getEmail())
+                .password("unused")
+                .roles(Role.USER.name())
+                .build();
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtService.extractUserName(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+}
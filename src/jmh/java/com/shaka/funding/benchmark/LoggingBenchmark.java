@@ -0,0 +1,108 @@
+package com.shaka.funding.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import com.shaka.funding.config.LogSamplingFilter;
+import com.shaka.funding.exceptions.ResourceNotFoundException;
+import net.logstash.logback.encoder.LogstashEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost on the calling thread of the log lines a credit request emits, per logging setup: the old
+ * synchronous text console, synchronous JSON, async JSON, and async JSON with INFO sampling.
+ * Output goes to a null stream, so the numbers are formatting and hand-off cost only; async
+ * modes drop events once the queue is full, which is the configured production behaviour.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    @Param({"SYNC_TEXT", "SYNC_JSON", "ASYNC_JSON", "ASYNC_JSON_SAMPLED"})
+    public String mode;
+
+    private LoggerContext context;
+    private Logger logger;
+
+    @Setup
+    public void setUp() {
+        context = new LoggerContext();
+
+        Encoder<ILoggingEvent> encoder;
+        if (mode.equals("SYNC_TEXT")) {
+            PatternLayoutEncoder text = new PatternLayoutEncoder();
+            text.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n");
+            encoder = text;
+        } else {
+            encoder = new LogstashEncoder();
+        }
+        encoder.setContext(context);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setEncoder(encoder);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        sink.start();
+
+        Appender<ILoggingEvent> appender = sink;
+        if (mode.startsWith("ASYNC")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(8192 / 5);
+            async.setNeverBlock(true);
+            async.addAppender(sink);
+            async.start();
+            appender = async;
+        }
+        if (mode.endsWith("SAMPLED")) {
+            LogSamplingFilter sampling = new LogSamplingFilter();
+            sampling.setLoggers("com.shaka.funding");
+            sampling.setRate(10);
+            sampling.setContext(context);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        logger = context.getLogger("com.shaka.funding.service.impl.UserServiceImpl");
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public void creditRequest() {
+        logger.info("Received request to credit account with accountNumber: {}", "2024123456");
+        logger.info("Starting credit account for accountNumber: {}", "2024123456");
+        logger.info("Account credited successfully for accountNumber: {}", "2024123456");
+    }
+
+    @Benchmark
+    public void businessFailureWithStackTrace() {
+        RuntimeException e = new RuntimeException("Account does not exist");
+        logger.error("Credit account failed: {}", e.getMessage(), e);
+    }
+
+    @Benchmark
+    public void businessFailureWithoutStackTrace() {
+        ResourceNotFoundException e = new ResourceNotFoundException("Account does not exist");
+        logger.warn("Credit account failed: {}", e.getMessage());
+    }
+}
@@ -0,0 +1,32 @@
+package com.shaka.funding.benchmark;
+
+import com.shaka.funding.config.WebSecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    // defaults to the strength the application hashes with; pass -p strength=... to compare others
+    @Param({"" + WebSecurityConfig.BCRYPT_STRENGTH})
+    private int strength;
+
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+    }
+
+    @Benchmark
+    public String encode() {
+        return passwordEncoder.encode("password123");
+    }
+}
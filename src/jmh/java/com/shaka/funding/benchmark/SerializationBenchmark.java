@@ -0,0 +1,58 @@
+package com.shaka.funding.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaka.funding.dto.AccountInfo;
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.LoanResponse;
+import com.shaka.funding.utils.AccountUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private BankResponse bankResponse;
+    private LoanResponse loanResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        bankResponse = BankResponse.builder()
+                .responseCode(AccountUtils.ACCOUNT_CREDITED_CODE)
+                .responseMessage(AccountUtils.ACCOUNT_CREDITED_SUCCESS_MESSAGE)
+                .accountInfo(AccountInfo.builder()
+                        .accountBalance(new BigDecimal("125000.50"))
+                        .accountNumber("2024123456")
+                        .accountName("John Doe Smith")
+                        .build())
+                .build();
+        loanResponse = LoanResponse.builder()
+                .id(1L)
+                .userId(1L)
+                .amount(BigDecimal.valueOf(1000))
+                .interestRate(BigDecimal.valueOf(5))
+                .tenure(12)
+                .status("APPLIED")
+                .pricingVersion(0L)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeBankResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bankResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeLoanResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loanResponse);
+    }
+}
@@ -0,0 +1,78 @@
+package com.shaka.funding.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Time to serve a burst of requests that spend most of their life blocked on I/O, on Tomcat's
+ * default 200 platform threads versus one virtual thread per request. Each request blocks for
+ * {@code ioMillis} outside the database and then holds one of {@code connections} "connections"
+ * for {@code dbMillis}, the same shape as a credit or debit call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public String model;
+
+    @Param({"2000", "10000"})
+    public int requests;
+
+    @Param({"50", "500"})
+    public int connections;
+
+    @Param("5")
+    public int ioMillis;
+
+    @Param("2")
+    public int dbMillis;
+
+    private ExecutorService executor;
+    private Semaphore pool;
+
+    @Setup
+    public void setUp() {
+        executor = model.equals("VIRTUAL")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+        pool = new Semaphore(connections, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(this::request));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+
+    private Void request() throws InterruptedException {
+        Thread.sleep(ioMillis);
+        pool.acquire();
+        try {
+            Thread.sleep(dbMillis);
+        } finally {
+            pool.release();
+        }
+        return null;
+    }
+}
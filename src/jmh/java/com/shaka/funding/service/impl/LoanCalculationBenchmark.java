@@ -0,0 +1,45 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.dto.PricingQuote;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pricing lookup and total amount calculation behind a loan application. Lives in
+ * the service.impl package to reach LoanServiceImpl's package-private calculation helper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanCalculationBenchmark {
+
+    @Param({"6", "18", "36"})
+    private int tenure;
+
+    // the table PricingServiceImpl serves until a rule set is published
+    private PricingTable table;
+    private BigDecimal amount;
+    private PricingQuote quote;
+
+    @Setup
+    public void setUp() {
+        table = PricingTable.defaults();
+        amount = BigDecimal.valueOf(250000);
+        quote = table.lookup(null, tenure, amount);
+    }
+
+    @Benchmark
+    public PricingQuote lookupQuote() {
+        return table.lookup(null, tenure, amount);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        return LoanServiceImpl.calculateTotalAmount(amount, quote);
+    }
+}
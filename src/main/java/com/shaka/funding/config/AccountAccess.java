@@ -0,0 +1,30 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.entity.User;
+import com.shaka.funding.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ownership checks for {@code @PreAuthorize} expressions on account endpoints, e.g.
+ * {@code hasRole('ADMIN') or @accountAccess.isOwner(authentication, #accountNumber)}.
+ */
+@Component("accountAccess")
+@RequiredArgsConstructor
+public class AccountAccess {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Whether the authenticated user is the holder of the account. The lookup by account number
+     * is routed to one shard and served from the second-level cache, unlike a lookup by email.
+     */
+    public boolean isOwner(Authentication authentication, String accountNumber) {
+        if (authentication == null || accountNumber == null) {
+            return false;
+        }
+        User user = userRepository.findByAccountNumber(accountNumber);
+        return user != null && user.getEmail().equals(authentication.getName());
+    }
+}
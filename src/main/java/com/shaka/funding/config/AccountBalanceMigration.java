@@ -0,0 +1,61 @@
+package com.shaka.funding.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+
+/**
+ * Moves balances from the legacy {@code tbl_user.account_balance} column into
+ * {@code tbl_account_balance} before the application takes traffic. Only accounts without a
+ * balance row are copied, so the migration is a no-op once it has run. The old column is no
+ * longer mapped and can be dropped once every node runs this version.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountBalanceMigration implements SmartInitializingSingleton {
+
+    private static final String COPY_BALANCES =
+            "insert into tbl_account_balance (account_number, balance, version, updated_at) "
+                    + "select u.account_number, coalesce(u.account_balance, 0), 0, coalesce(u.modify_at, u.created_at) "
+                    + "from tbl_user u where u.account_number is not null and not exists "
+                    + "(select 1 from tbl_account_balance b where b.account_number = u.account_number)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardScope shardScope;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Integer shard : shardScope.shards()) {
+            ShardContext.callOn(shard, () -> {
+                migrate();
+                return null;
+            });
+        }
+    }
+
+    private void migrate() {
+        if (!hasLegacyColumn()) {
+            return;
+        }
+        int copied = jdbcTemplate.update(COPY_BALANCES);
+        if (copied > 0) {
+            log.info("Migrated {} account balances to tbl_account_balance", copied);
+        }
+    }
+
+    private boolean hasLegacyColumn() {
+        Boolean present = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (ResultSet columns = connection.getMetaData()
+                    .getColumns(connection.getCatalog(), null, "tbl_user", "account_balance")) {
+                return columns.next();
+            }
+        });
+        return Boolean.TRUE.equals(present);
+    }
+}
@@ -0,0 +1,63 @@
+package com.shaka.funding.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Drops second-level cache entries for rows written with plain JDBC, which Hibernate does not see.
+ * Entries are evicted straight away and again once the surrounding transaction commits, so a read
+ * that raced the write cannot leave the old row cached. A no-op when the cache is disabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evicts the given rows of {@code entityClass} and every cached query result, which may list them.
+     */
+    public void evict(Class<?> entityClass, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<?> evicted = List.copyOf(ids);
+        evictNowAndAfterCommit(cache -> {
+            evicted.forEach(id -> cache.evictEntityData(entityClass, id));
+            cache.evictQueryRegions();
+        });
+    }
+
+    /**
+     * Evicts every cached query result, e.g. after rows were inserted that earlier queries did not find.
+     */
+    public void evictQueries() {
+        evictNowAndAfterCommit(Cache::evictQueryRegions);
+    }
+
+    public void evictAll() {
+        evictNowAndAfterCommit(Cache::evictAllRegions);
+    }
+
+    private void evictNowAndAfterCommit(Consumer<Cache> eviction) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        eviction.accept(cache);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.accept(cache);
+                }
+            });
+        }
+    }
+}
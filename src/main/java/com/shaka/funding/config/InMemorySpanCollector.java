@@ -0,0 +1,142 @@
+package com.shaka.funding.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Span exporter that keeps the most recent traces in memory for the trace query endpoints and,
+ * when {@code tracing.export.file} is set, appends every span to that file as a JSON line.
+ */
+@Slf4j
+@Component
+public class InMemorySpanCollector implements SpanExporter {
+
+    private final int maxTraces;
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter fileWriter;
+
+    // insertion-ordered so the oldest trace is dropped first; reading a trace must not keep it alive
+    private final LinkedHashMap<String, List<SpanData>> traces;
+
+    public InMemorySpanCollector(@Value("${tracing.collector.max-traces:10000}") int maxTraces,
+                                 @Value("${tracing.export.file:}") String exportFile,
+                                 ObjectMapper objectMapper) throws IOException {
+        this.maxTraces = maxTraces;
+        this.objectMapper = objectMapper;
+        this.traces = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanData>> eldest) {
+                return size() > InMemorySpanCollector.this.maxTraces;
+            }
+        };
+        if (exportFile == null || exportFile.isBlank()) {
+            this.fileWriter = null;
+        } else {
+            Path path = Path.of(exportFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            this.fileWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("Exporting trace spans to {}", path.toAbsolutePath());
+        }
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        synchronized (traces) {
+            for (SpanData span : spans) {
+                traces.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span);
+            }
+        }
+        if (fileWriter != null) {
+            try {
+                synchronized (fileWriter) {
+                    for (SpanData span : spans) {
+                        fileWriter.write(objectMapper.writeValueAsString(toJson(span)));
+                        fileWriter.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to write spans to the trace export file: {}", e.getMessage());
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    public List<SpanData> getTrace(String traceId) {
+        synchronized (traces) {
+            List<SpanData> spans = traces.get(traceId);
+            return spans == null ? List.of() : List.copyOf(spans);
+        }
+    }
+
+    /**
+     * Most recent traces first.
+     */
+    public List<List<SpanData>> getRecentTraces(int limit) {
+        synchronized (traces) {
+            List<List<SpanData>> all = new ArrayList<>(traces.size());
+            traces.values().forEach(spans -> all.add(List.copyOf(spans)));
+            Collections.reverse(all);
+            return all.subList(0, Math.min(limit, all.size()));
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        if (fileWriter != null) {
+            try {
+                synchronized (fileWriter) {
+                    fileWriter.flush();
+                }
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    @PreDestroy
+    public CompletableResultCode shutdown() {
+        CompletableResultCode result = flush();
+        if (fileWriter != null) {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                return CompletableResultCode.ofFailure();
+            }
+        }
+        return result;
+    }
+
+    private Map<String, Object> toJson(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.getTraceId());
+        json.put("spanId", span.getSpanId());
+        json.put("parentSpanId", span.getParentSpanId());
+        json.put("name", span.getName());
+        json.put("startEpochNanos", span.getStartEpochNanos());
+        json.put("durationNanos", span.getEndEpochNanos() - span.getStartEpochNanos());
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        json.put("attributes", attributes);
+        return json;
+    }
+}
@@ -1,6 +1,8 @@
 package com.shaka.funding.config;
 
 import com.shaka.funding.service.JwtService;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,6 +26,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final ObservationRegistry observationRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -36,6 +39,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // observe only the token handling, not the rest of the chain
+        Observation observation = Observation.createNotStarted("funding.auth.filter", observationRegistry)
+                .lowCardinalityKeyValue("layer", "auth")
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            observation.lowCardinalityKeyValue("outcome", authenticate(request, authorizationHeader));
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private String authenticate(HttpServletRequest request, String authorizationHeader) {
         final String token = authorizationHeader.substring(7);
         String username = jwtService.extractUserName(token);
 
@@ -49,12 +69,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
                 log.info("Authenticated user: {}", username);
+                return "authenticated";
             } else {
                 log.info("Invalid JWT token for user: {}", username);
+                return "invalid";
             }
         }
-
-        filterChain.doFilter(request, response);
+        return "skipped";
     }
 
 }
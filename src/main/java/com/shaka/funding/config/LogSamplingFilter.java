@@ -0,0 +1,56 @@
+package com.shaka.funding.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in {@code rate} INFO events from the configured loggers (or logger name prefixes)
+ * and drops the rest before an event object is even built. Other levels and loggers pass
+ * through untouched. Configured from logback-spring.xml.
+ */
+public class LogSamplingFilter extends TurboFilter {
+
+    private final List<String> loggers = new ArrayList<>();
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    private int rate = 1;
+
+    public void setLoggers(String loggers) {
+        this.loggers.clear();
+        for (String name : loggers.split(",")) {
+            if (!name.isBlank()) {
+                this.loggers.add(name.trim());
+            }
+        }
+    }
+
+    public void setRate(int rate) {
+        this.rate = Math.max(1, rate);
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (rate == 1 || level != Level.INFO || !isSampled(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        long n = counters.computeIfAbsent(logger.getName(), name -> new AtomicLong()).getAndIncrement();
+        return n % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isSampled(String loggerName) {
+        for (String name : loggers) {
+            if (loggerName.startsWith(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
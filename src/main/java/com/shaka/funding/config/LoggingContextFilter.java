@@ -0,0 +1,39 @@
+package com.shaka.funding.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts the request method, path and authenticated user on the MDC so every JSON log event of a
+ * request carries them next to the trace and span IDs. Runs after the security chain.
+ */
+@Component
+public class LoggingContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MDC.put("http.method", request.getMethod());
+        MDC.put("http.path", request.getRequestURI());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()) {
+            MDC.put("user", authentication.getName());
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove("http.method");
+            MDC.remove("http.path");
+            MDC.remove("user");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.shaka.funding.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * Enforces the {@code @PreAuthorize} guards on the controllers. A denied call throws
+ * AccessDeniedException from inside the handler, which CustomExceptionHandler answers with a 403.
+ */
+@Configuration
+@EnableMethodSecurity
+public class MethodSecurityConfig {
+}
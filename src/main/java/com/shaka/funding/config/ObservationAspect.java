@@ -0,0 +1,69 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.dto.BankResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps service entry points marked {@link ObservedOperation} in an Observation, which yields both
+ * a latency timer and a tracing span nested under the current request. Also counts BankResponse
+ * outcomes by response code. Repository calls are timed by Spring Data's own
+ * {@code spring.data.repository.invocations} metric.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ObservationAspect {
+
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> responseCounters = new ConcurrentHashMap<>();
+
+    @Around("execution(public * *(..)) && (@within(com.shaka.funding.config.ObservedOperation) "
+            + "|| @annotation(com.shaka.funding.config.ObservedOperation))")
+    public Object observeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object result = observe(joinPoint.getTarget().getClass().getSimpleName(), method, joinPoint);
+
+        if (result instanceof BankResponse response && response.getResponseCode() != null) {
+            String methodName = method.getName();
+            responseCounters.computeIfAbsent(methodName + ":" + response.getResponseCode(), key -> Counter.builder("funding.bank.response")
+                            .description("BankResponse outcomes by response code")
+                            .tag("method", methodName)
+                            .tag("code", response.getResponseCode())
+                            .register(meterRegistry))
+                    .increment();
+        }
+        return result;
+    }
+
+    private Object observe(String className, Method method, ProceedingJoinPoint joinPoint) throws Throwable {
+        Observation observation = Observation.createNotStarted("funding.service.method", observationRegistry)
+                .contextualName(className + "." + method.getName())
+                .lowCardinalityKeyValue("layer", "service")
+                .lowCardinalityKeyValue("class", className)
+                .lowCardinalityKeyValue("method", method.getName())
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            observation.error(t);
+            throw t;
+        } finally {
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.shaka.funding.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service entry point, or every public method of a service class, to be wrapped in an
+ * Observation by {@link ObservationAspect}. Helpers called on every request or debit (pricing
+ * quotes, velocity checks, shard lookups) are deliberately left unannotated.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ObservedOperation {
+}
@@ -0,0 +1,16 @@
+package com.shaka.funding.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements a service method may issue, including the
+ * statements flushed when its transaction commits. Enforced by {@link QueryBudgetAspect}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
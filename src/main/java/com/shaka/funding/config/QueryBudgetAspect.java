@@ -0,0 +1,66 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.exceptions.QueryBudgetExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Checks methods annotated with {@link QueryBudget} against the number of SQL statements they
+ * issued. Runs outside the transaction advice so statements flushed on commit are counted too, but
+ * inside Spring's ExposeInvocationInterceptor (HIGHEST_PRECEDENCE + 1), which the annotation binding
+ * of the advice needs.
+ * <p>
+ * {@code query-budget.mode} is OFF, WARN (log and count) or FAIL (throw, used by the tests).
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryBudgetAspect {
+
+    public enum Mode { OFF, WARN, FAIL }
+
+    private final MeterRegistry meterRegistry;
+    private final Mode mode;
+
+    public QueryBudgetAspect(MeterRegistry meterRegistry, @Value("${query-budget.mode:WARN}") String mode) {
+        this.meterRegistry = meterRegistry;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+
+    @Around("@annotation(budget)")
+    public Object enforce(ProceedingJoinPoint joinPoint, QueryBudget budget) throws Throwable {
+        if (mode == Mode.OFF) {
+            return joinPoint.proceed();
+        }
+        String methodName = joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName();
+        Object result;
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(methodName);
+        try {
+            result = joinPoint.proceed();
+        } finally {
+            scope.close();
+        }
+
+        if (scope.getCount() > budget.value()) {
+            meterRegistry.counter("funding.sql.budget.exceeded", "method", methodName).increment();
+            String message = methodName + " issued " + scope.getCount() + " SQL statements, budget is " + budget.value()
+                    + ": " + String.join(" | ", scope.getStatements());
+            if (mode == Mode.FAIL) {
+                throw new QueryBudgetExceededException(message, scope.getStatements());
+            }
+            log.warn(message);
+        }
+        return result;
+    }
+}
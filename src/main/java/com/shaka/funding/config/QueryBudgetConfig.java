@@ -0,0 +1,18 @@
+package com.shaka.funding.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The counter is registered as a datasource-proxy listener: the JDBC observation post-processor
+ * adds every QueryExecutionListener bean to the proxy it puts around the DataSource (or, in the
+ * replica and sharding setups, around the routing datasource, see {@link RoutingDataSources}).
+ */
+@Configuration
+public class QueryBudgetConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+}
@@ -0,0 +1,91 @@
+package com.shaka.funding.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.ttddyy.observation.boot.autoconfigure.DataSourceObservationBeanPostProcessor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Primary/replica datasource pair, active when {@code funding.datasource.replica.url} is set.
+ * Only the routing proxy is exposed as a DataSource bean, so JPA, JdbcTemplate and the
+ * connection limiter all see a single datasource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "funding.datasource.replica", name = "url")
+public class ReadWriteDataSourceConfig {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(MeterRegistry meterRegistry,
+                                               @Value("${funding.datasource.replica.url}") String url,
+                                               @Value("${funding.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                               @Value("${funding.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                               @Value("${funding.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName,
+                                               @Value("${funding.datasource.replica.maximum-pool-size:10}") int maxPoolSize,
+                                               @Value("${funding.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                               @Value("${funding.datasource.replica.max-lag:2s}") Duration maxLag) {
+        replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .driverClassName(driverClassName.isBlank() ? null : driverClassName)
+                .build();
+        replica.setPoolName("replica");
+        replica.setMaximumPoolSize(maxPoolSize);
+        replica.setReadOnly(true);
+        replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new ReplicaLagMonitor(replica, lagQuery, maxLag, meterRegistry);
+    }
+
+    @Bean(RoutingDataSources.BEAN_NAME)
+    public DataSource dataSource(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 ObjectProvider<DataSourceObservationBeanPostProcessor> observation) {
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary,
+                replicaLagMonitor.getReplicaDataSource(), replicaLagMonitor, meterRegistry);
+        return RoutingDataSources.lazy(routing, observation);
+    }
+
+    // with open-in-view a session would otherwise keep the connection of its first transaction,
+    // replica or primary, for the whole request
+    @Bean
+    public HibernatePropertiesCustomizer readWriteHibernateCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @PreDestroy
+    public void close() {
+        if (primary != null) {
+            primary.close();
+        }
+        if (replica != null) {
+            replica.close();
+        }
+    }
+}
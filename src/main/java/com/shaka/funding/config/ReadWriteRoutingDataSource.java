@@ -0,0 +1,72 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica and everything else to the
+ * primary. Must sit behind a LazyConnectionDataSourceProxy so the connection is only fetched
+ * once the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter readYourWrites;
+    private final Counter lagFallbacks;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                      MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        writes = routeCounter(meterRegistry, PRIMARY, "read-write");
+        readYourWrites = routeCounter(meterRegistry, PRIMARY, "read-your-writes");
+        lagFallbacks = routeCounter(meterRegistry, PRIMARY, "replica-lag");
+        replicaReads = routeCounter(meterRegistry, REPLICA, "read-only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            return PRIMARY;
+        }
+        if (ReadYourWritesGuard.isPrimaryRequired()) {
+            readYourWrites.increment();
+            return PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            lagFallbacks.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return REPLICA;
+    }
+
+    // answered without choosing a target, so JDBC observation asking at connection close is not
+    // counted as a routing decision
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("funding.datasource.route")
+                .description("Connections handed out per target database and routing reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,86 @@
+package com.shaka.funding.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which accounts (or other keys) were written recently so reads of them are sent to
+ * the primary until the replica has had time to catch up. Writers call {@link #recordWrite}, read
+ * paths call {@link #requirePrimaryIfRecentlyWritten} before their first query. A no-op when no
+ * replica is configured.
+ */
+@Slf4j
+@Component
+public class ReadYourWritesGuard {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final long windowNanos;
+
+    // key -> System.nanoTime() of the last committed write
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesGuard(@Value("${funding.datasource.replica.url:}") String replicaUrl,
+                               @Value("${funding.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        this.enabled = !replicaUrl.isBlank();
+        this.windowNanos = window.toNanos();
+    }
+
+    static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY_REQUIRED.get());
+    }
+
+    public void recordWrite(String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // the replica can only see the write once it is committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lastWrites.put(key, System.nanoTime());
+                }
+            });
+        } else {
+            lastWrites.put(key, System.nanoTime());
+        }
+    }
+
+    /**
+     * Routes the rest of the current read-only transaction to the primary if {@code key} was
+     * written within the read-your-writes window. Must be called before the first query.
+     */
+    public void requirePrimaryIfRecentlyWritten(String key) {
+        if (!enabled || key == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Long writtenAt = lastWrites.get(key);
+        if (writtenAt != null && System.nanoTime() - writtenAt < windowNanos) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    PRIMARY_REQUIRED.remove();
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        if (enabled) {
+            long now = System.nanoTime();
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Polls the replica's replication lag. While the lag is above {@code maxLag}, or the replica
+ * cannot be reached, read-only transactions fall back to the primary.
+ * <p>
+ * The lag query defaults to MySQL's {@code SHOW REPLICA STATUS}; an empty result (not a replica)
+ * counts as no lag and a null {@code Seconds_Behind_Source} (replication stopped) as unusable.
+ * Any other query must return the lag in seconds in its first column.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+
+    private volatile long lagSeconds = -1;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toSeconds();
+        Gauge.builder("funding.datasource.replica.lag.seconds", this, ReplicaLagMonitor::getLagSeconds)
+                .description("Replication lag of the read replica, -1 when unknown")
+                .register(meterRegistry);
+    }
+
+    public DataSource getReplicaDataSource() {
+        return replica;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${funding.datasource.replica.lag-check-interval-ms:2000}")
+    public void refresh() {
+        long lag;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            if (!rs.next()) {
+                lag = 0;
+            } else {
+                long value = hasColumn(rs, MYSQL_LAG_COLUMN) ? rs.getLong(MYSQL_LAG_COLUMN) : rs.getLong(1);
+                lag = rs.wasNull() ? -1 : value;
+            }
+        } catch (SQLException e) {
+            log.warn("Could not read replica lag, routing reads to the primary: {}", e.getMessage());
+            lag = -1;
+        }
+
+        boolean nowUsable = lag >= 0 && lag <= maxLagSeconds;
+        if (nowUsable != usable) {
+            log.warn("Read replica is now {} (lag {}s, max {}s)", nowUsable ? "in use" : "bypassed", lag, maxLagSeconds);
+        }
+        lagSeconds = lag;
+        usable = nowUsable;
+    }
+
+    private static boolean hasColumn(ResultSet rs, String column) throws SQLException {
+        for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(rs.getMetaData().getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.shaka.funding.config;
+
+import net.ttddyy.observation.boot.autoconfigure.DataSourceObservationBeanPostProcessor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Builds the DataSource bean of the replica and sharding setups: a lazy proxy in front of a
+ * routing datasource. JDBC observation wraps the routing datasource rather than the bean, because
+ * it reads the metadata of every connection it is handed, and on the lazy proxy that would fetch
+ * the physical connection when the transaction begins, before the read-only flag or the shard is
+ * known. The bean itself is excluded from observation by name in application.properties.
+ */
+final class RoutingDataSources {
+
+    static final String BEAN_NAME = "routingDataSource";
+
+    // name the observed datasource is reported under, as the DataSource bean was before
+    private static final String OBSERVED_NAME = "dataSource";
+
+    private RoutingDataSources() {
+    }
+
+    static DataSource lazy(DataSource routing, ObjectProvider<DataSourceObservationBeanPostProcessor> observation) {
+        DataSourceObservationBeanPostProcessor processor = observation.getIfAvailable();
+        DataSource target = processor == null ? routing
+                : (DataSource) processor.postProcessAfterInitialization(routing, OBSERVED_NAME);
+        return new LazyConnectionDataSourceProxy(target);
+    }
+}
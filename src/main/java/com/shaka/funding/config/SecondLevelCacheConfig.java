@@ -0,0 +1,85 @@
+package com.shaka.funding.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local Caffeine-backed second-level cache for users and loans, plus the query cache.
+ * <p>
+ * Only entities annotated {@code @Cacheable} are cached. Account balances are deliberately not:
+ * they change on every posting and must always be read from the database. Every region is created
+ * here with a size bound, and Hibernate refuses to start if an entity asks for any other region.
+ * Region hit/miss/put counts come from Hibernate statistics, evictions from {@link JCacheMetrics}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "funding.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    public static final String USER_REGION = "user";
+    public static final String LOAN_REGION = "loan";
+
+    // one cache manager per application context; contexts in the same JVM must not share entries
+    private static final AtomicInteger MANAGER_SEQUENCE = new AtomicInteger();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("funding-hibernate-" + MANAGER_SEQUENCE.incrementAndGet()),
+                        getClass().getClassLoader());
+        cacheManager.createCache(USER_REGION, region(properties.getUser().getMaxEntries(), properties.getUser().getTimeToLive()));
+        cacheManager.createCache(LOAN_REGION, region(properties.getLoan().getMaxEntries(), properties.getLoan().getTimeToLive()));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                region(properties.getQueryResults().getMaxEntries(), properties.getQueryResults().getTimeToLive()));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                region(properties.getTimestampsMaxEntries(), null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE, SharedCacheMode.ENABLE_SELECTIVE);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> hibernateCacheManager.getCacheNames().forEach(name -> JCacheMetrics.monitor(registry,
+                hibernateCacheManager.getCache(name), Tags.of("layer", "hibernate")));
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        if (timeToLive != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        }
+        // Hibernate already caches a disassembled copy of the state
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -0,0 +1,34 @@
+package com.shaka.funding.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Hibernate second-level cache. Each node keeps its own bounded cache, so entries also expire
+ * after a while to limit how long another node's write can go unnoticed.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "funding.cache")
+public class SecondLevelCacheProperties {
+
+    private boolean enabled = true;
+    private Region user = new Region(50_000, Duration.ofMinutes(10));
+    private Region loan = new Region(100_000, Duration.ofMinutes(10));
+    private Region queryResults = new Region(20_000, Duration.ofMinutes(5));
+    // one entry per table; must not be evicted before the query results that depend on it
+    private long timestampsMaxEntries = 10_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+        private long maxEntries;
+        private Duration timeToLive;
+    }
+}
@@ -0,0 +1,108 @@
+package com.shaka.funding.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard the current thread is working against. The repository layer sets it before each call;
+ * {@link ShardRoutingDataSource} reads it when a connection is fetched. Within a transaction the
+ * first connection pins the shard, and reaching for another shard afterwards is an error rather
+ * than a silent read or write on the wrong database.
+ */
+public final class ShardContext {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+    private static final Object TRANSACTION_SHARD = new Object();
+
+    private ShardContext() {
+    }
+
+    static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+
+    /**
+     * Runs {@code work} against the given shard, e.g. for shard-wide reports.
+     */
+    public static <T> T callOn(int shard, Supplier<T> work) {
+        Integer previous = enter(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs {@code work} against the given shard, or in place when the shard is {@code null} because
+     * sharding is off (see {@link ShardScope}).
+     */
+    public static <T> T callOn(Integer shard, Supplier<T> work) {
+        return shard == null ? work.get() : callOn(shard.intValue(), work);
+    }
+
+    /**
+     * Index of a shard from {@link ShardScope}, {@link #DEFAULT_SHARD} for the single database
+     * without sharding.
+     */
+    public static int indexOf(Integer shard) {
+        return shard == null ? DEFAULT_SHARD : shard;
+    }
+
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // shard the current transaction's connection was taken from, null before its first statement
+    static Integer boundShard() {
+        return (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
+    }
+
+    static void checkTransaction(int shard) {
+        Integer bound = boundShard();
+        if (bound != null && bound != shard) {
+            throw new IllegalStateException("Transaction is bound to shard " + bound + " and cannot reach shard " + shard);
+        }
+    }
+
+    static void bindConnection(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(TRANSACTION_SHARD)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+            }
+        });
+    }
+
+    // a nested REQUIRES_NEW transaction gets its own connection and therefore its own shard
+    static Object suspendBinding() {
+        return TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+    }
+
+    static void resumeBinding(Object binding) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+        if (binding != null) {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, binding);
+        }
+    }
+}
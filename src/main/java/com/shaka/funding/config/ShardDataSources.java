@@ -0,0 +1,30 @@
+package com.shaka.funding.config;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * The per-shard pools, indexed by shard. Deliberately not a DataSource itself so the routing
+ * proxy stays the only DataSource bean; used directly only by tooling that must hold
+ * connections to two shards at once.
+ */
+public class ShardDataSources {
+
+    private final List<DataSource> shards;
+
+    public ShardDataSources(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public DataSource get(int shard) {
+        return shards.get(shard);
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<DataSource> getShards() {
+        return shards;
+    }
+}
@@ -0,0 +1,15 @@
+package com.shaka.funding.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the account number parameter of a repository method; the call is routed to that
+ * account's shard instead of being scattered across all shards.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,231 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.entity.AccountScoped;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.ShardingService;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Routes repository calls to shards, so services never deal with where an account lives.
+ * <p>
+ * Account repositories: a call with a {@link ShardKey} argument or a single account-scoped entity
+ * goes to that account's shard, and batches of entities are split by shard. Everything else
+ * (lookups by email or id, admin listings, counts) is sent to every shard and the results are
+ * merged. Inside a transaction the shard the transaction already uses is queried in place and
+ * the others in short transactions of their own, so a scatter read never drags the caller's
+ * transaction onto a second database.
+ * <p>
+ * All other repositories hold global tables and always use shard 0.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "funding.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    // resolved on use: the sharding service loads its map through a repository advised here
+    private final ObjectProvider<ShardingService> shardingService;
+    private final PlatformTransactionManager transactionManager;
+    private final ShardingProperties shardingProperties;
+
+    @Around("target(com.shaka.funding.repository.UserRepository) "
+            + "|| target(com.shaka.funding.repository.AccountBalanceRepository) "
+            + "|| target(com.shaka.funding.repository.TransactionRepository) "
+            + "|| target(com.shaka.funding.repository.FundHoldRepository) "
+            + "|| target(com.shaka.funding.repository.HourlyTransactionRollupRepository) "
+            + "|| target(com.shaka.funding.repository.DailyTransactionRollupRepository)")
+    public Object routeAccountRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        if (method.getDeclaringClass() == Object.class) {
+            return joinPoint.proceed();
+        }
+        Object[] args = joinPoint.getArgs();
+
+        String accountNumber = shardKey(method, args);
+        if (accountNumber != null) {
+            return proceedOn(shards().shardFor(accountNumber), joinPoint, args);
+        }
+        if (args.length == 1 && args[0] instanceof AccountScoped entity) {
+            return proceedOn(shards().shardFor(entity.getAccountNumber()), joinPoint, args);
+        }
+        if (args.length == 1 && args[0] instanceof Iterable<?> entities
+                && (method.getName().startsWith("save") || method.getName().startsWith("delete"))) {
+            return proceedGrouped(joinPoint, entities);
+        }
+        return scatter(joinPoint, method, args);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository) "
+            + "&& !target(com.shaka.funding.repository.UserRepository) "
+            + "&& !target(com.shaka.funding.repository.AccountBalanceRepository) "
+            + "&& !target(com.shaka.funding.repository.TransactionRepository) "
+            + "&& !target(com.shaka.funding.repository.FundHoldRepository) "
+            + "&& !target(com.shaka.funding.repository.HourlyTransactionRollupRepository) "
+            + "&& !target(com.shaka.funding.repository.DailyTransactionRollupRepository)")
+    public Object routeGlobalRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceedOn(ShardContext.DEFAULT_SHARD, joinPoint, joinPoint.getArgs());
+    }
+
+    private Object proceedOn(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        ShardContext.checkTransaction(shard);
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private Object proceedGrouped(ProceedingJoinPoint joinPoint, Iterable<?> entities) throws Throwable {
+        Map<Integer, List<Object>> byShard = new TreeMap<>();
+        for (Object entity : entities) {
+            if (!(entity instanceof AccountScoped scoped)) {
+                throw new IllegalArgumentException("Cannot route " + entity + " to a shard");
+            }
+            byShard.computeIfAbsent(shards().shardFor(scoped.getAccountNumber()), shard -> new ArrayList<>()).add(entity);
+        }
+        List<Object> saved = new ArrayList<>();
+        for (Map.Entry<Integer, List<Object>> group : byShard.entrySet()) {
+            Object result = proceedOn(group.getKey(), joinPoint, new Object[]{group.getValue()});
+            if (result instanceof Collection<?> collection) {
+                saved.addAll(collection);
+            }
+        }
+        return saved;
+    }
+
+    private Object scatter(ProceedingJoinPoint joinPoint, Method method, Object[] args) throws Throwable {
+        Class<?> returnType = method.getReturnType();
+        if (Slice.class.isAssignableFrom(returnType) || Stream.class.isAssignableFrom(returnType)) {
+            throw new UnsupportedOperationException(method.getName() + " cannot be merged across shards");
+        }
+        List<Object> results = new ArrayList<>();
+        for (int shard : scatterOrder(joinPoint, args)) {
+            Object result = proceedScattered(shard, joinPoint, args);
+            results.add(result);
+            if (isConclusive(returnType, result)) {
+                break;
+            }
+        }
+        return merge(returnType, results);
+    }
+
+    // a transaction already on this shard keeps its view; other shards get a transaction of their own
+    private Object proceedScattered(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        Integer bound = ShardContext.boundShard();
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || Objects.equals(bound, shard)) {
+            return proceedOn(shard, joinPoint, args);
+        }
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Object binding = ShardContext.suspendBinding();
+        try {
+            return template.execute(status -> {
+                try {
+                    return proceedOn(shard, joinPoint, args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException(t);
+                }
+            });
+        } finally {
+            ShardContext.resumeBinding(binding);
+        }
+    }
+
+    // user ids are allocated in per-shard blocks, so an id lookup usually hits on the first shard
+    private List<Integer> scatterOrder(ProceedingJoinPoint joinPoint, Object[] args) {
+        int shardCount = shards().getShardCount();
+        int first = ShardContext.DEFAULT_SHARD;
+        if (joinPoint.getThis() instanceof UserRepository && args.length == 1 && args[0] instanceof Long id) {
+            long block = id / shardingProperties.getIdBlock();
+            first = block < shardCount ? (int) block : ShardContext.DEFAULT_SHARD;
+        }
+        List<Integer> order = new ArrayList<>(shardCount);
+        order.add(first);
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (shard != first) {
+                order.add(shard);
+            }
+        }
+        return order;
+    }
+
+    private ShardingService shards() {
+        return shardingService.getObject();
+    }
+
+    private static String shardKey(Method method, Object[] args) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < annotations.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey && args[i] != null) {
+                    return args[i].toString();
+                }
+            }
+        }
+        return null;
+    }
+
+    // results that no other shard can change: a unique row found, or an existence check that hit
+    private static boolean isConclusive(Class<?> returnType, Object result) {
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent();
+        }
+        if (result instanceof Boolean found) {
+            return found;
+        }
+        return result != null && !isAggregated(returnType);
+    }
+
+    private static boolean isAggregated(Class<?> returnType) {
+        return Iterable.class.isAssignableFrom(returnType) || Number.class.isAssignableFrom(returnType)
+                || returnType == long.class || returnType == int.class;
+    }
+
+    static Object merge(Class<?> returnType, List<Object> results) {
+        if (returnType == void.class) {
+            return null;
+        }
+        if (returnType == Optional.class) {
+            return results.stream().map(Optional.class::cast).filter(Optional::isPresent).findFirst().orElse(Optional.empty());
+        }
+        if (returnType == boolean.class || returnType == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (returnType == long.class || returnType == Long.class) {
+            return results.stream().mapToLong(result -> result == null ? 0 : ((Number) result).longValue()).sum();
+        }
+        if (returnType == int.class || returnType == Integer.class) {
+            return results.stream().mapToInt(result -> result == null ? 0 : ((Number) result).intValue()).sum();
+        }
+        if (Iterable.class.isAssignableFrom(returnType)) {
+            List<Object> merged = new ArrayList<>();
+            for (Object result : results) {
+                if (result != null) {
+                    ((Iterable<?>) result).forEach(merged::add);
+                }
+            }
+            return Set.class.isAssignableFrom(returnType) ? new LinkedHashSet<>(merged) : merged;
+        }
+        return results.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.shaka.funding.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the shard selected in {@link ShardContext}. Sits behind a
+ * LazyConnectionDataSourceProxy so a transaction only fetches its connection at the first
+ * statement, after the repository layer has chosen the shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(ShardDataSources shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(ShardContext.DEFAULT_SHARD));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int shard = ShardContext.current();
+        ShardContext.bindConnection(shard);
+        return shard;
+    }
+
+    // answered without choosing a shard, so JDBC observation asking at connection close cannot
+    // pin the transaction
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
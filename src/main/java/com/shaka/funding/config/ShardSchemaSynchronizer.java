@@ -0,0 +1,117 @@
+package com.shaka.funding.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.internal.ExceptionHandlerLoggedImpl;
+import org.hibernate.tool.schema.spi.ContributableMatcher;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.ScriptTargetOutput;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hibernate only manages the schema of the datasource it boots against (shard 0). While the
+ * session factory is built this runs a schema update against every other shard with the same
+ * entity metadata and moves each shard's user id sequence into its own block, so all shards are
+ * ready before anything can query them.
+ */
+@Slf4j
+public class ShardSchemaSynchronizer implements Integrator {
+
+    // changes go straight to the shard's database, no script is written
+    private static final TargetDescriptor DATABASE_TARGET = new TargetDescriptor() {
+        @Override
+        public EnumSet<TargetType> getTargetTypes() {
+            return EnumSet.of(TargetType.DATABASE);
+        }
+
+        @Override
+        public ScriptTargetOutput getScriptTargetOutput() {
+            return null;
+        }
+    };
+
+    private final ShardDataSources shards;
+    private final ShardingProperties sharding;
+
+    public ShardSchemaSynchronizer(ShardDataSources shards, ShardingProperties sharding) {
+        this.shards = shards;
+        this.sharding = sharding;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        for (int shard = 1; shard < shards.size(); shard++) {
+            if (sharding.isSchemaUpdate()) {
+                updateSchema(metadata, shard);
+            }
+            reserveIdBlock(shard);
+        }
+    }
+
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // nothing to undo
+    }
+
+    private void updateSchema(Metadata metadata, int shard) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, shards.get(shard))
+                .build();
+        try {
+            // the same migrator hbm2ddl "update" runs, bound to a registry on the shard's datasource
+            Map<String, Object> settings = new HashMap<>(registry.getService(ConfigurationService.class).getSettings());
+            registry.getService(SchemaManagementTool.class).getSchemaMigrator(settings).doMigration(metadata,
+                    SchemaManagementToolCoordinator.buildExecutionOptions(settings, ExceptionHandlerLoggedImpl.INSTANCE),
+                    ContributableMatcher.ALL, DATABASE_TARGET);
+            log.info("Schema of shard {} is up to date", shard);
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    private void reserveIdBlock(int shard) {
+        long start = shard * sharding.getIdBlock();
+        DataSource dataSource = shards.get(shard);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("select max(id) from tbl_user")) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            if (maxId >= start) {
+                return;
+            }
+            String product = connection.getMetaData().getDatabaseProductName();
+            if (product.startsWith("MySQL")) {
+                statement.execute("alter table tbl_user auto_increment = " + start);
+            } else if (product.startsWith("H2")) {
+                statement.execute("alter table tbl_user alter column id restart with " + start);
+            } else {
+                log.warn("Cannot reserve user id block on shard {} ({}); ids may collide across shards", shard, product);
+                return;
+            }
+            log.info("User ids on shard {} start at {}", shard, start);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to reserve the user id block of shard " + shard, e);
+        }
+    }
+}
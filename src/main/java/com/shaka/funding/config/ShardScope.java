@@ -0,0 +1,43 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.service.ShardingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * The shards account data lives on, for code that works the same with sharding on or off. Without
+ * sharding there is a single database and the shard is {@code null}, which
+ * {@link ShardContext#callOn(Integer, java.util.function.Supplier)} runs in place.
+ */
+@Component
+@RequiredArgsConstructor
+public class ShardScope {
+
+    // absent unless sharding is enabled; resolved on use, since the sharding service loads its map
+    // through the routed repositories
+    private final ObjectProvider<ShardingService> shardingService;
+
+    /**
+     * Every shard in order, for shard-by-shard jobs; a single {@code null} without sharding.
+     */
+    public List<Integer> shards() {
+        ShardingService sharding = shardingService.getIfAvailable();
+        if (sharding == null) {
+            return Collections.singletonList(null);
+        }
+        return IntStream.range(0, sharding.getShardCount()).boxed().toList();
+    }
+
+    /**
+     * The shard of the account, or {@code null} without sharding.
+     */
+    public Integer shardFor(String accountNumber) {
+        ShardingService sharding = shardingService.getIfAvailable();
+        return sharding == null ? null : sharding.shardFor(accountNumber);
+    }
+}
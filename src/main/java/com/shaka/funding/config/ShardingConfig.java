@@ -0,0 +1,89 @@
+package com.shaka.funding.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import net.ttddyy.observation.boot.autoconfigure.DataSourceObservationBeanPostProcessor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One Hikari pool per shard behind a single routing DataSource bean. Not combined with the read
+ * replica setup; enable one or the other.
+ */
+@Configuration
+@ConditionalOnProperty(name = "funding.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public ShardDataSources shardDataSources(DataSourceProperties properties, ShardingProperties sharding,
+                                             Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource shard0 = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(shard0));
+        pools.add(shard0);
+
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pools.add(pool);
+        }
+        List<DataSource> shards = new ArrayList<>();
+        for (int i = 0; i < pools.size(); i++) {
+            pools.get(i).setPoolName("shard-" + i);
+            pools.get(i).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.add(pools.get(i));
+        }
+        return new ShardDataSources(shards);
+    }
+
+    @Bean(RoutingDataSources.BEAN_NAME)
+    public DataSource dataSource(ShardDataSources shardDataSources,
+                                 ObjectProvider<DataSourceObservationBeanPostProcessor> observation) {
+        return RoutingDataSources.lazy(new ShardRoutingDataSource(shardDataSources), observation);
+    }
+
+    @Bean
+    public ShardSchemaSynchronizer shardSchemaSynchronizer(ShardDataSources shardDataSources, ShardingProperties sharding) {
+        return new ShardSchemaSynchronizer(shardDataSources, sharding);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateCustomizer(ShardSchemaSynchronizer synchronizer) {
+        return properties -> {
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(synchronizer));
+            // with open-in-view a session would otherwise keep its first shard's connection for the
+            // whole request; releasing it after each transaction lets the next one route again
+            properties.put(AvailableSettings.CONNECTION_HANDLING,
+                    PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+        };
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
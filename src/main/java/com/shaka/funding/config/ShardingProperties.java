@@ -0,0 +1,38 @@
+package com.shaka.funding.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Account sharding. Shard 0 is the regular {@code spring.datasource} and also holds the
+ * non-account tables (loans, pricing, batch state, the shard map); {@code shards} lists the
+ * additional account shards 1..N.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "funding.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+    // user ids on shard i start at i * idBlock so they stay unique across shards
+    private long idBlock = 1_000_000_000_000L;
+    // brings the schema of the extra shards up to date with the entities on startup
+    private boolean schemaUpdate = true;
+    private long refreshIntervalMs = 30000;
+    // a rebalance locks, copies and commits at most this many accounts per source shard at a time
+    private int moveBatchSize = 1000;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+        private int maximumPoolSize = 10;
+    }
+}
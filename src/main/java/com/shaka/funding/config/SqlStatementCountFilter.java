@@ -0,0 +1,54 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each endpoint issues per request, so a new N+1 shows up on the
+ * dashboard even for code paths without a {@link QueryBudget}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${query-budget.request-warn-threshold:20}")
+    private int warnThreshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open(request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("funding.http.sql.statements")
+                    .description("SQL statements issued per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(scope.getCount());
+            if (scope.getCount() > warnThreshold) {
+                log.warn("{} {} issued {} SQL statements: {}", request.getMethod(), uri, scope.getCount(),
+                        String.join(" | ", scope.getStatements()));
+            }
+        }
+    }
+}
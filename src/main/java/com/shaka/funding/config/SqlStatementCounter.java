@@ -0,0 +1,88 @@
+package com.shaka.funding.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Counts the SQL statements executed on the current thread. It listens on the JDBC proxy around
+ * the DataSource, so statements from Hibernate, JdbcTemplate and batch jobs are all seen. Each
+ * execution counts once, and a JDBC batch is one round trip, so it counts once too. Callers open
+ * a {@link Scope} around the work they want to measure; scopes nest, and every open scope on the
+ * thread sees each statement.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    // only the first few statements are kept for the report, the count is always exact
+    private static final int MAX_RECORDED = 25;
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public static Scope open(String name) {
+        Scope scope = new Scope(name);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        record(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+    }
+
+    void record(String sql) {
+        Deque<Scope> scopes = SCOPES.get();
+        if (!scopes.isEmpty()) {
+            for (Scope scope : scopes) {
+                scope.record(sql);
+            }
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final String name;
+        private final List<String> statements = new ArrayList<>();
+        private int count;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        private void record(String sql) {
+            count++;
+            if (statements.size() < MAX_RECORDED) {
+                statements.add(sql);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public List<String> getStatements() {
+            return Collections.unmodifiableList(statements);
+        }
+
+        @Override
+        public void close() {
+            Deque<Scope> scopes = SCOPES.get();
+            scopes.remove(this);
+            if (scopes.isEmpty()) {
+                SCOPES.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shaka.funding.config;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Returns the trace ID of the current request in the X-Trace-Id header so a slow call can be
+ * looked up afterwards.
+ */
+@Component
+@RequiredArgsConstructor
+public class TraceIdFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Span span = tracer.currentSpan();
+        if (span != null) {
+            response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,54 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.utils.AccountUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills {@code tbl_user.shard_key} for accounts created before the column existed, in small
+ * batches that each commit on their own, so the first start after an upgrade does not hold one
+ * long update over the whole table. Accounts that already have a key are skipped, so the
+ * migration is a no-op once it has run.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserShardKeyMigration implements SmartInitializingSingleton {
+
+    private static final String SELECT_UNKEYED =
+            "select id, account_number from tbl_user where shard_key is null and account_number is not null limit ?";
+    private static final String SET_SHARD_KEY = "update tbl_user set shard_key = ? where id = ?";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardScope shardScope;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Integer shard : shardScope.shards()) {
+            ShardContext.callOn(shard, () -> {
+                migrate();
+                return null;
+            });
+        }
+    }
+
+    private void migrate() {
+        long keyed = 0;
+        List<Object[]> updates;
+        do {
+            updates = jdbcTemplate.query(SELECT_UNKEYED,
+                    (rs, row) -> new Object[]{AccountUtils.accountShardKey(rs.getString(2)), rs.getLong(1)}, BATCH_SIZE);
+            jdbcTemplate.batchUpdate(SET_SHARD_KEY, updates);
+            keyed += updates.size();
+        } while (updates.size() == BATCH_SIZE);
+        if (keyed > 0) {
+            log.info("Assigned shard keys to {} existing accounts", keyed);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shaka.funding.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+    // keys idle for longer than this (and at least the longest window) are evicted
+    private Duration idleEviction = Duration.ofHours(2);
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private Scope scope = Scope.ACCOUNT;
+        private Duration window = Duration.ofMinutes(1);
+        private int buckets = 60; // window resolution
+        private Long maxCount; // null means no count limit
+        private BigDecimal maxAmount; // null means no amount limit
+    }
+
+    public enum Scope {
+        ACCOUNT,
+        USER
+    }
+}
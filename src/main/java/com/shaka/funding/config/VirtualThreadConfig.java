@@ -0,0 +1,65 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Opt-in mode ({@code funding.virtual-threads.enabled=true}) that serves requests and runs async
+ * work on virtual threads. Because the request count is then no longer bounded by Tomcat's
+ * pool, database access is limited by {@link ConnectionLimitingDataSource}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "funding.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Serving requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor(
+            @Value("${funding.virtual-threads.max-db-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${funding.virtual-threads.db-acquire-timeout-ms:30000}") long acquireTimeoutMs,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    ConnectionLimitingDataSource limited =
+                            new ConnectionLimitingDataSource(dataSource, maxConcurrent, acquireTimeoutMs);
+                    meterRegistry.ifAvailable(registry -> {
+                        Gauge.builder("funding.db.permits.available", limited, ConnectionLimitingDataSource::getAvailablePermits)
+                                .register(registry);
+                        Gauge.builder("funding.db.permits.waiting", limited, ConnectionLimitingDataSource::getQueueLength)
+                                .register(registry);
+                    });
+                    log.info("Limiting database access to {} concurrent connections", maxConcurrent);
+                    return limited;
+                }
+                return bean;
+            }
+        };
+    }
+}
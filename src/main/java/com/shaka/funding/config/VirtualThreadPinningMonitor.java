@@ -0,0 +1,71 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event in-process: a virtual thread that blocks
+ * while pinned to its carrier (typically inside a {@code synchronized} block in a driver or
+ * pool) is counted in {@code funding.virtual-threads.pinned} and logged with its top frames.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "funding.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${funding.virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {}", threshold);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        meterRegistry.counter("funding.virtual-threads.pinned").increment();
+        meterRegistry.timer("funding.virtual-threads.pinned.duration").record(event.getDuration());
+        if (log.isWarnEnabled()) {
+            StringBuilder frames = new StringBuilder();
+            if (event.getStackTrace() != null) {
+                List<RecordedFrame> stack = event.getStackTrace().getFrames();
+                for (int i = 0; i < Math.min(LOGGED_FRAMES, stack.size()); i++) {
+                    RecordedFrame frame = stack.get(i);
+                    frames.append("\n\tat ").append(frame.getMethod().getType().getName())
+                            .append('.').append(frame.getMethod().getName())
+                            .append(':').append(frame.getLineNumber());
+                }
+            }
+            log.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), frames);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -21,6 +21,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class WebSecurityConfig {
 
+    // log rounds of the password hash; the JMH benchmark measures this same value
+    public static final int BCRYPT_STRENGTH = 10;
+
     private final CustomUserDetailsService customUserDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -31,6 +34,7 @@ public class WebSecurityConfig {
                 .authorizeHttpRequests(
                         request -> request
                                 .requestMatchers("/api/user/create", "/api/user/login").permitAll() // Allow user create and login
+                                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll() // Allow health checks and metric scrapes
 //                                .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-resources/**", "/webjars/**").permitAll() // Allow Swagger UI
 //                                .requestMatchers("/admin/**").hasRole("ADMIN") // Protect admin endpoints
                                 .anyRequest().authenticated()
@@ -43,7 +47,7 @@ public class WebSecurityConfig {
 
     @Bean
     public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(BCRYPT_STRENGTH);
     }
 
     @Bean
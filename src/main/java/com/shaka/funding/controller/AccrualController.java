@@ -0,0 +1,50 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.AccrualStatusResponse;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.service.AccrualService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/accruals")
+@Tag(name = "Accrual Controller", description = "Endpoints for loan interest accrual")
+public class AccrualController {
+
+    private final AccrualService accrualService;
+
+    /**
+     * Endpoint to run (or resume) the accrual for a given date
+     * @param date Business date to accrue interest for
+     * @return BatchRunResponse with throughput of the run
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/run")
+    @Operation(summary = "Run interest accrual", description = "Accrues one day of interest on all active loans")
+    public ResponseEntity<BatchRunResponse> runAccrual(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("Received request to run accrual for {}", date);
+        return ResponseEntity.ok(accrualService.runAccrual(date));
+    }
+
+    /**
+     * Endpoint to check the accrual progress and lag
+     * @return AccrualStatusResponse
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/status")
+    @Operation(summary = "Accrual status", description = "Returns progress, lag and throughput of the accrual job")
+    public ResponseEntity<AccrualStatusResponse> getStatus() {
+        return ResponseEntity.ok(accrualService.getStatus());
+    }
+}
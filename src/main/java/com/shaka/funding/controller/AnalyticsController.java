@@ -0,0 +1,76 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.RollupCheckResponse;
+import com.shaka.funding.dto.TransactionSummaryResponse;
+import com.shaka.funding.service.TransactionRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/analytics")
+@Tag(name = "Analytics Controller", description = "Endpoints for account inflow and outflow summaries")
+public class AnalyticsController {
+
+    private final TransactionRollupService transactionRollupService;
+
+    /**
+     * Endpoint to summarize an account's credits and debits over a date range
+     * @param accountNumber Account number
+     * @param from First day of the range
+     * @param to Last day of the range, inclusive
+     * @param interval HOUR, DAY (default), MONTH or TOTAL
+     * @return Totals for the range and, unless TOTAL, one bucket per period with activity
+     */
+    @PreAuthorize("hasRole('ADMIN') or @accountAccess.isOwner(authentication, #accountNumber)")
+    @GetMapping("/accounts/{accountNumber}/summary")
+    @Operation(summary = "Transaction summary", description = "Returns inflow, outflow and counts of an account per hour, day or month of a date range")
+    public ResponseEntity<TransactionSummaryResponse> getSummary(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String interval) {
+        return ResponseEntity.ok(transactionRollupService.getSummary(accountNumber, from, to, interval));
+    }
+
+    /**
+     * Endpoint to rebuild rollups from the transaction history
+     * @param accountNumber Account to rebuild; every account when omitted
+     * @return BatchRunResponse with the number of accounts rebuilt
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rollups/backfill")
+    @Operation(summary = "Backfill rollups", description = "Rebuilds hourly and daily rollups from transactions, for one account or all accounts")
+    public ResponseEntity<BatchRunResponse> backfill(@RequestParam(required = false) String accountNumber) {
+        log.info("Received request to backfill transaction rollups for accountNumber: {}", accountNumber);
+        return ResponseEntity.ok(transactionRollupService.backfill(accountNumber));
+    }
+
+    /**
+     * Endpoint to check rollups against the transaction rows
+     * @param from First day to check
+     * @param to Last day to check, inclusive
+     * @param repair Whether to rebuild the accounts that disagree
+     * @return The accounts and days whose rollups disagree with the transactions
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rollups/verify")
+    @Operation(summary = "Verify rollups", description = "Compares hourly and daily rollups with the transactions of a date range")
+    public ResponseEntity<RollupCheckResponse> verify(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean repair) {
+        log.info("Received request to verify transaction rollups for {}..{} (repair: {})", from, to, repair);
+        return ResponseEntity.ok(transactionRollupService.verify(from, to, repair));
+    }
+}
@@ -0,0 +1,35 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.ArchiveRunResponse;
+import com.shaka.funding.service.TransactionArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/archive")
+@Tag(name = "Archive Controller", description = "Endpoints for archiving old transactions")
+public class ArchiveController {
+
+    private final TransactionArchiveService transactionArchiveService;
+
+    /**
+     * Endpoint to archive transactions older than the configured minimum age
+     * @return ArchiveRunResponse with the segments written and the transactions they hold
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/run")
+    @Operation(summary = "Archive transactions", description = "Moves old transactions from the database into compressed archive segments")
+    public ResponseEntity<ArchiveRunResponse> archive() {
+        log.info("Received request to archive old transactions");
+        return ResponseEntity.ok(transactionArchiveService.archive());
+    }
+}
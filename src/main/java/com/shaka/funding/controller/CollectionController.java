@@ -0,0 +1,52 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.LoanInstallment;
+import com.shaka.funding.service.CollectionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/collections")
+@Tag(name = "Collection Controller", description = "Endpoints for loan installment collection")
+public class CollectionController {
+
+    private final CollectionService collectionService;
+
+    /**
+     * Endpoint to run (or resume) the installment collection for a business date
+     * @param date Business date; installments due on or before it are collected
+     * @return BatchRunResponse with throughput of the run
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/run")
+    @Operation(summary = "Run installment collection", description = "Debits borrowers for installments due on or before the given date")
+    public ResponseEntity<BatchRunResponse> runCollection(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("Received request to run collection for {}", date);
+        return ResponseEntity.ok(collectionService.runCollection(date));
+    }
+
+    /**
+     * Endpoint to fetch the installment schedule of a loan
+     * @param loanId Loan ID
+     * @return Installments in due order
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/loans/{loanId}/installments")
+    @Operation(summary = "Get loan installments", description = "Retrieves the installment schedule and collection state of a loan")
+    public ResponseEntity<List<LoanInstallment>> getInstallments(@PathVariable Long loanId) {
+        return ResponseEntity.ok(collectionService.getInstallments(loanId));
+    }
+}
@@ -0,0 +1,70 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.HoldCaptureRequest;
+import com.shaka.funding.dto.HoldRequest;
+import com.shaka.funding.dto.HoldResponse;
+import com.shaka.funding.service.FundHoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/holds")
+@Tag(name = "Hold Controller", description = "Endpoints for reserving funds and capturing or releasing them later")
+public class HoldController {
+
+    private final FundHoldService fundHoldService;
+
+    /**
+     * Endpoint to reserve funds on an account
+     * @param request Account, amount, optional reference and lifetime in seconds
+     * @return HoldResponse with the hold id and the account's available balance
+     */
+    @PostMapping
+    @Operation(summary = "Place hold", description = "Reserves the amount against the account's available balance until captured, released or expired")
+    public HoldResponse placeHold(@RequestBody HoldRequest request) {
+        log.info("Received request to hold funds on accountNumber: {}", request.getAccountNumber());
+        HoldResponse response = fundHoldService.placeHold(request);
+        log.info("Response for hold: {}", response.getResponseMessage());
+        return response;
+    }
+
+    /**
+     * Endpoint to debit held funds
+     * @param holdId Hold to capture
+     * @param request Amount to capture, the whole hold when omitted
+     * @return HoldResponse with the captured amount
+     */
+    @PostMapping("/{holdId}/capture")
+    @Operation(summary = "Capture hold", description = "Debits up to the held amount and releases the rest of the hold")
+    public HoldResponse captureHold(@PathVariable String holdId, @RequestBody(required = false) HoldCaptureRequest request) {
+        log.info("Received request to capture hold {}", holdId);
+        HoldResponse response = fundHoldService.captureHold(holdId, request == null ? null : request.getAmount());
+        log.info("Response for hold capture: {}", response.getResponseMessage());
+        return response;
+    }
+
+    /**
+     * Endpoint to release held funds without debiting them
+     * @param holdId Hold to release
+     * @return HoldResponse with the account's available balance
+     */
+    @PostMapping("/{holdId}/release")
+    @Operation(summary = "Release hold", description = "Returns the held amount to the account's available balance")
+    public HoldResponse releaseHold(@PathVariable String holdId) {
+        log.info("Received request to release hold {}", holdId);
+        HoldResponse response = fundHoldService.releaseHold(holdId);
+        log.info("Response for hold release: {}", response.getResponseMessage());
+        return response;
+    }
+
+    @GetMapping("/{holdId}")
+    @Operation(summary = "Get hold", description = "Returns the hold's amount, status and expiry")
+    public HoldResponse getHold(@PathVariable String holdId) {
+        return fundHoldService.getHold(holdId);
+    }
+}
@@ -0,0 +1,61 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.PricingResponse;
+import com.shaka.funding.dto.PricingRuleRequest;
+import com.shaka.funding.service.PricingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/pricing")
+@Tag(name = "Pricing Controller", description = "Endpoints for loan pricing rules")
+public class PricingController {
+
+    private final PricingService pricingService;
+
+    /**
+     * Endpoint to get the active pricing rules version
+     * @return PricingResponse with the active version and rule count
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/rules")
+    @Operation(summary = "Get active pricing version", description = "Returns the pricing rules version currently used for quotes")
+    public ResponseEntity<PricingResponse> getActiveVersion() {
+        return ResponseEntity.ok(pricingService.getActiveVersion());
+    }
+
+    /**
+     * Endpoint to publish a new pricing rule set
+     * @param rules Complete rule set; replaces the active one
+     * @return PricingResponse with the new version
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rules")
+    @Operation(summary = "Publish pricing rules", description = "Publishes a new version of the loan pricing rules")
+    public ResponseEntity<PricingResponse> publishRules(@RequestBody List<PricingRuleRequest> rules) {
+        log.info("Received request to publish {} pricing rules", rules.size());
+        PricingResponse response = pricingService.publishRules(rules);
+        log.info("Pricing rules published: {}", response);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Endpoint to reload the latest pricing rules from the database
+     * @return PricingResponse with the active version
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reload")
+    @Operation(summary = "Reload pricing rules", description = "Loads the latest published pricing rules")
+    public ResponseEntity<PricingResponse> reload() {
+        return ResponseEntity.ok(pricingService.reload());
+    }
+}
@@ -0,0 +1,53 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.ReconciliationResponse;
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+import com.shaka.funding.service.ReconciliationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/reconciliation")
+@Tag(name = "Reconciliation Controller", description = "Endpoints for balance reconciliation against the transaction ledger")
+public class ReconciliationController {
+
+    private final ReconciliationService reconciliationService;
+
+    /**
+     * Endpoint to run (or resume) the balance reconciliation for a given date
+     * @param date Business date the run is recorded under
+     * @return ReconciliationResponse with the discrepancies found
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/run")
+    @Operation(summary = "Run balance reconciliation", description = "Recomputes every balance from its transactions and reports the accounts that disagree")
+    public ResponseEntity<ReconciliationResponse> reconcile(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.info("Received request to reconcile balances for {}", date);
+        return ResponseEntity.ok(reconciliationService.reconcile(date));
+    }
+
+    /**
+     * Endpoint to list the discrepancies recorded for a given date
+     * @param date Business date of the run
+     * @return Accounts whose balance disagreed with the ledger
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/discrepancies")
+    @Operation(summary = "Reconciliation discrepancies", description = "Returns the accounts whose balance disagreed with the ledger on a date")
+    public ResponseEntity<List<ReconciliationDiscrepancy>> getDiscrepancies(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(reconciliationService.getDiscrepancies(date));
+    }
+}
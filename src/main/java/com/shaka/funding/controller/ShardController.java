@@ -0,0 +1,61 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.RebalanceRequest;
+import com.shaka.funding.dto.RebalanceResponse;
+import com.shaka.funding.dto.ShardingResponse;
+import com.shaka.funding.service.ShardingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/shards")
+@ConditionalOnProperty(name = "funding.sharding.enabled", havingValue = "true")
+@Tag(name = "Shard Controller", description = "Endpoints for the account shard map")
+public class ShardController {
+
+    private final ShardingService shardingService;
+
+    /**
+     * Endpoint to get the shard map
+     * @return ShardingResponse with the key ranges and the number of accounts on each shard
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    @Operation(summary = "Get shard map", description = "Returns the account key ranges of each shard and their account counts")
+    public ResponseEntity<ShardingResponse> getShardMap() {
+        return ResponseEntity.ok(shardingService.getShardMap());
+    }
+
+    /**
+     * Endpoint to move a range of accounts to another shard
+     * @param request Shard key range and the shard it should live on
+     * @return RebalanceResponse with the number of accounts and transactions moved
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/rebalance")
+    @Operation(summary = "Rebalance shards", description = "Moves the accounts in a shard key range to the target shard")
+    public ResponseEntity<RebalanceResponse> rebalance(@RequestBody RebalanceRequest request) {
+        log.info("Received request to move shard keys {}..{} to shard {}", request.getLowerBound(),
+                request.getUpperBound(), request.getTargetShard());
+        return ResponseEntity.ok(shardingService.rebalance(request));
+    }
+
+    /**
+     * Endpoint to reload the shard map from the database
+     * @return ShardingResponse with the active map
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/reload")
+    @Operation(summary = "Reload shard map", description = "Loads the latest shard map, e.g. after a rebalance on another node")
+    public ResponseEntity<ShardingResponse> reload() {
+        return ResponseEntity.ok(shardingService.reload());
+    }
+}
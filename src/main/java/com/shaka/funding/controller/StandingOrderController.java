@@ -0,0 +1,76 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.StandingOrderRequest;
+import com.shaka.funding.entity.StandingOrder;
+import com.shaka.funding.entity.StandingOrderExecution;
+import com.shaka.funding.service.StandingOrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/standing-orders")
+@Tag(name = "Standing Order Controller", description = "Endpoints for recurring transfers and scheduled payments")
+public class StandingOrderController {
+
+    private final StandingOrderService standingOrderService;
+
+    /**
+     * Endpoint to create a standing order
+     * @param request Accounts, amount, frequency and optional start and end dates
+     * @return The stored standing order with its first run date
+     */
+    @PostMapping
+    @Operation(summary = "Create standing order", description = "Schedules a recurring transfer, payment or credit")
+    public ResponseEntity<StandingOrder> createStandingOrder(@RequestBody StandingOrderRequest request) {
+        log.info("Received request to create standing order from {} to {}", request.getDebitAccountNumber(),
+                request.getCreditAccountNumber());
+        return ResponseEntity.ok(standingOrderService.createStandingOrder(request));
+    }
+
+    /**
+     * Endpoint to cancel a standing order
+     * @param id Standing order ID
+     * @return The standing order; occurrences already executed are not reversed
+     */
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Cancel standing order", description = "Stops further occurrences of the standing order")
+    public ResponseEntity<StandingOrder> cancelStandingOrder(@PathVariable Long id) {
+        log.info("Received request to cancel standing order {}", id);
+        return ResponseEntity.ok(standingOrderService.cancelStandingOrder(id));
+    }
+
+    @GetMapping
+    @Operation(summary = "List standing orders", description = "Retrieves the standing orders debiting or crediting an account")
+    public ResponseEntity<List<StandingOrder>> getStandingOrders(@RequestParam String accountNumber) {
+        return ResponseEntity.ok(standingOrderService.getStandingOrders(accountNumber));
+    }
+
+    @GetMapping("/{id}/executions")
+    @Operation(summary = "List executions", description = "Retrieves the executed and failed occurrences of a standing order")
+    public ResponseEntity<List<StandingOrderExecution>> getExecutions(@PathVariable Long id) {
+        return ResponseEntity.ok(standingOrderService.getExecutions(id));
+    }
+
+    /**
+     * Endpoint to run a wave of due standing orders now instead of waiting for the schedule
+     * @return BatchRunResponse with throughput of the wave
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/run")
+    @Operation(summary = "Run due standing orders", description = "Executes every standing order occurrence due now")
+    public ResponseEntity<BatchRunResponse> runDueOrders() {
+        log.info("Received request to run due standing orders");
+        return ResponseEntity.ok(standingOrderService.runDueOrders(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.shaka.funding.controller;
+
+import com.shaka.funding.dto.TraceResponse;
+import com.shaka.funding.service.TraceService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/traces")
+@Tag(name = "Trace Controller", description = "Endpoints for inspecting sampled request traces")
+public class TraceController {
+
+    private final TraceService traceService;
+
+    /**
+     * Endpoint to fetch one trace, e.g. from the X-Trace-Id response header
+     * @param traceId ID of the trace
+     * @return TraceResponse with every span and the time spent per layer
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/{traceId}")
+    @Operation(summary = "Get trace", description = "Returns the spans of a sampled trace and the time spent per layer")
+    public ResponseEntity<TraceResponse> getTrace(@PathVariable String traceId) {
+        return ResponseEntity.ok(traceService.getTrace(traceId));
+    }
+
+    /**
+     * Endpoint to list recent traces, optionally only the slow ones
+     * @param limit Maximum number of traces to return
+     * @param minDurationMs Only return traces at least this long
+     * @return List of TraceResponse summaries, most recent first
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping
+    @Operation(summary = "List recent traces", description = "Returns recent sampled traces with their time per layer")
+    public ResponseEntity<List<TraceResponse>> getRecentTraces(@RequestParam(defaultValue = "20") int limit,
+                                                               @RequestParam(defaultValue = "0") double minDurationMs) {
+        return ResponseEntity.ok(traceService.getRecentTraces(limit, minDurationMs));
+    }
+}
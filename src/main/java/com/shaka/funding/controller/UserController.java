@@ -1,13 +1,23 @@
 package com.shaka.funding.controller;
 
 import com.shaka.funding.dto.*;
+import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.service.AccountAggregateService;
+import com.shaka.funding.service.TransactionService;
+import com.shaka.funding.service.UserImportService;
 import com.shaka.funding.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/user")
 @Slf4j
@@ -15,9 +25,16 @@ import org.springframework.security.access.prepost.PreAuthorize;
 public class UserController {
 
     private final UserService userService;
+    private final AccountAggregateService accountAggregateService;
+    private final UserImportService userImportService;
+    private final TransactionService transactionService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, AccountAggregateService accountAggregateService,
+                          UserImportService userImportService, TransactionService transactionService) {
         this.userService = userService;
+        this.accountAggregateService = accountAggregateService;
+        this.userImportService = userImportService;
+        this.transactionService = transactionService;
     }
 
     @PostMapping("/create")
@@ -29,6 +46,22 @@ public class UserController {
         return response;
     }
 
+    /**
+     * Endpoint to onboard users in bulk
+     * @param contentType text/csv with a header row of UserRequest field names, or application/x-ndjson
+     * @param upload the rows, read as a stream
+     * @return UserImportResponse with row counts, per-row errors and rows per second
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Bulk import users", description = "Creates an account for every valid row of a CSV or NDJSON upload")
+    public UserImportResponse importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream upload) {
+        log.info("Received user import upload of type {}", contentType);
+        UserImportResponse response = userImportService.importUsers(upload, contentType);
+        log.info("Response for user import: {} rows imported, {} failed", response.getImportedRows(), response.getFailedRows());
+        return response;
+    }
+
     @PostMapping("/login")
     @Operation(summary = "Login user", description = "Logs in a user with the provided credentials")
     public BankResponse login(@RequestBody LoginRequest userRequest) {
@@ -49,8 +82,8 @@ public class UserController {
     }
 
     @PreAuthorize("hasRole('ADMIN')")
-    @PutMapping("/update")
-    @Operation(summary = "Update account details", description = "Updates account details with the provided information")
+    @RequestMapping(value = "/update", method = {RequestMethod.PUT, RequestMethod.PATCH})
+    @Operation(summary = "Update account details", description = "Updates the provided fields of the account; omitted fields are left unchanged")
     public BankResponse updateAccount(@RequestBody UserRequest userRequest) {
         log.info("Received request to update account with accountNumber: {}", userRequest.getAccountNumber());
         BankResponse response = userService.updateAccount(userRequest);
@@ -96,4 +129,41 @@ public class UserController {
         log.info("Received request to debit account with accountNumber: {}", request.getAccountNumber());
         return userService.debitAccount(request);
     }
-}
\ No newline at end of file
+
+    /**
+     * Endpoint to list an account's transactions, including archived ones
+     * @param accountNumber Account number
+     * @param from First day of the range
+     * @param to Last day of the range, inclusive
+     * @return The transactions of the range in date and time order
+     */
+    @PreAuthorize("hasRole('ADMIN') or @accountAccess.isOwner(authentication, #accountNumber)")
+    @GetMapping("/transactions")
+    @Operation(summary = "Transaction history", description = "Returns the transactions of the provided account number dated within a range")
+    public List<Transaction> getTransactions(@RequestParam String accountNumber,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return transactionService.getTransactions(accountNumber, from, to);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/aggregates")
+    @Operation(summary = "Account aggregates", description = "Returns activity figures for the provided account number: credits and debits over "
+            + "the last 24 hours up to now, and turnover over the last 30 calendar days including today. Served from "
+            + "the transaction rollups, which /aggregates/rebuild rebuilds")
+    public AccountAggregateResponse getAggregates(@RequestParam String accountNumber) {
+        return accountAggregateService.getAggregates(accountNumber);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/aggregates/rebuild")
+    @Operation(summary = "Rebuild account aggregates", description = "Rebuilds the transaction rollups behind the aggregates from transaction history, for one account or all accounts")
+    public void rebuildAggregates(@RequestParam(required = false) String accountNumber) {
+        log.info("Received request to rebuild aggregates for accountNumber: {}", accountNumber);
+        if (accountNumber == null) {
+            accountAggregateService.rebuildAll();
+        } else {
+            accountAggregateService.rebuild(accountNumber);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccountAggregateResponse {
+    private String accountNumber;
+    private BigDecimal debitTotal24h; // the 24h figures cover the 24 hours up to the request
+    private Long debitCount24h;
+    private BigDecimal creditTotal24h;
+    private Long creditCount24h;
+    private BigDecimal turnover30d; // credits + debits over today and the 29 days before it
+    private Long transactionCount30d;
+}
@@ -11,6 +11,7 @@ public class AccountInfo {
 
     private String accountName;
     private BigDecimal accountBalance;
+    private BigDecimal availableBalance;
     private String accountNumber;
     private String token;
 
@@ -0,0 +1,20 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AccrualStatusResponse {
+    private Boolean running;
+    private LocalDate lastCompletedDate;
+    private Long lagDays; // days between the last completed accrual date and yesterday
+    private Long loansAccruedInCurrentRun;
+    private BatchRunResponse lastRun;
+}
@@ -0,0 +1,27 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchiveRunResponse {
+    private String status; // e.g., "COMPLETED", "RUNNING"
+    private LocalDate archivedBefore; // transactions dated before this day were archived
+    private Long segments;
+    private Long transactions;
+    private Long accounts;
+    private Long sizeBytes; // on disk
+    private Long rawBytes; // column data before compression
+    private Long conflicts; // segments discarded because their rows changed while being written
+    private Long durationMs;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
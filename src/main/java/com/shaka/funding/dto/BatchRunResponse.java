@@ -0,0 +1,24 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRunResponse {
+    private String jobName;
+    private String runKey;
+    private String status; // e.g., "COMPLETED", "FAILED"
+    private Integer partitions;
+    private Long processed;
+    private Long durationMs;
+    private Double throughputPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,16 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldCaptureRequest {
+    private BigDecimal amount; // defaults to the full held amount; any remainder is released
+}
@@ -0,0 +1,19 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HoldRequest {
+    private String accountNumber;
+    private BigDecimal amount;
+    private String reference;
+    private Long expiresInSeconds; // defaults to holds.default-ttl
+}
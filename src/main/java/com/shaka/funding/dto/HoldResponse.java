@@ -0,0 +1,25 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HoldResponse {
+    private String responseCode;
+    private String responseMessage;
+    private String holdId;
+    private String accountNumber;
+    private BigDecimal amount;
+    private BigDecimal capturedAmount;
+    private String status;
+    private LocalDateTime expiresAt;
+    private BigDecimal availableBalance;
+}
@@ -19,6 +19,7 @@ public class LoanResponse {
     private BigDecimal interestRate;
     private Integer tenure; // in months
     private String status; // e.g., "APPLIED", "APPROVED", "REJECTED", "REPAID"
+    private Long pricingVersion;
 
     public LoanResponse(Loan loan) {
         this.id = loan.getId();
@@ -27,5 +28,6 @@ public class LoanResponse {
         this.interestRate = loan.getInterestRate();
         this.tenure = loan.getTenure();
         this.status = loan.getStatus();
+        this.pricingVersion = loan.getPricingVersion();
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxEventMessage {
+    private Long id; // increases in commit order within a shard
+    private Integer shard;
+    private String aggregateType;
+    private String aggregateKey;
+    private String eventType;
+    private String payload; // JSON
+    private LocalDateTime createdAt;
+}
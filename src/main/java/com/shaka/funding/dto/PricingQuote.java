@@ -0,0 +1,21 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable result of a pricing lookup. Instances are built once when a rule set is compiled
+ * and handed out as-is, so quoting never allocates.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class PricingQuote {
+    private final long version;
+    private final String segment;
+    private final BigDecimal interestRate; // percentage, e.g. 5 for 5%
+    private final BigDecimal rateFraction; // interestRate / 100, e.g. 0.05
+}
@@ -0,0 +1,19 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PricingRuleRequest {
+    private String segment;
+    private Integer maxTenure; // in months, inclusive; null means no upper bound
+    private BigDecimal maxAmount; // inclusive; null means no upper bound
+    private BigDecimal interestRate; // percentage
+}
@@ -0,0 +1,16 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RebalanceRequest {
+    private Long lowerBound; // inclusive account shard key
+    private Long upperBound; // exclusive
+    private Integer targetShard;
+}
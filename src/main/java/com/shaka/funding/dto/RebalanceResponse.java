@@ -0,0 +1,22 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RebalanceResponse {
+    private Long lowerBound;
+    private Long upperBound;
+    private Integer targetShard;
+    private Long movedUsers;
+    private Long movedTransactions;
+    private Long durationMs;
+    private List<ShardRangeDto> ranges;
+}
@@ -0,0 +1,28 @@
+package com.shaka.funding.dto;
+
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationResponse {
+    private LocalDate businessDate;
+    private String status; // "COMPLETED", "FAILED" or "RUNNING"
+    private Integer partitions;
+    private Long accountsChecked; // by this call; a resumed run skips accounts already checked
+    private Long discrepancyCount;
+    private List<ReconciliationDiscrepancy> discrepancies; // capped; discrepancyCount has the full count
+    private Long durationMs;
+    private Double throughputPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
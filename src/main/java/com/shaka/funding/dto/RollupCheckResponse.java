@@ -0,0 +1,23 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupCheckResponse {
+    private String status; // "CONSISTENT", "INCONSISTENT", "REPAIRED" or "RUNNING"
+    private LocalDate from;
+    private LocalDate to;
+    private Long accountsChecked;
+    private Long mismatchCount;
+    private List<RollupMismatch> mismatches; // capped; mismatchCount has the full count
+    private Long durationMs;
+}
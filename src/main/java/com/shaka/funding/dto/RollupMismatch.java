@@ -0,0 +1,27 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupMismatch {
+    private String accountNumber;
+    private LocalDate date;
+    private String granularity; // which rollup disagrees with the ledger: "HOUR" (summed per day) or "DAY"
+    private BigDecimal ledgerInflowAmount;
+    private Long ledgerInflowCount;
+    private BigDecimal ledgerOutflowAmount;
+    private Long ledgerOutflowCount;
+    private BigDecimal rollupInflowAmount;
+    private Long rollupInflowCount;
+    private BigDecimal rollupOutflowAmount;
+    private Long rollupOutflowCount;
+}
@@ -0,0 +1,19 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardingResponse {
+    private Integer shardCount;
+    private List<ShardRangeDto> ranges;
+    private Map<Integer, Long> accountsPerShard;
+}
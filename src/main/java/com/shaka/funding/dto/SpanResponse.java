@@ -0,0 +1,21 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpanResponse {
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    private Double startOffsetMs; // relative to the start of the trace
+    private Double durationMs;
+    private Map<String, String> attributes;
+}
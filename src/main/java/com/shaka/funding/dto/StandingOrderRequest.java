@@ -0,0 +1,24 @@
+package com.shaka.funding.dto;
+
+import com.shaka.funding.entity.PaymentFrequency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StandingOrderRequest {
+    private String debitAccountNumber; // omit for a scheduled credit
+    private String creditAccountNumber; // omit for a scheduled payment out
+    private BigDecimal amount;
+    private PaymentFrequency frequency;
+    private LocalDate startDate; // defaults to today
+    private LocalDate endDate;
+    private String reference;
+}
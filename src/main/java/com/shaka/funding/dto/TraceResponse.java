@@ -0,0 +1,21 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TraceResponse {
+    private String traceId;
+    private String rootName;
+    private Double durationMs;
+    private Map<String, Double> timeByLayerMs; // self time per layer, e.g. "auth", "service", "sql"
+    private List<SpanResponse> spans;
+}
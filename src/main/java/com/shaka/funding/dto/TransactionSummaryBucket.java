@@ -0,0 +1,21 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionSummaryBucket {
+    private LocalDateTime periodStart;
+    private BigDecimal inflowAmount;
+    private Long inflowCount;
+    private BigDecimal outflowAmount;
+    private Long outflowCount;
+}
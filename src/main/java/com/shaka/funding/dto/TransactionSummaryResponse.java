@@ -0,0 +1,27 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TransactionSummaryResponse {
+    private String accountNumber;
+    private LocalDate from;
+    private LocalDate to;
+    private String interval; // "HOUR", "DAY", "MONTH" or "TOTAL"
+    private BigDecimal inflowAmount; // credits
+    private Long inflowCount;
+    private BigDecimal outflowAmount; // debits
+    private Long outflowCount;
+    private BigDecimal netAmount;
+    private List<TransactionSummaryBucket> buckets; // periods with activity only; empty for TOTAL
+}
@@ -0,0 +1,16 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportError {
+    private Long line; // 1-based line of the upload, counting the CSV header
+    private String email;
+    private String message;
+}
@@ -0,0 +1,23 @@
+package com.shaka.funding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResponse {
+    private String status; // e.g., "COMPLETED", "FAILED", "RUNNING"
+    private Long totalRows;
+    private Long importedRows;
+    private Long failedRows;
+    private Long durationMs;
+    private Double rowsPerSecond;
+    private List<UserImportError> errors;
+    private Boolean errorsTruncated; // more rows failed than are listed in errors
+}
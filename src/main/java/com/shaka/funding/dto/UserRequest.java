@@ -25,5 +25,6 @@ public class UserRequest {
         private String password;
         private String phoneNumber;
         private String alternativePhoneNumber;
+        private String pricingSegment; // only applied by the admin update, ignored on account creation
 
 }
@@ -0,0 +1,37 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The balance of an account, kept apart from the user profile so postings lock and rewrite a
+ * narrow row while profile reads and updates go to {@code tbl_user}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_account_balance")
+public class AccountBalance implements AccountScoped {
+    @Id
+    private String accountNumber;
+    private BigDecimal balance;
+    private BigDecimal heldAmount; // sum of the account's active fund holds
+    @Version
+    private Long version; // also tells Spring Data a new row apart from an existing one
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    /**
+     * Ledger balance less the funds reserved by active holds, which is what postings may spend.
+     */
+    public BigDecimal availableBalance() {
+        return heldAmount == null ? balance : balance.subtract(heldAmount);
+    }
+}
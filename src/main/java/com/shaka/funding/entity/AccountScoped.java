@@ -0,0 +1,8 @@
+package com.shaka.funding.entity;
+
+/**
+ * Entity that belongs to one account and therefore lives on that account's shard.
+ */
+public interface AccountScoped {
+    String getAccountNumber();
+}
@@ -0,0 +1,40 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Catalog entry of one archive segment file holding transactions moved out of tbl_transaction.
+ * Each shard catalogs the segments cut from its own rows; a segment is only read once its entry has
+ * committed, in the same transaction that deleted the archived rows.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_archive_segment")
+public class ArchiveSegment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    // relative to archive.dir
+    @Column(unique = true)
+    private String fileName;
+    // every transaction of the segment is dated before this day
+    private LocalDate archivedBefore;
+    private String minAccountNumber;
+    private String maxAccountNumber;
+    private LocalDate minDate;
+    private LocalDate maxDate;
+    private Long rowCount;
+    private Long accountCount;
+    private Long sizeBytes;
+    // uncompressed size of the column data, for the compression ratio
+    private Long rawBytes;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,26 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Net amount (credits less debits) and count of an account's archived transactions, updated in the
+ * transaction that deletes them from tbl_transaction so ledger totals can carry them forward.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_archived_balance")
+public class ArchivedBalance implements AccountScoped {
+    @Id
+    private String accountNumber;
+    private BigDecimal archivedNet;
+    private Long archivedCount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,47 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_batch_checkpoint", indexes = @Index(name = "idx_checkpoint_job_run", columnList = "jobName,runKey"))
+public class BatchCheckpoint implements Persistable<String> {
+    @Id
+    private String id; // jobName:runKey:partitionIndex
+    private String jobName; // e.g., "LOAN_ACCRUAL"
+    private String runKey; // e.g., the business date of the run
+    private Integer partitionIndex;
+    private Long lowerBound; // exclusive
+    private Long upperBound; // inclusive
+    private Long lastProcessedId;
+    private Long processedCount;
+    private String status; // e.g., "RUNNING", "COMPLETED"
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    // the id is assigned, so without this save() would merge over another node's checkpoint instead of inserting
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean created = true;
+
+    @Override
+    public boolean isNew() {
+        return created;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        created = false;
+    }
+}
@@ -0,0 +1,34 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Credits (inflow) and debits (outflow) of one account on one day; always the sum of the day's
+ * {@link HourlyTransactionRollup} rows, kept separately so long ranges read one row per day.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_transaction_rollup_daily",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_daily_account_bucket",
+                columnNames = {"accountNumber", "bucketDate"}))
+public class DailyTransactionRollup implements AccountScoped {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String accountNumber;
+    private LocalDate bucketDate;
+    private BigDecimal inflowAmount;
+    private Long inflowCount;
+    private BigDecimal outflowAmount;
+    private Long outflowCount;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Funds reserved on an account until they are captured, released or the hold expires. The sum of
+ * an account's active holds is kept on its {@link AccountBalance} row.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_fund_hold",
+        indexes = {
+                @Index(name = "idx_fund_hold_account_status", columnList = "accountNumber,status"),
+                @Index(name = "idx_fund_hold_status_id", columnList = "status,holdId"),
+                @Index(name = "idx_fund_hold_status_expires", columnList = "status,expiresAt")
+        })
+public class FundHold implements AccountScoped {
+    @Id
+    private String holdId; // assigned on creation so the expiry timer can be keyed before the insert
+    private String accountNumber;
+    private BigDecimal amount;
+    private BigDecimal capturedAmount;
+    private String status; // "ACTIVE", "CAPTURED", "RELEASED", "EXPIRED"
+    private String reference; // caller's reference, e.g. a card authorization code
+    private LocalDateTime expiresAt;
+    @Version
+    private Long version; // also tells Spring Data a new row apart from an existing one
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
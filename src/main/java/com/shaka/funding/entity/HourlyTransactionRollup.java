@@ -0,0 +1,35 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Credits (inflow) and debits (outflow) of one account within one hour, kept up to date by every
+ * posting's transaction. The unique key is also the index range summaries scan.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_transaction_rollup_hourly",
+        uniqueConstraints = @UniqueConstraint(name = "uk_rollup_hourly_account_bucket",
+                columnNames = {"accountNumber", "bucketDate", "bucketHour"}))
+public class HourlyTransactionRollup implements AccountScoped {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String accountNumber;
+    private LocalDate bucketDate;
+    private Integer bucketHour; // 0-23
+    private BigDecimal inflowAmount;
+    private Long inflowCount;
+    private BigDecimal outflowAmount;
+    private Long outflowCount;
+    private LocalDateTime updatedAt;
+}
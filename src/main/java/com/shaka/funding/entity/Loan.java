@@ -2,10 +2,13 @@ package com.shaka.funding.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Getter
@@ -14,7 +17,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_loan")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "loan")
+@Table(name = "tbl_loan", indexes = @Index(name = "idx_loan_status_id", columnList = "status,id"))
 public class Loan {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,8 +28,14 @@ public class Loan {
     private BigDecimal amount;
     private BigDecimal interestRate;
     private Integer tenure; // in months
-    private String status; // e.g., "APPLIED", "APPROVED", "REJECTED", "REPAID"
+    private String status; // e.g., "APPLIED", "APPROVED", "OVERDUE", "REJECTED", "REPAID"
     private BigDecimal totalAmount;
+    private String segment;
+    private Long pricingVersion; // version of the pricing rules used to quote this loan
+    private BigDecimal accruedInterest;
+    private BigDecimal outstandingBalance; // amount + accruedInterest - repayments
+    private LocalDate lastAccruedDate;
+    private LocalDate approvedDate; // interest accrues from this day on
     @CreationTimestamp
     private LocalDateTime createdAt;
     @UpdateTimestamp
@@ -0,0 +1,29 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_loan_accrual",
+        uniqueConstraints = @UniqueConstraint(name = "uk_accrual_loan_date", columnNames = {"loanId", "accrualDate"}),
+        indexes = @Index(name = "idx_accrual_date", columnList = "accrualDate"))
+public class LoanAccrual {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long loanId;
+    private LocalDate accrualDate;
+    private BigDecimal amount;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
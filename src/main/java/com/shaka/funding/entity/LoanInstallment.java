@@ -0,0 +1,42 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_loan_installment",
+        uniqueConstraints = @UniqueConstraint(name = "uk_installment_loan_seq", columnNames = {"loanId", "sequence"}),
+        indexes = {
+                @Index(name = "idx_installment_bucket_id", columnList = "accountBucket,id"),
+                @Index(name = "idx_installment_loan", columnList = "loanId")
+        })
+public class LoanInstallment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long loanId;
+    private Integer sequence; // 1..tenure
+    private String accountNumber; // borrower's account the installment is collected from
+    private Integer accountBucket; // AccountUtils.accountBucket(accountNumber, AccountUtils.ACCOUNT_BUCKETS)
+    private LocalDate dueDate;
+    private BigDecimal amountDue;
+    private BigDecimal amountCollected;
+    private String status; // e.g., "DUE", "PARTIAL", "FAILED", "PAID"
+    private Integer attempts;
+    private LocalDate lastAttemptDate;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
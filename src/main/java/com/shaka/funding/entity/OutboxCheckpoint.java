@@ -0,0 +1,24 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far the relay has published a shard's outbox. The relay locks this row while publishing a
+ * batch, so only one node relays a shard at a time.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_outbox_checkpoint")
+public class OutboxCheckpoint {
+    @Id
+    private String id;
+    private Long lastPublishedId;
+    private LocalDateTime updatedAt;
+}
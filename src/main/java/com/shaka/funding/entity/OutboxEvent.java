@@ -0,0 +1,29 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event written in the same transaction as the state change it describes, on the same shard,
+ * and published later by the outbox relay in id order.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_outbox_event", indexes = @Index(name = "idx_outbox_created", columnList = "createdAt"))
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String aggregateType; // e.g., "ACCOUNT", "LOAN"
+    private String aggregateKey; // account number or loan id; events of one key are delivered in order
+    private String eventType; // e.g., "ACCOUNT_CREDITED"
+    @Column(length = 4000)
+    private String payload; // JSON
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,23 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox id the relay moved past without seeing its event. The relay keeps looking for the id
+ * until the gap retention runs out, so a writer that committed late still gets its event published.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_outbox_gap", indexes = @Index(name = "idx_outbox_gap_created", columnList = "createdAt"))
+public class OutboxGap {
+    @Id
+    private Long id; // the missing tbl_outbox_event id
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.shaka.funding.entity;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public enum PaymentFrequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY;
+
+    /**
+     * The occurrence after {@code occurrence} of a schedule starting on {@code startDate}. Monthly
+     * schedules stay anchored to the start date's day, so one started on the 31st pays on the
+     * last day of shorter months and on the 31st again afterwards.
+     */
+    public LocalDate next(LocalDate startDate, LocalDate occurrence) {
+        return switch (this) {
+            case DAILY -> occurrence.plusDays(1);
+            case WEEKLY -> occurrence.plusWeeks(1);
+            case MONTHLY -> startDate.plusMonths(
+                    ChronoUnit.MONTHS.between(startDate.withDayOfMonth(1), occurrence.withDayOfMonth(1)) + 1);
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_pricing_rule", indexes = @Index(name = "idx_pricing_rule_version", columnList = "version"))
+public class PricingRule {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long version;
+    private String segment; // e.g., "STANDARD", "PREMIUM"
+    private Integer maxTenure; // in months, inclusive; null means no upper bound
+    private BigDecimal maxAmount; // inclusive; null means no upper bound
+    private BigDecimal interestRate; // percentage, e.g. 5 for 5%
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_pricing_rule_set",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pricing_rule_set_version", columnNames = "version"))
+public class PricingRuleSet {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long version; // one row per published version; the rules carry the same number
+    private Integer ruleCount;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,35 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An account whose stored balance disagreed with its transaction ledger in a reconciliation run.
+ * Written with the run's checkpoint, so a resumed run neither loses nor repeats an account.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_reconciliation_discrepancy",
+        indexes = @Index(name = "idx_discrepancy_date_account", columnList = "businessDate,accountNumber"))
+public class ReconciliationDiscrepancy {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private LocalDate businessDate;
+    private String accountNumber;
+    private BigDecimal balance; // tbl_account_balance.balance
+    private BigDecimal ledgerBalance; // credits less debits, archived transactions included
+    private BigDecimal difference; // balance less ledgerBalance
+    private Long transactionCount;
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
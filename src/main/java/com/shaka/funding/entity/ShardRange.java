@@ -0,0 +1,25 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_shard_range")
+public class ShardRange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long lowerBound; // inclusive account shard key
+    private Long upperBound; // exclusive
+    private Integer shardIndex;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A recurring instruction: a transfer when both accounts are set, a scheduled payment out when
+ * only the debit account is set, and a scheduled credit when only the credit account is set.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_standing_order",
+        indexes = {
+                @Index(name = "idx_standing_order_bucket_id", columnList = "accountBucket,id"),
+                @Index(name = "idx_standing_order_due", columnList = "status,nextRunDate"),
+                @Index(name = "idx_standing_order_debit", columnList = "debitAccountNumber"),
+                @Index(name = "idx_standing_order_credit", columnList = "creditAccountNumber")
+        })
+public class StandingOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String debitAccountNumber;
+    private String creditAccountNumber;
+    private Integer accountBucket; // bucket of the debit account, or of the credit account when there is none
+    private BigDecimal amount;
+    @Enumerated(EnumType.STRING)
+    private PaymentFrequency frequency;
+    private LocalDate startDate;
+    private LocalDate endDate; // last day an occurrence may fall on, open-ended when null
+    private LocalDate nextRunDate; // the occurrence waiting to be executed
+    private LocalDateTime nextAttemptAt; // set while a failed occurrence waits for its retry
+    private Integer failedAttempts; // failed attempts of the current occurrence
+    private String lastFailureReason;
+    private String reference;
+    private String status; // e.g., "ACTIVE", "COMPLETED", "CANCELLED"
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,34 @@
+package com.shaka.funding.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one occurrence of a standing order. The unique key makes a second execution of the
+ * same occurrence fail even if two nodes got past the row lock.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "tbl_standing_order_execution",
+        uniqueConstraints = @UniqueConstraint(name = "uk_execution_order_occurrence",
+                columnNames = {"standingOrderId", "occurrenceDate"}))
+public class StandingOrderExecution {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long standingOrderId;
+    private LocalDate occurrenceDate;
+    private BigDecimal amount;
+    private String status; // "SUCCESS", or "FAILED" once the retries are used up
+    private Integer attempts;
+    private String failureReason;
+    private LocalDateTime executedAt;
+}
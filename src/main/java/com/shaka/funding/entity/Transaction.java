@@ -13,8 +13,10 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_transaction")
-public class Transaction {
+// serves account history and the per-account rollup backfill and consistency check
+@Table(name = "tbl_transaction",
+        indexes = @Index(name = "idx_transaction_account_date", columnList = "accountNumber,transactionDate"))
+public class Transaction implements AccountScoped {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String transactionId;
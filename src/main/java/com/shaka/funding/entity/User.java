@@ -1,12 +1,15 @@
 package com.shaka.funding.entity;
 
 
+import com.shaka.funding.utils.AccountUtils;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Getter
@@ -15,8 +18,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tbl_user")
-public class User {
+@DynamicUpdate // profile syncs usually change a field or two; write only those columns
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@Table(name = "tbl_user", indexes = @Index(name = "idx_user_shard_key", columnList = "shardKey"))
+public class User implements AccountScoped {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -27,7 +33,7 @@ public class User {
     private String address;
     private String StateOfOrigin;
     private String accountNumber;
-    private BigDecimal accountBalance;
+    private Long shardKey; // AccountUtils.accountShardKey(accountNumber), so shard moves can scan a key range
     private String email;
     private String phoneNumber;
     private String alternativePhoneNumber;
@@ -35,9 +41,17 @@ public class User {
     private String password;
     @Enumerated(EnumType.STRING)
     private Role role;
+    private String pricingSegment; // priced as STANDARD when null; assigned by staff, never by the customer
     @CreationTimestamp
     private LocalDateTime createdAt;
     @UpdateTimestamp
     private LocalDateTime modifyAt;
+
+    @PrePersist
+    void assignShardKey() {
+        if (shardKey == null && accountNumber != null) {
+            shardKey = AccountUtils.accountShardKey(accountNumber);
+        }
+    }
 }
 
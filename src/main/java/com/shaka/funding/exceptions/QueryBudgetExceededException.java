@@ -0,0 +1,16 @@
+package com.shaka.funding.exceptions;
+
+import java.util.List;
+
+public class QueryBudgetExceededException extends RuntimeException {
+    private final List<String> statements;
+
+    public QueryBudgetExceededException(String message, List<String> statements) {
+        super(message);
+        this.statements = statements;
+    }
+
+    public List<String> getStatements() {
+        return statements;
+    }
+}
@@ -1,7 +1,11 @@
 package com.shaka.funding.exceptions;
 
+/**
+ * Expected business outcome (unknown account, duplicate email, ...). Thrown and caught on hot
+ * paths, so it skips capturing a stack trace.
+ */
 public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
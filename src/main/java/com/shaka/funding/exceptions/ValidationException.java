@@ -6,7 +6,8 @@ public class ValidationException extends RuntimeException {
     private List<String> errors;
 
     public ValidationException(String message, List<String> errors) {
-        super(message);
+        // a rejected request, not a bug: skip the stack trace
+        super(message, null, false, false);
         this.errors = errors;
     }
 
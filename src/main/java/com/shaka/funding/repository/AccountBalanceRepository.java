@@ -0,0 +1,20 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.config.ShardKey;
+import com.shaka.funding.entity.AccountBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, String> {
+
+    AccountBalance findByAccountNumber(@ShardKey String accountNumber);
+    // locks the balance row for the rest of the transaction, used by postings
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from AccountBalance b where b.accountNumber = :accountNumber")
+    AccountBalance findByAccountNumberForUpdate(@ShardKey String accountNumber);
+    @Transactional
+    long deleteByAccountNumber(@ShardKey String accountNumber);
+}
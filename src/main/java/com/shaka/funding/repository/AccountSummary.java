@@ -0,0 +1,15 @@
+package com.shaka.funding.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Profile name and balance of an account, read in one query for enquiries.
+ */
+public interface AccountSummary {
+    String getAccountNumber();
+    String getFirstName();
+    String getLastName();
+    String getOtherName();
+    BigDecimal getAccountBalance();
+    BigDecimal getHeldAmount();
+}
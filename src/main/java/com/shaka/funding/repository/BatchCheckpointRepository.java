@@ -0,0 +1,18 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.BatchCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface BatchCheckpointRepository extends JpaRepository<BatchCheckpoint, String> {
+    List<BatchCheckpoint> findByJobNameAndRunKeyOrderByPartitionIndex(String jobName, String runKey);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from BatchCheckpoint c where c.id = :id")
+    Optional<BatchCheckpoint> findByIdForUpdate(String id);
+}
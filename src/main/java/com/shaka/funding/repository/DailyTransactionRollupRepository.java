@@ -0,0 +1,13 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.config.ShardKey;
+import com.shaka.funding.entity.DailyTransactionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyTransactionRollupRepository extends JpaRepository<DailyTransactionRollup, Long> {
+    List<DailyTransactionRollup> findByAccountNumberAndBucketDateBetweenOrderByBucketDate(
+            @ShardKey String accountNumber, LocalDate from, LocalDate to);
+}
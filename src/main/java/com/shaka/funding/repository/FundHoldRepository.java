@@ -0,0 +1,19 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.config.ShardKey;
+import com.shaka.funding.entity.FundHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+public interface FundHoldRepository extends JpaRepository<FundHold, String> {
+
+    // hold ids do not say where the account lives, so this lookup is sent to every shard
+    @Query("select h.accountNumber from FundHold h where h.holdId = :holdId")
+    String findAccountNumberByHoldId(String holdId);
+    // taken after the account's balance row lock, in the same order as every other posting
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from FundHold h where h.holdId = :holdId and h.accountNumber = :accountNumber")
+    FundHold findByHoldIdForUpdate(String holdId, @ShardKey String accountNumber);
+}
@@ -0,0 +1,13 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.config.ShardKey;
+import com.shaka.funding.entity.HourlyTransactionRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface HourlyTransactionRollupRepository extends JpaRepository<HourlyTransactionRollup, Long> {
+    List<HourlyTransactionRollup> findByAccountNumberAndBucketDateBetweenOrderByBucketDateAscBucketHourAsc(
+            @ShardKey String accountNumber, LocalDate from, LocalDate to);
+}
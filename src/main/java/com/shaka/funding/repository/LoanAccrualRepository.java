@@ -0,0 +1,16 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.LoanAccrual;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LoanAccrualRepository extends JpaRepository<LoanAccrual, Long> {
+    List<LoanAccrual> findByLoanIdOrderByAccrualDate(Long loanId);
+
+    @Query("select coalesce(sum(a.amount), 0) from LoanAccrual a where a.accrualDate between :from and :to")
+    BigDecimal sumAmountBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,18 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.LoanInstallment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment, Long> {
+    List<LoanInstallment> findByLoanIdOrderBySequence(Long loanId);
+    Boolean existsByLoanId(Long loanId);
+
+    @Query("select min(i.id) from LoanInstallment i where i.status <> 'PAID'")
+    Long findMinOpenId();
+
+    @Query("select max(i.id) from LoanInstallment i where i.status <> 'PAID'")
+    Long findMaxOpenId();
+}
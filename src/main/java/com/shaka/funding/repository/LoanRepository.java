@@ -1,10 +1,33 @@
 package com.shaka.funding.repository;
 
 import com.shaka.funding.entity.Loan;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface LoanRepository extends JpaRepository<Loan, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Loan> findByUserId(Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from Loan l where l.id = :id")
+    Optional<Loan> findByIdForUpdate(Long id);
+
+    @Query("select min(l.id) from Loan l where l.status in :statuses")
+    Long findMinIdByStatusIn(Collection<String> statuses);
+
+    @Query("select max(l.id) from Loan l where l.status in :statuses")
+    Long findMaxIdByStatusIn(Collection<String> statuses);
+
+    @Query("select min(l.lastAccruedDate) from Loan l where l.status in :statuses")
+    LocalDate findMinLastAccruedDateByStatusIn(Collection<String> statuses);
 }
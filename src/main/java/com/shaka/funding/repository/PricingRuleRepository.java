@@ -0,0 +1,15 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.PricingRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface PricingRuleRepository extends JpaRepository<PricingRule, Long> {
+
+    @Query("select max(r.version) from PricingRule r")
+    Long findLatestVersion();
+
+    List<PricingRule> findByVersion(Long version);
+}
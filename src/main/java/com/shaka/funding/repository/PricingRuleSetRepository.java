@@ -0,0 +1,7 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.PricingRuleSet;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PricingRuleSetRepository extends JpaRepository<PricingRuleSet, Long> {
+}
@@ -0,0 +1,14 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+    List<ReconciliationDiscrepancy> findByBusinessDateOrderByAccountNumber(LocalDate businessDate, Pageable pageable);
+
+    long countByBusinessDate(LocalDate businessDate);
+}
@@ -0,0 +1,11 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.ShardRange;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ShardRangeRepository extends JpaRepository<ShardRange, Long> {
+
+    List<ShardRange> findAllByOrderByLowerBound();
+}
@@ -0,0 +1,10 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.StandingOrderExecution;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface StandingOrderExecutionRepository extends JpaRepository<StandingOrderExecution, Long> {
+    List<StandingOrderExecution> findByStandingOrderIdOrderByOccurrenceDate(Long standingOrderId);
+}
@@ -0,0 +1,26 @@
+package com.shaka.funding.repository;
+
+import com.shaka.funding.entity.StandingOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+    List<StandingOrder> findByDebitAccountNumberOrCreditAccountNumberOrderById(String debitAccountNumber, String creditAccountNumber);
+
+    @Query("select min(o.id) from StandingOrder o where o.status = 'ACTIVE' and o.nextRunDate <= :date")
+    Long findMinDueId(LocalDate date);
+
+    @Query("select max(o.id) from StandingOrder o where o.status = 'ACTIVE' and o.nextRunDate <= :date")
+    Long findMaxDueId(LocalDate date);
+
+    // a targeted update, so cancelling never writes back schedule fields a running wave just advanced
+    @Transactional
+    @Modifying
+    @Query("update StandingOrder o set o.status = 'CANCELLED' where o.id = :id and o.status = 'ACTIVE'")
+    int cancel(Long id);
+}
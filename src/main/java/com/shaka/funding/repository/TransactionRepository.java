@@ -1,11 +1,15 @@
 package com.shaka.funding.repository;
 
 
+import com.shaka.funding.config.ShardKey;
 import com.shaka.funding.entity.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 public interface TransactionRepository extends JpaRepository<Transaction, String> {
-    List<Transaction> findByAccountNumber(String accountNumber);
+    List<Transaction> findByAccountNumber(@ShardKey String accountNumber);
+
+    List<Transaction> findByAccountNumberAndTransactionDateBetween(@ShardKey String accountNumber, LocalDate from, LocalDate to);
 }
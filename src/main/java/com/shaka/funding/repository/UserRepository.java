@@ -1,15 +1,35 @@
 package com.shaka.funding.repository;
 
 
+import com.shaka.funding.config.ShardKey;
 import com.shaka.funding.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
         Boolean existsByEmail(String email);
         User findByEmail(String email);
-        Boolean existsByAccountNumber (String accountNumber);
-        User findByAccountNumber(String accountNumber);
-        //deleteByAccountNumber
-        void deleteByAccountNumber(String accountNumber);
+        // cached: tbl_user only changes on profile updates now that balances live elsewhere
+        @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+        User findByAccountNumber(@ShardKey String accountNumber);
+        @Query("select u.accountNumber as accountNumber, u.firstName as firstName, u.lastName as lastName, "
+                + "u.otherName as otherName, b.balance as accountBalance, b.heldAmount as heldAmount "
+                + "from User u join AccountBalance b on b.accountNumber = u.accountNumber "
+                + "where u.accountNumber = :accountNumber")
+        AccountSummary findSummaryByAccountNumber(@ShardKey String accountNumber);
+        @Query("select u.email from User u where u.email in :emails")
+        List<String> findExistingEmails(Collection<String> emails);
+        @Query("select u.accountNumber from User u where u.accountNumber in :accountNumbers")
+        List<String> findExistingAccountNumbers(Collection<String> accountNumbers);
+        //deleteByAccountNumber, returns the number of rows removed
+        @Transactional
+        long deleteByAccountNumber(@ShardKey String accountNumber);
 }
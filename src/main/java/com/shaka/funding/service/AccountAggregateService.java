@@ -0,0 +1,9 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.AccountAggregateResponse;
+
+public interface AccountAggregateService {
+    AccountAggregateResponse getAggregates(String accountNumber);
+    void rebuild(String accountNumber);
+    long rebuildAll();
+}
@@ -0,0 +1,11 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.AccrualStatusResponse;
+import com.shaka.funding.dto.BatchRunResponse;
+
+import java.time.LocalDate;
+
+public interface AccrualService {
+    BatchRunResponse runAccrual(LocalDate accrualDate);
+    AccrualStatusResponse getStatus();
+}
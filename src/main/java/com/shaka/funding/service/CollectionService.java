@@ -0,0 +1,14 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.entity.LoanInstallment;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CollectionService {
+    List<LoanInstallment> scheduleInstallments(Loan loan);
+    BatchRunResponse runCollection(LocalDate businessDate);
+    List<LoanInstallment> getInstallments(Long loanId);
+}
@@ -0,0 +1,14 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.HoldRequest;
+import com.shaka.funding.dto.HoldResponse;
+
+import java.math.BigDecimal;
+
+public interface FundHoldService {
+    HoldResponse placeHold(HoldRequest request);
+    // amount may be null to capture the whole hold
+    HoldResponse captureHold(String holdId, BigDecimal amount);
+    HoldResponse releaseHold(String holdId);
+    HoldResponse getHold(String holdId);
+}
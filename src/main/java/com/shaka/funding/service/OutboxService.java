@@ -0,0 +1,20 @@
+package com.shaka.funding.service;
+
+import java.util.Map;
+
+public interface OutboxService {
+
+    String ACCOUNT = "ACCOUNT";
+    String LOAN = "LOAN";
+
+    String ACCOUNT_CREATED = "ACCOUNT_CREATED";
+    String ACCOUNT_CREDITED = "ACCOUNT_CREDITED";
+    String ACCOUNT_DEBITED = "ACCOUNT_DEBITED";
+    String LOAN_STATUS_CHANGED = "LOAN_STATUS_CHANGED";
+
+    /**
+     * Adds an event to the current transaction's outbox batch, written just before it commits.
+     * Outside a transaction the event is written straight away.
+     */
+    void record(String aggregateType, String aggregateKey, String eventType, Map<String, ?> payload);
+}
@@ -0,0 +1,14 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.OutboxEventMessage;
+
+import java.util.List;
+
+/**
+ * Destination of relayed outbox events, e.g. a message broker client. Batches arrive in commit
+ * order per shard, which keeps the events of every account and loan in order. A batch that throws
+ * is delivered again, so consumers should ignore event ids they have already seen.
+ */
+public interface OutboxSink {
+    void publish(List<OutboxEventMessage> events);
+}
@@ -0,0 +1,15 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.PricingQuote;
+import com.shaka.funding.dto.PricingResponse;
+import com.shaka.funding.dto.PricingRuleRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface PricingService {
+    PricingQuote quote(String segment, Integer tenure, BigDecimal amount);
+    PricingResponse publishRules(List<PricingRuleRequest> rules);
+    PricingResponse reload();
+    PricingResponse getActiveVersion();
+}
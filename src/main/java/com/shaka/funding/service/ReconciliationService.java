@@ -0,0 +1,26 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.ReconciliationResponse;
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Checks every account balance against the balance its transactions add up to.
+ */
+public interface ReconciliationService {
+
+    /**
+     * Reconciles all accounts, shard by shard, under the given business date. Runs checkpoint per
+     * partition; calling again for the same date resumes an interrupted run and leaves a completed
+     * one as it is.
+     */
+    ReconciliationResponse reconcile(LocalDate businessDate);
+
+    /**
+     * Discrepancies recorded for a business date, in account number order, capped at the
+     * configured maximum.
+     */
+    List<ReconciliationDiscrepancy> getDiscrepancies(LocalDate businessDate);
+}
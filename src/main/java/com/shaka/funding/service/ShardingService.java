@@ -0,0 +1,13 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.RebalanceRequest;
+import com.shaka.funding.dto.RebalanceResponse;
+import com.shaka.funding.dto.ShardingResponse;
+
+public interface ShardingService {
+    int shardFor(String accountNumber);
+    int getShardCount();
+    ShardingResponse getShardMap();
+    ShardingResponse reload();
+    RebalanceResponse rebalance(RebalanceRequest request);
+}
@@ -0,0 +1,17 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.StandingOrderRequest;
+import com.shaka.funding.entity.StandingOrder;
+import com.shaka.funding.entity.StandingOrderExecution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StandingOrderService {
+    StandingOrder createStandingOrder(StandingOrderRequest request);
+    StandingOrder cancelStandingOrder(Long id);
+    List<StandingOrder> getStandingOrders(String accountNumber);
+    List<StandingOrderExecution> getExecutions(Long standingOrderId);
+    BatchRunResponse runDueOrders(LocalDateTime waveTime);
+}
@@ -0,0 +1,10 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.TraceResponse;
+
+import java.util.List;
+
+public interface TraceService {
+    TraceResponse getTrace(String traceId);
+    List<TraceResponse> getRecentTraces(int limit, double minDurationMs);
+}
@@ -0,0 +1,31 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.ArchiveRunResponse;
+import com.shaka.funding.entity.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves old transactions out of tbl_transaction into compressed columnar segment files and reads
+ * them back for account history.
+ */
+public interface TransactionArchiveService {
+
+    /**
+     * Archives every transaction older than the configured minimum age, shard by shard. Runs are
+     * incremental; an interrupted run leaves only whole segments behind and is simply run again.
+     */
+    ArchiveRunResponse archive();
+
+    /**
+     * Archived transactions of an account dated within a range, in date and time order.
+     */
+    List<Transaction> findTransactions(String accountNumber, LocalDate from, LocalDate to);
+
+    /**
+     * First day from which every transaction is still in tbl_transaction on every shard;
+     * {@link LocalDate#EPOCH} while nothing has been archived.
+     */
+    LocalDate hotHorizon();
+}
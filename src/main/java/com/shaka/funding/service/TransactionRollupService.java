@@ -0,0 +1,37 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.RollupCheckResponse;
+import com.shaka.funding.dto.TransactionSummaryResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface TransactionRollupService {
+
+    String INTERVAL_HOUR = "HOUR";
+    String INTERVAL_DAY = "DAY";
+    String INTERVAL_MONTH = "MONTH";
+    String INTERVAL_TOTAL = "TOTAL";
+
+    /**
+     * Adds a posting to the current transaction's rollup deltas, applied just before it commits.
+     * Outside a transaction the rollups are updated straight away.
+     */
+    void record(String accountNumber, String transactionType, BigDecimal amount, LocalDateTime postedAt);
+
+    TransactionSummaryResponse getSummary(String accountNumber, LocalDate from, LocalDate to, String interval);
+
+    /**
+     * Rebuilds the rollups of one account, or of every account when {@code accountNumber} is null,
+     * from the transaction rows.
+     */
+    BatchRunResponse backfill(String accountNumber);
+
+    /**
+     * Compares the rollups of {@code from}..{@code to} with the transaction rows, optionally
+     * rebuilding the accounts that disagree.
+     */
+    RollupCheckResponse verify(LocalDate from, LocalDate to, boolean repair);
+}
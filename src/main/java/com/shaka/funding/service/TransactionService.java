@@ -2,8 +2,18 @@ package com.shaka.funding.service;
 
 
 import com.shaka.funding.dto.TransactionDto;
+import com.shaka.funding.entity.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
 
 public interface TransactionService {
     void saveTransaction(TransactionDto transactionDto);
 
+    /**
+     * An account's transactions dated within a range, from tbl_transaction and the archive alike,
+     * in date and time order.
+     */
+    List<Transaction> getTransactions(String accountNumber, LocalDate from, LocalDate to);
+
 }
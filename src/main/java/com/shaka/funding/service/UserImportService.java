@@ -0,0 +1,9 @@
+package com.shaka.funding.service;
+
+import com.shaka.funding.dto.UserImportResponse;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    UserImportResponse importUsers(InputStream upload, String contentType);
+}
@@ -0,0 +1,7 @@
+package com.shaka.funding.service;
+
+import java.math.BigDecimal;
+
+public interface VelocityService {
+    boolean tryDebit(String accountNumber, String userName, BigDecimal amount);
+}
@@ -0,0 +1,112 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.AccountAggregateResponse;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.service.AccountAggregateService;
+import com.shaka.funding.service.TransactionRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Serves rolling per-account aggregates from the hourly and daily transaction rollups: the 24h
+ * figures sum at most 24 hourly rows and the 30-day figures at most 30 daily rows, regardless of
+ * history size. The rollups commit with the postings they summarize, so every node reads the same
+ * figures and a rebuild is the rollup backfill.
+ * <p>
+ * The 24 hours end now, not on an hour boundary, so the hour bucket they start in is only partly
+ * inside the window; that hour is summed from the transactions themselves. The 30 days are whole
+ * calendar days: today and the 29 before it.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class AccountAggregateServiceImpl implements AccountAggregateService {
+
+    static final int HOURS = 24;
+    static final int DAYS = 30;
+
+    // hour buckets after the one 24 hours ago, i.e. the current hour and the 23 before it
+    private static final String SUM_HOURLY =
+            "select coalesce(sum(inflow_amount), 0) as inflow_amount, coalesce(sum(inflow_count), 0) as inflow_count, "
+                    + "coalesce(sum(outflow_amount), 0) as outflow_amount, coalesce(sum(outflow_count), 0) as outflow_count "
+                    + "from tbl_transaction_rollup_hourly where account_number = :accountNumber "
+                    + "and (bucket_date > :fromDate or (bucket_date = :fromDate and bucket_hour > :fromHour))";
+    // the part of the hour 24 hours ago that is still inside the window
+    private static final String SUM_EDGE_HOUR =
+            "select coalesce(sum(case when transaction_type = 'CREDIT' then transaction_amount else 0 end), 0) as inflow_amount, "
+                    + "coalesce(sum(case when transaction_type = 'CREDIT' then 1 else 0 end), 0) as inflow_count, "
+                    + "coalesce(sum(case when transaction_type = 'DEBIT' then transaction_amount else 0 end), 0) as outflow_amount, "
+                    + "coalesce(sum(case when transaction_type = 'DEBIT' then 1 else 0 end), 0) as outflow_count "
+                    + "from tbl_transaction where account_number = :accountNumber and transaction_date = :fromDate "
+                    + "and hour(transaction_time) = :fromHour and transaction_time >= :fromTime "
+                    + "and transaction_type in ('CREDIT', 'DEBIT')";
+    private static final String SUM_DAILY =
+            "select coalesce(sum(inflow_amount + outflow_amount), 0) as turnover, "
+                    + "coalesce(sum(inflow_count + outflow_count), 0) as transaction_count "
+                    + "from tbl_transaction_rollup_daily where account_number = :accountNumber and bucket_date > :fromDate";
+
+    private static final RowMapper<Flows> FLOWS = (rs, row) -> new Flows(
+            rs.getBigDecimal("inflow_amount"), rs.getLong("inflow_count"),
+            rs.getBigDecimal("outflow_amount"), rs.getLong("outflow_count"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionRollupService transactionRollupService;
+    private final ShardScope shardScope;
+
+    @Override
+    public AccountAggregateResponse getAggregates(String accountNumber) {
+        LocalDateTime windowStart = LocalDateTime.now().minusHours(HOURS);
+        LocalDate dayStart = LocalDate.now().minusDays(DAYS);
+        MapSqlParameterSource window = new MapSqlParameterSource()
+                .addValue("accountNumber", accountNumber)
+                .addValue("fromDate", Date.valueOf(windowStart.toLocalDate()))
+                .addValue("fromHour", windowStart.getHour())
+                .addValue("fromTime", Time.valueOf(windowStart.toLocalTime()));
+        return ShardContext.callOn(shardScope.shardFor(accountNumber), () -> {
+            Flows hours = jdbcTemplate.queryForObject(SUM_HOURLY, window, FLOWS);
+            Flows edge = jdbcTemplate.queryForObject(SUM_EDGE_HOUR, window, FLOWS);
+            AccountAggregateResponse.AccountAggregateResponseBuilder response = AccountAggregateResponse.builder()
+                    .accountNumber(accountNumber)
+                    .debitTotal24h(hours.outflowAmount().add(edge.outflowAmount()))
+                    .debitCount24h(hours.outflowCount() + edge.outflowCount())
+                    .creditTotal24h(hours.inflowAmount().add(edge.inflowAmount()))
+                    .creditCount24h(hours.inflowCount() + edge.inflowCount());
+            jdbcTemplate.query(SUM_DAILY, new MapSqlParameterSource()
+                            .addValue("accountNumber", accountNumber)
+                            .addValue("fromDate", Date.valueOf(dayStart)),
+                    (RowCallbackHandler) rs -> response.turnover30d(rs.getBigDecimal("turnover"))
+                            .transactionCount30d(rs.getLong("transaction_count")));
+            return response.build();
+        });
+    }
+
+    @Override
+    public void rebuild(String accountNumber) {
+        log.info("Rebuilding rolling aggregates for accountNumber: {}", accountNumber);
+        transactionRollupService.backfill(accountNumber);
+    }
+
+    @Override
+    public long rebuildAll() {
+        BatchRunResponse response = transactionRollupService.backfill(null);
+        return response.getProcessed() == null ? 0 : response.getProcessed();
+    }
+
+    private record Flows(BigDecimal inflowAmount, long inflowCount, BigDecimal outflowAmount, long outflowCount) {
+    }
+}
@@ -0,0 +1,210 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.EntityCacheEvictor;
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.dto.AccrualStatusResponse;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.repository.LoanRepository;
+import com.shaka.funding.service.AccrualService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class AccrualServiceImpl implements AccrualService {
+
+    static final String JOB_NAME = "LOAN_ACCRUAL";
+    static final List<String> ACTIVE_STATUSES = List.of("APPROVED", "OVERDUE");
+    static final int DAYS_PER_MONTH = 30;
+
+    // a loan accrues from the day it was approved; loans approved before approved_date existed fall back to creation
+    private static final String ACCRUING_SINCE = "coalesce(approved_date, cast(created_at as date))";
+    private static final String SELECT_CHUNK =
+            "select id, amount, total_amount, tenure, coalesce(accrued_interest, 0) as accrued_interest, "
+                    + "coalesce(outstanding_balance, amount) as outstanding_balance "
+                    + "from tbl_loan where status in ('APPROVED', 'OVERDUE') and id > ? and id <= ? "
+                    + "and (last_accrued_date is null or last_accrued_date < ?) "
+                    + "and " + ACCRUING_SINCE + " <= ? "
+                    + "order by id limit ?";
+    private static final String UPDATE_LOAN =
+            "update tbl_loan set accrued_interest = ?, outstanding_balance = ?, last_accrued_date = ? "
+                    + "where id = ? and (last_accrued_date is null or last_accrued_date < ?) "
+                    + "and " + ACCRUING_SINCE + " <= ?";
+    private static final String INSERT_ACCRUAL =
+            "insert into tbl_loan_accrual (loan_id, accrual_date, amount, created_at) values (?, ?, ?, ?)";
+
+    private final LoanRepository loanRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionedBatchRunner batchRunner;
+    private final MeterRegistry meterRegistry;
+    private final EntityCacheEvictor cacheEvictor;
+
+    @Value("${accrual.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${accrual.partitions:16}")
+    private int partitions;
+    @Value("${accrual.threads:8}")
+    private int threads;
+    @Value("${accrual.max-backfill-days:31}")
+    private int maxBackfillDays;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong currentRunAccrued = new AtomicLong();
+    private volatile LocalDate lastCompletedDate;
+    private volatile BatchRunResponse lastRun;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("funding.accrual.lag.days", this, service -> {
+                    LocalDate completed = service.lastCompletedDate;
+                    return completed == null ? Double.NaN : ChronoUnit.DAYS.between(completed, LocalDate.now().minusDays(1));
+                })
+                .description("Days between the last completed accrual date and yesterday")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Accrues the previous day's interest shortly after midnight, first catching up on any day
+     * since the oldest active loan was last accrued. Days run oldest first and the catch-up stops
+     * at the first day that does not complete, since a later day would skip it for good. A loan
+     * that has never accrued only joins the catch-up from its approval day.
+     */
+    @Scheduled(cron = "${accrual.cron:0 30 0 * * *}")
+    public void scheduledAccrual() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate oldest = loanRepository.findMinLastAccruedDateByStatusIn(ACTIVE_STATUSES);
+        LocalDate from = oldest == null ? yesterday : oldest.plusDays(1);
+        LocalDate earliest = yesterday.minusDays(maxBackfillDays - 1L);
+        if (from.isBefore(earliest)) {
+            log.warn("Accrual is behind since {}, only backfilling from {}", from, earliest);
+            from = earliest;
+        }
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            BatchRunResponse response = runAccrual(date);
+            if (!PartitionedBatchRunner.STATUS_COMPLETED.equals(response.getStatus())) {
+                log.warn("Accrual for {} ended {}, leaving later days for the next run", date, response.getStatus());
+                return;
+            }
+        }
+    }
+
+    @Override
+    public BatchRunResponse runAccrual(LocalDate accrualDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Accrual run already in progress, skipping request for {}", accrualDate);
+            return BatchRunResponse.builder()
+                    .jobName(JOB_NAME)
+                    .runKey(accrualDate.toString())
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        }
+        try {
+            currentRunAccrued.set(0);
+            Long minId = loanRepository.findMinIdByStatusIn(ACTIVE_STATUSES);
+            Long maxId = loanRepository.findMaxIdByStatusIn(ACTIVE_STATUSES);
+            BatchRunResponse response = batchRunner.run(JOB_NAME, accrualDate.toString(),
+                    minId == null ? 0 : minId, maxId == null ? -1 : maxId, partitions, threads,
+                    (partition, afterId, upperBound) -> accrueChunk(accrualDate, afterId, upperBound));
+            if (PartitionedBatchRunner.STATUS_COMPLETED.equals(response.getStatus())) {
+                lastCompletedDate = accrualDate;
+            }
+            lastRun = response;
+            return response;
+        } catch (DataIntegrityViolationException e) {
+            // another node created this date's checkpoints first; it runs the date
+            log.warn("Accrual for {} was started by another node", accrualDate);
+            return BatchRunResponse.builder()
+                    .jobName(JOB_NAME)
+                    .runKey(accrualDate.toString())
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PartitionedBatchRunner.ChunkResult accrueChunk(LocalDate accrualDate, long afterId, long upperBound) {
+        Date date = Date.valueOf(accrualDate);
+        List<Object[]> loanUpdates = new ArrayList<>();
+        List<Object[]> accrualInserts = new ArrayList<>();
+        List<Long> loanIds = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] lastId = {-1};
+
+        jdbcTemplate.query(SELECT_CHUNK, rs -> {
+            long id = rs.getLong("id");
+            lastId[0] = id;
+            BigDecimal daily = dailyAccrual(rs.getBigDecimal("amount"), rs.getBigDecimal("total_amount"),
+                    rs.getInt("tenure"), rs.getBigDecimal("accrued_interest"));
+            BigDecimal accrued = rs.getBigDecimal("accrued_interest").add(daily);
+            BigDecimal outstanding = rs.getBigDecimal("outstanding_balance").add(daily);
+            loanUpdates.add(new Object[]{accrued, outstanding, date, id, date, date});
+            loanIds.add(id);
+            if (daily.signum() > 0) {
+                accrualInserts.add(new Object[]{id, date, daily, now});
+            }
+        }, afterId, upperBound, date, date, chunkSize);
+
+        if (lastId[0] < 0) {
+            return PartitionedBatchRunner.ChunkResult.EMPTY;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_LOAN, loanUpdates);
+        cacheEvictor.evict(Loan.class, loanIds);
+        if (!accrualInserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ACCRUAL, accrualInserts);
+        }
+        currentRunAccrued.addAndGet(loanUpdates.size());
+        return new PartitionedBatchRunner.ChunkResult(lastId[0], loanUpdates.size());
+    }
+
+    /**
+     * Spreads the loan's total interest evenly over its tenure, never accruing past the total.
+     */
+    static BigDecimal dailyAccrual(BigDecimal amount, BigDecimal totalAmount, int tenure, BigDecimal accruedSoFar) {
+        if (amount == null || totalAmount == null || tenure <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal totalInterest = totalAmount.subtract(amount);
+        BigDecimal remaining = totalInterest.subtract(accruedSoFar);
+        if (remaining.signum() <= 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal daily = totalInterest.divide(BigDecimal.valueOf((long) tenure * DAYS_PER_MONTH), 4, RoundingMode.HALF_EVEN);
+        return daily.min(remaining);
+    }
+
+    @Override
+    public AccrualStatusResponse getStatus() {
+        LocalDate completed = lastCompletedDate;
+        return AccrualStatusResponse.builder()
+                .running(running.get())
+                .lastCompletedDate(completed)
+                .lagDays(completed == null ? null : ChronoUnit.DAYS.between(completed, LocalDate.now().minusDays(1)))
+                .loansAccruedInCurrentRun(currentRunAccrued.get())
+                .lastRun(lastRun)
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.dto.OutboxEventMessage;
+import com.shaka.funding.service.OutboxSink;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default sink: hands each event to in-process {@code @EventListener}s, in order. A broker client
+ * registered as another {@link OutboxSink} bean marked {@code @Primary} takes its place.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(List<OutboxEventMessage> events) {
+        events.forEach(eventPublisher::publishEvent);
+    }
+}
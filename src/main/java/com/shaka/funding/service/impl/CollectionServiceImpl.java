@@ -0,0 +1,378 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.EntityCacheEvictor;
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ReadYourWritesGuard;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.entity.LoanInstallment;
+import com.shaka.funding.entity.User;
+import com.shaka.funding.exceptions.ResourceNotFoundException;
+import com.shaka.funding.repository.LoanInstallmentRepository;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.CollectionService;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.TransactionRollupService;
+import com.shaka.funding.utils.AccountUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Collects due loan installments in one partition per account bucket. Installments and loans are
+ * global and live on shard 0, balances and postings on the account's shard: with sharding enabled
+ * each chunk debits every shard's accounts in a transaction on that shard, then records the
+ * outcome on the installments in the chunk's own transaction.
+ * <p>
+ * A debit's transaction id is derived from the installment and business date, so a chunk retried
+ * after its shard 0 transaction failed finds the debits it already posted and records them instead
+ * of collecting a second time.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class CollectionServiceImpl implements CollectionService {
+
+    static final String JOB_NAME = "LOAN_COLLECTION";
+
+    private static final String SELECT_DUE =
+            "select id, loan_id, account_number, amount_due, coalesce(amount_collected, 0) as amount_collected "
+                    + "from tbl_loan_installment where account_bucket = :bucket and id > :afterId and id <= :upperBound "
+                    + "and status <> 'PAID' and due_date <= :businessDate "
+                    + "and (last_attempt_date is null or last_attempt_date < :businessDate) "
+                    + "order by id limit :limit";
+    private static final String SELECT_POSTED =
+            "select transaction_id, transaction_amount from tbl_transaction where transaction_id in (:transactionIds)";
+    private static final String LOCK_BALANCES =
+            "select account_number, balance, coalesce(held_amount, 0) as held_amount from tbl_account_balance "
+                    + "where account_number in (:accountNumbers) for update";
+    private static final String UPDATE_BALANCE =
+            "update tbl_account_balance set balance = :balance, version = coalesce(version, 0) + 1, updated_at = :now "
+                    + "where account_number = :accountNumber";
+    private static final String INSERT_TRANSACTION =
+            "insert into tbl_transaction (transaction_id, transaction_type, transaction_date, transaction_time, "
+                    + "transaction_amount, account_number, status) "
+                    + "values (:transactionId, 'DEBIT', :transactionDate, :transactionTime, :amount, :accountNumber, 'SUCCESS')";
+    private static final String UPDATE_INSTALLMENT =
+            "update tbl_loan_installment set amount_collected = :amountCollected, status = :status, "
+                    + "attempts = coalesce(attempts, 0) + 1, last_attempt_date = :businessDate, updated_at = :now "
+                    + "where id = :id";
+    private static final String UPDATE_LOAN_BALANCE =
+            "update tbl_loan set outstanding_balance = coalesce(outstanding_balance, amount) - :collected where id = :id";
+    private static final String SELECT_LOAN_INSTALLMENT_STATE =
+            "select i.loan_id, l.user_id, l.status, sum(case when i.status <> 'PAID' then 1 else 0 end) as open_count, "
+                    + "sum(case when i.status <> 'PAID' and i.due_date <= :businessDate then 1 else 0 end) as overdue_count "
+                    + "from tbl_loan_installment i join tbl_loan l on l.id = i.loan_id "
+                    + "where i.loan_id in (:loanIds) group by i.loan_id, l.user_id, l.status";
+    private static final String UPDATE_LOAN_STATUS =
+            "update tbl_loan set status = :status where id = :id and status in ('APPROVED', 'OVERDUE')";
+
+    private final LoanInstallmentRepository installmentRepository;
+    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PartitionedBatchRunner batchRunner;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final ShardScope shardScope;
+    private final EntityCacheEvictor cacheEvictor;
+    private final OutboxService outboxService;
+    private final TransactionRollupService transactionRollupService;
+
+    @Value("${collection.chunk-size:500}")
+    private int chunkSize;
+    @Value("${collection.threads:8}")
+    private int threads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate shardTemplate;
+
+    @PostConstruct
+    void init() {
+        // a transaction of its own, so the debits neither join nor pin the runner's checkpoint transaction
+        shardTemplate = new TransactionTemplate(transactionManager);
+        shardTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public List<LoanInstallment> scheduleInstallments(Loan loan) {
+        log.info("Scheduling {} installments for loanId: {}", loan.getTenure(), loan.getId());
+        User borrower = userRepository.findById(loan.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Borrower not found for loan " + loan.getId()));
+
+        int tenure = loan.getTenure();
+        BigDecimal total = loan.getTotalAmount();
+        BigDecimal regular = total.divide(BigDecimal.valueOf(tenure), 2, RoundingMode.DOWN);
+        LocalDate start = LocalDate.now();
+        int bucket = AccountUtils.accountBucket(borrower.getAccountNumber(), AccountUtils.ACCOUNT_BUCKETS);
+
+        List<LoanInstallment> installments = new ArrayList<>(tenure);
+        for (int i = 1; i <= tenure; i++) {
+            // the last installment absorbs the rounding remainder
+            BigDecimal amountDue = i < tenure ? regular : total.subtract(regular.multiply(BigDecimal.valueOf(tenure - 1)));
+            installments.add(LoanInstallment.builder()
+                    .loanId(loan.getId())
+                    .sequence(i)
+                    .accountNumber(borrower.getAccountNumber())
+                    .accountBucket(bucket)
+                    .dueDate(start.plusMonths(i))
+                    .amountDue(amountDue)
+                    .amountCollected(BigDecimal.ZERO)
+                    .status("DUE")
+                    .attempts(0)
+                    .build());
+        }
+        return installmentRepository.saveAll(installments);
+    }
+
+    @Scheduled(cron = "${collection.cron:0 0 6 * * *}")
+    public void scheduledCollection() {
+        runCollection(LocalDate.now());
+    }
+
+    @Override
+    public BatchRunResponse runCollection(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Collection run already in progress, skipping request for {}", businessDate);
+            return BatchRunResponse.builder()
+                    .jobName(JOB_NAME)
+                    .runKey(businessDate.toString())
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        }
+        try {
+            Long minId = installmentRepository.findMinOpenId();
+            Long maxId = installmentRepository.findMaxOpenId();
+            // one partition per account bucket: a worker owns every installment of its accounts
+            return batchRunner.runByKey(JOB_NAME, businessDate.toString(),
+                    minId == null ? 0 : minId, maxId == null ? -1 : maxId, AccountUtils.ACCOUNT_BUCKETS, threads,
+                    (bucket, afterId, upperBound) -> collectChunk(businessDate, bucket, afterId, upperBound));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public List<LoanInstallment> getInstallments(Long loanId) {
+        return installmentRepository.findByLoanIdOrderBySequence(loanId);
+    }
+
+    private PartitionedBatchRunner.ChunkResult collectChunk(LocalDate businessDate, int bucket, long afterId, long upperBound) {
+        Date date = Date.valueOf(businessDate);
+        List<DueInstallment> due = jdbcTemplate.query(SELECT_DUE, new MapSqlParameterSource()
+                        .addValue("bucket", bucket)
+                        .addValue("afterId", afterId)
+                        .addValue("upperBound", upperBound)
+                        .addValue("businessDate", date)
+                        .addValue("limit", chunkSize),
+                (rs, rowNum) -> new DueInstallment(rs.getLong("id"), rs.getLong("loan_id"), rs.getString("account_number"),
+                        rs.getBigDecimal("amount_due"), rs.getBigDecimal("amount_collected")));
+        if (due.isEmpty()) {
+            return PartitionedBatchRunner.ChunkResult.EMPTY;
+        }
+
+        // shard (or null without sharding) -> installments debiting accounts there
+        Map<Integer, List<DueInstallment>> byShard = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (DueInstallment installment : due) {
+            byShard.computeIfAbsent(shardScope.shardFor(installment.accountNumber()), key -> new ArrayList<>()).add(installment);
+        }
+        Map<Long, BigDecimal> collected = new HashMap<>();
+        for (Map.Entry<Integer, List<DueInstallment>> group : byShard.entrySet()) {
+            collected.putAll(onAccountShard(group.getKey(), () -> debit(date, group.getValue())));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> installmentUpdates = new ArrayList<>(due.size());
+        Map<Long, BigDecimal> collectedByLoan = new HashMap<>();
+        for (DueInstallment installment : due) {
+            BigDecimal remaining = installment.amountDue().subtract(installment.amountCollected());
+            BigDecimal amount = collected.getOrDefault(installment.id(), BigDecimal.ZERO);
+
+            String status;
+            if (amount.compareTo(remaining) == 0) {
+                status = "PAID";
+            } else if (amount.signum() > 0) {
+                status = "PARTIAL";
+            } else {
+                status = "FAILED";
+            }
+            if (amount.signum() > 0) {
+                collectedByLoan.merge(installment.loanId(), amount, BigDecimal::add);
+            }
+            installmentUpdates.add(new MapSqlParameterSource()
+                    .addValue("amountCollected", installment.amountCollected().add(amount))
+                    .addValue("status", status)
+                    .addValue("businessDate", date)
+                    .addValue("now", now)
+                    .addValue("id", installment.id()));
+        }
+
+        if (!collectedByLoan.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LOAN_BALANCE, collectedByLoan.entrySet().stream()
+                    .map(entry -> new MapSqlParameterSource()
+                            .addValue("collected", entry.getValue())
+                            .addValue("id", entry.getKey()))
+                    .toArray(MapSqlParameterSource[]::new));
+        }
+        jdbcTemplate.batchUpdate(UPDATE_INSTALLMENT, installmentUpdates.toArray(MapSqlParameterSource[]::new));
+        refreshLoanStatuses(date, due);
+
+        return new PartitionedBatchRunner.ChunkResult(due.get(due.size() - 1).id(), due.size());
+    }
+
+    /**
+     * Debits what each installment's account can pay, on the accounts' shard, and returns the amount
+     * collected per installment id. Installments whose debit was already posted by an earlier
+     * attempt of the chunk report that debit.
+     */
+    private Map<Long, BigDecimal> debit(Date date, List<DueInstallment> installments) {
+        Map<String, DueInstallment> byTransactionId = new HashMap<>();
+        installments.forEach(installment -> byTransactionId.put(transactionId(installment.id(), date), installment));
+        Map<Long, BigDecimal> collected = new HashMap<>();
+        jdbcTemplate.query(SELECT_POSTED, Map.of("transactionIds", byTransactionId.keySet()),
+                rs -> {
+                    collected.put(byTransactionId.get(rs.getString("transaction_id")).id(), rs.getBigDecimal("transaction_amount"));
+                });
+
+        // Lock the chunk's accounts once; other buckets never touch these rows.
+        Set<String> accountNumbers = new HashSet<>();
+        installments.forEach(installment -> accountNumbers.add(installment.accountNumber()));
+        Map<String, BigDecimal> balances = new HashMap<>();
+        Map<String, BigDecimal> held = new HashMap<>();
+        jdbcTemplate.query(LOCK_BALANCES, Map.of("accountNumbers", accountNumbers),
+                rs -> {
+                    balances.put(rs.getString("account_number"), rs.getBigDecimal("balance"));
+                    held.put(rs.getString("account_number"), rs.getBigDecimal("held_amount"));
+                });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Time time = Time.valueOf(now.toLocalDateTime().toLocalTime());
+        List<MapSqlParameterSource> transactions = new ArrayList<>();
+        Set<String> debitedAccounts = new HashSet<>();
+
+        for (DueInstallment installment : installments) {
+            if (collected.containsKey(installment.id())) {
+                continue;
+            }
+            BigDecimal remaining = installment.amountDue().subtract(installment.amountCollected());
+            // funds reserved by holds are not collectable
+            BigDecimal balance = balances.getOrDefault(installment.accountNumber(), BigDecimal.ZERO);
+            BigDecimal available = balance.subtract(held.getOrDefault(installment.accountNumber(), BigDecimal.ZERO))
+                    .max(BigDecimal.ZERO);
+            BigDecimal amount = remaining.min(available);
+            collected.put(installment.id(), amount);
+            if (amount.signum() <= 0) {
+                continue;
+            }
+
+            String transactionId = transactionId(installment.id(), date);
+            balances.put(installment.accountNumber(), balance.subtract(amount));
+            debitedAccounts.add(installment.accountNumber());
+            transactions.add(new MapSqlParameterSource()
+                    .addValue("transactionId", transactionId)
+                    .addValue("transactionDate", date)
+                    .addValue("transactionTime", time)
+                    .addValue("amount", amount)
+                    .addValue("accountNumber", installment.accountNumber()));
+            transactionRollupService.record(installment.accountNumber(), "DEBIT", amount, now.toLocalDateTime());
+            outboxService.record(OutboxService.ACCOUNT, installment.accountNumber(), OutboxService.ACCOUNT_DEBITED,
+                    Map.of("transactionId", transactionId,
+                            "accountNumber", installment.accountNumber(),
+                            "amount", amount,
+                            "postedAt", now.toLocalDateTime().toString()));
+            readYourWritesGuard.recordWrite(installment.accountNumber());
+        }
+
+        if (!debitedAccounts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, debitedAccounts.stream()
+                    .map(accountNumber -> new MapSqlParameterSource()
+                            .addValue("balance", balances.get(accountNumber))
+                            .addValue("now", now)
+                            .addValue("accountNumber", accountNumber))
+                    .toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions.toArray(MapSqlParameterSource[]::new));
+        }
+        return collected;
+    }
+
+    // without sharding the debits stay in the chunk's transaction
+    private <T> T onAccountShard(Integer shard, Supplier<T> work) {
+        return shard == null ? work.get() : ShardContext.callOn(shard, () -> shardTemplate.execute(status -> work.get()));
+    }
+
+    // a name-based UUID, so the archive can still pack it and a retry derives the same id
+    static String transactionId(long installmentId, Date businessDate) {
+        return UUID.nameUUIDFromBytes((JOB_NAME + ":" + installmentId + ":" + businessDate)
+                .getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Marks loans REPAID once every installment is paid, OVERDUE while any due installment is
+     * still open, and back to APPROVED when arrears are cleared.
+     */
+    private void refreshLoanStatuses(Date businessDate, List<DueInstallment> due) {
+        Set<Long> loanIds = new HashSet<>();
+        due.forEach(installment -> loanIds.add(installment.loanId()));
+
+        List<MapSqlParameterSource> updates = new ArrayList<>();
+        jdbcTemplate.query(SELECT_LOAN_INSTALLMENT_STATE, new MapSqlParameterSource()
+                        .addValue("businessDate", businessDate)
+                        .addValue("loanIds", loanIds),
+                rs -> {
+                    String current = rs.getString("status");
+                    String status;
+                    if (rs.getLong("open_count") == 0) {
+                        status = "REPAID";
+                    } else if (rs.getLong("overdue_count") > 0) {
+                        status = "OVERDUE";
+                    } else {
+                        status = "APPROVED";
+                    }
+                    // only loans in repayment move, and only a real change is written and published
+                    if (!("APPROVED".equals(current) || "OVERDUE".equals(current)) || status.equals(current)) {
+                        return;
+                    }
+                    long loanId = rs.getLong("loan_id");
+                    updates.add(new MapSqlParameterSource()
+                            .addValue("status", status)
+                            .addValue("id", loanId));
+                    outboxService.record(OutboxService.LOAN, String.valueOf(loanId), OutboxService.LOAN_STATUS_CHANGED,
+                            Map.of("loanId", loanId,
+                                    "userId", rs.getLong("user_id"),
+                                    "previousStatus", current,
+                                    "status", status));
+                });
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_LOAN_STATUS, updates.toArray(MapSqlParameterSource[]::new));
+        }
+        // covers the outstanding balances written by the caller as well
+        cacheEvictor.evict(Loan.class, loanIds);
+    }
+
+    private record DueInstallment(long id, long loanId, String accountNumber, BigDecimal amountDue,
+                                  BigDecimal amountCollected) {
+    }
+}
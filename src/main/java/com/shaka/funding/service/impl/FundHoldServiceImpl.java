@@ -0,0 +1,447 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.QueryBudget;
+import com.shaka.funding.config.ReadYourWritesGuard;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.HoldRequest;
+import com.shaka.funding.dto.HoldResponse;
+import com.shaka.funding.dto.TransactionDto;
+import com.shaka.funding.entity.AccountBalance;
+import com.shaka.funding.entity.FundHold;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.FundHoldRepository;
+import com.shaka.funding.service.FundHoldService;
+import com.shaka.funding.service.TransactionService;
+import com.shaka.funding.service.VelocityService;
+import com.shaka.funding.utils.AccountUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Holds reserve funds on an account: the held amount counts against the available balance until
+ * the hold is captured (debited), released, or expires.
+ * <p>
+ * Expiry runs off an in-memory {@link HashedTimerWheel} rather than a scheduled scan of the table:
+ * a hold is put on the wheel when its creation commits and taken off when it is captured or
+ * released, so the hot path never queries for due holds. The wheel is loaded from the active holds
+ * once on startup. A node only times the holds it created or loaded; when another node closes one
+ * first, the expiry finds it no longer active and does nothing.
+ * <p>
+ * A sweep of the table for active holds past their expiry backs the wheel up: it catches holds no
+ * running node is timing, e.g. ones created by a node that has since gone away.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class FundHoldServiceImpl implements FundHoldService {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_CAPTURED = "CAPTURED";
+    public static final String STATUS_RELEASED = "RELEASED";
+    public static final String STATUS_EXPIRED = "EXPIRED";
+
+    private static final String SELECT_ACTIVE =
+            "select hold_id, account_number, expires_at from tbl_fund_hold "
+                    + "where status = 'ACTIVE' and hold_id > ? order by hold_id limit ?";
+    private static final String SELECT_OVERDUE =
+            "select hold_id, account_number from tbl_fund_hold "
+                    + "where status = 'ACTIVE' and expires_at < ? and hold_id > ? order by hold_id limit ?";
+    private static final int LOAD_PAGE_SIZE = 10_000;
+    private static final Duration EXPIRY_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final FundHoldRepository fundHoldRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionService transactionService;
+    private final VelocityService velocityService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+
+    @Value("${holds.default-ttl:7d}")
+    private Duration defaultTtl;
+    @Value("${holds.max-ttl:30d}")
+    private Duration maxTtl;
+    @Value("${holds.timer.tick:1s}")
+    private Duration tick;
+    @Value("${holds.timer.wheel-size:65536}")
+    private int wheelSize;
+
+    // pending expiry of each hold this node times, so capture and release can cancel it
+    private final Map<String, HashedTimerWheel.Timeout<HoldKey>> timers = new ConcurrentHashMap<>();
+    private HashedTimerWheel<HoldKey> wheel;
+    private ExecutorService expiryExecutor;
+
+    @PostConstruct
+    void startWheel() {
+        // the wheel thread only hands expired holds over; the database work runs here
+        expiryExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "hold-expiry"));
+        wheel = new HashedTimerWheel<>("hold-timer-wheel", tick, wheelSize, this::onExpired);
+        Gauge.builder("funding.holds.scheduled", wheel, HashedTimerWheel::size)
+                .description("Active holds waiting on the expiry timer wheel")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stopWheel() {
+        wheel.stop();
+        expiryExecutor.shutdownNow();
+    }
+
+    /**
+     * Puts every active hold on the timer wheel, reading each shard by hold id in pages. Holds
+     * that expired while no node was running fire on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleActiveHolds() {
+        long start = System.currentTimeMillis();
+        long scheduled = 0;
+        for (Integer shard : shardScope.shards()) {
+            scheduled += ShardContext.callOn(shard, this::scheduleActiveHoldsOnShard);
+        }
+        log.info("Scheduled expiry of {} active holds in {} ms", scheduled, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Expires active holds whose expiry has passed, shard by shard in pages of hold ids. Each hold
+     * is expired the same way as from the wheel, so a hold closed in the meantime is left alone.
+     */
+    @Scheduled(cron = "${holds.sweep-cron:0 */5 * * * *}")
+    public void sweepExpiredHolds() {
+        long swept = 0;
+        for (Integer shard : shardScope.shards()) {
+            swept += ShardContext.callOn(shard, this::sweepExpiredHoldsOnShard);
+        }
+        if (swept > 0) {
+            log.warn("Expiry sweep found {} overdue holds the timer wheel had not expired", swept);
+            meterRegistry.counter("funding.holds.swept").increment(swept);
+        }
+    }
+
+    @Override
+    @QueryBudget(3)
+    @Transactional
+    public HoldResponse placeHold(HoldRequest request) {
+        log.info("Starting hold for accountNumber: {}", request.getAccountNumber());
+        try {
+            if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+                return failure(AccountUtils.HOLD_AMOUNT_INVALID_CODE, AccountUtils.HOLD_AMOUNT_INVALID_MESSAGE);
+            }
+            AccountBalance balance = accountBalanceRepository.findByAccountNumberForUpdate(request.getAccountNumber());
+            if (balance == null) {
+                log.warn("Account with accountNumber {} does not exist", request.getAccountNumber());
+                return failure(AccountUtils.ACCOUNT_NOT_EXIST_CODE, AccountUtils.ACCOUNT_NOT_EXIST_MESSAGE);
+            }
+            if (balance.availableBalance().compareTo(request.getAmount()) < 0) {
+                log.warn("Insufficient balance for accountNumber: {}", request.getAccountNumber());
+                return failure(AccountUtils.INSUFFICIENT_BALANCE_CODE, AccountUtils.INSUFFICIENT_BALANCE_MESSAGE);
+            }
+            // holds count towards debit limits when placed, not again when captured; reserved last
+            // so a rejected hold does not count and a rollback gives the reservation back
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userName = authentication == null ? null : authentication.getName();
+            if (!velocityService.tryDebit(request.getAccountNumber(), userName, request.getAmount())) {
+                log.warn("Velocity limit exceeded for accountNumber: {}", request.getAccountNumber());
+                return failure(AccountUtils.VELOCITY_LIMIT_EXCEEDED_CODE, AccountUtils.VELOCITY_LIMIT_EXCEEDED_MESSAGE);
+            }
+            balance.setHeldAmount(heldAmount(balance).add(request.getAmount()));
+            accountBalanceRepository.save(balance);
+            FundHold hold = fundHoldRepository.save(FundHold.builder()
+                    .holdId(UUID.randomUUID().toString())
+                    .accountNumber(request.getAccountNumber())
+                    .amount(request.getAmount())
+                    .status(STATUS_ACTIVE)
+                    .reference(request.getReference())
+                    .expiresAt(LocalDateTime.now().plus(ttl(request.getExpiresInSeconds())))
+                    .build());
+            readYourWritesGuard.recordWrite(request.getAccountNumber());
+            HoldKey key = new HoldKey(hold.getHoldId(), hold.getAccountNumber());
+            afterCommit(() -> {
+                schedule(key, hold.getExpiresAt());
+                meterRegistry.counter("funding.holds", "result", "placed").increment();
+            });
+            log.info("Hold {} placed on accountNumber: {}", hold.getHoldId(), request.getAccountNumber());
+            return response(AccountUtils.HOLD_PLACED_CODE, AccountUtils.HOLD_PLACED_MESSAGE, hold, balance);
+        } catch (Exception e) {
+            log.error("Unexpected error while placing hold", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return failure(AccountUtils.HOLD_FAILURE_CODE, AccountUtils.HOLD_FAILURE_MESSAGE);
+        }
+    }
+
+    @Override
+    @QueryBudget(9)
+    @Transactional
+    public HoldResponse captureHold(String holdId, BigDecimal amount) {
+        log.info("Starting capture of hold {}", holdId);
+        try {
+            LockedHold locked = lock(holdId);
+            if (locked == null) {
+                return failure(AccountUtils.HOLD_NOT_FOUND_CODE, AccountUtils.HOLD_NOT_FOUND_MESSAGE);
+            }
+            FundHold hold = locked.hold();
+            AccountBalance balance = locked.balance();
+            if (!isLive(hold, balance)) {
+                return response(AccountUtils.HOLD_NOT_ACTIVE_CODE, AccountUtils.HOLD_NOT_ACTIVE_MESSAGE, hold, balance);
+            }
+            BigDecimal captured = amount == null ? hold.getAmount() : amount;
+            if (captured.signum() <= 0 || captured.compareTo(hold.getAmount()) > 0) {
+                return response(AccountUtils.HOLD_AMOUNT_INVALID_CODE, AccountUtils.HOLD_AMOUNT_INVALID_MESSAGE, hold, balance);
+            }
+            // the whole hold comes off the held amount; an uncaptured remainder is released
+            balance.setBalance(balance.getBalance().subtract(captured));
+            close(hold, balance, STATUS_CAPTURED);
+            hold.setCapturedAmount(captured);
+            accountBalanceRepository.save(balance);
+            fundHoldRepository.save(hold);
+            transactionService.saveTransaction(TransactionDto.builder()
+                    .accountNumber(hold.getAccountNumber())
+                    .transactionAmount(captured)
+                    .transactionType("DEBIT")
+                    .transactionDate(LocalDateTime.now())
+                    .build());
+            log.info("Hold {} captured for {} on accountNumber: {}", holdId, captured, hold.getAccountNumber());
+            return response(AccountUtils.HOLD_CAPTURED_CODE, AccountUtils.HOLD_CAPTURED_MESSAGE, hold, balance);
+        } catch (Exception e) {
+            log.error("Unexpected error while capturing hold {}", holdId, e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return failure(AccountUtils.HOLD_FAILURE_CODE, AccountUtils.HOLD_FAILURE_MESSAGE);
+        }
+    }
+
+    @Override
+    @QueryBudget(5)
+    @Transactional
+    public HoldResponse releaseHold(String holdId) {
+        log.info("Starting release of hold {}", holdId);
+        try {
+            LockedHold locked = lock(holdId);
+            if (locked == null) {
+                return failure(AccountUtils.HOLD_NOT_FOUND_CODE, AccountUtils.HOLD_NOT_FOUND_MESSAGE);
+            }
+            FundHold hold = locked.hold();
+            AccountBalance balance = locked.balance();
+            if (!isLive(hold, balance)) {
+                return response(AccountUtils.HOLD_NOT_ACTIVE_CODE, AccountUtils.HOLD_NOT_ACTIVE_MESSAGE, hold, balance);
+            }
+            close(hold, balance, STATUS_RELEASED);
+            accountBalanceRepository.save(balance);
+            fundHoldRepository.save(hold);
+            log.info("Hold {} released on accountNumber: {}", holdId, hold.getAccountNumber());
+            return response(AccountUtils.HOLD_RELEASED_CODE, AccountUtils.HOLD_RELEASED_MESSAGE, hold, balance);
+        } catch (Exception e) {
+            log.error("Unexpected error while releasing hold {}", holdId, e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return failure(AccountUtils.HOLD_FAILURE_CODE, AccountUtils.HOLD_FAILURE_MESSAGE);
+        }
+    }
+
+    @Override
+    public HoldResponse getHold(String holdId) {
+        FundHold hold = fundHoldRepository.findById(holdId).orElse(null);
+        if (hold == null) {
+            return failure(AccountUtils.HOLD_NOT_FOUND_CODE, AccountUtils.HOLD_NOT_FOUND_MESSAGE);
+        }
+        AccountBalance balance = accountBalanceRepository.findByAccountNumber(hold.getAccountNumber());
+        return response(AccountUtils.HOLD_FOUND_CODE, AccountUtils.HOLD_FOUND_MESSAGE, hold, balance);
+    }
+
+    private long scheduleActiveHoldsOnShard() {
+        long scheduled = 0;
+        String afterHoldId = "";
+        while (true) {
+            List<String> page = jdbcTemplate.query(SELECT_ACTIVE, (rs, rowNum) -> {
+                String holdId = rs.getString("hold_id");
+                schedule(new HoldKey(holdId, rs.getString("account_number")), rs.getTimestamp("expires_at").toLocalDateTime());
+                return holdId;
+            }, afterHoldId, LOAD_PAGE_SIZE);
+            scheduled += page.size();
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return scheduled;
+            }
+            afterHoldId = page.get(page.size() - 1);
+        }
+    }
+
+    private long sweepExpiredHoldsOnShard() {
+        long swept = 0;
+        String afterHoldId = "";
+        // holds due in the last minute are left to the wheel (or its retry) that is timing them
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(EXPIRY_RETRY_DELAY));
+        while (true) {
+            List<HoldKey> page = jdbcTemplate.query(SELECT_OVERDUE, (rs, rowNum) ->
+                    new HoldKey(rs.getString("hold_id"), rs.getString("account_number")), cutoff, afterHoldId, LOAD_PAGE_SIZE);
+            page.forEach(this::expire);
+            swept += page.size();
+            if (page.size() < LOAD_PAGE_SIZE) {
+                return swept;
+            }
+            afterHoldId = page.get(page.size() - 1).holdId();
+        }
+    }
+
+    // the hold's account number is looked up first so the balance row can be locked before the hold
+    private LockedHold lock(String holdId) {
+        String accountNumber = fundHoldRepository.findAccountNumberByHoldId(holdId);
+        if (accountNumber == null) {
+            return null;
+        }
+        AccountBalance balance = accountBalanceRepository.findByAccountNumberForUpdate(accountNumber);
+        FundHold hold = balance == null ? null : fundHoldRepository.findByHoldIdForUpdate(holdId, accountNumber);
+        return hold == null ? null : new LockedHold(hold, balance);
+    }
+
+    // an active hold past its expiry is expired here rather than waiting for the timer
+    private boolean isLive(FundHold hold, AccountBalance balance) {
+        if (!STATUS_ACTIVE.equals(hold.getStatus())) {
+            return false;
+        }
+        if (hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            return true;
+        }
+        close(hold, balance, STATUS_EXPIRED);
+        accountBalanceRepository.save(balance);
+        fundHoldRepository.save(hold);
+        return false;
+    }
+
+    private void close(FundHold hold, AccountBalance balance, String status) {
+        balance.setHeldAmount(heldAmount(balance).subtract(hold.getAmount()).max(BigDecimal.ZERO));
+        hold.setStatus(status);
+        readYourWritesGuard.recordWrite(hold.getAccountNumber());
+        String holdId = hold.getHoldId();
+        afterCommit(() -> {
+            HashedTimerWheel.Timeout<HoldKey> timeout = timers.remove(holdId);
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            meterRegistry.counter("funding.holds", "result", status.toLowerCase()).increment();
+        });
+    }
+
+    private void schedule(HoldKey key, LocalDateTime expiresAt) {
+        HashedTimerWheel.Timeout<HoldKey> previous =
+                timers.put(key.holdId(), wheel.schedule(key, Duration.between(LocalDateTime.now(), expiresAt)));
+        if (previous != null) {
+            previous.cancel();
+        }
+    }
+
+    private void onExpired(List<HoldKey> keys) {
+        keys.forEach(key -> timers.remove(key.holdId()));
+        expiryExecutor.execute(() -> keys.forEach(this::expire));
+    }
+
+    private void expire(HoldKey key) {
+        try {
+            // null once the hold is closed, or the time left if the clock says it is not due yet
+            Duration remaining = transactionTemplate.execute(status -> {
+                AccountBalance balance = accountBalanceRepository.findByAccountNumberForUpdate(key.accountNumber());
+                FundHold hold = balance == null ? null
+                        : fundHoldRepository.findByHoldIdForUpdate(key.holdId(), key.accountNumber());
+                if (hold == null || !STATUS_ACTIVE.equals(hold.getStatus())) {
+                    return null;
+                }
+                LocalDateTime now = LocalDateTime.now();
+                if (hold.getExpiresAt().isAfter(now)) {
+                    return Duration.between(now, hold.getExpiresAt());
+                }
+                close(hold, balance, STATUS_EXPIRED);
+                accountBalanceRepository.save(balance);
+                fundHoldRepository.save(hold);
+                log.info("Hold {} expired on accountNumber: {}", key.holdId(), key.accountNumber());
+                return null;
+            });
+            if (remaining != null) {
+                schedule(key, LocalDateTime.now().plus(remaining));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to expire hold {}, retrying in {}", key.holdId(), EXPIRY_RETRY_DELAY, e);
+            schedule(key, LocalDateTime.now().plus(EXPIRY_RETRY_DELAY));
+        }
+    }
+
+    private Duration ttl(Long expiresInSeconds) {
+        if (expiresInSeconds == null) {
+            return defaultTtl;
+        }
+        Duration ttl = Duration.ofSeconds(Math.max(0, expiresInSeconds));
+        return ttl.compareTo(maxTtl) > 0 ? maxTtl : ttl;
+    }
+
+    private static BigDecimal heldAmount(AccountBalance balance) {
+        return balance.getHeldAmount() == null ? BigDecimal.ZERO : balance.getHeldAmount();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static HoldResponse response(String code, String message, FundHold hold, AccountBalance balance) {
+        return HoldResponse.builder()
+                .responseCode(code)
+                .responseMessage(message)
+                .holdId(hold.getHoldId())
+                .accountNumber(hold.getAccountNumber())
+                .amount(hold.getAmount())
+                .capturedAmount(hold.getCapturedAmount())
+                .status(hold.getStatus())
+                .expiresAt(hold.getExpiresAt())
+                .availableBalance(balance == null ? null : balance.availableBalance())
+                .build();
+    }
+
+    private static HoldResponse failure(String code, String message) {
+        return HoldResponse.builder()
+                .responseCode(code)
+                .responseMessage(message)
+                .build();
+    }
+
+    private record HoldKey(String holdId, String accountNumber) {
+    }
+
+    private record LockedHold(FundHold hold, AccountBalance balance) {
+    }
+}
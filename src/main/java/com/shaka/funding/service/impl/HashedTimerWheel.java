@@ -0,0 +1,243 @@
+package com.shaka.funding.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: a ring of buckets, one per tick, where a timeout is hashed into the bucket
+ * of its deadline tick along with the number of full turns still to go. Scheduling and cancelling
+ * are O(1) and each tick visits a single bucket, so millions of timeouts cost no more per tick than
+ * the ones that happen to share its bucket.
+ * <p>
+ * One worker thread owns the buckets. Other threads hand new and cancelled timeouts over through
+ * lock-free queues that the worker drains at the start of each tick. Timeouts that expire on a
+ * tick are passed to the callback as one batch on the worker thread, so the callback should hand
+ * slow work off rather than delay the next tick.
+ */
+@Slf4j
+public final class HashedTimerWheel<T> {
+
+    // bounds the work one tick spends on a burst of new timeouts; the rest wait for the next tick
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket<T>[] buckets;
+    private final Consumer<List<T>> onExpiry;
+    private final Queue<Timeout<T>> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout<T>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final long startNanos;
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick; // worker thread only
+
+    @SuppressWarnings("unchecked")
+    public HashedTimerWheel(String name, Duration tickDuration, int wheelSize, Consumer<List<T>> onExpiry) {
+        if (tickDuration.isNegative() || tickDuration.isZero() || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = size - 1;
+        this.buckets = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new Bucket<>();
+        }
+        this.onExpiry = onExpiry;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules {@code key} to be passed to the expiry callback once {@code delay} has passed,
+     * rounded up to the next tick. A zero or negative delay expires on the next tick.
+     */
+    public Timeout<T> schedule(T key, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timer wheel is stopped");
+        }
+        long deadline = System.nanoTime() - startNanos + Math.max(0, delay.toNanos());
+        Timeout<T> timeout = new Timeout<>(this, key, deadline);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timeouts scheduled and neither expired nor cancelled yet.
+     */
+    public long size() {
+        return pending.get();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos;
+            while ((sleepNanos = tickDeadline - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (!running) {
+                    return;
+                }
+            }
+            unlinkCancelled();
+            transferScheduled();
+            List<T> expired = buckets[(int) (tick & mask)].expire();
+            tick++;
+            if (!expired.isEmpty()) {
+                try {
+                    onExpiry.accept(expired);
+                } catch (RuntimeException e) {
+                    log.error("Timer wheel expiry callback failed for {} timeouts", expired.size(), e);
+                }
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout<T> timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout<T> timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            long deadlineTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.length;
+            // a deadline that has already passed goes into the bucket expiring now
+            buckets[(int) (Math.max(deadlineTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    public static final class Timeout<T> {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedTimerWheel<T> wheel;
+        private final T key;
+        private final long deadline; // nanos since the wheel started
+        private volatile int state = PENDING;
+        // worker thread only
+        private long remainingRounds;
+        private Bucket<T> bucket;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(HashedTimerWheel<T> wheel, T key, long deadline) {
+            this.wheel = wheel;
+            this.key = key;
+            this.deadline = deadline;
+        }
+
+        public T getKey() {
+            return key;
+        }
+
+        /**
+         * @return false if the timeout already expired or was cancelled
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            wheel.cancelled.add(this);
+            return true;
+        }
+
+        private boolean expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return false;
+            }
+            wheel.pending.decrementAndGet();
+            return true;
+        }
+    }
+
+    // doubly linked so a cancelled timeout is unlinked in O(1)
+    private static final class Bucket<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        List<T> expire() {
+            List<T> expired = new ArrayList<>();
+            Timeout<T> timeout = head;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    if (timeout.expire()) {
+                        expired.add(timeout.key);
+                    }
+                } else if (timeout.state == Timeout.CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+            return expired;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -1,56 +1,83 @@
 package com.shaka.funding.service.impl;
 
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ReadYourWritesGuard;
 import com.shaka.funding.dto.LoanRequest;
 import com.shaka.funding.dto.LoanResponse;
+import com.shaka.funding.dto.PricingQuote;
 import com.shaka.funding.entity.Loan;
+import com.shaka.funding.entity.User;
+import com.shaka.funding.repository.LoanInstallmentRepository;
 import com.shaka.funding.repository.LoanRepository;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.CollectionService;
 import com.shaka.funding.service.LoanService;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.PricingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@ObservedOperation
 @RequiredArgsConstructor
 public class LoanServiceImpl implements LoanService {
 
     private final LoanRepository loanRepository;
+    private final PricingService pricingService;
+    private final CollectionService collectionService;
+    private final LoanInstallmentRepository installmentRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final OutboxService outboxService;
+    private final UserRepository userRepository;
 
     @Override
+    @Transactional
     public LoanResponse applyForLoan(LoanRequest loanRequest) {
         log.info("Applying for loan for userId: {}", loanRequest.getUserId());
 
         // Calculate interest rate and total amount
-        BigDecimal interestRate = calculateInterestRate(loanRequest.getTenure());
-        BigDecimal totalAmount = loanRequest.getAmount().add(
-                loanRequest.getAmount().multiply(interestRate.divide(BigDecimal.valueOf(100)))
-        );
+        PricingQuote quote = calculateInterestRate(loanRequest);
+        BigDecimal totalAmount = calculateTotalAmount(loanRequest.getAmount(), quote);
 
         // Create a new Loan entity
         Loan loan = Loan.builder()
                 .userId(loanRequest.getUserId())
                 .amount(loanRequest.getAmount())
-                .interestRate(interestRate)
+                .interestRate(quote.getInterestRate())
                 .tenure(loanRequest.getTenure())
+                .segment(quote.getSegment())
+                .pricingVersion(quote.getVersion())
                 .status("APPLIED")
                 .totalAmount(totalAmount)
+                .accruedInterest(BigDecimal.ZERO)
+                .outstandingBalance(loanRequest.getAmount())
                 .build();
 
         log.debug("Saving loan: {}", loan);
         Loan savedLoan = loanRepository.save(loan);
+        readYourWritesGuard.recordWrite(loansKey(savedLoan.getUserId()));
+        recordStatusChange(savedLoan, null);
 
         log.info("Loan successfully applied for userId: {}. Loan ID: {}", savedLoan.getUserId(), savedLoan.getId());
         return new LoanResponse(savedLoan);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Loan> getLoansByUserId(Long userId) {
         log.info("Fetching loans for userId: {}", userId);
 
+        readYourWritesGuard.requirePrimaryIfRecentlyWritten(loansKey(userId));
         List<Loan> loans = loanRepository.findByUserId(userId);
         log.debug("Found {} loans for userId: {}", loans.size(), userId);
 
@@ -58,37 +85,65 @@ public class LoanServiceImpl implements LoanService {
     }
 
     @Override
+    @Transactional
     public LoanResponse updateLoanStatus(Long loanId, String status) {
         log.info("Updating loan status for loanId: {} to status: {}", loanId, status);
 
-        Loan loan = (Loan) loanRepository.findById(loanId)
+        // lock the loan so concurrent status changes serialize (and the schedule is created once)
+        Loan loan = loanRepository.findByIdForUpdate(loanId)
                 .orElseThrow(() -> {
                     log.error("Loan not found for loanId: {}", loanId);
                     return new IllegalArgumentException("Loan not found");
                 });
 
         log.debug("Current status of loanId {}: {}", loanId, loan.getStatus());
+        String previousStatus = loan.getStatus();
         loan.setStatus(status);
+        if ("APPROVED".equals(status) && loan.getApprovedDate() == null) {
+            loan.setApprovedDate(LocalDate.now());
+        }
         Loan updatedLoan = loanRepository.save(loan);
+        readYourWritesGuard.recordWrite(loansKey(updatedLoan.getUserId()));
+        if (!status.equals(previousStatus)) {
+            recordStatusChange(updatedLoan, previousStatus);
+        }
+
+        if ("APPROVED".equals(status) && !installmentRepository.existsByLoanId(loanId)) {
+            collectionService.scheduleInstallments(updatedLoan);
+        }
 
         log.info("Loan status updated for loanId: {}. New status: {}", loanId, updatedLoan.getStatus());
         return new LoanResponse(updatedLoan);
     }
 
-    private BigDecimal calculateInterestRate(Integer tenure) {
-        log.debug("Calculating interest rate for tenure: {} months", tenure);
-
-        // Simple logic to determine interest rate based on tenure
-        BigDecimal interestRate;
-        if (tenure <= 12) {
-            interestRate = BigDecimal.valueOf(5); // 5% for <= 12 months
-        } else if (tenure <= 24) {
-            interestRate = BigDecimal.valueOf(10); // 10% for <= 24 months
-        } else {
-            interestRate = BigDecimal.valueOf(15); // 15% for > 24 months
-        }
+    private void recordStatusChange(Loan loan, String previousStatus) {
+        // a new loan has no previous status, so not Map.of
+        Map<String, Object> event = new HashMap<>();
+        event.put("loanId", loan.getId());
+        event.put("userId", loan.getUserId());
+        event.put("previousStatus", previousStatus);
+        event.put("status", loan.getStatus());
+        outboxService.record(OutboxService.LOAN, String.valueOf(loan.getId()), OutboxService.LOAN_STATUS_CHANGED, event);
+    }
+
+    private static String loansKey(Long userId) {
+        return "loans:" + userId;
+    }
+
+    PricingQuote calculateInterestRate(LoanRequest loanRequest) {
+        log.debug("Calculating interest rate for tenure: {} months", loanRequest.getTenure());
+
+        // the segment comes from the borrower's stored profile, never from the application itself
+        String segment = userRepository.findById(loanRequest.getUserId())
+                .map(User::getPricingSegment)
+                .orElse(null);
+        PricingQuote quote = pricingService.quote(segment, loanRequest.getTenure(), loanRequest.getAmount());
+
+        log.debug("Calculated interest rate: {}% (pricing version {})", quote.getInterestRate(), quote.getVersion());
+        return quote;
+    }
 
-        log.debug("Calculated interest rate: {}%", interestRate);
-        return interestRate;
+    static BigDecimal calculateTotalAmount(BigDecimal amount, PricingQuote quote) {
+        return amount.add(amount.multiply(quote.getRateFraction()));
     }
 }
@@ -0,0 +1,226 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.OutboxEventMessage;
+import com.shaka.funding.service.OutboxSink;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes each shard's outbox to the {@link OutboxSink} in id order, a batch per transaction.
+ * The batch is read and the checkpoint advanced under the shard's checkpoint row lock, so nodes
+ * take turns instead of publishing twice, and a batch is only checkpointed after the sink
+ * accepted it, so a crash or a failing sink means redelivery, never loss.
+ * <p>
+ * Ids are handed out at insert but become visible at commit, so a gap in the ids may be a
+ * transaction that has not committed yet. The relay stops in front of a gap until the event
+ * after it is older than {@code outbox.gap-timeout}, then moves past it and records the missing
+ * ids. Each pass looks the recorded ids up again and publishes any event that has turned up since,
+ * out of id order; an id still missing after {@code outbox.gap-retention} is taken to be a rollback.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final String LOCK_CHECKPOINT = "select last_published_id from tbl_outbox_checkpoint where id = ? for update";
+    private static final String INSERT_CHECKPOINT =
+            "insert into tbl_outbox_checkpoint (id, last_published_id, updated_at) values (?, 0, ?)";
+    private static final String UPDATE_CHECKPOINT =
+            "update tbl_outbox_checkpoint set last_published_id = ?, updated_at = ? where id = ?";
+    private static final String SELECT_EVENTS =
+            "select id, aggregate_type, aggregate_key, event_type, payload, created_at from tbl_outbox_event "
+                    + "where id > ? order by id limit ?";
+    private static final String SELECT_LATE_EVENTS =
+            "select e.id, e.aggregate_type, e.aggregate_key, e.event_type, e.payload, e.created_at "
+                    + "from tbl_outbox_gap g join tbl_outbox_event e on e.id = g.id order by e.id limit ?";
+    private static final String INSERT_GAP = "insert into tbl_outbox_gap (id, created_at) values (?, ?)";
+    private static final String DELETE_GAP = "delete from tbl_outbox_gap where id = ?";
+    private static final String EXPIRE_GAPS = "delete from tbl_outbox_gap where created_at < ?";
+    private static final String SELECT_PURGE_BOUNDS =
+            "select min(id), max(id) from tbl_outbox_event where id <= ? and created_at < ?";
+    private static final String PURGE_EVENTS = "delete from tbl_outbox_event where id >= ? and id <= ?";
+    private static final String CHECKPOINT_ID = "relay";
+    private static final int PURGE_CHUNK = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+
+    @Value("${outbox.batch-size:500}")
+    private int batchSize;
+    @Value("${outbox.gap-timeout:10s}")
+    private Duration gapTimeout;
+    @Value("${outbox.gap-retention:1h}")
+    private Duration gapRetention;
+    @Value("${outbox.retention:7d}")
+    private Duration retention;
+
+    // seconds the oldest unpublished event of each shard has waited, as of the last pass
+    private final Map<Integer, AtomicLong> lagSeconds = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${outbox.relay-interval-ms:500}")
+    public void relay() {
+        for (Integer shard : shardScope.shards()) {
+            int index = ShardContext.indexOf(shard);
+            try {
+                ShardContext.callOn(shard, () -> relayShard(index));
+            } catch (RuntimeException e) {
+                log.error("Outbox relay failed for shard {}, retrying on the next pass", index, e);
+            }
+        }
+    }
+
+    /**
+     * Drops events that were published and are older than the retention period.
+     */
+    @Scheduled(cron = "${outbox.purge-cron:0 15 3 * * *}")
+    public void purge() {
+        for (Integer shard : shardScope.shards()) {
+            long purged = ShardContext.callOn(shard, this::purgeShard);
+            log.info("Purged {} published outbox events from shard {}", purged, ShardContext.indexOf(shard));
+        }
+    }
+
+    private long relayShard(int shard) {
+        long published = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> publishBatch(shard));
+            published += count == null ? 0 : count;
+            if (count == null || count < batchSize) {
+                return published;
+            }
+        }
+    }
+
+    private int publishBatch(int shard) {
+        long lastPublishedId = lockCheckpoint();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update(EXPIRE_GAPS, Timestamp.valueOf(now.minus(gapRetention)));
+        List<OutboxEventMessage> late = jdbcTemplate.query(SELECT_LATE_EVENTS, eventMapper(shard), batchSize);
+        List<OutboxEventMessage> events = jdbcTemplate.query(SELECT_EVENTS, eventMapper(shard), lastPublishedId, batchSize);
+
+        List<OutboxEventMessage> ready = new ArrayList<>(events.size());
+        List<Object[]> gaps = new ArrayList<>();
+        long expected = lastPublishedId + 1;
+        for (OutboxEventMessage event : events) {
+            if (event.getId() != expected) {
+                if (event.getCreatedAt().isAfter(now.minus(gapTimeout))) {
+                    break;
+                }
+                for (long missing = expected; missing < event.getId(); missing++) {
+                    gaps.add(new Object[]{missing, Timestamp.valueOf(now)});
+                }
+            }
+            ready.add(event);
+            expected = event.getId() + 1;
+        }
+        recordLag(shard, events.size() > ready.size() ? events.get(ready.size()) : null, now);
+        if (ready.isEmpty() && late.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEventMessage> batch = new ArrayList<>(late.size() + ready.size());
+        batch.addAll(late);
+        batch.addAll(ready);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        sink.publish(batch);
+        sample.stop(meterRegistry.timer("funding.outbox.publish", "shard", String.valueOf(shard)));
+        if (!late.isEmpty()) {
+            log.warn("Published {} outbox events that committed after the relay had moved past them", late.size());
+            jdbcTemplate.batchUpdate(DELETE_GAP, late.stream().map(event -> new Object[]{event.getId()}).toList());
+            meterRegistry.counter("funding.outbox.published.late", "shard", String.valueOf(shard)).increment(late.size());
+        }
+        if (!gaps.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_GAP, gaps);
+        }
+        if (!ready.isEmpty()) {
+            jdbcTemplate.update(UPDATE_CHECKPOINT, ready.get(ready.size() - 1).getId(), Timestamp.valueOf(now), CHECKPOINT_ID);
+        }
+
+        meterRegistry.counter("funding.outbox.published", "shard", String.valueOf(shard)).increment(batch.size());
+        Timer delivery = meterRegistry.timer("funding.outbox.delivery.lag", "shard", String.valueOf(shard));
+        batch.forEach(event -> delivery.record(Duration.between(event.getCreatedAt(), now)));
+        return batch.size();
+    }
+
+    private static RowMapper<OutboxEventMessage> eventMapper(int shard) {
+        return (rs, rowNum) -> OutboxEventMessage.builder()
+                .id(rs.getLong("id"))
+                .shard(shard)
+                .aggregateType(rs.getString("aggregate_type"))
+                .aggregateKey(rs.getString("aggregate_key"))
+                .eventType(rs.getString("event_type"))
+                .payload(rs.getString("payload"))
+                .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                .build();
+    }
+
+    private long lockCheckpoint() {
+        List<Long> checkpoint = jdbcTemplate.queryForList(LOCK_CHECKPOINT, Long.class, CHECKPOINT_ID);
+        if (!checkpoint.isEmpty()) {
+            return checkpoint.get(0);
+        }
+        try {
+            jdbcTemplate.update(INSERT_CHECKPOINT, CHECKPOINT_ID, Timestamp.valueOf(LocalDateTime.now()));
+        } catch (DuplicateKeyException e) {
+            // another node created it first
+        }
+        return jdbcTemplate.queryForObject(LOCK_CHECKPOINT, Long.class, CHECKPOINT_ID);
+    }
+
+    private void recordLag(int shard, OutboxEventMessage oldestWaiting, LocalDateTime now) {
+        AtomicLong lag = lagSeconds.computeIfAbsent(shard, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("funding.outbox.lag.seconds", value, AtomicLong::get)
+                    .description("Age of the oldest outbox event the relay has not published yet")
+                    .tag("shard", String.valueOf(key))
+                    .register(meterRegistry);
+            return value;
+        });
+        lag.set(oldestWaiting == null ? 0 : Duration.between(oldestWaiting.getCreatedAt(), now).toSeconds());
+    }
+
+    private long purgeShard() {
+        Long lastPublishedId = jdbcTemplate.queryForList("select last_published_id from tbl_outbox_checkpoint where id = ?",
+                Long.class, CHECKPOINT_ID).stream().findFirst().orElse(null);
+        if (lastPublishedId == null) {
+            return 0;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        long[] range = jdbcTemplate.queryForObject(SELECT_PURGE_BOUNDS,
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)},
+                lastPublishedId, cutoff);
+        if (range == null) {
+            return 0;
+        }
+        long purged = 0;
+        long upper = range[1];
+        for (long lower = range[0]; lower <= upper; lower += PURGE_CHUNK) {
+            purged += jdbcTemplate.update(PURGE_EVENTS, lower, Math.min(upper, lower + PURGE_CHUNK - 1));
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,202 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.BatchCheckpoint;
+import com.shaka.funding.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a batch job over an id range split into partitions, one worker per partition. Each
+ * partition walks its range in keyset order one chunk at a time; a chunk and the partition's
+ * checkpoint are committed in the same transaction, so a crashed run resumes from the last
+ * committed chunk and a finished run is a no-op when started again.
+ * <p>
+ * Each chunk transaction locks its partition's checkpoint row first, so nodes that start the same
+ * run take turns on a partition and each continues after the chunk the other committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionedBatchRunner {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final BatchCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // rows processed by the current (or last) run of each job, exposed as a gauge
+    private final Map<String, AtomicLong> progress = new ConcurrentHashMap<>();
+
+    /**
+     * Processes one chunk of ids in {@code (afterId, upperBound]} for the given partition. Called
+     * inside a transaction.
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        ChunkResult process(int partition, long afterId, long upperBound);
+    }
+
+    /**
+     * @param lastId    highest id read in the chunk, the next chunk starts after it
+     * @param processed number of rows the chunk acted on
+     */
+    public record ChunkResult(long lastId, int processed) {
+        public static final ChunkResult EMPTY = new ChunkResult(-1, 0);
+
+        public boolean isEmpty() {
+            return lastId < 0;
+        }
+    }
+
+    /**
+     * Runs (or resumes) the job identified by {@code jobName} and {@code runKey}, splitting the id
+     * range evenly across partitions. The id range is only used when no checkpoints exist yet for
+     * the run. If another node inserts the run's checkpoints between this node's lookup and its own
+     * insert, this throws a {@link org.springframework.dao.DataIntegrityViolationException} and
+     * processes nothing; the other node runs it.
+     */
+    public BatchRunResponse run(String jobName, String runKey, long minId, long maxId, int partitions,
+                                int threads, ChunkHandler handler) {
+        return run(jobName, runKey, minId, maxId, partitions, threads, true, handler);
+    }
+
+    /**
+     * Like {@link #run}, but every partition walks the whole id range and the handler filters by
+     * its own partition key (e.g. an account bucket), so no two workers touch the same rows.
+     */
+    public BatchRunResponse runByKey(String jobName, String runKey, long minId, long maxId, int partitions,
+                                     int threads, ChunkHandler handler) {
+        return run(jobName, runKey, minId, maxId, partitions, threads, false, handler);
+    }
+
+    private BatchRunResponse run(String jobName, String runKey, long minId, long maxId, int partitions,
+                                 int threads, boolean splitRange, ChunkHandler handler) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        List<BatchCheckpoint> checkpoints = checkpointRepository.findByJobNameAndRunKeyOrderByPartitionIndex(jobName, runKey);
+        if (checkpoints.isEmpty()) {
+            checkpoints = checkpointRepository.saveAll(split(jobName, runKey, minId, maxId, partitions, splitRange));
+            log.info("Starting {} run {} over ids {}..{} in {} partitions", jobName, runKey, minId, maxId, checkpoints.size());
+        } else {
+            log.info("Resuming {} run {} from {} checkpoints", jobName, runKey, checkpoints.size());
+        }
+
+        AtomicLong processed = progress.computeIfAbsent(jobName, job -> meterRegistry.gauge(
+                "funding.batch.run.processed", Tags.of("job", job), new AtomicLong()));
+        processed.set(0);
+        List<BatchCheckpoint> pending = checkpoints.stream()
+                .filter(checkpoint -> !STATUS_COMPLETED.equals(checkpoint.getStatus()))
+                .toList();
+
+        String status = STATUS_COMPLETED;
+        if (!pending.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, pending.size())));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (BatchCheckpoint checkpoint : pending) {
+                    futures.add(executor.submit(() -> runPartition(checkpoint, handler, processed)));
+                }
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        status = STATUS_FAILED;
+                        log.error("{} run {} partition failed", jobName, runKey, e.getCause());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                status = STATUS_FAILED;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        meterRegistry.timer("funding.batch.run", "job", jobName, "status", status)
+                .record(Duration.ofMillis(durationMs));
+        meterRegistry.counter("funding.batch.processed", "job", jobName).increment(processed.get());
+        BatchRunResponse response = BatchRunResponse.builder()
+                .jobName(jobName)
+                .runKey(runKey)
+                .status(status)
+                .partitions(checkpoints.size())
+                .processed(processed.get())
+                .durationMs(durationMs)
+                .throughputPerSecond(durationMs == 0 ? 0.0 : processed.get() * 1000.0 / durationMs)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .build();
+        log.info("{} run {} finished: {}", jobName, runKey, response);
+        return response;
+    }
+
+    private void runPartition(BatchCheckpoint checkpoint, ChunkHandler handler, AtomicLong processed) {
+        while (true) {
+            Boolean more = transactionTemplate.execute(tx -> {
+                BatchCheckpoint current = checkpointRepository.findByIdForUpdate(checkpoint.getId())
+                        .orElseThrow(() -> new IllegalStateException("Checkpoint " + checkpoint.getId() + " is gone"));
+                if (STATUS_COMPLETED.equals(current.getStatus())) {
+                    // another node finished the partition while this one waited for the lock
+                    return false;
+                }
+                long afterId = current.getLastProcessedId();
+                ChunkResult result = handler.process(current.getPartitionIndex(), afterId, current.getUpperBound());
+                if (result.isEmpty()) {
+                    current.setStatus(STATUS_COMPLETED);
+                } else {
+                    current.setLastProcessedId(result.lastId());
+                    current.setProcessedCount(current.getProcessedCount() + result.processed());
+                }
+                checkpointRepository.save(current);
+                processed.addAndGet(result.processed());
+                return !result.isEmpty();
+            });
+            if (!Boolean.TRUE.equals(more)) {
+                return;
+            }
+        }
+    }
+
+    private List<BatchCheckpoint> split(String jobName, String runKey, long minId, long maxId, int partitions,
+                                        boolean splitRange) {
+        List<BatchCheckpoint> checkpoints = new ArrayList<>();
+        long lower = minId - 1;
+        long span = Math.max(1, (maxId - lower + partitions - 1) / partitions);
+        for (int i = 0; i < partitions && lower < maxId; i++) {
+            long upper = !splitRange || i == partitions - 1 ? maxId : Math.min(maxId, lower + span);
+            checkpoints.add(BatchCheckpoint.builder()
+                    .id(jobName + ":" + runKey + ":" + i)
+                    .jobName(jobName)
+                    .runKey(runKey)
+                    .partitionIndex(i)
+                    .lowerBound(lower)
+                    .upperBound(upper)
+                    .lastProcessedId(lower)
+                    .processedCount(0L)
+                    .status(STATUS_RUNNING)
+                    .build());
+            if (splitRange) {
+                lower = upper;
+            }
+        }
+        return checkpoints;
+    }
+}
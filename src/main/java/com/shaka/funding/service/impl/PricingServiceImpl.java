@@ -0,0 +1,144 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.dto.PricingQuote;
+import com.shaka.funding.dto.PricingResponse;
+import com.shaka.funding.dto.PricingRuleRequest;
+import com.shaka.funding.entity.PricingRule;
+import com.shaka.funding.entity.PricingRuleSet;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.PricingRuleRepository;
+import com.shaka.funding.repository.PricingRuleSetRepository;
+import com.shaka.funding.service.PricingService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PricingServiceImpl implements PricingService {
+
+    private final PricingRuleRepository pricingRuleRepository;
+    private final PricingRuleSetRepository pricingRuleSetRepository;
+
+    // Readers only ever do a volatile read; a new version is compiled off to the side and swapped in.
+    private final AtomicReference<PricingTable> activeTable = new AtomicReference<>(PricingTable.defaults());
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    @Override
+    public PricingQuote quote(String segment, Integer tenure, BigDecimal amount) {
+        return activeTable.get().lookup(segment, tenure, amount);
+    }
+
+    @Override
+    @Transactional
+    @ObservedOperation
+    public PricingResponse publishRules(List<PricingRuleRequest> rules) {
+        Long latest = pricingRuleRepository.findLatestVersion();
+        long version = latest == null ? 1L : latest + 1;
+        log.info("Publishing {} pricing rules as version {}", rules.size(), version);
+
+        List<PricingRule> entities = rules.stream()
+                .map(rule -> PricingRule.builder()
+                        .version(version)
+                        .segment(rule.getSegment())
+                        .maxTenure(rule.getMaxTenure())
+                        .maxAmount(rule.getMaxAmount())
+                        .interestRate(rule.getInterestRate())
+                        .build())
+                .toList();
+
+        // Compile before saving so an invalid rule set is rejected without touching the table.
+        PricingTable table = PricingTable.compile(version, entities);
+        try {
+            // the unique version on the rule set makes a concurrent publisher of the same number fail here
+            pricingRuleSetRepository.saveAndFlush(PricingRuleSet.builder()
+                    .version(version)
+                    .ruleCount(entities.size())
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            throw new ValidationException("Pricing rules were published concurrently",
+                    List.of("Version " + version + " already exists, retry the publish"));
+        }
+        pricingRuleRepository.saveAll(entities);
+
+        // Quotes must not use rules that may still roll back, so the swap waits for the commit.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activate(table);
+                }
+            });
+        } else {
+            activate(table);
+        }
+        return toResponse(table);
+    }
+
+    private void activate(PricingTable table) {
+        // refresh() may already have loaded this or a later version from another node
+        PricingTable active = activeTable.updateAndGet(
+                current -> current.getVersion() < table.getVersion() ? table : current);
+        log.info("Pricing rules version {} is now active", active.getVersion());
+    }
+
+    @Override
+    @ObservedOperation
+    public PricingResponse reload() {
+        try {
+            Long latest = pricingRuleRepository.findLatestVersion();
+            if (latest == null) {
+                log.info("No published pricing rules, using default tiers");
+                return toResponse(activeTable.get());
+            }
+            if (latest != activeTable.get().getVersion()) {
+                PricingTable table = PricingTable.compile(latest, pricingRuleRepository.findByVersion(latest));
+                activeTable.set(table);
+                log.info("Loaded pricing rules version {} ({} rules)", latest, table.getRuleCount());
+            }
+        } catch (Exception e) {
+            log.error("Failed to reload pricing rules, keeping version {}", activeTable.get().getVersion(), e);
+        }
+        return toResponse(activeTable.get());
+    }
+
+    /**
+     * Picks up rule sets published by other nodes without a restart.
+     */
+    @Scheduled(fixedDelayString = "${pricing.refresh-interval-ms:30000}")
+    public void refresh() {
+        Long latest = pricingRuleRepository.findLatestVersion();
+        if (latest != null && !Objects.equals(latest, activeTable.get().getVersion())) {
+            reload();
+        }
+    }
+
+    @Override
+    public PricingResponse getActiveVersion() {
+        return toResponse(activeTable.get());
+    }
+
+    private PricingResponse toResponse(PricingTable table) {
+        return PricingResponse.builder()
+                .version(table.getVersion())
+                .ruleCount(table.getRuleCount())
+                .build();
+    }
+}
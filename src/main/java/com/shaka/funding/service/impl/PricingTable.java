@@ -0,0 +1,198 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.dto.PricingQuote;
+import com.shaka.funding.entity.PricingRule;
+import com.shaka.funding.exceptions.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Compiled, immutable view of one version of the pricing rules.
+ * <p>
+ * Rules are grouped by segment, then by tenure tier, then by amount band. Each level is a sorted
+ * array so a lookup is two binary searches and returns a pre-built {@link PricingQuote}.
+ */
+public final class PricingTable {
+
+    public static final String DEFAULT_SEGMENT = "STANDARD";
+
+    private final long version;
+    private final int ruleCount;
+    private final Map<String, SegmentTable> segments;
+
+    private PricingTable(long version, int ruleCount, Map<String, SegmentTable> segments) {
+        this.version = version;
+        this.ruleCount = ruleCount;
+        this.segments = segments;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Finds the quote for the given segment, tenure and amount. Segments are matched the way they
+     * are compiled (trimmed, upper case); unknown segments fall back to {@link #DEFAULT_SEGMENT}.
+     */
+    public PricingQuote lookup(String segment, int tenure, BigDecimal amount) {
+        SegmentTable table = segment == null ? null : segments.get(segment.trim().toUpperCase(Locale.ROOT));
+        if (table == null) {
+            table = segments.get(DEFAULT_SEGMENT);
+        }
+        if (table == null) {
+            throw new IllegalArgumentException("No pricing rules for segment " + segment);
+        }
+        PricingQuote quote = table.lookup(tenure, amount);
+        if (quote == null) {
+            throw new IllegalArgumentException("No pricing rule matches tenure " + tenure + " and amount " + amount);
+        }
+        return quote;
+    }
+
+    /**
+     * The tiers that used to be hardcoded in LoanServiceImpl: 5% up to 12 months, 10% up to 24
+     * months and 15% beyond. Used until a rule set has been published.
+     */
+    public static PricingTable defaults() {
+        List<PricingRule> rules = List.of(
+                PricingRule.builder().segment(DEFAULT_SEGMENT).maxTenure(12).interestRate(BigDecimal.valueOf(5)).build(),
+                PricingRule.builder().segment(DEFAULT_SEGMENT).maxTenure(24).interestRate(BigDecimal.valueOf(10)).build(),
+                PricingRule.builder().segment(DEFAULT_SEGMENT).interestRate(BigDecimal.valueOf(15)).build()
+        );
+        return compile(0L, rules);
+    }
+
+    /**
+     * Compiles a rule set, rejecting it unless every segment, tenure and amount is priced: the
+     * {@link #DEFAULT_SEGMENT} must exist, every segment needs a tier without {@code maxTenure}
+     * and every tier a band without {@code maxAmount}.
+     */
+    public static PricingTable compile(long version, Collection<PricingRule> rules) {
+        List<String> errors = new ArrayList<>();
+        // segment -> tenure bound -> amount bound -> rate
+        Map<String, TreeMap<Integer, TreeMap<BigDecimal, BigDecimal>>> grouped = new HashMap<>();
+
+        for (PricingRule rule : rules) {
+            if (rule.getSegment() == null || rule.getSegment().isBlank()) {
+                errors.add("Rule is missing a segment");
+                continue;
+            }
+            if (rule.getInterestRate() == null || rule.getInterestRate().signum() < 0) {
+                errors.add("Rule for segment " + rule.getSegment() + " has an invalid interest rate");
+                continue;
+            }
+            String segment = rule.getSegment().trim().toUpperCase(Locale.ROOT);
+            int tenureBound = rule.getMaxTenure() == null ? Integer.MAX_VALUE : rule.getMaxTenure();
+            BigDecimal amountBound = rule.getMaxAmount() == null ? null : rule.getMaxAmount().stripTrailingZeros();
+
+            TreeMap<BigDecimal, BigDecimal> bands = grouped
+                    .computeIfAbsent(segment, s -> new TreeMap<>())
+                    .computeIfAbsent(tenureBound, t -> new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder())));
+            if (bands.containsKey(amountBound)) {
+                errors.add("Duplicate rule for segment " + segment + ", maxTenure " + rule.getMaxTenure()
+                        + ", maxAmount " + rule.getMaxAmount());
+                continue;
+            }
+            bands.put(amountBound, rule.getInterestRate());
+        }
+
+        // every application must price: lookup has nothing to fall back to at request time
+        if (!grouped.containsKey(DEFAULT_SEGMENT)) {
+            errors.add("No rules for segment " + DEFAULT_SEGMENT + ", which prices applications in unknown segments");
+        }
+        grouped.forEach((segment, tiers) -> {
+            if (!tiers.containsKey(Integer.MAX_VALUE)) {
+                errors.add("Segment " + segment + " has no rule without maxTenure, so tenures above "
+                        + tiers.lastKey() + " are not priced");
+            }
+            tiers.forEach((tenureBound, bands) -> {
+                if (!bands.containsKey(null)) {
+                    errors.add("Segment " + segment + ", maxTenure "
+                            + (tenureBound == Integer.MAX_VALUE ? null : tenureBound)
+                            + " has no rule without maxAmount, so amounts above " + bands.lastKey().toPlainString() + " are not priced");
+                }
+            });
+        });
+
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid pricing rules", errors);
+        }
+
+        Map<String, SegmentTable> segments = new HashMap<>();
+        grouped.forEach((segment, tiers) -> segments.put(segment, SegmentTable.of(version, segment, tiers)));
+        return new PricingTable(version, rules.size(), Map.copyOf(segments));
+    }
+
+    private static final class SegmentTable {
+        private final int[] tenureBounds;
+        private final BigDecimal[][] amountBounds; // last entry may be null, meaning unbounded
+        private final PricingQuote[][] quotes;
+
+        private SegmentTable(int[] tenureBounds, BigDecimal[][] amountBounds, PricingQuote[][] quotes) {
+            this.tenureBounds = tenureBounds;
+            this.amountBounds = amountBounds;
+            this.quotes = quotes;
+        }
+
+        static SegmentTable of(long version, String segment, TreeMap<Integer, TreeMap<BigDecimal, BigDecimal>> tiers) {
+            int[] tenureBounds = new int[tiers.size()];
+            BigDecimal[][] amountBounds = new BigDecimal[tiers.size()][];
+            PricingQuote[][] quotes = new PricingQuote[tiers.size()][];
+            int i = 0;
+            for (Map.Entry<Integer, TreeMap<BigDecimal, BigDecimal>> tier : tiers.entrySet()) {
+                tenureBounds[i] = tier.getKey();
+                amountBounds[i] = new BigDecimal[tier.getValue().size()];
+                quotes[i] = new PricingQuote[tier.getValue().size()];
+                int j = 0;
+                for (Map.Entry<BigDecimal, BigDecimal> band : tier.getValue().entrySet()) {
+                    BigDecimal rate = band.getValue();
+                    amountBounds[i][j] = band.getKey();
+                    quotes[i][j] = new PricingQuote(version, segment, rate, rate.movePointLeft(2));
+                    j++;
+                }
+                i++;
+            }
+            return new SegmentTable(tenureBounds, amountBounds, quotes);
+        }
+
+        PricingQuote lookup(int tenure, BigDecimal amount) {
+            // first tier whose upper bound covers the tenure
+            int lo = 0;
+            int hi = tenureBounds.length - 1;
+            int tier = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (tenureBounds[mid] >= tenure) {
+                    tier = mid;
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            if (tier < 0) {
+                return null;
+            }
+
+            // first band whose upper bound covers the amount
+            BigDecimal[] bounds = amountBounds[tier];
+            lo = 0;
+            hi = bounds.length - 1;
+            int band = -1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (bounds[mid] == null || bounds[mid].compareTo(amount) >= 0) {
+                    band = mid;
+                    hi = mid - 1;
+                } else {
+                    lo = mid + 1;
+                }
+            }
+            return band < 0 ? null : quotes[tier][band];
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.ReconciliationResponse;
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+import com.shaka.funding.repository.ReconciliationDiscrepancyRepository;
+import com.shaka.funding.service.ReconciliationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recomputes every account balance from its transactions and records the accounts that disagree.
+ * <p>
+ * Accounts are walked in account number order through {@link PartitionedBatchRunner}, one run per
+ * shard. Each chunk reads the balances, one grouped sum over tbl_transaction and the archived totals
+ * in a single read-only transaction on the shard, so all three come from the same snapshot. Account
+ * numbers are ten-digit numbers, so they serve as the runner's numeric keyset directly.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+    static final String JOB_NAME = "BALANCE_RECONCILIATION";
+
+    private static final String SELECT_BOUNDS =
+            "select min(account_number) as min_account, max(account_number) as max_account from tbl_account_balance";
+    private static final String SELECT_BALANCES =
+            "select account_number, coalesce(balance, 0) as balance from tbl_account_balance "
+                    + "where account_number > :after and account_number <= :upper "
+                    + "order by account_number limit :limit";
+    private static final String SELECT_LEDGER =
+            "select account_number, "
+                    + "sum(case when transaction_type = 'CREDIT' then transaction_amount "
+                    + "when transaction_type = 'DEBIT' then -transaction_amount else 0 end) as net, "
+                    + "count(*) as transaction_count "
+                    + "from tbl_transaction where account_number in (:accountNumbers) group by account_number";
+    private static final String SELECT_ARCHIVED =
+            "select account_number, archived_net, archived_count from tbl_archived_balance "
+                    + "where account_number in (:accountNumbers)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PartitionedBatchRunner batchRunner;
+    private final ReconciliationDiscrepancyRepository discrepancyRepository;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+
+    @Value("${reconciliation.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${reconciliation.partitions:16}")
+    private int partitions;
+    @Value("${reconciliation.threads:8}")
+    private int threads;
+    @Value("${reconciliation.max-reported:1000}")
+    private int maxReported;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    void init() {
+        // a transaction of its own, so the shard read neither joins nor pins the runner's checkpoint
+        // transaction; read-only also lets it go to the replica
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshotTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Reconciles the previous business day once the nightly postings and archive run are done.
+     */
+    @Scheduled(cron = "${reconciliation.cron:0 0 3 * * *}")
+    public void scheduledReconciliation() {
+        LocalDate businessDate = LocalDate.now().minusDays(1);
+        ReconciliationResponse result = reconcile(businessDate);
+        if (result.getDiscrepancyCount() != null && result.getDiscrepancyCount() > 0) {
+            log.error("Balances of {} accounts disagree with the transaction ledger on {}",
+                    result.getDiscrepancyCount(), businessDate);
+        }
+    }
+
+    @Override
+    public ReconciliationResponse reconcile(LocalDate businessDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Reconciliation already in progress, skipping request for {}", businessDate);
+            return ReconciliationResponse.builder()
+                    .businessDate(businessDate)
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        String status = PartitionedBatchRunner.STATUS_COMPLETED;
+        int partitionCount = 0;
+        long checked = 0;
+        long discrepanciesBefore = discrepancyRepository.countByBusinessDate(businessDate);
+        try {
+            for (Integer shard : shardScope.shards()) {
+                String runKey = shard == null ? businessDate.toString() : businessDate + "/shard-" + shard;
+                String[] bounds = ShardContext.callOn(shard, this::selectBounds);
+                long minId = bounds == null ? 0 : accountKey(bounds[0]);
+                long maxId = bounds == null ? -1 : accountKey(bounds[1]);
+                BatchRunResponse run = batchRunner.run(JOB_NAME, runKey, minId, maxId, partitions, threads,
+                        (partition, afterId, upperBound) -> reconcileChunk(shard, businessDate, afterId, upperBound));
+                partitionCount += run.getPartitions() == null ? 0 : run.getPartitions();
+                checked += run.getProcessed() == null ? 0 : run.getProcessed();
+                if (!PartitionedBatchRunner.STATUS_COMPLETED.equals(run.getStatus())) {
+                    status = run.getStatus();
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+
+        long discrepancyCount = discrepancyRepository.countByBusinessDate(businessDate);
+        meterRegistry.counter("funding.reconciliation.discrepancies").increment(discrepancyCount - discrepanciesBefore);
+        long durationMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Reconciled {} account balances for {} in {} ms: {} discrepancies, {}",
+                checked, businessDate, durationMs, discrepancyCount, status);
+        return ReconciliationResponse.builder()
+                .businessDate(businessDate)
+                .status(status)
+                .partitions(partitionCount)
+                .accountsChecked(checked)
+                .discrepancyCount(discrepancyCount)
+                .discrepancies(getDiscrepancies(businessDate))
+                .durationMs(durationMs)
+                .throughputPerSecond(checked * 1000.0 / durationMs)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Override
+    public List<ReconciliationDiscrepancy> getDiscrepancies(LocalDate businessDate) {
+        return discrepancyRepository.findByBusinessDateOrderByAccountNumber(businessDate,
+                PageRequest.of(0, Math.max(1, maxReported)));
+    }
+
+    // runs inside the runner's chunk transaction, which saves the discrepancies with the checkpoint
+    private PartitionedBatchRunner.ChunkResult reconcileChunk(Integer shard, LocalDate businessDate,
+                                                              long afterId, long upperBound) {
+        Chunk chunk = ShardContext.callOn(shard, () -> snapshotTemplate.execute(status -> readChunk(businessDate, afterId, upperBound)));
+        if (chunk == null || chunk.accounts() == 0) {
+            return PartitionedBatchRunner.ChunkResult.EMPTY;
+        }
+        if (!chunk.discrepancies().isEmpty()) {
+            discrepancyRepository.saveAll(chunk.discrepancies());
+        }
+        return new PartitionedBatchRunner.ChunkResult(accountKey(chunk.lastAccount()), chunk.accounts());
+    }
+
+    private Chunk readChunk(LocalDate businessDate, long afterId, long upperBound) {
+        Map<String, BigDecimal> balances = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_BALANCES, new MapSqlParameterSource()
+                        .addValue("after", accountNumber(afterId))
+                        .addValue("upper", accountNumber(upperBound))
+                        .addValue("limit", chunkSize),
+                rs -> {
+                    balances.put(rs.getString("account_number"), rs.getBigDecimal("balance"));
+                });
+        if (balances.isEmpty()) {
+            return new Chunk(null, 0, List.of());
+        }
+
+        MapSqlParameterSource accounts = new MapSqlParameterSource("accountNumbers", balances.keySet());
+        Map<String, BigDecimal> ledger = new HashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(SELECT_LEDGER, accounts, rs -> {
+            ledger.put(rs.getString("account_number"), rs.getBigDecimal("net"));
+            counts.put(rs.getString("account_number"), rs.getLong("transaction_count"));
+        });
+        // archived transactions no longer have rows, only their carried-forward totals
+        jdbcTemplate.query(SELECT_ARCHIVED, accounts, rs -> {
+            ledger.merge(rs.getString("account_number"), rs.getBigDecimal("archived_net"), BigDecimal::add);
+            counts.merge(rs.getString("account_number"), rs.getLong("archived_count"), Long::sum);
+        });
+
+        List<ReconciliationDiscrepancy> discrepancies = new ArrayList<>();
+        String lastAccount = null;
+        for (Map.Entry<String, BigDecimal> entry : balances.entrySet()) {
+            lastAccount = entry.getKey();
+            BigDecimal ledgerBalance = Objects.requireNonNullElse(ledger.get(entry.getKey()), BigDecimal.ZERO);
+            if (entry.getValue().compareTo(ledgerBalance) != 0) {
+                discrepancies.add(ReconciliationDiscrepancy.builder()
+                        .businessDate(businessDate)
+                        .accountNumber(entry.getKey())
+                        .balance(entry.getValue())
+                        .ledgerBalance(ledgerBalance)
+                        .difference(entry.getValue().subtract(ledgerBalance))
+                        .transactionCount(counts.getOrDefault(entry.getKey(), 0L))
+                        .build());
+            }
+        }
+        return new Chunk(lastAccount, balances.size(), discrepancies);
+    }
+
+    private String[] selectBounds() {
+        return jdbcTemplate.query(SELECT_BOUNDS, Map.of(), rs -> rs.next() && rs.getString("min_account") != null
+                ? new String[]{rs.getString("min_account"), rs.getString("max_account")}
+                : null);
+    }
+
+    private static long accountKey(String accountNumber) {
+        try {
+            return Long.parseLong(accountNumber);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Reconciliation needs numeric account numbers, found " + accountNumber, e);
+        }
+    }
+
+    // zero-padded so string order in the database matches the runner's numeric bounds
+    private static String accountNumber(long key) {
+        return String.format("%010d", key);
+    }
+
+    private record Chunk(String lastAccount, int accounts, List<ReconciliationDiscrepancy> discrepancies) {
+    }
+}
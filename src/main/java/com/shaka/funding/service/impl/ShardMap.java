@@ -0,0 +1,135 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.entity.ShardRange;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.utils.AccountUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable assignment of account shard key ranges to shards. The ranges must cover
+ * {@code [0, SHARD_KEY_SPACE)} without gaps or overlaps; a lookup is one binary search.
+ */
+public final class ShardMap {
+
+    private final long[] lowerBounds;
+    private final long[] upperBounds;
+    private final int[] shards;
+
+    private ShardMap(long[] lowerBounds, long[] upperBounds, int[] shards) {
+        this.lowerBounds = lowerBounds;
+        this.upperBounds = upperBounds;
+        this.shards = shards;
+    }
+
+    public int shardFor(long key) {
+        int index = Arrays.binarySearch(lowerBounds, key);
+        if (index < 0) {
+            index = -index - 2; // range starting before the key
+        }
+        return shards[index];
+    }
+
+    public int shardForAccount(String accountNumber) {
+        return shardFor(AccountUtils.accountShardKey(accountNumber));
+    }
+
+    public List<ShardRange> getRanges() {
+        List<ShardRange> ranges = new ArrayList<>(shards.length);
+        for (int i = 0; i < shards.length; i++) {
+            ranges.add(ShardRange.builder()
+                    .lowerBound(lowerBounds[i])
+                    .upperBound(upperBounds[i])
+                    .shardIndex(shards[i])
+                    .build());
+        }
+        return ranges;
+    }
+
+    /**
+     * Even split of the key space, used the first time sharding is switched on.
+     */
+    public static ShardMap evenSplit(int shardCount) {
+        List<ShardRange> ranges = new ArrayList<>();
+        long width = AccountUtils.SHARD_KEY_SPACE / shardCount;
+        for (int i = 0; i < shardCount; i++) {
+            ranges.add(ShardRange.builder()
+                    .lowerBound(i * width)
+                    .upperBound(i == shardCount - 1 ? AccountUtils.SHARD_KEY_SPACE : (i + 1) * width)
+                    .shardIndex(i)
+                    .build());
+        }
+        return compile(ranges, shardCount);
+    }
+
+    public static ShardMap compile(List<ShardRange> ranges, int shardCount) {
+        List<String> errors = new ArrayList<>();
+        List<ShardRange> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.comparing(ShardRange::getLowerBound));
+
+        long expectedLower = 0;
+        for (ShardRange range : sorted) {
+            if (range.getLowerBound() != expectedLower) {
+                errors.add("Gap or overlap at shard key " + expectedLower);
+            }
+            if (range.getUpperBound() <= range.getLowerBound()) {
+                errors.add("Empty range starting at " + range.getLowerBound());
+            }
+            if (range.getShardIndex() < 0 || range.getShardIndex() >= shardCount) {
+                errors.add("Range starting at " + range.getLowerBound() + " points to unknown shard " + range.getShardIndex());
+            }
+            expectedLower = range.getUpperBound();
+        }
+        if (expectedLower != AccountUtils.SHARD_KEY_SPACE) {
+            errors.add("Ranges end at " + expectedLower + " instead of " + AccountUtils.SHARD_KEY_SPACE);
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid shard map", errors);
+        }
+
+        // merge neighbours on the same shard so lookups stay short after many moves
+        List<long[]> merged = new ArrayList<>();
+        for (ShardRange range : sorted) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last[2] == range.getShardIndex()) {
+                last[1] = range.getUpperBound();
+            } else {
+                merged.add(new long[]{range.getLowerBound(), range.getUpperBound(), range.getShardIndex()});
+            }
+        }
+        long[] lowerBounds = new long[merged.size()];
+        long[] upperBounds = new long[merged.size()];
+        int[] shards = new int[merged.size()];
+        for (int i = 0; i < merged.size(); i++) {
+            lowerBounds[i] = merged.get(i)[0];
+            upperBounds[i] = merged.get(i)[1];
+            shards[i] = (int) merged.get(i)[2];
+        }
+        return new ShardMap(lowerBounds, upperBounds, shards);
+    }
+
+    /**
+     * Copy of this map with {@code [lower, upper)} assigned to {@code shard}.
+     */
+    public ShardMap withRange(long lower, long upper, int shard, int shardCount) {
+        List<ShardRange> ranges = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            // keep the parts of each existing range outside [lower, upper)
+            if (lowerBounds[i] < lower) {
+                ranges.add(range(lowerBounds[i], Math.min(upperBounds[i], lower), shards[i]));
+            }
+            if (upperBounds[i] > upper) {
+                ranges.add(range(Math.max(lowerBounds[i], upper), upperBounds[i], shards[i]));
+            }
+        }
+        ranges.add(range(lower, upper, shard));
+        return compile(ranges, shardCount);
+    }
+
+    private static ShardRange range(long lower, long upper, int shard) {
+        return ShardRange.builder().lowerBound(lower).upperBound(upper).shardIndex(shard).build();
+    }
+}
@@ -0,0 +1,482 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.EntityCacheEvictor;
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ShardDataSources;
+import com.shaka.funding.config.ShardingProperties;
+import com.shaka.funding.dto.RebalanceRequest;
+import com.shaka.funding.dto.RebalanceResponse;
+import com.shaka.funding.dto.ShardRangeDto;
+import com.shaka.funding.dto.ShardingResponse;
+import com.shaka.funding.entity.ShardRange;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.ShardRangeRepository;
+import com.shaka.funding.service.ShardingService;
+import com.shaka.funding.utils.AccountUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Owns the shard map and moves accounts between shards.
+ * <p>
+ * A rebalance walks its key range in steps of at most {@code funding.sharding.move-batch-size}
+ * accounts per source shard. Each step locks its source rows through the indexed
+ * {@code shard_key}, copies them to the target shard, switches the map for its sub-range, and only
+ * then deletes the source rows, so postings to the accounts being moved wait on the row locks
+ * instead of landing on the old shard. Every step commits before the next one starts; if a step
+ * fails, the keys before it stay moved and re-running the rebalance carries on from there. Other
+ * nodes pick the new map up on their next refresh; re-running the same rebalance afterwards sweeps
+ * up any account they created on the old shard in the meantime.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "funding.sharding.enabled", havingValue = "true")
+public class ShardingServiceImpl implements ShardingService {
+
+    private static final String LOCK_USERS = "select * from tbl_user where shard_key >= ? and shard_key < ? for update";
+    // the key of the first account past a step, if there is one
+    private static final String SELECT_STEP_END =
+            "select shard_key from tbl_user where shard_key >= ? and shard_key < ? order by shard_key limit 1 offset ?";
+    // postings lock the balance row, so holding it keeps them off the accounts being moved
+    private static final String LOCK_BALANCES = "select * from tbl_account_balance where account_number in (%s) for update";
+    private static final String DELETE_BALANCES = "delete from tbl_account_balance where account_number in (%s)";
+    private static final String SELECT_TRANSACTIONS = "select * from tbl_transaction where account_number in (%s)";
+    private static final String DELETE_TRANSACTIONS = "delete from tbl_transaction where account_number in (%s)";
+    private static final String SELECT_HOLDS = "select * from tbl_fund_hold where account_number in (%s)";
+    private static final String DELETE_HOLDS = "delete from tbl_fund_hold where account_number in (%s)";
+    private static final String DELETE_USERS = "delete from tbl_user where account_number in (%s)";
+    private static final String DELETE_HOURLY_ROLLUPS = "delete from tbl_transaction_rollup_hourly where account_number in (%s)";
+    private static final String DELETE_DAILY_ROLLUPS = "delete from tbl_transaction_rollup_daily where account_number in (%s)";
+    // rollups are copied rather than rebuilt: days whose transactions were archived cannot be rebuilt
+    private static final String SELECT_HOURLY_ROLLUPS = "select * from tbl_transaction_rollup_hourly where account_number in (%s)";
+    private static final String SELECT_DAILY_ROLLUPS = "select * from tbl_transaction_rollup_daily where account_number in (%s)";
+    private static final String SELECT_ARCHIVED_BALANCES = "select * from tbl_archived_balance where account_number in (%s)";
+    private static final String DELETE_ARCHIVED_BALANCES = "delete from tbl_archived_balance where account_number in (%s)";
+    private static final String REMAP_LOANS = "update tbl_loan set user_id = ? where user_id = ?";
+    private static final int IN_LIST_SIZE = 500;
+
+    private final ShardRangeRepository shardRangeRepository;
+    private final ShardDataSources shardDataSources;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityCacheEvictor cacheEvictor;
+    private final ShardingProperties shardingProperties;
+
+    private final AtomicReference<ShardMap> activeMap = new AtomicReference<>();
+    private final Object rebalanceLock = new Object();
+
+    @PostConstruct
+    void init() {
+        // unlike a refresh, a map that does not fit the configured shards must stop startup
+        loadMap();
+    }
+
+    @Override
+    public int shardFor(String accountNumber) {
+        return activeMap.get().shardForAccount(accountNumber);
+    }
+
+    @Override
+    public int getShardCount() {
+        return shardDataSources.size();
+    }
+
+    @Override
+    @ObservedOperation
+    public ShardingResponse getShardMap() {
+        Map<Integer, Long> accounts = new TreeMap<>();
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            accounts.put(shard, new JdbcTemplate(shardDataSources.get(shard))
+                    .queryForObject("select count(*) from tbl_user", Long.class));
+        }
+        return ShardingResponse.builder()
+                .shardCount(shardDataSources.size())
+                .ranges(toDto(activeMap.get()))
+                .accountsPerShard(accounts)
+                .build();
+    }
+
+    @Override
+    @ObservedOperation
+    public ShardingResponse reload() {
+        refresh();
+        return getShardMap();
+    }
+
+    /**
+     * Picks up rebalances done by other nodes.
+     */
+    @Scheduled(fixedDelayString = "${funding.sharding.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            loadMap();
+        } catch (Exception e) {
+            log.error("Failed to reload the shard map, keeping the current one", e);
+        }
+    }
+
+    private void loadMap() {
+        List<ShardRange> ranges = shardRangeRepository.findAllByOrderByLowerBound();
+        if (ranges.isEmpty()) {
+            ShardMap map = ShardMap.evenSplit(shardDataSources.size());
+            shardRangeRepository.saveAll(map.getRanges());
+            activeMap.set(map);
+            log.info("Seeded the shard map with an even split over {} shards", shardDataSources.size());
+        } else {
+            activeMap.set(ShardMap.compile(ranges, shardDataSources.size()));
+        }
+    }
+
+    @Override
+    @ObservedOperation
+    public RebalanceResponse rebalance(RebalanceRequest request) {
+        List<String> errors = new ArrayList<>();
+        Long lower = request.getLowerBound();
+        Long upper = request.getUpperBound();
+        Integer target = request.getTargetShard();
+        if (lower == null || upper == null || lower < 0 || upper > AccountUtils.SHARD_KEY_SPACE || lower >= upper) {
+            errors.add("Range must satisfy 0 <= lowerBound < upperBound <= " + AccountUtils.SHARD_KEY_SPACE);
+        }
+        if (target == null || target < 0 || target >= shardDataSources.size()) {
+            errors.add("Unknown target shard " + target);
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid rebalance request", errors);
+        }
+
+        synchronized (rebalanceLock) {
+            long start = System.nanoTime();
+            log.info("Moving shard keys {}..{} to shard {}", lower, upper, target);
+
+            Moved moved = new Moved(0, 0);
+            long from = lower;
+            try {
+                while (from < upper) {
+                    ShardMap current = activeMap.get();
+                    Set<Integer> sourceShards = sourceShards(current, from, upper, target);
+                    long to = stepEnd(sourceShards, from, upper);
+                    moved = moved.plus(move(current, sourceShards, from, to, target));
+                    from = to;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Rebalance of shard keys " + lower + ".." + upper
+                        + " failed at key " + from + "; keys before it were moved", e);
+            } finally {
+                // moved users got new ids and their loans were repointed behind Hibernate's back
+                cacheEvictor.evictAll();
+            }
+
+            long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            log.info("Moved {} accounts and {} transactions to shard {} in {} ms",
+                    moved.users(), moved.transactions(), target, durationMs);
+            return RebalanceResponse.builder()
+                    .lowerBound(lower)
+                    .upperBound(upper)
+                    .targetShard(target)
+                    .movedUsers(moved.users())
+                    .movedTransactions(moved.transactions())
+                    .durationMs(durationMs)
+                    .ranges(toDto(activeMap.get()))
+                    .build();
+        }
+    }
+
+    // upper bound of the next step: the lowest key past the first moveBatchSize accounts on any
+    // source shard; accounts sharing a key always move together
+    private long stepEnd(Set<Integer> sourceShards, long from, long upper) {
+        long end = upper;
+        for (int shard : sourceShards) {
+            List<Long> keys = new JdbcTemplate(shardDataSources.get(shard))
+                    .queryForList(SELECT_STEP_END, Long.class, from, upper, shardingProperties.getMoveBatchSize());
+            if (!keys.isEmpty()) {
+                end = Math.min(end, keys.get(0));
+            }
+        }
+        return Math.max(end, from + 1);
+    }
+
+    // moves one step and commits it on every shard involved
+    private Moved move(ShardMap current, Set<Integer> sourceShards, long lower, long upper, int target) throws SQLException {
+        ShardMap next = current.withRange(lower, upper, target, shardDataSources.size());
+        List<SourceBatch> sources = new ArrayList<>();
+        try {
+            long movedTransactions = 0;
+            for (int shard : sourceShards) {
+                SourceBatch source = lock(shard, lower, upper);
+                sources.add(source);
+                movedTransactions += source.transactions.size();
+            }
+            Map<Long, Long> newIds = copy(target, sources);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                shardRangeRepository.deleteAllInBatch();
+                shardRangeRepository.saveAll(next.getRanges());
+            });
+            activeMap.set(next);
+
+            remapLoans(newIds);
+            for (SourceBatch source : sources) {
+                deleteMoved(source);
+            }
+            return new Moved(newIds.size(), movedTransactions);
+        } finally {
+            sources.forEach(SourceBatch::close);
+        }
+    }
+
+    private static Set<Integer> sourceShards(ShardMap map, long lower, long upper, int target) {
+        Set<Integer> sources = new TreeSet<>();
+        for (ShardRange range : map.getRanges()) {
+            if (range.getLowerBound() < upper && range.getUpperBound() > lower && range.getShardIndex() != target) {
+                sources.add(range.getShardIndex());
+            }
+        }
+        return sources;
+    }
+
+    // opens a transaction on the source shard that holds the row locks until the rows are deleted
+    private SourceBatch lock(int shard, long lower, long upper) throws SQLException {
+        Connection connection = shardDataSources.get(shard).getConnection();
+        SourceBatch source = new SourceBatch(shard, connection);
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement select = connection.prepareStatement(LOCK_USERS)) {
+                select.setLong(1, lower);
+                select.setLong(2, upper);
+                try (ResultSet rs = select.executeQuery()) {
+                    for (Map<String, Object> row : readRows(rs)) {
+                        source.users.add(row);
+                        source.accountNumbers.add((String) row.get("account_number"));
+                    }
+                }
+            }
+            for (List<String> chunk : chunks(source.accountNumbers)) {
+                try (PreparedStatement select = prepareIn(connection, LOCK_BALANCES, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.balances.addAll(readRows(rs));
+                }
+                try (PreparedStatement select = prepareIn(connection, SELECT_TRANSACTIONS, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.transactions.addAll(readRows(rs));
+                }
+                try (PreparedStatement select = prepareIn(connection, SELECT_HOLDS, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.holds.addAll(readRows(rs));
+                }
+                try (PreparedStatement select = prepareIn(connection, SELECT_HOURLY_ROLLUPS, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.hourlyRollups.addAll(withoutId(readRows(rs)));
+                }
+                try (PreparedStatement select = prepareIn(connection, SELECT_DAILY_ROLLUPS, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.dailyRollups.addAll(withoutId(readRows(rs)));
+                }
+                try (PreparedStatement select = prepareIn(connection, SELECT_ARCHIVED_BALANCES, chunk);
+                     ResultSet rs = select.executeQuery()) {
+                    source.archivedBalances.addAll(readRows(rs));
+                }
+            }
+            return source;
+        } catch (SQLException | RuntimeException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    // commits the copies on the target shard; returns old user id -> new user id
+    private Map<Long, Long> copy(int target, List<SourceBatch> sources) throws SQLException {
+        Map<Long, Long> newIds = new HashMap<>();
+        try (Connection connection = shardDataSources.get(target).getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (SourceBatch source : sources) {
+                    // leftovers of an earlier attempt that failed before the source rows were deleted
+                    for (List<String> chunk : chunks(source.accountNumbers)) {
+                        execute(connection, DELETE_HOURLY_ROLLUPS, chunk);
+                        execute(connection, DELETE_DAILY_ROLLUPS, chunk);
+                        execute(connection, DELETE_ARCHIVED_BALANCES, chunk);
+                        execute(connection, DELETE_HOLDS, chunk);
+                        execute(connection, DELETE_TRANSACTIONS, chunk);
+                        execute(connection, DELETE_BALANCES, chunk);
+                        execute(connection, DELETE_USERS, chunk);
+                    }
+                    for (Map<String, Object> user : source.users) {
+                        Long oldId = ((Number) user.get("id")).longValue();
+                        Map<String, Object> columns = new LinkedHashMap<>(user);
+                        columns.remove("id");
+                        try (PreparedStatement insert = connection.prepareStatement(insertSql("tbl_user", columns.keySet()),
+                                Statement.RETURN_GENERATED_KEYS)) {
+                            bind(insert, columns.values());
+                            insert.executeUpdate();
+                            try (ResultSet keys = insert.getGeneratedKeys()) {
+                                keys.next();
+                                newIds.put(oldId, keys.getLong(1));
+                            }
+                        }
+                    }
+                    insertAll(connection, "tbl_account_balance", source.balances);
+                    insertAll(connection, "tbl_transaction", source.transactions);
+                    insertAll(connection, "tbl_fund_hold", source.holds);
+                    insertAll(connection, "tbl_transaction_rollup_hourly", source.hourlyRollups);
+                    insertAll(connection, "tbl_transaction_rollup_daily", source.dailyRollups);
+                    insertAll(connection, "tbl_archived_balance", source.archivedBalances);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return newIds;
+    }
+
+    // loans live on shard 0 and reference users by id, which changes when a user moves
+    private void remapLoans(Map<Long, Long> newIds) throws SQLException {
+        if (newIds.isEmpty()) {
+            return;
+        }
+        try (Connection connection = shardDataSources.get(0).getConnection();
+             PreparedStatement update = connection.prepareStatement(REMAP_LOANS)) {
+            for (Map.Entry<Long, Long> id : newIds.entrySet()) {
+                update.setLong(1, id.getValue());
+                update.setLong(2, id.getKey());
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+    }
+
+    private void deleteMoved(SourceBatch source) throws SQLException {
+        for (List<String> chunk : chunks(source.accountNumbers)) {
+            execute(source.connection, DELETE_HOURLY_ROLLUPS, chunk);
+            execute(source.connection, DELETE_DAILY_ROLLUPS, chunk);
+            execute(source.connection, DELETE_ARCHIVED_BALANCES, chunk);
+            execute(source.connection, DELETE_HOLDS, chunk);
+            execute(source.connection, DELETE_TRANSACTIONS, chunk);
+            execute(source.connection, DELETE_BALANCES, chunk);
+            execute(source.connection, DELETE_USERS, chunk);
+        }
+        source.connection.commit();
+    }
+
+    private static List<ShardRangeDto> toDto(ShardMap map) {
+        return map.getRanges().stream()
+                .map(range -> ShardRangeDto.builder()
+                        .lowerBound(range.getLowerBound())
+                        .upperBound(range.getUpperBound())
+                        .shardIndex(range.getShardIndex())
+                        .build())
+                .toList();
+    }
+
+    private static List<Map<String, Object>> readRows(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        while (rs.next()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                row.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), rs.getObject(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // rollup ids are generated per shard, so copies take new ones
+    private static List<Map<String, Object>> withoutId(List<Map<String, Object>> rows) {
+        rows.forEach(row -> row.remove("id"));
+        return rows;
+    }
+
+    private static void insertAll(Connection connection, String table, List<Map<String, Object>> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement insert = connection.prepareStatement(insertSql(table, rows.get(0).keySet()))) {
+            for (Map<String, Object> row : rows) {
+                bind(insert, row.values());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static String insertSql(String table, Collection<String> columns) {
+        return "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+    }
+
+    private static void bind(PreparedStatement statement, Collection<Object> values) throws SQLException {
+        int index = 1;
+        for (Object value : values) {
+            statement.setObject(index++, value);
+        }
+    }
+
+    private static PreparedStatement prepareIn(Connection connection, String sql, List<String> values) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(
+                String.format(sql, String.join(", ", Collections.nCopies(values.size(), "?"))));
+        bind(statement, new ArrayList<>(values));
+        return statement;
+    }
+
+    private static void execute(Connection connection, String sql, List<String> values) throws SQLException {
+        try (PreparedStatement statement = prepareIn(connection, sql, values)) {
+            statement.executeUpdate();
+        }
+    }
+
+    private static List<List<String>> chunks(List<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += IN_LIST_SIZE) {
+            chunks.add(values.subList(i, Math.min(values.size(), i + IN_LIST_SIZE)));
+        }
+        return chunks;
+    }
+
+    private record Moved(long users, long transactions) {
+        Moved plus(Moved other) {
+            return new Moved(users + other.users, transactions + other.transactions);
+        }
+    }
+
+    private static final class SourceBatch {
+        private final int shard;
+        private final Connection connection;
+        private final List<Map<String, Object>> users = new ArrayList<>();
+        private final List<Map<String, Object>> balances = new ArrayList<>();
+        private final List<Map<String, Object>> transactions = new ArrayList<>();
+        private final List<Map<String, Object>> holds = new ArrayList<>();
+        private final List<Map<String, Object>> hourlyRollups = new ArrayList<>();
+        private final List<Map<String, Object>> dailyRollups = new ArrayList<>();
+        private final List<Map<String, Object>> archivedBalances = new ArrayList<>();
+        private final List<String> accountNumbers = new ArrayList<>();
+
+        private SourceBatch(int shard, Connection connection) {
+            this.shard = shard;
+            this.connection = connection;
+        }
+
+        // rolls back whatever was not committed, releasing the row locks
+        void close() {
+            try (connection) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to release shard {} connection", shard, e);
+            }
+        }
+    }
+}
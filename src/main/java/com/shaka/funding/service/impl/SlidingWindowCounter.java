@@ -0,0 +1,90 @@
+package com.shaka.funding.service.impl;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free sliding window made of a ring of time buckets. Each bucket holds a count and an
+ * amount (in minor units) for one bucket epoch. A bucket is replaced as a whole with a CAS, so
+ * claiming a stale bucket for a new epoch and adding to it are one step and no event is lost
+ * across a roll-over.
+ */
+public final class SlidingWindowCounter {
+
+    public static final long REJECTED = Long.MIN_VALUE;
+
+    private static final Bucket EMPTY = new Bucket(Long.MIN_VALUE, 0, 0);
+
+    private final long bucketNanos;
+    private final int buckets;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public SlidingWindowCounter(long windowNanos, int buckets) {
+        this.buckets = buckets;
+        this.bucketNanos = Math.max(1, windowNanos / buckets);
+        this.ring = new AtomicReferenceArray<>(buckets);
+        for (int i = 0; i < buckets; i++) {
+            ring.set(i, EMPTY);
+        }
+    }
+
+    /**
+     * Adds one event of {@code amount} unless that takes the window over either limit, in which
+     * case the event is taken out again. Adding before checking means concurrent callers always
+     * see each other's events: the limits are never exceeded, though two callers racing for the
+     * last slot may both be turned away. A negative limit disables that check.
+     *
+     * @return the bucket epoch the event was added to, to pass to {@link #remove}, or
+     * {@link #REJECTED} if it was not added
+     */
+    public long tryAdd(long nowNanos, long amount, long maxCount, long maxAmount) {
+        long epoch = add(nowNanos, amount);
+        long count = 0;
+        long total = 0;
+        long oldest = epoch - buckets + 1;
+        for (int i = 0; i < buckets; i++) {
+            Bucket bucket = ring.get(i);
+            if (bucket.epoch() >= oldest && bucket.epoch() <= epoch) {
+                count += bucket.count();
+                total += bucket.amount();
+            }
+        }
+        if ((maxCount >= 0 && count > maxCount) || (maxAmount >= 0 && total > maxAmount)) {
+            remove(epoch, amount);
+            return REJECTED;
+        }
+        return epoch;
+    }
+
+    /**
+     * Takes back an event added by {@link #tryAdd}. Nothing happens once its bucket has been
+     * reused for a later epoch, since the event has left the window by then.
+     */
+    public void remove(long epoch, long amount) {
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket.epoch() != epoch
+                    || ring.compareAndSet(slot, bucket, new Bucket(epoch, bucket.count() - 1, bucket.amount() - amount))) {
+                return;
+            }
+        }
+    }
+
+    private long add(long nowNanos, long amount) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        int slot = (int) Math.floorMod(epoch, (long) buckets);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            // a caller that stalled for a whole window after reading the clock counts at the newer epoch
+            Bucket updated = bucket.epoch() < epoch
+                    ? new Bucket(epoch, 1, amount)
+                    : new Bucket(bucket.epoch(), bucket.count() + 1, bucket.amount() + amount);
+            if (ring.compareAndSet(slot, bucket, updated)) {
+                return updated.epoch();
+            }
+        }
+    }
+
+    private record Bucket(long epoch, long count, long amount) {
+    }
+}
@@ -0,0 +1,474 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ReadYourWritesGuard;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.StandingOrderRequest;
+import com.shaka.funding.entity.PaymentFrequency;
+import com.shaka.funding.entity.StandingOrder;
+import com.shaka.funding.entity.StandingOrderExecution;
+import com.shaka.funding.exceptions.ResourceNotFoundException;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.StandingOrderExecutionRepository;
+import com.shaka.funding.repository.StandingOrderRepository;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.StandingOrderService;
+import com.shaka.funding.service.TransactionRollupService;
+import com.shaka.funding.utils.AccountUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Executes standing orders in waves: every wave runs the orders whose occurrence is due, in one
+ * partition per account bucket, so a worker owns every order debiting its accounts and posts a
+ * chunk of them with a single lock statement and batched writes.
+ * <p>
+ * Orders are global and live on shard 0, balances and postings on the account's shard. A chunk
+ * checks the credit accounts, posts the debits and then the credits, each shard's accounts in a
+ * transaction on that shard when sharding is enabled, and records the outcome on the orders in
+ * the chunk's own transaction. Posting ids are derived from the order, occurrence and side, so a
+ * chunk retried after its shard 0 transaction failed skips the postings already committed.
+ * <p>
+ * An occurrence runs at most once. The chunk locks the order rows it executes and advances them
+ * in the same transaction as the postings, so another node's wave waiting on the lock no longer
+ * finds them due, and the execution row's unique key rejects a second execution outright.
+ * A failed occurrence is retried by later waves with exponential backoff and recorded as failed
+ * once the attempts are used up, after which the order moves on to its next occurrence.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    static final String JOB_NAME = "STANDING_ORDERS";
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    public static final String EXECUTION_SUCCESS = "SUCCESS";
+    public static final String EXECUTION_FAILED = "FAILED";
+
+    private static final String SELECT_DUE =
+            "select id, debit_account_number, credit_account_number, amount, frequency, start_date, end_date, "
+                    + "next_run_date, coalesce(failed_attempts, 0) as failed_attempts from tbl_standing_order "
+                    + "where account_bucket = :bucket and id > :afterId and id <= :upperBound "
+                    + "and status = 'ACTIVE' and next_run_date <= :businessDate "
+                    + "and (next_attempt_at is null or next_attempt_at <= :now) "
+                    + "order by id limit :limit for update";
+    private static final String SELECT_ACCOUNTS =
+            "select account_number from tbl_account_balance where account_number in (:accountNumbers)";
+    private static final String SELECT_POSTED =
+            "select transaction_id from tbl_transaction where transaction_id in (:transactionIds)";
+    private static final String LOCK_BALANCES =
+            "select account_number, balance, coalesce(held_amount, 0) as held_amount from tbl_account_balance "
+                    + "where account_number in (:accountNumbers) for update";
+    private static final String UPDATE_BALANCE =
+            "update tbl_account_balance set balance = :balance, version = coalesce(version, 0) + 1, updated_at = :now "
+                    + "where account_number = :accountNumber";
+    private static final String INSERT_TRANSACTION =
+            "insert into tbl_transaction (transaction_id, transaction_type, transaction_date, transaction_time, "
+                    + "transaction_amount, account_number, status) "
+                    + "values (:transactionId, :transactionType, :transactionDate, :transactionTime, :amount, :accountNumber, 'SUCCESS')";
+    private static final String INSERT_EXECUTION =
+            "insert into tbl_standing_order_execution (standing_order_id, occurrence_date, amount, status, attempts, "
+                    + "failure_reason, executed_at) "
+                    + "values (:standingOrderId, :occurrenceDate, :amount, :status, :attempts, :failureReason, :now)";
+    private static final String UPDATE_ORDER =
+            "update tbl_standing_order set next_run_date = :nextRunDate, next_attempt_at = :nextAttemptAt, "
+                    + "failed_attempts = :failedAttempts, last_failure_reason = :failureReason, status = :status, "
+                    + "updated_at = :now where id = :id";
+
+    private final StandingOrderRepository standingOrderRepository;
+    private final StandingOrderExecutionRepository executionRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PartitionedBatchRunner batchRunner;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+    private final OutboxService outboxService;
+    private final TransactionRollupService transactionRollupService;
+
+    @Value("${standing-orders.chunk-size:500}")
+    private int chunkSize;
+    @Value("${standing-orders.threads:8}")
+    private int threads;
+    @Value("${standing-orders.max-attempts:4}")
+    private int maxAttempts;
+    @Value("${standing-orders.retry-backoff:30m}")
+    private Duration retryBackoff;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private TransactionTemplate shardTemplate;
+
+    @PostConstruct
+    void init() {
+        // a transaction of its own, so the postings neither join nor pin the runner's checkpoint transaction
+        shardTemplate = new TransactionTemplate(transactionManager);
+        shardTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public StandingOrder createStandingOrder(StandingOrderRequest request) {
+        String debit = request.getDebitAccountNumber();
+        String credit = request.getCreditAccountNumber();
+        LocalDate startDate = request.getStartDate() == null ? LocalDate.now() : request.getStartDate();
+        List<String> errors = new ArrayList<>();
+        if (debit == null && credit == null) {
+            errors.add("At least one of debitAccountNumber and creditAccountNumber is required");
+        } else if (Objects.equals(debit, credit)) {
+            errors.add("The debit and credit accounts must differ");
+        }
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            errors.add("amount must be positive");
+        }
+        if (request.getFrequency() == null) {
+            errors.add("frequency is required");
+        }
+        if (startDate.isBefore(LocalDate.now())) {
+            errors.add("startDate must not be in the past");
+        }
+        if (request.getEndDate() != null && request.getEndDate().isBefore(startDate)) {
+            errors.add("endDate must not be before startDate");
+        }
+        if (debit != null && !accountBalanceRepository.existsById(debit)) {
+            errors.add("Debit account " + debit + " does not exist");
+        }
+        if (credit != null && !accountBalanceRepository.existsById(credit)) {
+            errors.add("Credit account " + credit + " does not exist");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid standing order", errors);
+        }
+
+        StandingOrder order = standingOrderRepository.save(StandingOrder.builder()
+                .debitAccountNumber(debit)
+                .creditAccountNumber(credit)
+                .accountBucket(AccountUtils.accountBucket(debit != null ? debit : credit, AccountUtils.ACCOUNT_BUCKETS))
+                .amount(request.getAmount())
+                .frequency(request.getFrequency())
+                .startDate(startDate)
+                .endDate(request.getEndDate())
+                .nextRunDate(startDate)
+                .failedAttempts(0)
+                .reference(request.getReference())
+                .status(STATUS_ACTIVE)
+                .build());
+        log.info("Created {} standing order {} from {} to {}", order.getFrequency(), order.getId(), debit, credit);
+        return order;
+    }
+
+    @Override
+    public StandingOrder cancelStandingOrder(Long id) {
+        if (standingOrderRepository.cancel(id) > 0) {
+            log.info("Cancelled standing order {}", id);
+        }
+        return standingOrderRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Standing order " + id + " not found"));
+    }
+
+    @Override
+    public List<StandingOrder> getStandingOrders(String accountNumber) {
+        return standingOrderRepository.findByDebitAccountNumberOrCreditAccountNumberOrderById(accountNumber, accountNumber);
+    }
+
+    @Override
+    public List<StandingOrderExecution> getExecutions(Long standingOrderId) {
+        return executionRepository.findByStandingOrderIdOrderByOccurrenceDate(standingOrderId);
+    }
+
+    @Scheduled(cron = "${standing-orders.cron:0 */15 * * * *}")
+    public void scheduledWave() {
+        runDueOrders(LocalDateTime.now());
+    }
+
+    @Override
+    public BatchRunResponse runDueOrders(LocalDateTime waveTime) {
+        String runKey = waveTime.truncatedTo(ChronoUnit.MINUTES).toString();
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Standing order wave already in progress, skipping wave {}", runKey);
+            return BatchRunResponse.builder()
+                    .jobName(JOB_NAME)
+                    .runKey(runKey)
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        }
+        try {
+            LocalDate businessDate = waveTime.toLocalDate();
+            Long minId = standingOrderRepository.findMinDueId(businessDate);
+            Long maxId = standingOrderRepository.findMaxDueId(businessDate);
+            // one partition per account bucket: a worker owns every order debiting its accounts
+            return batchRunner.runByKey(JOB_NAME, runKey,
+                    minId == null ? 0 : minId, maxId == null ? -1 : maxId, AccountUtils.ACCOUNT_BUCKETS, threads,
+                    (bucket, afterId, upperBound) -> executeChunk(waveTime, bucket, afterId, upperBound));
+        } catch (DataIntegrityViolationException e) {
+            // another node created this wave's checkpoints first and is running it
+            log.warn("Standing order wave {} was started by another node", runKey);
+            return BatchRunResponse.builder()
+                    .jobName(JOB_NAME)
+                    .runKey(runKey)
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private PartitionedBatchRunner.ChunkResult executeChunk(LocalDateTime waveTime, int bucket, long afterId, long upperBound) {
+        List<DueOrder> due = jdbcTemplate.query(SELECT_DUE, new MapSqlParameterSource()
+                        .addValue("bucket", bucket)
+                        .addValue("afterId", afterId)
+                        .addValue("upperBound", upperBound)
+                        .addValue("businessDate", Date.valueOf(waveTime.toLocalDate()))
+                        .addValue("now", Timestamp.valueOf(waveTime))
+                        .addValue("limit", chunkSize),
+                (rs, rowNum) -> new DueOrder(rs.getLong("id"), rs.getString("debit_account_number"),
+                        rs.getString("credit_account_number"), rs.getBigDecimal("amount"),
+                        PaymentFrequency.valueOf(rs.getString("frequency")), rs.getDate("start_date").toLocalDate(),
+                        rs.getDate("end_date") == null ? null : rs.getDate("end_date").toLocalDate(),
+                        rs.getDate("next_run_date").toLocalDate(), rs.getInt("failed_attempts")));
+        if (due.isEmpty()) {
+            return PartitionedBatchRunner.ChunkResult.EMPTY;
+        }
+
+        // Credit accounts are checked before any debit, so a posted debit always has its credit follow.
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, String> failures = new HashMap<>();
+        for (Map.Entry<Integer, List<DueOrder>> group : byShard(due, DueOrder::creditAccountNumber).entrySet()) {
+            failures.putAll(onAccountShard(group.getKey(), () -> checkCreditAccounts(group.getValue())));
+        }
+        for (Map.Entry<Integer, List<DueOrder>> group : byShard(pending(due, failures), DueOrder::debitAccountNumber).entrySet()) {
+            failures.putAll(onAccountShard(group.getKey(), () -> post(group.getValue(), "DEBIT", now)));
+        }
+        for (Map.Entry<Integer, List<DueOrder>> group : byShard(pending(due, failures), DueOrder::creditAccountNumber).entrySet()) {
+            failures.putAll(onAccountShard(group.getKey(), () -> post(group.getValue(), "CREDIT", now)));
+        }
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<MapSqlParameterSource> executions = new ArrayList<>();
+        List<MapSqlParameterSource> orderUpdates = new ArrayList<>(due.size());
+        int executed = 0;
+        int failed = 0;
+
+        for (DueOrder order : due) {
+            String failure = failures.get(order.id());
+            int attempts = order.failedAttempts() + 1;
+            if (failure == null) {
+                executions.add(execution(order, EXECUTION_SUCCESS, attempts, null, timestamp));
+                orderUpdates.add(advance(order, null, timestamp));
+                executed++;
+            } else if (attempts >= maxAttempts) {
+                log.warn("Standing order {} failed for {} after {} attempts: {}", order.id(), order.nextRunDate(), attempts, failure);
+                executions.add(execution(order, EXECUTION_FAILED, attempts, failure, timestamp));
+                orderUpdates.add(advance(order, failure, timestamp));
+                failed++;
+            } else {
+                orderUpdates.add(new MapSqlParameterSource()
+                        .addValue("nextRunDate", Date.valueOf(order.nextRunDate()))
+                        .addValue("nextAttemptAt", Timestamp.valueOf(waveTime.plus(retryBackoff.multipliedBy(1L << (attempts - 1)))))
+                        .addValue("failedAttempts", attempts)
+                        .addValue("failureReason", failure)
+                        .addValue("status", STATUS_ACTIVE)
+                        .addValue("now", timestamp)
+                        .addValue("id", order.id()));
+            }
+        }
+
+        if (!executions.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXECUTION, executions.toArray(MapSqlParameterSource[]::new));
+        }
+        jdbcTemplate.batchUpdate(UPDATE_ORDER, orderUpdates.toArray(MapSqlParameterSource[]::new));
+
+        meterRegistry.counter("funding.standing-orders.executions", "result", "success").increment(executed);
+        meterRegistry.counter("funding.standing-orders.executions", "result", "failed").increment(failed);
+        meterRegistry.counter("funding.standing-orders.executions", "result", "retry").increment(due.size() - executed - failed);
+        return new PartitionedBatchRunner.ChunkResult(due.get(due.size() - 1).id(), due.size());
+    }
+
+    // failure per order id for orders whose credit account does not exist
+    private Map<Long, String> checkCreditAccounts(List<DueOrder> orders) {
+        Set<String> accountNumbers = new HashSet<>();
+        orders.forEach(order -> accountNumbers.add(order.creditAccountNumber()));
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(SELECT_ACCOUNTS,
+                Map.of("accountNumbers", accountNumbers), String.class));
+        Map<Long, String> failures = new HashMap<>();
+        for (DueOrder order : orders) {
+            if (!existing.contains(order.creditAccountNumber())) {
+                failures.put(order.id(), "Credit account not found");
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Posts one side of the orders, all on the same shard, and returns the failure per order id for
+     * orders that cannot be posted. Orders whose posting an earlier attempt of the chunk already
+     * committed are skipped.
+     */
+    private Map<Long, String> post(List<DueOrder> orders, String type, LocalDateTime now) {
+        boolean debit = "DEBIT".equals(type);
+        Function<DueOrder, String> side = debit ? DueOrder::debitAccountNumber : DueOrder::creditAccountNumber;
+        Map<String, DueOrder> byTransactionId = new HashMap<>();
+        orders.forEach(order -> byTransactionId.put(transactionId(order, type), order));
+        Set<Long> posted = new HashSet<>();
+        jdbcTemplate.query(SELECT_POSTED, Map.of("transactionIds", byTransactionId.keySet()),
+                rs -> {
+                    posted.add(byTransactionId.get(rs.getString("transaction_id")).id());
+                });
+
+        // Lock the shard's accounts once, in one statement so workers lock in key order.
+        Set<String> accountNumbers = new HashSet<>();
+        orders.forEach(order -> accountNumbers.add(side.apply(order)));
+        Map<String, BigDecimal> balances = new HashMap<>();
+        Map<String, BigDecimal> held = new HashMap<>();
+        jdbcTemplate.query(LOCK_BALANCES, Map.of("accountNumbers", accountNumbers),
+                rs -> {
+                    balances.put(rs.getString("account_number"), rs.getBigDecimal("balance"));
+                    held.put(rs.getString("account_number"), rs.getBigDecimal("held_amount"));
+                });
+
+        Timestamp timestamp = Timestamp.valueOf(now);
+        Map<Long, String> failures = new HashMap<>();
+        List<MapSqlParameterSource> transactions = new ArrayList<>();
+        Set<String> postedAccounts = new HashSet<>();
+        for (DueOrder order : orders) {
+            if (posted.contains(order.id())) {
+                continue;
+            }
+            String accountNumber = side.apply(order);
+            // balances already reflect earlier orders of the chunk
+            BigDecimal balance = balances.get(accountNumber);
+            if (balance == null) {
+                failures.put(order.id(), debit ? "Debit account not found" : "Credit account not found");
+                continue;
+            }
+            if (debit && balance.subtract(held.get(accountNumber)).compareTo(order.amount()) < 0) {
+                failures.put(order.id(), AccountUtils.INSUFFICIENT_BALANCE_MESSAGE);
+                continue;
+            }
+            balances.put(accountNumber, debit ? balance.subtract(order.amount()) : balance.add(order.amount()));
+            transactions.add(posting(transactionId(order, type), accountNumber, type, order.amount(), now));
+            postedAccounts.add(accountNumber);
+        }
+
+        if (!postedAccounts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, postedAccounts.stream()
+                    .map(accountNumber -> new MapSqlParameterSource()
+                            .addValue("balance", balances.get(accountNumber))
+                            .addValue("now", timestamp)
+                            .addValue("accountNumber", accountNumber))
+                    .toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactions.toArray(MapSqlParameterSource[]::new));
+            postedAccounts.forEach(readYourWritesGuard::recordWrite);
+        }
+        return failures;
+    }
+
+    // orders with an account on the given side, grouped by that account's shard
+    // shard (or null without sharding) -> orders whose account on the given side lives there
+    private Map<Integer, List<DueOrder>> byShard(List<DueOrder> orders, Function<DueOrder, String> side) {
+        Map<Integer, List<DueOrder>> byShard = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (DueOrder order : orders) {
+            String accountNumber = side.apply(order);
+            if (accountNumber != null) {
+                byShard.computeIfAbsent(shardScope.shardFor(accountNumber), key -> new ArrayList<>()).add(order);
+            }
+        }
+        return byShard;
+    }
+
+    private static List<DueOrder> pending(List<DueOrder> orders, Map<Long, String> failures) {
+        return orders.stream().filter(order -> !failures.containsKey(order.id())).toList();
+    }
+
+    // without sharding the postings stay in the chunk's transaction
+    private <T> T onAccountShard(Integer shard, Supplier<T> work) {
+        return shard == null ? work.get() : ShardContext.callOn(shard, () -> shardTemplate.execute(status -> work.get()));
+    }
+
+    // a name-based UUID per occurrence and side, so the archive can still pack it and a retry
+    // derives the same id
+    private static String transactionId(DueOrder order, String type) {
+        return UUID.nameUUIDFromBytes((JOB_NAME + ":" + order.id() + ":" + order.nextRunDate() + ":" + type)
+                .getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    // moves the order on to its next occurrence, completing it past the end date
+    private static MapSqlParameterSource advance(DueOrder order, String failure, Timestamp now) {
+        LocalDate next = order.frequency().next(order.startDate(), order.nextRunDate());
+        boolean finished = order.endDate() != null && next.isAfter(order.endDate());
+        return new MapSqlParameterSource()
+                .addValue("nextRunDate", Date.valueOf(next))
+                .addValue("nextAttemptAt", null)
+                .addValue("failedAttempts", 0)
+                .addValue("failureReason", failure)
+                .addValue("status", finished ? STATUS_COMPLETED : STATUS_ACTIVE)
+                .addValue("now", now)
+                .addValue("id", order.id());
+    }
+
+    private static MapSqlParameterSource execution(DueOrder order, String status, int attempts, String failure, Timestamp now) {
+        return new MapSqlParameterSource()
+                .addValue("standingOrderId", order.id())
+                .addValue("occurrenceDate", Date.valueOf(order.nextRunDate()))
+                .addValue("amount", order.amount())
+                .addValue("status", status)
+                .addValue("attempts", attempts)
+                .addValue("failureReason", failure)
+                .addValue("now", now);
+    }
+
+    // the transaction row for the batch, plus the rollup and outbox updates that go with it
+    private MapSqlParameterSource posting(String transactionId, String accountNumber, String type, BigDecimal amount,
+                                          LocalDateTime now) {
+        transactionRollupService.record(accountNumber, type, amount, now);
+        outboxService.record(OutboxService.ACCOUNT, accountNumber,
+                "DEBIT".equals(type) ? OutboxService.ACCOUNT_DEBITED : OutboxService.ACCOUNT_CREDITED,
+                Map.of("transactionId", transactionId,
+                        "accountNumber", accountNumber,
+                        "amount", amount,
+                        "postedAt", now.toString()));
+        return new MapSqlParameterSource()
+                .addValue("transactionId", transactionId)
+                .addValue("transactionType", type)
+                .addValue("transactionDate", Date.valueOf(now.toLocalDate()))
+                .addValue("transactionTime", Time.valueOf(now.toLocalTime()))
+                .addValue("amount", amount)
+                .addValue("accountNumber", accountNumber);
+    }
+
+    private record DueOrder(long id, String debitAccountNumber, String creditAccountNumber, BigDecimal amount,
+                            PaymentFrequency frequency, LocalDate startDate, LocalDate endDate, LocalDate nextRunDate,
+                            int failedAttempts) {
+    }
+}
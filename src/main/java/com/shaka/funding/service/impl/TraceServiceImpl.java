@@ -0,0 +1,131 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.InMemorySpanCollector;
+import com.shaka.funding.dto.SpanResponse;
+import com.shaka.funding.dto.TraceResponse;
+import com.shaka.funding.exceptions.ResourceNotFoundException;
+import com.shaka.funding.service.TraceService;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class TraceServiceImpl implements TraceService {
+
+    private static final AttributeKey<String> LAYER = AttributeKey.stringKey("layer");
+
+    private final InMemorySpanCollector spanCollector;
+
+    @Override
+    public TraceResponse getTrace(String traceId) {
+        List<SpanData> spans = spanCollector.getTrace(traceId);
+        if (spans.isEmpty()) {
+            throw new ResourceNotFoundException("Trace not found: " + traceId);
+        }
+        return toResponse(traceId, spans, true);
+    }
+
+    @Override
+    public List<TraceResponse> getRecentTraces(int limit, double minDurationMs) {
+        List<TraceResponse> traces = new ArrayList<>();
+        for (List<SpanData> spans : spanCollector.getRecentTraces(Integer.MAX_VALUE)) {
+            if (traces.size() >= limit) {
+                break;
+            }
+            TraceResponse trace = toResponse(spans.get(0).getTraceId(), spans, false);
+            if (trace.getDurationMs() >= minDurationMs) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    private TraceResponse toResponse(String traceId, List<SpanData> spans, boolean includeSpans) {
+        long traceStart = Long.MAX_VALUE;
+        long traceEnd = Long.MIN_VALUE;
+        Map<String, SpanData> byId = new HashMap<>();
+        for (SpanData span : spans) {
+            traceStart = Math.min(traceStart, span.getStartEpochNanos());
+            traceEnd = Math.max(traceEnd, span.getEndEpochNanos());
+            byId.put(span.getSpanId(), span);
+        }
+
+        // self time: a span's duration minus the time covered by its direct children
+        Map<String, Long> childNanos = new HashMap<>();
+        SpanData root = null;
+        for (SpanData span : spans) {
+            if (byId.containsKey(span.getParentSpanId())) {
+                childNanos.merge(span.getParentSpanId(), durationNanos(span), Long::sum);
+            } else if (root == null || span.getStartEpochNanos() < root.getStartEpochNanos()) {
+                root = span;
+            }
+        }
+        Map<String, Double> timeByLayer = new TreeMap<>();
+        for (SpanData span : spans) {
+            long self = Math.max(0, durationNanos(span) - childNanos.getOrDefault(span.getSpanId(), 0L));
+            timeByLayer.merge(layer(span), toMillis(self), Double::sum);
+        }
+
+        List<SpanResponse> spanResponses = null;
+        if (includeSpans) {
+            long start = traceStart;
+            spanResponses = spans.stream()
+                    .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                    .map(span -> toSpanResponse(span, start))
+                    .toList();
+        }
+
+        return TraceResponse.builder()
+                .traceId(traceId)
+                .rootName(root == null ? null : root.getName())
+                .durationMs(toMillis(traceEnd - traceStart))
+                .timeByLayerMs(timeByLayer)
+                .spans(spanResponses)
+                .build();
+    }
+
+    private static SpanResponse toSpanResponse(SpanData span, long traceStart) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        return SpanResponse.builder()
+                .spanId(span.getSpanId())
+                .parentSpanId(SpanId.isValid(span.getParentSpanId()) ? span.getParentSpanId() : null)
+                .name(span.getName())
+                .startOffsetMs(toMillis(span.getStartEpochNanos() - traceStart))
+                .durationMs(toMillis(durationNanos(span)))
+                .attributes(attributes)
+                .build();
+    }
+
+    /**
+     * Our own observations carry a "layer" tag; the rest come from Spring MVC and the JDBC
+     * datasource proxy.
+     */
+    private static String layer(SpanData span) {
+        String layer = span.getAttributes().get(LAYER);
+        if (layer != null) {
+            return layer;
+        }
+        String name = span.getName();
+        if (name.startsWith("http")) {
+            return "http";
+        }
+        if (name.equals("connection") || name.equals("query") || name.equals("result-set")) {
+            return "sql";
+        }
+        return "other";
+    }
+
+    private static long durationNanos(SpanData span) {
+        return span.getEndEpochNanos() - span.getStartEpochNanos();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,461 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.ArchiveRunResponse;
+import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.service.TransactionArchiveService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Moves transactions older than archive.min-age out of tbl_transaction into segment files under
+ * archive.dir, one directory per shard, and serves them back to account history.
+ * <p>
+ * A run pages each shard's accounts by account number and buffers their old transactions until a
+ * segment is full. The segment is written to a temporary file, forced to disk and renamed; then one
+ * shard transaction locks the accounts' balance rows, deletes exactly the archived rows, adds them to
+ * tbl_archived_balance and catalogs the file in tbl_archive_segment. If any row is already gone
+ * (another node archived it, or a rebalance moved the account) the transaction rolls back and the
+ * file is discarded. Rows therefore leave the database only once their segment is durable and
+ * catalogued, and a run that stops halfway is continued by the next one. Files that never made it
+ * into the catalog are removed at the start of the next run, once older than archive.orphan-grace.
+ * <p>
+ * Catalogued segments are memory-mapped on every node. A history lookup first opens whatever its
+ * account's shard has catalogued since, so a row is always found in either the database or a
+ * segment. Segments are never moved by a rebalance; lookups search the segments of every shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionArchiveServiceImpl implements TransactionArchiveService {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // rollups are only verified and rebuilt from tbl_transaction from the archive horizon on, so every day the
+    // 30-day aggregates read from the rollups must still be in tbl_transaction
+    private static final Duration MIN_AGE_FLOOR = Duration.ofDays(31);
+    private static final int IN_LIST_SIZE = 500;
+
+    private static final String SELECT_ACCOUNTS =
+            "select account_number from tbl_account_balance where account_number > :after order by account_number limit :limit";
+    private static final String SELECT_ARCHIVABLE =
+            "select transaction_id, transaction_type, transaction_date, transaction_time, transaction_amount, "
+                    + "account_number, status from tbl_transaction "
+                    + "where account_number in (:accountNumbers) and transaction_date < :before";
+    private static final String LOCK_BALANCES =
+            "select account_number from tbl_account_balance where account_number in (:accountNumbers) for update";
+    private static final String DELETE_ARCHIVED = "delete from tbl_transaction where transaction_id in (:transactionIds)";
+    private static final String UPSERT_ARCHIVED_BALANCE =
+            "insert into tbl_archived_balance (account_number, archived_net, archived_count, updated_at) "
+                    + "values (:accountNumber, :archivedNet, :archivedCount, :now) "
+                    + "on duplicate key update archived_net = archived_net + values(archived_net), "
+                    + "archived_count = archived_count + values(archived_count), updated_at = values(updated_at)";
+    private static final String INSERT_SEGMENT =
+            "insert into tbl_archive_segment (file_name, archived_before, min_account_number, max_account_number, "
+                    + "min_date, max_date, row_count, account_count, size_bytes, raw_bytes, created_at) "
+                    + "values (:fileName, :archivedBefore, :minAccountNumber, :maxAccountNumber, :minDate, :maxDate, "
+                    + ":rowCount, :accountCount, :sizeBytes, :rawBytes, :now)";
+    private static final String COUNT_SEGMENTS = "select count(*) from tbl_archive_segment";
+    private static final String SELECT_SEGMENTS =
+            "select file_name, min_account_number, max_account_number, min_date, max_date, size_bytes from tbl_archive_segment";
+    private static final String SELECT_SEGMENT_FILES = "select file_name from tbl_archive_segment";
+    private static final String SELECT_HORIZON = "select max(archived_before) from tbl_archive_segment";
+    private static final Comparator<Transaction> HISTORY_ORDER = Comparator.comparing(Transaction::getTransactionDate)
+            .thenComparing(Transaction::getTransactionTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+
+    @Value("${archive.dir:./data/archive}")
+    private String directory;
+    @Value("${archive.min-age:365d}")
+    private Duration minAge;
+    @Value("${archive.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${archive.segment-rows:100000}")
+    private int segmentRows;
+    @Value("${archive.row-group-size:1024}")
+    private int rowGroupSize;
+    @Value("${archive.orphan-grace:1h}")
+    private Duration orphanGrace;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    // file name -> mapped segment, for every shard
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+    private Path root;
+
+    @PostConstruct
+    void init() {
+        if (minAge.compareTo(MIN_AGE_FLOOR) < 0) {
+            throw new IllegalStateException("archive.min-age must be at least " + MIN_AGE_FLOOR.toDays()
+                    + " days; rollups behind the 30-day aggregates can only be verified and rebuilt from days still in tbl_transaction");
+        }
+        root = Path.of(directory).toAbsolutePath().normalize();
+        Gauge.builder("funding.archive.segments", segments, Map::size)
+                .description("Archive segments mapped on this node")
+                .register(meterRegistry);
+        Gauge.builder("funding.archive.bytes", segments,
+                        open -> open.values().stream().mapToLong(Segment::sizeBytes).sum())
+                .description("Size on disk of the archive segments mapped on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Maps segments other nodes have catalogued; lookups also do this for their own shard.
+     */
+    @Scheduled(fixedDelayString = "${archive.refresh-interval-ms:60000}")
+    public void refreshSegments() {
+        for (Integer shard : shardScope.shards()) {
+            int index = ShardContext.indexOf(shard);
+            try {
+                ShardContext.callOn(shard, () -> openCatalogued(index));
+            } catch (RuntimeException e) {
+                log.error("Could not map the archive segments of shard {}, retrying on the next pass", index, e);
+            }
+        }
+    }
+
+    @Scheduled(cron = "${archive.cron:0 0 2 * * *}")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    @Override
+    @ObservedOperation
+    public ArchiveRunResponse archive() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Transaction archiving already in progress, skipping this run");
+            return ArchiveRunResponse.builder().status(PartitionedBatchRunner.STATUS_RUNNING).build();
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        LocalDate before = LocalDate.now().minusDays(minAge.toDays());
+        RunTotals totals = new RunTotals();
+        try {
+            for (Integer shard : shardScope.shards()) {
+                int index = ShardContext.indexOf(shard);
+                ShardContext.callOn(shard, () -> removeOrphans(index));
+                archiveShard(shard, index, before, totals);
+            }
+        } finally {
+            running.set(false);
+        }
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Archived {} transactions of {} accounts dated before {} into {} segments ({} bytes, {} raw) in {} ms",
+                totals.transactions, totals.accounts, before, totals.segments, totals.sizeBytes, totals.rawBytes, durationMs);
+        return ArchiveRunResponse.builder()
+                .status(PartitionedBatchRunner.STATUS_COMPLETED)
+                .archivedBefore(before)
+                .segments(totals.segments)
+                .transactions(totals.transactions)
+                .accounts(totals.accounts)
+                .sizeBytes(totals.sizeBytes)
+                .rawBytes(totals.rawBytes)
+                .conflicts(totals.conflicts)
+                .durationMs(durationMs)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Override
+    @ObservedOperation
+    public List<Transaction> findTransactions(String accountNumber, LocalDate from, LocalDate to) {
+        Integer shard = shardScope.shardFor(accountNumber);
+        // a row deleted by a run committed before this point is in a segment catalogued by then
+        ShardContext.callOn(shard, () -> openCatalogued(ShardContext.indexOf(shard)));
+        List<Transaction> found = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment.mayContain(accountNumber, from, to)) {
+                found.addAll(segment.reader().find(accountNumber, from, to));
+            }
+        }
+        found.sort(HISTORY_ORDER);
+        return found;
+    }
+
+    @Override
+    public LocalDate hotHorizon() {
+        LocalDate horizon = LocalDate.EPOCH;
+        for (Integer shard : shardScope.shards()) {
+            Date archivedBefore = ShardContext.callOn(shard,
+                    () -> jdbcTemplate.queryForObject(SELECT_HORIZON, Map.of(), Date.class));
+            if (archivedBefore != null && archivedBefore.toLocalDate().isAfter(horizon)) {
+                horizon = archivedBefore.toLocalDate();
+            }
+        }
+        return horizon;
+    }
+
+    private void archiveShard(Integer current, int shard, LocalDate before, RunTotals totals) {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter(rowGroupSize);
+        String after = "";
+        while (true) {
+            String last = after;
+            List<String> chunk = ShardContext.callOn(current, () -> selectAccounts(last));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Transaction> rows = ShardContext.callOn(current, () -> selectArchivable(chunk, before));
+            rows.sort(TransactionSegmentWriter.ORDER);
+            rows.forEach(writer::add);
+            // segments end on a chunk boundary, so one account's rows of a run stay in one segment
+            if (writer.size() >= segmentRows) {
+                flush(current, shard, writer, before, totals);
+                writer = new TransactionSegmentWriter(rowGroupSize);
+            }
+            after = chunk.get(chunk.size() - 1);
+        }
+        if (!writer.isEmpty()) {
+            flush(current, shard, writer, before, totals);
+        }
+    }
+
+    private void flush(Integer current, int shard, TransactionSegmentWriter writer, LocalDate before, RunTotals totals) {
+        String fileName = shardDirectory(shard) + "/" + before + "-" + UUID.randomUUID() + SEGMENT_SUFFIX;
+        Path file = root.resolve(fileName);
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        TransactionSegmentWriter.Summary summary;
+        try {
+            Files.createDirectories(file.getParent());
+            summary = writer.write(temp);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Could not write archive segment " + file, e);
+        }
+
+        // on an exception the outcome of the commit is unknown; an uncatalogued file is removed as an orphan
+        Boolean committed = ShardContext.callOn(current, () -> transactionTemplate.execute(status -> {
+            if (!moveToArchive(writer.rows())) {
+                status.setRollbackOnly();
+                return false;
+            }
+            jdbcTemplate.update(INSERT_SEGMENT, new MapSqlParameterSource()
+                    .addValue("fileName", fileName)
+                    .addValue("archivedBefore", Date.valueOf(before))
+                    .addValue("minAccountNumber", summary.minAccountNumber())
+                    .addValue("maxAccountNumber", summary.maxAccountNumber())
+                    .addValue("minDate", Date.valueOf(summary.minDate()))
+                    .addValue("maxDate", Date.valueOf(summary.maxDate()))
+                    .addValue("rowCount", summary.rowCount())
+                    .addValue("accountCount", summary.accountCount())
+                    .addValue("sizeBytes", summary.sizeBytes())
+                    .addValue("rawBytes", summary.rawBytes())
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now())));
+            return true;
+        }));
+        if (!Boolean.TRUE.equals(committed)) {
+            deleteQuietly(file);
+            totals.conflicts++;
+            meterRegistry.counter("funding.archive.conflicts").increment();
+            log.warn("Discarded archive segment {}: some of its transactions left tbl_transaction while it was written",
+                    fileName);
+            return;
+        }
+
+        segments.computeIfAbsent(fileName, name -> open(new Catalogued(shard, name, summary.minAccountNumber(),
+                summary.maxAccountNumber(), summary.minDate(), summary.maxDate(), summary.sizeBytes())));
+        totals.segments++;
+        totals.transactions += summary.rowCount();
+        totals.accounts += summary.accountCount();
+        totals.sizeBytes += summary.sizeBytes();
+        totals.rawBytes += summary.rawBytes();
+        meterRegistry.counter("funding.archive.transactions").increment(summary.rowCount());
+        log.debug("Archived {} transactions of {} accounts into {} ({} bytes)", summary.rowCount(),
+                summary.accountCount(), fileName, summary.sizeBytes());
+    }
+
+    // false when some of the rows are gone already, in which case nothing may be committed
+    private boolean moveToArchive(List<Transaction> rows) {
+        List<String> accountNumbers = rows.stream().map(Transaction::getAccountNumber).distinct().toList();
+        // postings and rebalances lock the balance row first as well
+        for (List<String> chunk : chunks(accountNumbers)) {
+            jdbcTemplate.queryForList(LOCK_BALANCES, Map.of("accountNumbers", chunk), String.class);
+        }
+        List<String> transactionIds = rows.stream().map(Transaction::getTransactionId).toList();
+        int deleted = 0;
+        for (List<String> chunk : chunks(transactionIds)) {
+            deleted += jdbcTemplate.update(DELETE_ARCHIVED, Map.of("transactionIds", chunk));
+        }
+        if (deleted != rows.size()) {
+            return false;
+        }
+
+        Map<String, BigDecimal> nets = new LinkedHashMap<>();
+        Map<String, Long> counts = new HashMap<>();
+        for (Transaction row : rows) {
+            BigDecimal amount = row.getTransactionAmount() == null ? BigDecimal.ZERO : row.getTransactionAmount();
+            BigDecimal signed = switch (String.valueOf(row.getTransactionType())) {
+                case "CREDIT" -> amount;
+                case "DEBIT" -> amount.negate();
+                default -> BigDecimal.ZERO;
+            };
+            nets.merge(row.getAccountNumber(), signed, BigDecimal::add);
+            counts.merge(row.getAccountNumber(), 1L, Long::sum);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_ARCHIVED_BALANCE, nets.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("accountNumber", entry.getKey())
+                        .addValue("archivedNet", entry.getValue())
+                        .addValue("archivedCount", counts.get(entry.getKey()))
+                        .addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new));
+        return true;
+    }
+
+    private List<String> selectAccounts(String after) {
+        return jdbcTemplate.queryForList(SELECT_ACCOUNTS, new MapSqlParameterSource()
+                .addValue("after", after)
+                .addValue("limit", chunkSize), String.class);
+    }
+
+    private List<Transaction> selectArchivable(List<String> accountNumbers, LocalDate before) {
+        return jdbcTemplate.query(SELECT_ARCHIVABLE, new MapSqlParameterSource()
+                .addValue("accountNumbers", accountNumbers)
+                .addValue("before", Date.valueOf(before)), (rs, rowNum) -> {
+            Time time = rs.getTime("transaction_time");
+            return Transaction.builder()
+                    .transactionId(rs.getString("transaction_id"))
+                    .transactionType(rs.getString("transaction_type"))
+                    .transactionDate(rs.getDate("transaction_date").toLocalDate())
+                    .transactionTime(time == null ? null : time.toLocalTime())
+                    .transactionAmount(rs.getBigDecimal("transaction_amount"))
+                    .accountNumber(rs.getString("account_number"))
+                    .status(rs.getString("status"))
+                    .build();
+        });
+    }
+
+    // maps the shard's catalogued segments this node has not mapped yet
+    private Void openCatalogued(int shard) {
+        Long catalogued = jdbcTemplate.queryForObject(COUNT_SEGMENTS, Map.of(), Long.class);
+        long mapped = segments.values().stream().filter(segment -> segment.shard() == shard).count();
+        if (catalogued == null || catalogued == mapped) {
+            return null;
+        }
+        jdbcTemplate.query(SELECT_SEGMENTS, Map.of(), rs -> {
+            Catalogued entry = new Catalogued(shard, rs.getString("file_name"), rs.getString("min_account_number"),
+                    rs.getString("max_account_number"), rs.getDate("min_date").toLocalDate(),
+                    rs.getDate("max_date").toLocalDate(), rs.getLong("size_bytes"));
+            segments.computeIfAbsent(entry.fileName(), name -> open(entry));
+        });
+        return null;
+    }
+
+    private Segment open(Catalogued entry) {
+        Path file = root.resolve(entry.fileName());
+        try {
+            return new Segment(entry, TransactionSegmentReader.open(file));
+        } catch (IOException e) {
+            meterRegistry.counter("funding.archive.unreadable").increment();
+            throw new UncheckedIOException("Could not map archive segment " + file, e);
+        }
+    }
+
+    private Void removeOrphans(int shard) {
+        Path shardRoot = root.resolve(shardDirectory(shard));
+        if (!Files.isDirectory(shardRoot)) {
+            return null;
+        }
+        Set<String> catalogued = new HashSet<>(jdbcTemplate.queryForList(SELECT_SEGMENT_FILES, Map.of(), String.class));
+        Instant cutoff = Instant.now().minus(orphanGrace);
+        try (Stream<Path> files = Files.list(shardRoot)) {
+            for (Path file : files.toList()) {
+                String fileName = shardDirectory(shard) + "/" + file.getFileName();
+                boolean segmentFile = fileName.endsWith(SEGMENT_SUFFIX) || fileName.endsWith(TEMP_SUFFIX);
+                // younger files may belong to a run still committing on another node
+                if (segmentFile && !catalogued.contains(fileName)
+                        && Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.delete(file);
+                    log.info("Removed archive file {}, which no segment was catalogued for", fileName);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clean up archive directory " + shardRoot, e);
+        }
+        return null;
+    }
+
+    private static String shardDirectory(int shard) {
+        return "shard-" + shard;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete archive file {}", file, e);
+        }
+    }
+
+    private static List<List<String>> chunks(List<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += IN_LIST_SIZE) {
+            chunks.add(values.subList(i, Math.min(values.size(), i + IN_LIST_SIZE)));
+        }
+        return chunks;
+    }
+
+    private record Catalogued(int shard, String fileName, String minAccountNumber, String maxAccountNumber,
+                              LocalDate minDate, LocalDate maxDate, long sizeBytes) {
+    }
+
+    private record Segment(Catalogued entry, TransactionSegmentReader reader) {
+        int shard() {
+            return entry.shard();
+        }
+
+        long sizeBytes() {
+            return entry.sizeBytes();
+        }
+
+        boolean mayContain(String accountNumber, LocalDate from, LocalDate to) {
+            return accountNumber.compareTo(entry.minAccountNumber()) >= 0
+                    && accountNumber.compareTo(entry.maxAccountNumber()) <= 0
+                    && !entry.maxDate().isBefore(from) && !entry.minDate().isAfter(to)
+                    && reader.contains(accountNumber);
+        }
+    }
+
+    private static final class RunTotals {
+        private long segments;
+        private long transactions;
+        private long accounts;
+        private long sizeBytes;
+        private long rawBytes;
+        private long conflicts;
+    }
+}
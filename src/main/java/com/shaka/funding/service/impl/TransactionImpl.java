@@ -1,27 +1,90 @@
 package com.shaka.funding.service.impl;
 
 
+import com.shaka.funding.config.ReadYourWritesGuard;
 import com.shaka.funding.dto.TransactionDto;
+import com.shaka.funding.config.QueryBudget;
 import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.exceptions.ValidationException;
 import com.shaka.funding.repository.TransactionRepository;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.TransactionArchiveService;
+import com.shaka.funding.service.TransactionRollupService;
 import com.shaka.funding.service.TransactionService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
 @RequiredArgsConstructor
 @Component
 public class TransactionImpl implements TransactionService {
     private final TransactionRepository transactionRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final OutboxService outboxService;
+    private final TransactionRollupService transactionRollupService;
+    private final TransactionArchiveService transactionArchiveService;
 
     @Override
     public void saveTransaction(TransactionDto transactionDto) {
+        LocalDateTime postedAt = transactionDto.getTransactionDate() != null
+                ? transactionDto.getTransactionDate()
+                : LocalDateTime.now();
         Transaction transaction = Transaction.builder()
                 .transactionType(transactionDto.getTransactionType())
+                .transactionDate(postedAt.toLocalDate())
+                .transactionTime(postedAt.toLocalTime())
                 .transactionAmount(transactionDto.getTransactionAmount())
                 .accountNumber(transactionDto.getAccountNumber())
                 .status("SUCCESS")
                 .build();
         transactionRepository.save(transaction);
-        System.out.println("Transaction saved successfully");
+        readYourWritesGuard.recordWrite(transaction.getAccountNumber());
+        transactionRollupService.record(transaction.getAccountNumber(), transaction.getTransactionType(),
+                transaction.getTransactionAmount(), postedAt);
+        outboxService.record(OutboxService.ACCOUNT, transaction.getAccountNumber(),
+                "DEBIT".equals(transaction.getTransactionType()) ? OutboxService.ACCOUNT_DEBITED : OutboxService.ACCOUNT_CREDITED,
+                Map.of("transactionId", transaction.getTransactionId(),
+                        "accountNumber", transaction.getAccountNumber(),
+                        "amount", transaction.getTransactionAmount(),
+                        "postedAt", postedAt.toString()));
+        log.debug("Transaction saved for accountNumber: {}", transaction.getAccountNumber());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @QueryBudget(2)
+    public List<Transaction> getTransactions(String accountNumber, LocalDate from, LocalDate to) {
+        List<String> errors = new ArrayList<>();
+        if (accountNumber == null || accountNumber.isBlank()) {
+            errors.add("accountNumber is required");
+        }
+        if (from == null || to == null) {
+            errors.add("from and to are required");
+        } else if (from.isAfter(to)) {
+            errors.add("from must not be after to");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid transaction history request", errors);
+        }
+
+        readYourWritesGuard.requirePrimaryIfRecentlyWritten(accountNumber);
+        // the database is read first: a row archived in between then shows up in both tiers, never in neither
+        Map<String, Transaction> transactions = new LinkedHashMap<>();
+        for (Transaction transaction : transactionRepository.findByAccountNumberAndTransactionDateBetween(accountNumber, from, to)) {
+            transactions.put(transaction.getTransactionId(), transaction);
+        }
+        for (Transaction transaction : transactionArchiveService.findTransactions(accountNumber, from, to)) {
+            transactions.putIfAbsent(transaction.getTransactionId(), transaction);
+        }
+        List<Transaction> history = new ArrayList<>(transactions.values());
+        history.sort(Comparator.comparing(Transaction::getTransactionDate)
+                .thenComparing(Transaction::getTransactionTime, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return history;
     }
 }
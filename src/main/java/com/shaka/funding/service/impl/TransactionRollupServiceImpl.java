@@ -0,0 +1,538 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ReadYourWritesGuard;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.RollupCheckResponse;
+import com.shaka.funding.dto.RollupMismatch;
+import com.shaka.funding.dto.TransactionSummaryBucket;
+import com.shaka.funding.dto.TransactionSummaryResponse;
+import com.shaka.funding.entity.DailyTransactionRollup;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.DailyTransactionRollupRepository;
+import com.shaka.funding.repository.HourlyTransactionRollupRepository;
+import com.shaka.funding.service.TransactionArchiveService;
+import com.shaka.funding.service.TransactionRollupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps hourly and daily inflow/outflow rollups per account so range summaries read one row per
+ * hour or day of the range, however long the account's history.
+ * <p>
+ * Postings add their amounts to the current transaction's deltas, which are written from its
+ * before-commit callback as one batched upsert per rollup table, on the account's shard and under
+ * the balance row lock every posting already holds. The rollups therefore commit or roll back
+ * with the transaction rows they summarize. The transaction rows stay the source of truth: the
+ * backfill rebuilds rollups from them and the consistency check compares the two. Both leave days
+ * before the archive horizon alone, since those transactions have moved to archive segments.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransactionRollupServiceImpl implements TransactionRollupService {
+
+    static final String BACKFILL_JOB = "ROLLUP_BACKFILL";
+    public static final String STATUS_CONSISTENT = "CONSISTENT";
+    public static final String STATUS_INCONSISTENT = "INCONSISTENT";
+    public static final String STATUS_REPAIRED = "REPAIRED";
+
+    private static final String UPSERT_HOURLY =
+            "insert into tbl_transaction_rollup_hourly (account_number, bucket_date, bucket_hour, inflow_amount, "
+                    + "inflow_count, outflow_amount, outflow_count, updated_at) "
+                    + "values (:accountNumber, :bucketDate, :bucketHour, :inflowAmount, :inflowCount, :outflowAmount, :outflowCount, :now) "
+                    + "on duplicate key update inflow_amount = inflow_amount + values(inflow_amount), "
+                    + "inflow_count = inflow_count + values(inflow_count), outflow_amount = outflow_amount + values(outflow_amount), "
+                    + "outflow_count = outflow_count + values(outflow_count), updated_at = values(updated_at)";
+    private static final String UPSERT_DAILY =
+            "insert into tbl_transaction_rollup_daily (account_number, bucket_date, inflow_amount, inflow_count, "
+                    + "outflow_amount, outflow_count, updated_at) "
+                    + "values (:accountNumber, :bucketDate, :inflowAmount, :inflowCount, :outflowAmount, :outflowCount, :now) "
+                    + "on duplicate key update inflow_amount = inflow_amount + values(inflow_amount), "
+                    + "inflow_count = inflow_count + values(inflow_count), outflow_amount = outflow_amount + values(outflow_amount), "
+                    + "outflow_count = outflow_count + values(outflow_count), updated_at = values(updated_at)";
+    private static final String SELECT_ACCOUNTS =
+            "select account_number from tbl_account_balance where account_number > :after order by account_number limit :limit";
+    private static final String LOCK_BALANCES =
+            "select account_number from tbl_account_balance where account_number in (:accountNumbers) for update";
+    // rollups of days before the archive horizon are kept: their transactions are no longer in tbl_transaction
+    private static final String DELETE_HOURLY = "delete from tbl_transaction_rollup_hourly "
+            + "where account_number in (:accountNumbers) and bucket_date >= :horizon";
+    private static final String DELETE_DAILY = "delete from tbl_transaction_rollup_daily "
+            + "where account_number in (:accountNumbers) and bucket_date >= :horizon";
+    private static final String REBUILD_HOURLY =
+            "insert into tbl_transaction_rollup_hourly (account_number, bucket_date, bucket_hour, inflow_amount, "
+                    + "inflow_count, outflow_amount, outflow_count, updated_at) "
+                    + "select account_number, transaction_date, coalesce(hour(transaction_time), 0), "
+                    + "sum(case when transaction_type = 'CREDIT' then transaction_amount else 0 end), "
+                    + "sum(case when transaction_type = 'CREDIT' then 1 else 0 end), "
+                    + "sum(case when transaction_type = 'DEBIT' then transaction_amount else 0 end), "
+                    + "sum(case when transaction_type = 'DEBIT' then 1 else 0 end), :now "
+                    + "from tbl_transaction where account_number in (:accountNumbers) and transaction_date >= :horizon "
+                    + "and transaction_type in ('CREDIT', 'DEBIT') "
+                    + "group by account_number, transaction_date, coalesce(hour(transaction_time), 0)";
+    private static final String REBUILD_DAILY =
+            "insert into tbl_transaction_rollup_daily (account_number, bucket_date, inflow_amount, inflow_count, "
+                    + "outflow_amount, outflow_count, updated_at) "
+                    + "select account_number, bucket_date, sum(inflow_amount), sum(inflow_count), sum(outflow_amount), "
+                    + "sum(outflow_count), :now from tbl_transaction_rollup_hourly "
+                    + "where account_number in (:accountNumbers) and bucket_date >= :horizon "
+                    + "group by account_number, bucket_date";
+    private static final String SELECT_LEDGER_DAYS =
+            "select account_number, transaction_date as bucket_date, "
+                    + "sum(case when transaction_type = 'CREDIT' then transaction_amount else 0 end) as inflow_amount, "
+                    + "sum(case when transaction_type = 'CREDIT' then 1 else 0 end) as inflow_count, "
+                    + "sum(case when transaction_type = 'DEBIT' then transaction_amount else 0 end) as outflow_amount, "
+                    + "sum(case when transaction_type = 'DEBIT' then 1 else 0 end) as outflow_count "
+                    + "from tbl_transaction where account_number in (:accountNumbers) "
+                    + "and transaction_date between :from and :to and transaction_type in ('CREDIT', 'DEBIT') "
+                    + "group by account_number, transaction_date";
+    private static final String SELECT_DAILY_DAYS =
+            "select account_number, bucket_date, inflow_amount, inflow_count, outflow_amount, outflow_count "
+                    + "from tbl_transaction_rollup_daily where account_number in (:accountNumbers) "
+                    + "and bucket_date between :from and :to";
+    private static final String SELECT_HOURLY_DAYS =
+            "select account_number, bucket_date, sum(inflow_amount) as inflow_amount, sum(inflow_count) as inflow_count, "
+                    + "sum(outflow_amount) as outflow_amount, sum(outflow_count) as outflow_count "
+                    + "from tbl_transaction_rollup_hourly where account_number in (:accountNumbers) "
+                    + "and bucket_date between :from and :to group by account_number, bucket_date";
+    private static final Set<String> INTERVALS = Set.of(INTERVAL_HOUR, INTERVAL_DAY, INTERVAL_MONTH, INTERVAL_TOTAL);
+    private static final Comparator<Bucket> BUCKET_ORDER = Comparator.comparing(Bucket::accountNumber)
+            .thenComparing(Bucket::date)
+            .thenComparingInt(Bucket::hour);
+    private static final Comparator<Day> DAY_ORDER = Comparator.comparing(Day::accountNumber).thenComparing(Day::date);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HourlyTransactionRollupRepository hourlyRepository;
+    private final DailyTransactionRollupRepository dailyRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final TransactionArchiveService transactionArchiveService;
+    private final MeterRegistry meterRegistry;
+    private final ShardScope shardScope;
+
+    @Value("${rollups.chunk-size:500}")
+    private int chunkSize;
+    @Value("${rollups.max-hourly-days:31}")
+    private int maxHourlyDays;
+    @Value("${rollups.max-reported-mismatches:1000}")
+    private int maxReportedMismatches;
+    @Value("${rollups.verify-repair:false}")
+    private boolean repairOnSchedule;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Override
+    public void record(String accountNumber, String transactionType, BigDecimal amount, LocalDateTime postedAt) {
+        boolean debit = "DEBIT".equals(transactionType);
+        if (!debit && !"CREDIT".equals(transactionType)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<Bucket, Delta> hourly = new TreeMap<>(BUCKET_ORDER);
+            add(hourly, accountNumber, debit, amount, postedAt);
+            apply(hourly);
+            return;
+        }
+        add(batch().hourly, accountNumber, debit, amount, postedAt);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @ObservedOperation
+    public TransactionSummaryResponse getSummary(String accountNumber, LocalDate from, LocalDate to, String interval) {
+        String resolved = interval == null ? INTERVAL_DAY : interval.toUpperCase(Locale.ROOT);
+        List<String> errors = new ArrayList<>();
+        if (!INTERVALS.contains(resolved)) {
+            errors.add("interval must be one of HOUR, DAY, MONTH or TOTAL");
+        }
+        validateRange(from, to, errors);
+        if (errors.isEmpty() && INTERVAL_HOUR.equals(resolved) && ChronoUnit.DAYS.between(from, to) >= maxHourlyDays) {
+            errors.add("Hourly summaries cover at most " + maxHourlyDays + " days");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid transaction summary request", errors);
+        }
+
+        readYourWritesGuard.requirePrimaryIfRecentlyWritten(accountNumber);
+        // period start -> totals, in period order
+        Map<LocalDateTime, TransactionSummaryBucket> buckets = new LinkedHashMap<>();
+        if (INTERVAL_HOUR.equals(resolved)) {
+            hourlyRepository.findByAccountNumberAndBucketDateBetweenOrderByBucketDateAscBucketHourAsc(accountNumber, from, to)
+                    .forEach(row -> fold(buckets, row.getBucketDate().atTime(row.getBucketHour(), 0), row.getInflowAmount(),
+                            row.getInflowCount(), row.getOutflowAmount(), row.getOutflowCount()));
+        } else {
+            for (DailyTransactionRollup row : dailyRepository.findByAccountNumberAndBucketDateBetweenOrderByBucketDate(accountNumber, from, to)) {
+                LocalDate period = switch (resolved) {
+                    case INTERVAL_MONTH -> row.getBucketDate().withDayOfMonth(1);
+                    case INTERVAL_TOTAL -> from;
+                    default -> row.getBucketDate();
+                };
+                fold(buckets, period.atStartOfDay(), row.getInflowAmount(), row.getInflowCount(),
+                        row.getOutflowAmount(), row.getOutflowCount());
+            }
+        }
+
+        TransactionSummaryBucket total = TransactionSummaryBucket.builder()
+                .inflowAmount(BigDecimal.ZERO).inflowCount(0L).outflowAmount(BigDecimal.ZERO).outflowCount(0L).build();
+        buckets.values().forEach(bucket -> addTo(total, bucket.getInflowAmount(), bucket.getInflowCount(),
+                bucket.getOutflowAmount(), bucket.getOutflowCount()));
+        return TransactionSummaryResponse.builder()
+                .accountNumber(accountNumber)
+                .from(from)
+                .to(to)
+                .interval(resolved)
+                .inflowAmount(total.getInflowAmount())
+                .inflowCount(total.getInflowCount())
+                .outflowAmount(total.getOutflowAmount())
+                .outflowCount(total.getOutflowCount())
+                .netAmount(total.getInflowAmount().subtract(total.getOutflowAmount()))
+                .buckets(INTERVAL_TOTAL.equals(resolved) ? List.of() : new ArrayList<>(buckets.values()))
+                .build();
+    }
+
+    @Override
+    @ObservedOperation
+    public BatchRunResponse backfill(String accountNumber) {
+        String runKey = accountNumber == null ? "ALL" : accountNumber;
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Rollup backfill or check already in progress, skipping backfill of {}", runKey);
+            return BatchRunResponse.builder()
+                    .jobName(BACKFILL_JOB)
+                    .runKey(runKey)
+                    .status(PartitionedBatchRunner.STATUS_RUNNING)
+                    .build();
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.nanoTime();
+        long processed = 0;
+        try {
+            LocalDate horizon = transactionArchiveService.hotHorizon();
+            if (accountNumber != null) {
+                ShardContext.callOn(shardScope.shardFor(accountNumber),
+                        () -> rebuildInTransaction(List.of(accountNumber), horizon));
+                processed = 1;
+            } else {
+                for (Integer shard : shardScope.shards()) {
+                    // chunks are rebuilt whole and independently, so an interrupted backfill is simply run again
+                    String after = "";
+                    while (true) {
+                        String last = after;
+                        List<String> chunk = ShardContext.callOn(shard, () -> selectAccounts(last));
+                        if (chunk.isEmpty()) {
+                            break;
+                        }
+                        ShardContext.callOn(shard, () -> rebuildInTransaction(chunk, horizon));
+                        processed += chunk.size();
+                        after = chunk.get(chunk.size() - 1);
+                    }
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        long durationMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Rebuilt transaction rollups of {} accounts in {} ms", processed, durationMs);
+        return BatchRunResponse.builder()
+                .jobName(BACKFILL_JOB)
+                .runKey(runKey)
+                .status(PartitionedBatchRunner.STATUS_COMPLETED)
+                .processed(processed)
+                .durationMs(durationMs)
+                .throughputPerSecond(processed * 1000.0 / durationMs)
+                .startedAt(startedAt)
+                .finishedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Scheduled(cron = "${rollups.verify-cron:0 30 4 * * *}")
+    public void scheduledVerify() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        RollupCheckResponse result = verify(yesterday, yesterday, repairOnSchedule);
+        if (result.getMismatchCount() != null && result.getMismatchCount() > 0) {
+            log.error("Transaction rollups for {} disagree with the ledger on {} account days ({})",
+                    yesterday, result.getMismatchCount(), result.getStatus());
+        }
+    }
+
+    @Override
+    @ObservedOperation
+    public RollupCheckResponse verify(LocalDate from, LocalDate to, boolean repair) {
+        List<String> errors = new ArrayList<>();
+        validateRange(from, to, errors);
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid rollup check request", errors);
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Rollup backfill or check already in progress, skipping check of {}..{}", from, to);
+            return RollupCheckResponse.builder().status(PartitionedBatchRunner.STATUS_RUNNING).from(from).to(to).build();
+        }
+        long started = System.nanoTime();
+        long accountsChecked = 0;
+        long mismatchCount = 0;
+        List<RollupMismatch> reported = new ArrayList<>();
+        try {
+            LocalDate horizon = transactionArchiveService.hotHorizon();
+            // archived days have no transaction rows left to check against
+            LocalDate checkFrom = from.isBefore(horizon) ? horizon : from;
+            for (Integer shard : shardScope.shards()) {
+                String after = "";
+                while (true) {
+                    String last = after;
+                    List<String> chunk = ShardContext.callOn(shard, () -> selectAccounts(last));
+                    if (chunk.isEmpty()) {
+                        break;
+                    }
+                    // one transaction, so on MySQL both sides are read from the same snapshot
+                    List<RollupMismatch> mismatches = ShardContext.callOn(shard,
+                            () -> transactionTemplate.execute(status -> compare(chunk, checkFrom, to)));
+                    accountsChecked += chunk.size();
+                    mismatchCount += mismatches.size();
+                    mismatches.stream().limit(Math.max(0, maxReportedMismatches - reported.size())).forEach(reported::add);
+                    if (repair && !mismatches.isEmpty()) {
+                        List<String> damaged = mismatches.stream().map(RollupMismatch::getAccountNumber).distinct().toList();
+                        ShardContext.callOn(shard, () -> rebuildInTransaction(damaged, horizon));
+                    }
+                    after = chunk.get(chunk.size() - 1);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+        meterRegistry.counter("funding.rollups.mismatches").increment(mismatchCount);
+        String status = mismatchCount == 0 ? STATUS_CONSISTENT : repair ? STATUS_REPAIRED : STATUS_INCONSISTENT;
+        log.info("Checked transaction rollups of {} accounts for {}..{}: {} mismatches, {}",
+                accountsChecked, from, to, mismatchCount, status);
+        return RollupCheckResponse.builder()
+                .status(status)
+                .from(from)
+                .to(to)
+                .accountsChecked(accountsChecked)
+                .mismatchCount(mismatchCount)
+                .mismatches(reported)
+                .durationMs((System.nanoTime() - started) / 1_000_000)
+                .build();
+    }
+
+    private List<String> selectAccounts(String after) {
+        return jdbcTemplate.queryForList(SELECT_ACCOUNTS, new MapSqlParameterSource()
+                .addValue("after", after)
+                .addValue("limit", chunkSize), String.class);
+    }
+
+    private Void rebuildInTransaction(List<String> accountNumbers, LocalDate horizon) {
+        return transactionTemplate.execute(status -> {
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("accountNumbers", accountNumbers)
+                    .addValue("horizon", Date.valueOf(horizon))
+                    .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+            // postings to these accounts wait on their balance rows until the rebuilt rollups commit
+            jdbcTemplate.queryForList(LOCK_BALANCES, params, String.class);
+            jdbcTemplate.update(DELETE_HOURLY, params);
+            jdbcTemplate.update(DELETE_DAILY, params);
+            jdbcTemplate.update(REBUILD_HOURLY, params);
+            jdbcTemplate.update(REBUILD_DAILY, params);
+            return null;
+        });
+    }
+
+    private List<RollupMismatch> compare(List<String> accountNumbers, LocalDate from, LocalDate to) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountNumbers", accountNumbers)
+                .addValue("from", Date.valueOf(from))
+                .addValue("to", Date.valueOf(to));
+        Map<Day, Totals> ledger = readTotals(SELECT_LEDGER_DAYS, params);
+        Map<Day, Totals> daily = readTotals(SELECT_DAILY_DAYS, params);
+        Map<Day, Totals> hourly = readTotals(SELECT_HOURLY_DAYS, params);
+
+        Set<Day> days = new TreeSet<>(DAY_ORDER);
+        days.addAll(ledger.keySet());
+        days.addAll(daily.keySet());
+        days.addAll(hourly.keySet());
+        List<RollupMismatch> mismatches = new ArrayList<>();
+        for (Day day : days) {
+            Totals expected = ledger.getOrDefault(day, Totals.ZERO);
+            Totals hourlySum = hourly.getOrDefault(day, Totals.ZERO);
+            Totals dailyRow = daily.getOrDefault(day, Totals.ZERO);
+            if (!expected.matches(hourlySum)) {
+                mismatches.add(mismatch(day, INTERVAL_HOUR, expected, hourlySum));
+            }
+            if (!expected.matches(dailyRow)) {
+                mismatches.add(mismatch(day, INTERVAL_DAY, expected, dailyRow));
+            }
+        }
+        return mismatches;
+    }
+
+    private Map<Day, Totals> readTotals(String sql, MapSqlParameterSource params) {
+        Map<Day, Totals> totals = new HashMap<>();
+        jdbcTemplate.query(sql, params, rs -> {
+            totals.put(new Day(rs.getString("account_number"), rs.getDate("bucket_date").toLocalDate()), Totals.of(rs));
+        });
+        return totals;
+    }
+
+    // the synchronization list belongs to the current transaction and is suspended with it
+    private Batch batch() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Batch batch && batch.owner() == this) {
+                return batch;
+            }
+        }
+        Batch batch = new Batch();
+        TransactionSynchronizationManager.registerSynchronization(batch);
+        return batch;
+    }
+
+    // keys are applied in sorted order so concurrent transactions take the rollup row locks alike
+    private void apply(Map<Bucket, Delta> hourly) {
+        Map<Bucket, Delta> daily = new TreeMap<>(BUCKET_ORDER);
+        hourly.forEach((bucket, delta) -> daily
+                .computeIfAbsent(new Bucket(bucket.accountNumber(), bucket.date(), -1), key -> new Delta())
+                .add(delta));
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_HOURLY, parameters(hourly, now));
+        jdbcTemplate.batchUpdate(UPSERT_DAILY, parameters(daily, now));
+    }
+
+    private static MapSqlParameterSource[] parameters(Map<Bucket, Delta> deltas, Timestamp now) {
+        return deltas.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("accountNumber", entry.getKey().accountNumber())
+                        .addValue("bucketDate", Date.valueOf(entry.getKey().date()))
+                        .addValue("bucketHour", entry.getKey().hour())
+                        .addValue("inflowAmount", entry.getValue().inflowAmount)
+                        .addValue("inflowCount", entry.getValue().inflowCount)
+                        .addValue("outflowAmount", entry.getValue().outflowAmount)
+                        .addValue("outflowCount", entry.getValue().outflowCount)
+                        .addValue("now", now))
+                .toArray(MapSqlParameterSource[]::new);
+    }
+
+    private static void add(Map<Bucket, Delta> hourly, String accountNumber, boolean debit, BigDecimal amount,
+                            LocalDateTime postedAt) {
+        Delta delta = hourly.computeIfAbsent(new Bucket(accountNumber, postedAt.toLocalDate(), postedAt.getHour()),
+                key -> new Delta());
+        if (debit) {
+            delta.outflowAmount = delta.outflowAmount.add(amount);
+            delta.outflowCount++;
+        } else {
+            delta.inflowAmount = delta.inflowAmount.add(amount);
+            delta.inflowCount++;
+        }
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to, List<String> errors) {
+        if (from == null || to == null) {
+            errors.add("from and to are required");
+        } else if (from.isAfter(to)) {
+            errors.add("from must not be after to");
+        }
+    }
+
+    private static void fold(Map<LocalDateTime, TransactionSummaryBucket> buckets, LocalDateTime periodStart,
+                             BigDecimal inflowAmount, Long inflowCount, BigDecimal outflowAmount, Long outflowCount) {
+        TransactionSummaryBucket bucket = buckets.computeIfAbsent(periodStart, key -> TransactionSummaryBucket.builder()
+                .periodStart(key)
+                .inflowAmount(BigDecimal.ZERO).inflowCount(0L).outflowAmount(BigDecimal.ZERO).outflowCount(0L)
+                .build());
+        addTo(bucket, inflowAmount, inflowCount, outflowAmount, outflowCount);
+    }
+
+    private static void addTo(TransactionSummaryBucket bucket, BigDecimal inflowAmount, Long inflowCount,
+                              BigDecimal outflowAmount, Long outflowCount) {
+        bucket.setInflowAmount(bucket.getInflowAmount().add(inflowAmount));
+        bucket.setInflowCount(bucket.getInflowCount() + inflowCount);
+        bucket.setOutflowAmount(bucket.getOutflowAmount().add(outflowAmount));
+        bucket.setOutflowCount(bucket.getOutflowCount() + outflowCount);
+    }
+
+    private static RollupMismatch mismatch(Day day, String granularity, Totals ledger, Totals rollup) {
+        return RollupMismatch.builder()
+                .accountNumber(day.accountNumber())
+                .date(day.date())
+                .granularity(granularity)
+                .ledgerInflowAmount(ledger.inflowAmount())
+                .ledgerInflowCount(ledger.inflowCount())
+                .ledgerOutflowAmount(ledger.outflowAmount())
+                .ledgerOutflowCount(ledger.outflowCount())
+                .rollupInflowAmount(rollup.inflowAmount())
+                .rollupInflowCount(rollup.inflowCount())
+                .rollupOutflowAmount(rollup.outflowAmount())
+                .rollupOutflowCount(rollup.outflowCount())
+                .build();
+    }
+
+    private final class Batch implements TransactionSynchronization {
+        private final Map<Bucket, Delta> hourly = new TreeMap<>(BUCKET_ORDER);
+
+        TransactionRollupServiceImpl owner() {
+            return TransactionRollupServiceImpl.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!hourly.isEmpty()) {
+                apply(hourly);
+            }
+        }
+    }
+
+    // hour is -1 for a daily bucket
+    private record Bucket(String accountNumber, LocalDate date, int hour) {
+    }
+
+    private record Day(String accountNumber, LocalDate date) {
+    }
+
+    private static final class Delta {
+        private BigDecimal inflowAmount = BigDecimal.ZERO;
+        private long inflowCount;
+        private BigDecimal outflowAmount = BigDecimal.ZERO;
+        private long outflowCount;
+
+        void add(Delta other) {
+            inflowAmount = inflowAmount.add(other.inflowAmount);
+            inflowCount += other.inflowCount;
+            outflowAmount = outflowAmount.add(other.outflowAmount);
+            outflowCount += other.outflowCount;
+        }
+    }
+
+    private record Totals(BigDecimal inflowAmount, long inflowCount, BigDecimal outflowAmount, long outflowCount) {
+        static final Totals ZERO = new Totals(BigDecimal.ZERO, 0, BigDecimal.ZERO, 0);
+
+        static Totals of(ResultSet rs) throws SQLException {
+            return new Totals(rs.getBigDecimal("inflow_amount"), rs.getLong("inflow_count"),
+                    rs.getBigDecimal("outflow_amount"), rs.getLong("outflow_count"));
+        }
+
+        boolean matches(Totals other) {
+            return inflowAmount.compareTo(other.inflowAmount) == 0 && inflowCount == other.inflowCount
+                    && outflowAmount.compareTo(other.outflowAmount) == 0 && outflowCount == other.outflowCount;
+        }
+    }
+}
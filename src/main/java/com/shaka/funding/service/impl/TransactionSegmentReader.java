@@ -0,0 +1,390 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.entity.Transaction;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only view of an archive segment written by {@link TransactionSegmentWriter}. The file is
+ * memory-mapped and only its index is decoded up front; a lookup binary-searches the account index
+ * and inflates just the row groups holding that account's rows. Instances are immutable and safe to
+ * share between threads.
+ */
+public final class TransactionSegmentReader {
+
+    static final int MAGIC = 0x46545841; // "FTXA"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int FOOTER_BYTES = 28;
+
+    static final int DATES = 0;
+    static final int TIMES = 1;
+    static final int TYPES = 2;
+    static final int STATUSES = 3;
+    static final int AMOUNTS = 4;
+    static final int IDS = 5;
+    static final int COLUMN_COUNT = 6;
+
+    static final int NULL_VALUE = 0;
+    static final int LONG_AMOUNT = 1;
+    static final int BIG_AMOUNT = 2;
+    static final int UUID_ID = 1;
+    static final int STRING_ID = 2;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long rawBytes;
+    // dictionary code - 1 -> value; code 0 is null
+    private final String[] dictionary;
+    private final Group[] groups;
+    private final String[] accountNumbers;
+    private final int[] firstRows;
+    private final int[] rowCounts;
+    private final int[] minDays;
+    private final int[] maxDays;
+
+    private TransactionSegmentReader(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < HEADER_BYTES + FOOTER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("Not an archive segment: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported archive segment version " + buffer.getInt(4) + ": " + file);
+        }
+        int footer = size - FOOTER_BYTES;
+        long indexOffset = buffer.getLong(footer);
+        int indexLength = buffer.getInt(footer + 8);
+        int indexRawLength = buffer.getInt(footer + 12);
+        this.rawBytes = buffer.getLong(footer + 16);
+
+        DataInputStream index = new DataInputStream(new ByteArrayInputStream(
+                inflate(indexOffset, indexLength, indexRawLength)));
+        dictionary = new String[index.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = index.readUTF();
+        }
+        groups = new Group[index.readInt()];
+        for (int i = 0; i < groups.length; i++) {
+            int firstRow = index.readInt();
+            int rowCount = index.readInt();
+            int minDay = index.readInt();
+            int maxDay = index.readInt();
+            long[] offsets = new long[COLUMN_COUNT];
+            int[] lengths = new int[COLUMN_COUNT];
+            int[] rawLengths = new int[COLUMN_COUNT];
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                offsets[column] = index.readLong();
+                lengths[column] = index.readInt();
+                rawLengths[column] = index.readInt();
+            }
+            groups[i] = new Group(firstRow, rowCount, minDay, maxDay, offsets, lengths, rawLengths);
+        }
+        int accountCount = index.readInt();
+        accountNumbers = new String[accountCount];
+        firstRows = new int[accountCount];
+        rowCounts = new int[accountCount];
+        minDays = new int[accountCount];
+        maxDays = new int[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountNumbers[i] = index.readUTF();
+            firstRows[i] = index.readInt();
+            rowCounts[i] = index.readInt();
+            minDays[i] = index.readInt();
+            maxDays[i] = index.readInt();
+        }
+    }
+
+    /**
+     * Maps a segment file and reads its index.
+     */
+    public static TransactionSegmentReader open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Archive segment too large to map: " + file);
+            }
+            // the mapping stays valid after the channel is closed
+            return new TransactionSegmentReader(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long rawBytes() {
+        return rawBytes;
+    }
+
+    public int accountCount() {
+        return accountNumbers.length;
+    }
+
+    public int rowCount() {
+        return groups.length == 0 ? 0 : groups[groups.length - 1].firstRow() + groups[groups.length - 1].rowCount();
+    }
+
+    /**
+     * Whether the segment has transactions of the account, without inflating anything.
+     */
+    public boolean contains(String accountNumber) {
+        return Arrays.binarySearch(accountNumbers, accountNumber) >= 0;
+    }
+
+    /**
+     * Transactions of one account dated within a range, in date and time order.
+     * @param from First day, inclusive
+     * @param to Last day, inclusive
+     */
+    public List<Transaction> find(String accountNumber, LocalDate from, LocalDate to) {
+        int account = Arrays.binarySearch(accountNumbers, accountNumber);
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        if (account < 0 || maxDays[account] < fromDay || minDays[account] > toDay) {
+            return List.of();
+        }
+        int first = firstRows[account];
+        int end = first + rowCounts[account];
+        List<Transaction> found = new ArrayList<>();
+        for (int g = groupOf(first); g < groups.length && groups[g].firstRow() < end; g++) {
+            Group group = groups[g];
+            if (group.maxDay() < fromDay || group.minDay() > toDay) {
+                continue;
+            }
+            // columns are decoded in sequence, so only up to the account's last row in the group
+            int start = Math.max(first, group.firstRow()) - group.firstRow();
+            int limit = Math.min(end, group.firstRow() + group.rowCount()) - group.firstRow();
+            Columns columns = decode(group, start, limit);
+            for (int row = start; row < limit; row++) {
+                if (columns.days[row] >= fromDay && columns.days[row] <= toDay) {
+                    found.add(columns.transaction(row, accountNumber));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Hands every transaction of the segment to the consumer, in account, date and time order,
+     * inflating one row group at a time.
+     */
+    public void forEach(Consumer<Transaction> consumer) {
+        int account = 0;
+        for (Group group : groups) {
+            Columns columns = decode(group, 0, group.rowCount());
+            for (int row = 0; row < group.rowCount(); row++) {
+                int absolute = group.firstRow() + row;
+                while (absolute >= firstRows[account] + rowCounts[account]) {
+                    account++;
+                }
+                consumer.accept(columns.transaction(row, accountNumbers[account]));
+            }
+        }
+    }
+
+    // the group holding a row: the last group starting at or before it
+    private int groupOf(int row) {
+        int low = 0;
+        int high = groups.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (groups[mid].firstRow() <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // rows before start are skipped over without building their values
+    private Columns decode(Group group, int start, int rows) {
+        Columns columns = new Columns(rows);
+        Cursor dates = cursor(group, DATES);
+        Cursor times = cursor(group, TIMES);
+        Cursor types = cursor(group, TYPES);
+        Cursor statuses = cursor(group, STATUSES);
+        Cursor amounts = cursor(group, AMOUNTS);
+        Cursor ids = cursor(group, IDS);
+        long day = 0;
+        for (int row = 0; row < rows; row++) {
+            day += unZigZag(dates.varLong());
+            columns.days[row] = day;
+
+            if (row < start) {
+                if (times.varLong() != 0) {
+                    times.varLong();
+                }
+                types.varLong();
+                statuses.varLong();
+                int amountKind = amounts.next();
+                if (amountKind == LONG_AMOUNT) {
+                    amounts.varLong();
+                    amounts.varLong();
+                } else if (amountKind == BIG_AMOUNT) {
+                    amounts.varLong();
+                    amounts.skip((int) amounts.varLong());
+                }
+                int idKind = ids.next();
+                if (idKind == UUID_ID) {
+                    ids.skip(16);
+                } else if (idKind == STRING_ID) {
+                    ids.skip((int) ids.varLong());
+                }
+                continue;
+            }
+
+            long secondOfDay = times.varLong();
+            columns.times[row] = secondOfDay == 0 ? null
+                    : LocalTime.ofSecondOfDay(secondOfDay - 1).withNano((int) times.varLong());
+
+            columns.types[row] = lookup(types.varLong());
+            columns.statuses[row] = lookup(statuses.varLong());
+
+            int amountKind = amounts.next();
+            if (amountKind == LONG_AMOUNT) {
+                int scale = (int) unZigZag(amounts.varLong());
+                columns.amounts[row] = BigDecimal.valueOf(unZigZag(amounts.varLong()), scale);
+            } else if (amountKind == BIG_AMOUNT) {
+                int scale = (int) unZigZag(amounts.varLong());
+                columns.amounts[row] = new BigDecimal(new BigInteger(amounts.bytes()), scale);
+            }
+
+            int idKind = ids.next();
+            if (idKind == UUID_ID) {
+                columns.ids[row] = new UUID(ids.fixedLong(), ids.fixedLong()).toString();
+            } else if (idKind == STRING_ID) {
+                columns.ids[row] = new String(ids.bytes(), StandardCharsets.UTF_8);
+            }
+        }
+        return columns;
+    }
+
+    private String lookup(long code) {
+        return code == 0 ? null : dictionary[(int) code - 1];
+    }
+
+    private Cursor cursor(Group group, int column) {
+        return new Cursor(inflate(group.offsets()[column], group.lengths()[column], group.rawLengths()[column]));
+    }
+
+    private byte[] inflate(long offset, int length, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            // an absolute slice keeps the shared buffer's position untouched
+            inflater.setInput(buffer.slice((int) offset, length));
+            byte[] raw = new byte[rawLength];
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, rawLength - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != rawLength) {
+                throw new IllegalStateException("Truncated column chunk in archive segment " + file);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt archive segment " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private record Group(int firstRow, int rowCount, int minDay, int maxDay, long[] offsets, int[] lengths,
+                         int[] rawLengths) {
+    }
+
+    private static final class Columns {
+        private final long[] days;
+        private final LocalTime[] times;
+        private final String[] types;
+        private final String[] statuses;
+        private final BigDecimal[] amounts;
+        private final String[] ids;
+
+        private Columns(int rows) {
+            days = new long[rows];
+            times = new LocalTime[rows];
+            types = new String[rows];
+            statuses = new String[rows];
+            amounts = new BigDecimal[rows];
+            ids = new String[rows];
+        }
+
+        Transaction transaction(int row, String accountNumber) {
+            return Transaction.builder()
+                    .transactionId(ids[row])
+                    .transactionType(types[row])
+                    .transactionDate(LocalDate.ofEpochDay(days[row]))
+                    .transactionTime(times[row])
+                    .transactionAmount(amounts[row])
+                    .accountNumber(accountNumber)
+                    .status(statuses[row])
+                    .build();
+        }
+    }
+
+    private static final class Cursor {
+        private final ByteBuffer bytes;
+
+        private Cursor(byte[] bytes) {
+            this.bytes = ByteBuffer.wrap(bytes);
+        }
+
+        int next() {
+            return bytes.get() & 0xFF;
+        }
+
+        long fixedLong() {
+            return bytes.getLong();
+        }
+
+        long varLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        void skip(int count) {
+            bytes.position(bytes.position() + count);
+        }
+
+        byte[] bytes() {
+            byte[] value = new byte[(int) varLong()];
+            bytes.get(value);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.entity.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.zip.Deflater;
+
+import static com.shaka.funding.service.impl.TransactionSegmentReader.*;
+
+/**
+ * Buffers transactions and writes them as one columnar archive segment file, the format read by
+ * {@link TransactionSegmentReader}.
+ * <p>
+ * Rows are stored in account, date and time order and cut into row groups. Each group keeps every
+ * column in its own deflated chunk: dates as varint deltas, times as second of day, type and status
+ * as dictionary codes, amounts as scale and unscaled value, ids as 16-byte UUIDs. The account column
+ * is not stored per row; an index at the end of the file maps each account to its run of rows and
+ * dates, and each group to its column chunks, so a lookup inflates only the groups it needs.
+ */
+public final class TransactionSegmentWriter {
+
+    static final Comparator<Transaction> ORDER = Comparator.comparing(Transaction::getAccountNumber)
+            .thenComparing(Transaction::getTransactionDate)
+            .thenComparing(Transaction::getTransactionTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Transaction::getTransactionId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int rowGroupSize;
+    private final List<Transaction> rows = new ArrayList<>();
+
+    public TransactionSegmentWriter(int rowGroupSize) {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("rowGroupSize must be positive");
+        }
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    /**
+     * Adds a transaction. Transactions must arrive in account, date, time and id order, and every one
+     * needs an account number and a date.
+     */
+    public void add(Transaction transaction) {
+        if (transaction.getAccountNumber() == null || transaction.getTransactionDate() == null) {
+            throw new IllegalArgumentException("Archived transactions need an account number and a date");
+        }
+        if (!rows.isEmpty() && ORDER.compare(rows.get(rows.size() - 1), transaction) > 0) {
+            throw new IllegalArgumentException("Transactions must be added in account, date and time order");
+        }
+        rows.add(transaction);
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    public List<Transaction> rows() {
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Writes the buffered transactions to a new file and forces it to disk.
+     * @param file File to create; must not exist yet
+     * @return What the segment holds, for its catalog entry
+     */
+    public Summary write(Path file) throws IOException {
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("Nothing to write");
+        }
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Transaction row : rows) {
+            code(dictionary, row.getTransactionType());
+            code(dictionary, row.getStatus());
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+            long position = writeFully(channel, header, 0);
+            long rawBytes = 0;
+
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(indexBytes);
+            index.writeInt(dictionary.size());
+            for (String value : dictionary.keySet()) {
+                index.writeUTF(value);
+            }
+            int groupCount = (rows.size() + rowGroupSize - 1) / rowGroupSize;
+            index.writeInt(groupCount);
+            for (int first = 0; first < rows.size(); first += rowGroupSize) {
+                List<Transaction> group = rows.subList(first, Math.min(rows.size(), first + rowGroupSize));
+                index.writeInt(first);
+                index.writeInt(group.size());
+                // a group can span accounts, so its dates are not in order
+                index.writeInt(group.stream().mapToInt(row -> (int) row.getTransactionDate().toEpochDay()).min().orElseThrow());
+                index.writeInt(group.stream().mapToInt(row -> (int) row.getTransactionDate().toEpochDay()).max().orElseThrow());
+                for (byte[] column : encode(group, dictionary)) {
+                    byte[] compressed = deflate(column);
+                    index.writeLong(position);
+                    index.writeInt(compressed.length);
+                    index.writeInt(column.length);
+                    position = writeFully(channel, ByteBuffer.wrap(compressed), position);
+                    rawBytes += column.length;
+                }
+            }
+            List<Run> runs = runs();
+            index.writeInt(runs.size());
+            for (Run run : runs) {
+                index.writeUTF(run.accountNumber());
+                index.writeInt(run.firstRow());
+                index.writeInt(run.rowCount());
+                index.writeInt((int) run.minDate().toEpochDay());
+                index.writeInt((int) run.maxDate().toEpochDay());
+            }
+            index.flush();
+
+            byte[] rawIndex = indexBytes.toByteArray();
+            byte[] compressedIndex = deflate(rawIndex);
+            long indexOffset = position;
+            position = writeFully(channel, ByteBuffer.wrap(compressedIndex), position);
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES)
+                    .putLong(indexOffset)
+                    .putInt(compressedIndex.length)
+                    .putInt(rawIndex.length)
+                    .putLong(rawBytes)
+                    .putInt(MAGIC)
+                    .flip();
+            position = writeFully(channel, footer, position);
+            channel.force(true);
+
+            LocalDate minDate = runs.stream().map(Run::minDate).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate maxDate = runs.stream().map(Run::maxDate).max(Comparator.naturalOrder()).orElseThrow();
+            return new Summary(rows.size(), runs.size(), runs.get(0).accountNumber(),
+                    runs.get(runs.size() - 1).accountNumber(), minDate, maxDate, position, rawBytes);
+        }
+    }
+
+    // one run of consecutive rows per account
+    private List<Run> runs() {
+        List<Run> runs = new ArrayList<>();
+        int first = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            if (i == rows.size() || !rows.get(i).getAccountNumber().equals(rows.get(first).getAccountNumber())) {
+                LocalDate minDate = rows.get(first).getTransactionDate();
+                LocalDate maxDate = rows.get(i - 1).getTransactionDate();
+                runs.add(new Run(rows.get(first).getAccountNumber(), first, i - first, minDate, maxDate));
+                first = i;
+            }
+        }
+        return runs;
+    }
+
+    private static byte[][] encode(List<Transaction> group, Map<String, Integer> dictionary) {
+        ByteArrayOutputStream dates = new ByteArrayOutputStream();
+        ByteArrayOutputStream times = new ByteArrayOutputStream();
+        ByteArrayOutputStream types = new ByteArrayOutputStream();
+        ByteArrayOutputStream statuses = new ByteArrayOutputStream();
+        ByteArrayOutputStream amounts = new ByteArrayOutputStream();
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        long previousDay = 0;
+        for (Transaction row : group) {
+            long day = row.getTransactionDate().toEpochDay();
+            writeVarLong(dates, zigZag(day - previousDay));
+            previousDay = day;
+
+            LocalTime time = row.getTransactionTime();
+            if (time == null) {
+                writeVarLong(times, 0);
+            } else {
+                writeVarLong(times, time.toSecondOfDay() + 1L);
+                writeVarLong(times, time.getNano());
+            }
+
+            writeVarLong(types, dictionary.getOrDefault(row.getTransactionType(), 0));
+            writeVarLong(statuses, dictionary.getOrDefault(row.getStatus(), 0));
+
+            BigDecimal amount = row.getTransactionAmount();
+            if (amount == null) {
+                amounts.write(NULL_VALUE);
+            } else if (amount.unscaledValue().bitLength() < Long.SIZE) {
+                amounts.write(LONG_AMOUNT);
+                writeVarLong(amounts, zigZag(amount.scale()));
+                writeVarLong(amounts, zigZag(amount.unscaledValue().longValue()));
+            } else {
+                amounts.write(BIG_AMOUNT);
+                writeVarLong(amounts, zigZag(amount.scale()));
+                writeBytes(amounts, amount.unscaledValue().toByteArray());
+            }
+
+            String id = row.getTransactionId();
+            UUID uuid = id == null ? null : parseUuid(id);
+            if (id == null) {
+                ids.write(NULL_VALUE);
+            } else if (uuid != null) {
+                ids.write(UUID_ID);
+                ids.writeBytes(ByteBuffer.allocate(16)
+                        .putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits())
+                        .array());
+            } else {
+                ids.write(STRING_ID);
+                writeBytes(ids, id.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        byte[][] columns = new byte[COLUMN_COUNT][];
+        columns[DATES] = dates.toByteArray();
+        columns[TIMES] = times.toByteArray();
+        columns[TYPES] = types.toByteArray();
+        columns[STATUSES] = statuses.toByteArray();
+        columns[AMOUNTS] = amounts.toByteArray();
+        columns[IDS] = ids.toByteArray();
+        return columns;
+    }
+
+    // only canonical UUIDs are packed, so reading one back gives the same string
+    private static UUID parseUuid(String id) {
+        try {
+            UUID uuid = UUID.fromString(id);
+            return uuid.toString().equals(id) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void code(Map<String, Integer> dictionary, String value) {
+        if (value != null) {
+            dictionary.putIfAbsent(value, dictionary.size() + 1);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    private static void writeBytes(ByteArrayOutputStream out, byte[] bytes) {
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * What a written segment holds.
+     */
+    public record Summary(long rowCount, long accountCount, String minAccountNumber, String maxAccountNumber,
+                          LocalDate minDate, LocalDate maxDate, long sizeBytes, long rawBytes) {
+    }
+
+    private record Run(String accountNumber, int firstRow, int rowCount, LocalDate minDate, LocalDate maxDate) {
+    }
+}
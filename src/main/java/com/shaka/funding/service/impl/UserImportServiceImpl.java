@@ -0,0 +1,398 @@
+package com.shaka.funding.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shaka.funding.config.EntityCacheEvictor;
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.ShardContext;
+import com.shaka.funding.config.ShardScope;
+import com.shaka.funding.dto.UserImportError;
+import com.shaka.funding.dto.UserImportResponse;
+import com.shaka.funding.dto.UserRequest;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.UserImportService;
+import com.shaka.funding.utils.AccountUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Onboards users in bulk from a CSV (header row first) or NDJSON upload, read as a stream.
+ * <p>
+ * Rows are handled in batches: emails are checked against the database with one query per batch,
+ * passwords are hashed on a pool sized to the cores, account numbers are drawn for the whole batch
+ * and checked with one query, and users and balances are written with JDBC batch inserts (per
+ * shard when sharding is on). A row that fails validation is reported with its line number and
+ * never stops the import. Imported users always get the USER role.
+ */
+@Slf4j
+@Service
+@ObservedOperation
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_RUNNING = "RUNNING";
+
+    private static final String INSERT_USER =
+            "insert into tbl_user (first_name, last_name, other_name, gender, address, state_of_origin, "
+                    + "account_number, shard_key, email, phone_number, alternative_phone_number, status, password, role, "
+                    + "created_at, modify_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_BALANCE =
+            "insert into tbl_account_balance (account_number, balance, held_amount, version, updated_at) values (?, 0, 0, 0, ?)";
+    private static final int ACCOUNT_NUMBER_ATTEMPTS = 10;
+
+    private final UserRepository userRepository;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final EntityCacheEvictor cacheEvictor;
+    private final ShardScope shardScope;
+    private final OutboxService outboxService;
+
+    @Value("${user-import.batch-size:1000}")
+    private int batchSize;
+    @Value("${user-import.hash-threads:0}")
+    private int hashThreads;
+    @Value("${user-import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ExecutorService hashPool;
+
+    @PostConstruct
+    void startHashPool() {
+        hashPool = Executors.newFixedThreadPool(hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    void stopHashPool() {
+        hashPool.shutdownNow();
+    }
+
+    @Override
+    public UserImportResponse importUsers(InputStream upload, String contentType) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("User import already in progress, rejecting upload");
+            return UserImportResponse.builder().status(STATUS_RUNNING).build();
+        }
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun();
+        String status = STATUS_COMPLETED;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Function<String, UserRequest> parser;
+            if (contentType != null && contentType.contains("ndjson")) {
+                parser = this::readJson;
+            } else {
+                lineNumber++;
+                parser = csvParser(reader.readLine());
+            }
+
+            List<ImportRow> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.totalRows++;
+                try {
+                    batch.add(new ImportRow(lineNumber, parser.apply(line)));
+                } catch (RuntimeException e) {
+                    run.fail(lineNumber, null, "Unreadable row");
+                }
+                if (batch.size() == batchSize) {
+                    importBatch(batch, run, start);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                importBatch(batch, run, start);
+            }
+        } catch (IOException e) {
+            status = STATUS_FAILED;
+            log.error("User import aborted after {} rows", run.totalRows, e);
+        } finally {
+            running.set(false);
+            // earlier lookups of the new emails or account numbers may have cached "not found"
+            cacheEvictor.evictQueries();
+        }
+
+        long durationMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        meterRegistry.timer("funding.user.import", "status", status).record(Duration.ofMillis(durationMs));
+        UserImportResponse response = UserImportResponse.builder()
+                .status(status)
+                .totalRows(run.totalRows)
+                .importedRows(run.importedRows)
+                .failedRows(run.failedRows)
+                .durationMs(durationMs)
+                .rowsPerSecond(rate(run.totalRows, durationMs))
+                .errors(run.errors)
+                .errorsTruncated(run.failedRows > run.errors.size())
+                .build();
+        log.info("User import {}: {} of {} rows imported, {} failed, {} rows/s", status, run.importedRows,
+                run.totalRows, run.failedRows, response.getRowsPerSecond());
+        return response;
+    }
+
+    private void importBatch(List<ImportRow> rows, ImportRun run, long start) {
+        List<ImportRow> valid = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String error = validate(row.request());
+            if (error == null && !run.seenEmails.add(row.email())) {
+                error = "Duplicate email in upload";
+            }
+            if (error == null) {
+                valid.add(row);
+            } else {
+                run.fail(row.line(), row.email(), error);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<String> existing = new HashSet<>(userRepository.findExistingEmails(valid.stream().map(ImportRow::email).toList()));
+            valid.removeIf(row -> {
+                if (existing.contains(row.email())) {
+                    run.fail(row.line(), row.email(), "User with email " + row.email() + " already exists");
+                    return true;
+                }
+                return false;
+            });
+            if (valid.isEmpty()) {
+                return;
+            }
+            List<String> accountNumbers = allocateAccountNumbers(valid.size(), run.assignedAccountNumbers);
+            List<String> hashes = hashPasswords(valid);
+            insert(valid, accountNumbers, hashes, run);
+        } catch (RuntimeException e) {
+            log.error("User import batch starting at line {} failed", valid.get(0).line(), e);
+            valid.forEach(row -> run.fail(row.line(), row.email(), "Batch failed: " + e.getMessage()));
+        }
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        log.info("User import progress: {} rows read, {} imported, {} rows/s", run.totalRows, run.importedRows,
+                rate(run.totalRows, elapsedMs));
+    }
+
+    private static String validate(UserRequest request) {
+        if (request.getEmail() == null || request.getEmail().isBlank()) {
+            return "Email is required";
+        }
+        if (request.getPassword() == null || request.getPassword().isBlank()) {
+            return "Password is required";
+        }
+        if (request.getFirstName() == null || request.getFirstName().isBlank()
+                || request.getLastName() == null || request.getLastName().isBlank()) {
+            return "First and last name are required";
+        }
+        return null;
+    }
+
+    /**
+     * Draws a block of account numbers not used by any existing account or earlier row of this
+     * import, checking each draw with a single query.
+     */
+    private List<String> allocateAccountNumbers(int count, Set<String> assigned) {
+        List<String> allocated = new ArrayList<>(count);
+        for (int attempt = 0; allocated.size() < count; attempt++) {
+            if (attempt == ACCOUNT_NUMBER_ATTEMPTS) {
+                throw new IllegalStateException("Could not find " + count + " unused account numbers");
+            }
+            int needed = count - allocated.size();
+            Set<String> candidates = new LinkedHashSet<>();
+            for (int i = 0; i < needed * 4 && candidates.size() < needed; i++) {
+                String candidate = AccountUtils.generateAccountNumber();
+                if (!assigned.contains(candidate)) {
+                    candidates.add(candidate);
+                }
+            }
+            userRepository.findExistingAccountNumbers(candidates).forEach(candidates::remove);
+            allocated.addAll(candidates);
+            assigned.addAll(candidates);
+        }
+        return allocated;
+    }
+
+    private List<String> hashPasswords(List<ImportRow> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            futures.add(hashPool.submit(() -> passwordEncoder.encode(row.request().getPassword())));
+        }
+        List<String> hashes = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return hashes;
+    }
+
+    private void insert(List<ImportRow> rows, List<String> accountNumbers, List<String> hashes, ImportRun run) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // shard (or null without sharding) -> indexes into rows
+        Map<Integer, List<Integer>> groups = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (int i = 0; i < rows.size(); i++) {
+            groups.computeIfAbsent(shardScope.shardFor(accountNumbers.get(i)), key -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+            List<Object[]> users = new ArrayList<>(group.getValue().size());
+            List<Object[]> balances = new ArrayList<>(group.getValue().size());
+            for (int i : group.getValue()) {
+                UserRequest request = rows.get(i).request();
+                users.add(new Object[]{request.getFirstName(), request.getLastName(), request.getOtherName(),
+                        request.getGender(), request.getAddress(), request.getStateOfOrigin(), accountNumbers.get(i),
+                        AccountUtils.accountShardKey(accountNumbers.get(i)),
+                        rows.get(i).email(), request.getPhoneNumber(), request.getAlternativePhoneNumber(), "ACTIVE",
+                        hashes.get(i), Role.USER.name(), now, now});
+                balances.add(new Object[]{accountNumbers.get(i), now});
+            }
+            try {
+                ShardContext.callOn(group.getKey(), () -> transactionTemplate.execute(status -> {
+                    jdbcTemplate.batchUpdate(INSERT_USER, users);
+                    jdbcTemplate.batchUpdate(INSERT_BALANCE, balances);
+                    for (int i : group.getValue()) {
+                        UserRequest request = rows.get(i).request();
+                        Map<String, Object> event = new LinkedHashMap<>();
+                        event.put("accountNumber", accountNumbers.get(i));
+                        event.put("email", rows.get(i).email());
+                        event.put("firstName", request.getFirstName());
+                        event.put("lastName", request.getLastName());
+                        outboxService.record(OutboxService.ACCOUNT, accountNumbers.get(i), OutboxService.ACCOUNT_CREATED, event);
+                    }
+                    return null;
+                }));
+                run.importedRows += users.size();
+                meterRegistry.counter("funding.user.import.rows", "result", "imported").increment(users.size());
+            } catch (DataAccessException e) {
+                log.error("Inserting {} imported users failed", users.size(), e);
+                group.getValue().forEach(i -> run.fail(rows.get(i).line(), rows.get(i).email(), "Insert failed"));
+            }
+        }
+    }
+
+    private Function<String, UserRequest> csvParser(String header) {
+        if (header == null) {
+            throw new ValidationException("Invalid user import", List.of("The upload is empty"));
+        }
+        List<String> columns = splitCsv(header).stream().map(String::trim).toList();
+        if (!columns.contains("email") || !columns.contains("password")) {
+            throw new ValidationException("Invalid user import", List.of("The CSV header must name at least the email and password columns"));
+        }
+        return line -> {
+            List<String> values = splitCsv(line);
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < columns.size() && i < values.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(columns.get(i), values.get(i));
+                }
+            }
+            return objectMapper.convertValue(fields, UserRequest.class);
+        };
+    }
+
+    private UserRequest readJson(String line) {
+        try {
+            return objectMapper.readValue(line, UserRequest.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Splits one CSV line; fields may be quoted, with {@code ""} for a quote inside a quoted field.
+     * Quoted fields cannot span lines.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static double rate(long rows, long durationMs) {
+        return durationMs == 0 ? 0.0 : rows * 1000.0 / durationMs;
+    }
+
+    private record ImportRow(long line, UserRequest request) {
+        String email() {
+            return request.getEmail() == null ? null : request.getEmail().trim();
+        }
+    }
+
+    private final class ImportRun {
+        long totalRows;
+        long importedRows;
+        long failedRows;
+        final List<UserImportError> errors = new ArrayList<>();
+        final Set<String> seenEmails = new HashSet<>();
+        final Set<String> assignedAccountNumbers = new HashSet<>();
+
+        void fail(long line, String email, String message) {
+            failedRows++;
+            meterRegistry.counter("funding.user.import.rows", "result", "failed").increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(UserImportError.builder().line(line).email(email).message(message).build());
+            }
+        }
+    }
+}
@@ -1,36 +1,59 @@
 package com.shaka.funding.service.impl;
 
+import com.shaka.funding.config.ObservedOperation;
+import com.shaka.funding.config.QueryBudget;
+import com.shaka.funding.config.ReadYourWritesGuard;
 import com.shaka.funding.dto.*;
+import com.shaka.funding.entity.AccountBalance;
 import com.shaka.funding.entity.Role;
 import com.shaka.funding.entity.User;
 import com.shaka.funding.exceptions.ResourceNotFoundException;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.AccountSummary;
 import com.shaka.funding.repository.UserRepository;
 import com.shaka.funding.service.JwtService;
+import com.shaka.funding.service.OutboxService;
 import com.shaka.funding.service.TransactionService;
 import com.shaka.funding.service.UserService;
+import com.shaka.funding.service.VelocityService;
 import com.shaka.funding.utils.AccountUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @Service
+@ObservedOperation
 @RequiredArgsConstructor
 @Slf4j
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
     private final TransactionService transactionService;
     private final BCryptPasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final VelocityService velocityService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final OutboxService outboxService;
 
     @Override
+    @QueryBudget(4)
+    @Transactional
     public BankResponse createAccount(UserRequest userRequest) {
         log.info("Starting account creation for email: {}", userRequest.getEmail());
         try {
@@ -55,26 +78,37 @@ public class UserServiceImpl implements UserService {
                     .password(encodedPassword)
                     .phoneNumber(userRequest.getPhoneNumber())
                     .accountNumber(AccountUtils.generateAccountNumber())
-                    .accountBalance(BigDecimal.ZERO)
                     .alternativePhoneNumber(userRequest.getAlternativePhoneNumber())
                     .status("ACTIVE")
                     .role(role) // Set the role
                     .build();
 
             User savedUser = userRepository.save(newUser);
+            accountBalanceRepository.save(AccountBalance.builder()
+                    .accountNumber(newUser.getAccountNumber())
+                    .balance(BigDecimal.ZERO)
+                    .heldAmount(BigDecimal.ZERO)
+                    .build());
+            // names are optional, so not Map.of
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("accountNumber", savedUser.getAccountNumber());
+            event.put("email", savedUser.getEmail());
+            event.put("firstName", savedUser.getFirstName());
+            event.put("lastName", savedUser.getLastName());
+            outboxService.record(OutboxService.ACCOUNT, savedUser.getAccountNumber(), OutboxService.ACCOUNT_CREATED, event);
             log.info("Account created successfully for email: {}", userRequest.getEmail());
 
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_SUCCESS_MESSAGE)
                     .accountInfo(AccountInfo.builder()
-                            .accountBalance(savedUser.getAccountBalance())
+                            .accountBalance(BigDecimal.ZERO)
                             .accountNumber(savedUser.getAccountNumber())
                             .accountName(savedUser.getFirstName() + " " + savedUser.getLastName() + " " + savedUser.getOtherName())
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Account creation failed: {}", e.getMessage(), e);
+            log.warn("Account creation failed: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_EXIST_CODE)
                     .responseMessage(e.getMessage())
@@ -82,6 +116,7 @@ public class UserServiceImpl implements UserService {
                     .build();
         } catch (Exception e) {
             log.error("Unexpected error during account creation", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_FAILURE_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_FAILURE_MESSAGE)
@@ -92,6 +127,7 @@ public class UserServiceImpl implements UserService {
 
 
     @Override
+    @QueryBudget(3)
     public BankResponse login(LoginRequest userRequest) {
         log.info("Starting login for email: {}", userRequest.getEmail());
         try {
@@ -113,18 +149,27 @@ public class UserServiceImpl implements UserService {
 
             // Generate JWT token
             String token = jwtService.generateToken(user);
+            AccountBalance balance = accountBalanceRepository.findByAccountNumber(user.getAccountNumber());
 
             log.info("Login successful for email: {}", userRequest.getEmail());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_FOUND_CODE)
                     .responseMessage("Login successful")
                     .accountInfo(AccountInfo.builder()
-                            .accountBalance(user.getAccountBalance())
+                            .accountBalance(balance == null ? null : balance.getBalance())
                             .accountNumber(user.getAccountNumber())
                             .accountName(user.getFirstName() + " " + user.getLastName() + " " + user.getOtherName())
                             .token(token) // Include token in the response
                             .build())
                     .build();
+        } catch (AuthenticationException e) {
+            // wrong credentials are an expected outcome, no stack trace needed
+            log.warn("Login failed for email {}: {}", userRequest.getEmail(), e.getMessage());
+            return BankResponse.builder()
+                    .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
+                    .responseMessage("Invalid credentials")
+                    .accountInfo(null)
+                    .build();
         } catch (Exception e) {
             log.error("Login failed: {}", e.getMessage(), e);
             return BankResponse.builder()
@@ -136,11 +181,14 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @QueryBudget(1)
     public BankResponse getAccountDetails(String accountNumber) {
         log.info("Starting account details retrieval for accountNumber: {}", accountNumber);
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(accountNumber);
-            if (!accountExist) {
+            readYourWritesGuard.requirePrimaryIfRecentlyWritten(accountNumber);
+            AccountSummary account = userRepository.findSummaryByAccountNumber(accountNumber);
+            if (account == null) {
                 log.warn("Account with accountNumber {} does not exist", accountNumber);
                 return BankResponse.builder()
                         .responseCode(AccountUtils.ACCOUNT_NOT_EXIST_CODE)
@@ -148,19 +196,20 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            User user = userRepository.findByAccountNumber(accountNumber);
             log.info("Account details retrieved successfully for accountNumber: {}", accountNumber);
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_FOUND_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_FOUND_MESSAGE)
                     .accountInfo(AccountInfo.builder()
-                            .accountBalance(user.getAccountBalance())
-                            .accountNumber(user.getAccountNumber())
-                            .accountName(user.getFirstName() + " " + user.getLastName() + " " + user.getOtherName())
+                            .accountBalance(account.getAccountBalance())
+                            .availableBalance(account.getHeldAmount() == null ? account.getAccountBalance()
+                                    : account.getAccountBalance().subtract(account.getHeldAmount()))
+                            .accountNumber(account.getAccountNumber())
+                            .accountName(account.getFirstName() + " " + account.getLastName() + " " + account.getOtherName())
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Account not found: {}", e.getMessage(), e);
+            log.warn("Account not found: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
                     .responseMessage(e.getMessage())
@@ -176,12 +225,18 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * Partial update: only fields present in the request and different from the stored value are
+     * applied, so Hibernate writes just those columns and skips the UPDATE when nothing changed.
+     */
     @Override
+    @QueryBudget(3)
+    @Transactional
     public BankResponse updateAccount(UserRequest userRequest) {
         log.info("Starting account update for accountNumber: {}", userRequest.getAccountNumber());
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(userRequest.getAccountNumber());
-            if (!accountExist) {
+            User user = userRepository.findByAccountNumber(userRequest.getAccountNumber());
+            if (user == null) {
                 log.warn("Account with accountNumber {} does not exist", userRequest.getAccountNumber());
                 return BankResponse.builder()
                         .responseCode(AccountUtils.ACCOUNT_NOT_EXIST_CODE)
@@ -189,30 +244,41 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            User user = userRepository.findByAccountNumber(userRequest.getAccountNumber());
-            user.setFirstName(userRequest.getFirstName());
-            user.setLastName(userRequest.getLastName());
-            user.setOtherName(userRequest.getOtherName());
-            user.setGender(userRequest.getGender());
-            user.setAddress(userRequest.getAddress());
-            user.setStateOfOrigin(userRequest.getStateOfOrigin());
-            user.setEmail(userRequest.getEmail());
-            user.setPassword(userRequest.getPassword());
-            user.setPhoneNumber(userRequest.getPhoneNumber());
-            user.setAlternativePhoneNumber(userRequest.getAlternativePhoneNumber());
-            userRepository.save(user);
-            log.info("Account updated successfully for accountNumber: {}", userRequest.getAccountNumber());
+            boolean changed = applyIfChanged(userRequest.getFirstName(), user.getFirstName(), user::setFirstName)
+                    | applyIfChanged(userRequest.getLastName(), user.getLastName(), user::setLastName)
+                    | applyIfChanged(userRequest.getOtherName(), user.getOtherName(), user::setOtherName)
+                    | applyIfChanged(userRequest.getGender(), user.getGender(), user::setGender)
+                    | applyIfChanged(userRequest.getAddress(), user.getAddress(), user::setAddress)
+                    | applyIfChanged(userRequest.getStateOfOrigin(), user.getStateOfOrigin(), user::setStateOfOrigin)
+                    | applyIfChanged(userRequest.getEmail(), user.getEmail(), user::setEmail)
+                    | applyIfChanged(userRequest.getPhoneNumber(), user.getPhoneNumber(), user::setPhoneNumber)
+                    | applyIfChanged(userRequest.getAlternativePhoneNumber(), user.getAlternativePhoneNumber(),
+                    user::setAlternativePhoneNumber)
+                    | applyIfChanged(userRequest.getPricingSegment(), user.getPricingSegment(), user::setPricingSegment);
+            // only hash a password that actually differs from the stored one
+            if (userRequest.getPassword() != null && !passwordEncoder.matches(userRequest.getPassword(), user.getPassword())) {
+                user.setPassword(passwordEncoder.encode(userRequest.getPassword()));
+                changed = true;
+            }
+            if (changed) {
+                userRepository.save(user);
+                readYourWritesGuard.recordWrite(user.getAccountNumber());
+                log.info("Account updated successfully for accountNumber: {}", userRequest.getAccountNumber());
+            } else {
+                log.info("No changes for accountNumber: {}, skipping update", userRequest.getAccountNumber());
+            }
+            AccountBalance balance = accountBalanceRepository.findByAccountNumber(user.getAccountNumber());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_SUCCESS_MESSAGE)
                     .accountInfo(AccountInfo.builder()
-                            .accountBalance(user.getAccountBalance())
+                            .accountBalance(balance == null ? null : balance.getBalance())
                             .accountNumber(user.getAccountNumber())
                             .accountName(user.getFirstName() + " " + user.getLastName() + " " + user.getOtherName())
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Account update failed: {}", e.getMessage(), e);
+            log.warn("Account update failed: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
                     .responseMessage(e.getMessage())
@@ -220,6 +286,7 @@ public class UserServiceImpl implements UserService {
                     .build();
         } catch (Exception e) {
             log.error("Unexpected error during account update", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_FAILURE_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_FAILURE_MESSAGE)
@@ -229,29 +296,33 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void deleteAccount(String accountNumber) {
         log.info("Starting account deletion for accountNumber: {}", accountNumber);
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(accountNumber);
-            if (!accountExist) {
+            accountBalanceRepository.deleteByAccountNumber(accountNumber);
+            if (userRepository.deleteByAccountNumber(accountNumber) == 0) {
                 log.warn("Account with accountNumber {} does not exist", accountNumber);
                 throw new ResourceNotFoundException(AccountUtils.ACCOUNT_NOT_EXIST_MESSAGE);
             }
-            userRepository.deleteByAccountNumber(accountNumber);
             log.info("Account deleted successfully for accountNumber: {}", accountNumber);
         } catch (ResourceNotFoundException e) {
-            log.error("Account deletion failed: {}", e.getMessage(), e);
+            log.warn("Account deletion failed: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Unexpected error during account deletion", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @QueryBudget(1)
     public BankResponse balanceEnquiry(EnquiryRequest enquiryRequest) {
         log.info("Starting balance enquiry for accountNumber: {}", enquiryRequest.getAccountNumber());
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(enquiryRequest.getAccountNumber());
-            if (!accountExist) {
+            readYourWritesGuard.requirePrimaryIfRecentlyWritten(enquiryRequest.getAccountNumber());
+            AccountSummary account = userRepository.findSummaryByAccountNumber(enquiryRequest.getAccountNumber());
+            if (account == null) {
                 log.warn("Account with accountNumber {} does not exist", enquiryRequest.getAccountNumber());
                 return BankResponse.builder()
                         .responseCode(AccountUtils.ACCOUNT_NOT_EXIST_CODE)
@@ -259,19 +330,20 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            User user = userRepository.findByAccountNumber(enquiryRequest.getAccountNumber());
             log.info("Balance enquiry successful for accountNumber: {}", enquiryRequest.getAccountNumber());
             return BankResponse.builder()
                     .responseCode(AccountUtils.BALANCE_ENQUIRY_SUCCESS_CODE)
                     .responseMessage(AccountUtils.BALANCE_ENQUIRY_SUCCESS_MESSAGE)
                     .accountInfo(AccountInfo.builder()
-                            .accountBalance(user.getAccountBalance())
-                            .accountNumber(user.getAccountNumber())
-                            .accountName(user.getFirstName() + " " + user.getLastName() + " " + user.getOtherName())
+                            .accountBalance(account.getAccountBalance())
+                            .availableBalance(account.getHeldAmount() == null ? account.getAccountBalance()
+                                    : account.getAccountBalance().subtract(account.getHeldAmount()))
+                            .accountNumber(account.getAccountNumber())
+                            .accountName(account.getFirstName() + " " + account.getLastName() + " " + account.getOtherName())
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Balance enquiry failed: {}", e.getMessage(), e);
+            log.warn("Balance enquiry failed: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
                     .responseMessage(e.getMessage())
@@ -288,19 +360,21 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    @QueryBudget(1)
     public String nameEnquiry(EnquiryRequest enquiryRequest) {
         log.info("Starting name enquiry for accountNumber: {}", enquiryRequest.getAccountNumber());
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(enquiryRequest.getAccountNumber());
-            if (!accountExist) {
+            readYourWritesGuard.requirePrimaryIfRecentlyWritten(enquiryRequest.getAccountNumber());
+            User user = userRepository.findByAccountNumber(enquiryRequest.getAccountNumber());
+            if (user == null) {
                 log.warn("Account with accountNumber {} does not exist", enquiryRequest.getAccountNumber());
                 return AccountUtils.ACCOUNT_NOT_EXIST_MESSAGE;
             }
-            User user = userRepository.findByAccountNumber(enquiryRequest.getAccountNumber());
             log.info("Name enquiry successful for accountNumber: {}", enquiryRequest.getAccountNumber());
             return user.getFirstName() + " " + user.getLastName() + " " + user.getOtherName();
         } catch (ResourceNotFoundException e) {
-            log.error("Name enquiry failed: {}", e.getMessage(), e);
+            log.warn("Name enquiry failed: {}", e.getMessage());
             return e.getMessage();
         } catch (Exception e) {
             log.error("Unexpected error during name enquiry", e);
@@ -309,11 +383,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @QueryBudget(7)
+    @Transactional
     public BankResponse creditAccount(CreditDebitRequest request) {
         log.info("Starting credit account for accountNumber: {}", request.getAccountNumber());
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(request.getAccountNumber());
-            if (!accountExist) {
+            // the balance row lock serializes concurrent postings to the same account
+            AccountBalance balance = accountBalanceRepository.findByAccountNumberForUpdate(request.getAccountNumber());
+            User user = balance == null ? null : userRepository.findByAccountNumber(request.getAccountNumber());
+            if (user == null) {
                 log.warn("Account with accountNumber {} does not exist", request.getAccountNumber());
                 return BankResponse.builder()
                         .responseCode(AccountUtils.ACCOUNT_NOT_EXIST_CODE)
@@ -321,10 +399,9 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            User user = userRepository.findByAccountNumber(request.getAccountNumber());
-            BigDecimal newBalance = user.getAccountBalance().add(request.getAmount());
-            user.setAccountBalance(newBalance);
-            userRepository.save(user);
+            BigDecimal newBalance = balance.getBalance().add(request.getAmount());
+            balance.setBalance(newBalance);
+            accountBalanceRepository.save(balance);
             log.info("Account credited successfully for accountNumber: {}", request.getAccountNumber());
             TransactionDto transactionDto = TransactionDto.builder()
                     .accountNumber(user.getAccountNumber())
@@ -345,7 +422,7 @@ public class UserServiceImpl implements UserService {
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Credit account failed: {}", e.getMessage(), e);
+            log.warn("Credit account failed: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
                     .responseMessage(e.getMessage())
@@ -353,6 +430,7 @@ public class UserServiceImpl implements UserService {
                     .build();
         } catch (Exception e) {
             log.error("Unexpected error during credit account", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_FAILURE_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_FAILURE_MESSAGE)
@@ -362,11 +440,15 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @QueryBudget(7)
+    @Transactional
     public BankResponse debitAccount(CreditDebitRequest request) {
         log.info("Starting debit account for accountNumber: {}", request.getAccountNumber());
         try {
-            boolean accountExist = userRepository.existsByAccountNumber(request.getAccountNumber());
-            if (!accountExist) {
+            // the balance row lock serializes concurrent postings to the same account
+            AccountBalance balance = accountBalanceRepository.findByAccountNumberForUpdate(request.getAccountNumber());
+            User user = balance == null ? null : userRepository.findByAccountNumber(request.getAccountNumber());
+            if (user == null) {
                 log.warn("Account with accountNumber {} does not exist", request.getAccountNumber());
                 return BankResponse.builder()
                         .responseCode(AccountUtils.ACCOUNT_NOT_EXIST_CODE)
@@ -374,8 +456,7 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            User user = userRepository.findByAccountNumber(request.getAccountNumber());
-            if (user.getAccountBalance().compareTo(request.getAmount()) < 0) {
+            if (balance.availableBalance().compareTo(request.getAmount()) < 0) {
                 log.warn("Insufficient balance for accountNumber: {}", request.getAccountNumber());
                 return BankResponse.builder()
                         .responseCode(AccountUtils.INSUFFICIENT_BALANCE_CODE)
@@ -383,9 +464,20 @@ public class UserServiceImpl implements UserService {
                         .accountInfo(null)
                         .build();
             }
-            BigDecimal newBalance = user.getAccountBalance().subtract(request.getAmount());
-            user.setAccountBalance(newBalance);
-            userRepository.save(user);
+            // reserved last, so only a debit that is about to post counts; a rollback gives it back
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userName = authentication == null ? null : authentication.getName();
+            if (!velocityService.tryDebit(request.getAccountNumber(), userName, request.getAmount())) {
+                log.warn("Velocity limit exceeded for accountNumber: {}", request.getAccountNumber());
+                return BankResponse.builder()
+                        .responseCode(AccountUtils.VELOCITY_LIMIT_EXCEEDED_CODE)
+                        .responseMessage(AccountUtils.VELOCITY_LIMIT_EXCEEDED_MESSAGE)
+                        .accountInfo(null)
+                        .build();
+            }
+            BigDecimal newBalance = balance.getBalance().subtract(request.getAmount());
+            balance.setBalance(newBalance);
+            accountBalanceRepository.save(balance);
             log.info("Account debited successfully for accountNumber: {}", request.getAccountNumber());
             TransactionDto transactionDto = TransactionDto.builder()
                     .accountNumber(user.getAccountNumber())
@@ -406,7 +498,7 @@ public class UserServiceImpl implements UserService {
                             .build())
                     .build();
         } catch (ResourceNotFoundException e) {
-            log.error("Debit account failed: {}", e.getMessage(), e);
+            log.warn("Debit account failed: {}", e.getMessage());
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_NOT_FOUND_CODE)
                     .responseMessage(e.getMessage())
@@ -414,6 +506,7 @@ public class UserServiceImpl implements UserService {
                     .build();
         } catch (Exception e) {
             log.error("Unexpected error during debit account", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return BankResponse.builder()
                     .responseCode(AccountUtils.ACCOUNT_CREATION_FAILURE_CODE)
                     .responseMessage(AccountUtils.ACCOUNT_CREATION_FAILURE_MESSAGE)
@@ -421,4 +514,12 @@ public class UserServiceImpl implements UserService {
                     .build();
         }
     }
-}
\ No newline at end of file
+
+    private static <T> boolean applyIfChanged(T requested, T current, Consumer<T> setter) {
+        if (requested == null || requested.equals(current)) {
+            return false;
+        }
+        setter.accept(requested);
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.VelocityProperties;
+import com.shaka.funding.service.VelocityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory debit velocity limits, one set of sliding windows per account and per user.
+ * Checks and updates on the windows never take a lock; keys nobody has touched for a while are
+ * evicted.
+ * <p>
+ * A debit reserves its slot in every window at once or in none of them. Inside a transaction the
+ * reservation is given back unless the transaction commits, so callers reserve once the posting
+ * has passed its own checks and a rolled-back posting does not count. A key is pinned while a
+ * debit holds a reservation in it, so eviction cannot drop windows a release still has to reach.
+ * Pinning is a CAS on the key's pin count; eviction retires a key by swinging an unpinned count to
+ * {@code -1}, which a late pin sees and retries on the map.
+ * <p>
+ * Rejections are counted per rule in {@code funding.velocity.rejections}; the log gets at most one
+ * summary line per {@link #REJECTION_LOG_INTERVAL}, since a client retrying into a limit would
+ * otherwise write a line per attempt.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VelocityServiceImpl implements VelocityService {
+
+    private static final Duration REJECTION_LOG_INTERVAL = Duration.ofSeconds(10);
+    private static final int EVICTED = -1;
+
+    private final VelocityProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, KeyWindows> windows = new ConcurrentHashMap<>();
+    private final AtomicLong nextRejectionLog = new AtomicLong(System.nanoTime());
+    private final AtomicLong unloggedRejections = new AtomicLong();
+
+    @Override
+    public boolean tryDebit(String accountNumber, String userName, BigDecimal amount) {
+        List<VelocityProperties.Rule> rules = properties.getRules();
+        if (!properties.isEnabled() || rules.isEmpty()) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long minorUnits = amount.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue();
+
+        KeyWindows account = accountNumber == null ? null : pin("A:" + accountNumber, rules);
+        KeyWindows user = userName == null ? null : pin("U:" + userName, rules);
+
+        List<Reservation> reserved = new ArrayList<>();
+        if (!reserve(account, VelocityProperties.Scope.ACCOUNT, rules, now, minorUnits, reserved)
+                || !reserve(user, VelocityProperties.Scope.USER, rules, now, minorUnits, reserved)) {
+            release(reserved);
+            unpin(account, user);
+            return false;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unpin(account, user);
+            return true;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(reserved);
+                }
+                unpin(account, user);
+            }
+        });
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long longestWindow = properties.getRules().stream()
+                .mapToLong(rule -> rule.getWindow().toNanos())
+                .max()
+                .orElse(0);
+        long cutoff = System.nanoTime() - Math.max(longestWindow, properties.getIdleEviction().toNanos());
+        int before = windows.size();
+        for (String key : windows.keySet()) {
+            // the CAS fails if a debit pinned the key in the meantime, and a later pin sees EVICTED
+            windows.computeIfPresent(key, (k, keyWindows) ->
+                    keyWindows.lastAccess - cutoff < 0 && keyWindows.pins.compareAndSet(0, EVICTED) ? null : keyWindows);
+        }
+        log.debug("Evicted {} idle velocity keys", before - windows.size());
+    }
+
+    // a plain get on the hot path; the map only locks a bin for the first debit on a key
+    private KeyWindows pin(String key, List<VelocityProperties.Rule> rules) {
+        while (true) {
+            KeyWindows keyWindows = windows.get(key);
+            if (keyWindows == null) {
+                keyWindows = windows.computeIfAbsent(key, k -> new KeyWindows(rules));
+            }
+            int pins = keyWindows.pins.get();
+            if (pins == EVICTED) {
+                // being removed from the map; the next lookup finds it gone
+                Thread.onSpinWait();
+            } else if (keyWindows.pins.compareAndSet(pins, pins + 1)) {
+                return keyWindows;
+            }
+        }
+    }
+
+    private static void unpin(KeyWindows... pinned) {
+        for (KeyWindows keyWindows : pinned) {
+            if (keyWindows != null) {
+                keyWindows.pins.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean reserve(KeyWindows keyWindows, VelocityProperties.Scope scope, List<VelocityProperties.Rule> rules,
+                            long now, long amount, List<Reservation> reserved) {
+        if (keyWindows == null) {
+            return true;
+        }
+        keyWindows.lastAccess = now;
+        for (int i = 0; i < rules.size(); i++) {
+            VelocityProperties.Rule rule = rules.get(i);
+            if (rule.getScope() != scope) {
+                continue;
+            }
+            SlidingWindowCounter counter = keyWindows.counters[i];
+            long epoch = counter.tryAdd(now, amount, keyWindows.maxCounts[i], keyWindows.maxAmounts[i]);
+            if (epoch == SlidingWindowCounter.REJECTED) {
+                rejected(rule, now);
+                return false;
+            }
+            reserved.add(new Reservation(counter, epoch, amount));
+        }
+        return true;
+    }
+
+    private void rejected(VelocityProperties.Rule rule, long now) {
+        meterRegistry.counter("funding.velocity.rejections", "rule", rule.getName()).increment();
+        unloggedRejections.incrementAndGet();
+        long next = nextRejectionLog.get();
+        if (now - next >= 0 && nextRejectionLog.compareAndSet(next, now + REJECTION_LOG_INTERVAL.toNanos())) {
+            log.warn("Velocity rule {} exceeded; {} debits rejected since the last report",
+                    rule.getName(), unloggedRejections.getAndSet(0));
+        }
+    }
+
+    private static void release(List<Reservation> reserved) {
+        for (Reservation reservation : reserved) {
+            reservation.counter().remove(reservation.epoch(), reservation.amount());
+        }
+    }
+
+    private record Reservation(SlidingWindowCounter counter, long epoch, long amount) {
+    }
+
+    private static final class KeyWindows {
+        final SlidingWindowCounter[] counters;
+        final long[] maxCounts;
+        final long[] maxAmounts;
+        final AtomicInteger pins = new AtomicInteger();
+        volatile long lastAccess = System.nanoTime();
+
+        KeyWindows(List<VelocityProperties.Rule> rules) {
+            counters = new SlidingWindowCounter[rules.size()];
+            maxCounts = new long[rules.size()];
+            maxAmounts = new long[rules.size()];
+            for (int i = 0; i < rules.size(); i++) {
+                VelocityProperties.Rule rule = rules.get(i);
+                counters[i] = new SlidingWindowCounter(rule.getWindow().toNanos(), rule.getBuckets());
+                maxCounts[i] = rule.getMaxCount() == null ? -1 : rule.getMaxCount();
+                maxAmounts[i] = rule.getMaxAmount() == null ? -1 : rule.getMaxAmount().movePointRight(2).longValue();
+            }
+        }
+    }
+}
@@ -29,6 +29,56 @@ public class AccountUtils {
     public static final String BALANCE_ENQUIRY_FAILURE_CODE = "012";
     public static final String BALANCE_ENQUIRY_FAILURE_MESSAGE = "An unexpected error occurred while performing balance enquiry";
     public static final String NAME_ENQUIRY_FAILURE_MESSAGE = "An unexpected error occurred while performing name enquiry";
+    public static final String VELOCITY_LIMIT_EXCEEDED_CODE = "013";
+    public static final String VELOCITY_LIMIT_EXCEEDED_MESSAGE = "Debit limit exceeded, please try again later";
+    public static final String HOLD_PLACED_CODE = "014";
+    public static final String HOLD_PLACED_MESSAGE = "Funds held successfully";
+    public static final String HOLD_CAPTURED_CODE = "015";
+    public static final String HOLD_CAPTURED_MESSAGE = "Hold captured successfully";
+    public static final String HOLD_RELEASED_CODE = "016";
+    public static final String HOLD_RELEASED_MESSAGE = "Hold released successfully";
+    public static final String HOLD_NOT_FOUND_CODE = "017";
+    public static final String HOLD_NOT_FOUND_MESSAGE = "Hold not found";
+    public static final String HOLD_NOT_ACTIVE_CODE = "018";
+    public static final String HOLD_NOT_ACTIVE_MESSAGE = "Hold is no longer active";
+    public static final String HOLD_AMOUNT_INVALID_CODE = "019";
+    public static final String HOLD_AMOUNT_INVALID_MESSAGE = "Amount must be positive and not more than the held amount";
+    public static final String HOLD_FOUND_CODE = "020";
+    public static final String HOLD_FOUND_MESSAGE = "Hold found";
+    public static final String HOLD_FAILURE_CODE = "021";
+    public static final String HOLD_FAILURE_MESSAGE = "An unexpected error occurred while processing the hold";
+
+    public static final int ACCOUNT_BUCKETS = 64;
+    // account numbers end in a 6-digit random part; shard ranges partition [0, SHARD_KEY_SPACE)
+    public static final long SHARD_KEY_SPACE = 1_000_000L;
+
+    /**
+     * Stable bucket for an account number, used to partition per-account work so that
+     * parallel workers never touch the same account.
+     */
+    public static int accountBucket(String accountNumber, int buckets) {
+        return Math.floorMod(accountNumber.hashCode(), buckets);
+    }
+
+    /**
+     * Key that places an account in a shard range: the numeric random part of the account number,
+     * or a hash for numbers not in the generated format.
+     */
+    public static long accountShardKey(String accountNumber) {
+        int length = accountNumber.length();
+        if (length >= 6) {
+            long key = 0;
+            for (int i = length - 6; i < length; i++) {
+                char c = accountNumber.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Math.floorMod(accountNumber.hashCode(), SHARD_KEY_SPACE);
+                }
+                key = key * 10 + (c - '0');
+            }
+            return key;
+        }
+        return Math.floorMod(accountNumber.hashCode(), SHARD_KEY_SPACE);
+    }
 
     public static String generateAccountNumber(){
         /**
@@ -0,0 +1,49 @@
+package com.shaka.funding;
+
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.UserRequest;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.utils.AccountUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Creates the customer accounts integration tests post against. Emails must be unique across the
+ * suite, since the tests share one database.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class AccountFixtures {
+
+    private final UserService userService;
+
+    public String account(String email) {
+        BankResponse response = userService.createAccount(UserRequest.builder()
+                .firstName("Test")
+                .lastName("Account")
+                .email(email)
+                .password("password123")
+                .role(Role.USER)
+                .build());
+        assertEquals(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE, response.getResponseCode());
+        return response.getAccountInfo().getAccountNumber();
+    }
+
+    /**
+     * An account credited with {@code amount}; a zero amount leaves it empty.
+     */
+    public String fundedAccount(String email, String amount) {
+        String accountNumber = account(email);
+        if (new BigDecimal(amount).signum() > 0) {
+            BankResponse response = userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal(amount)));
+            assertEquals(AccountUtils.ACCOUNT_CREDITED_CODE, response.getResponseCode());
+        }
+        return accountNumber;
+    }
+}
@@ -1,9 +1,8 @@
 package com.shaka.funding;
 
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@FundingIntegrationTest
 class FundingApplicationTests {
 
 	@Test
@@ -0,0 +1,20 @@
+package com.shaka.funding;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.*;
+
+/**
+ * Service integration test against the embedded "test" profile database. Every class using it
+ * shares one application context, and {@link AccountFixtures} is there to autowire.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(AccountFixtures.class)
+public @interface FundingIntegrationTest {
+}
@@ -0,0 +1,68 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@FundingIntegrationTest
+@AutoConfigureMockMvc
+class AccountAccessTest {
+
+    private static final String OWNER = "access.owner@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountFixtures accountFixtures;
+
+    @Test
+    @WithMockUser(username = OWNER)
+    void accountHolder_ShouldSeeTheirOwnSummaryAndHistory() throws Exception {
+        String accountNumber = accountFixtures.fundedAccount(OWNER, "100");
+
+        mockMvc.perform(summary(accountNumber)).andExpect(status().isOk());
+        mockMvc.perform(history(accountNumber)).andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(username = "access.stranger@example.com")
+    void otherCustomer_ShouldBeRefusedSomeoneElsesSummaryAndHistory() throws Exception {
+        String accountNumber = accountFixtures.fundedAccount("access.victim@example.com", "100");
+
+        mockMvc.perform(summary(accountNumber)).andExpect(status().isForbidden());
+        mockMvc.perform(history(accountNumber)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "access.admin@example.com", roles = {"ADMIN"})
+    void admin_ShouldSeeAnyAccount() throws Exception {
+        String accountNumber = accountFixtures.fundedAccount("access.audited@example.com", "100");
+
+        mockMvc.perform(summary(accountNumber)).andExpect(status().isOk());
+        mockMvc.perform(history(accountNumber)).andExpect(status().isOk());
+    }
+
+    private static MockHttpServletRequestBuilder summary(String accountNumber) {
+        return MockMvcRequestBuilders.get("/api/v1/analytics/accounts/" + accountNumber + "/summary")
+                .param("from", LocalDate.now().minusDays(7).toString())
+                .param("to", LocalDate.now().toString());
+    }
+
+    private static MockHttpServletRequestBuilder history(String accountNumber) {
+        return MockMvcRequestBuilders.get("/api/user/transactions")
+                .param("accountNumber", accountNumber)
+                .param("from", LocalDate.now().minusDays(7).toString())
+                .param("to", LocalDate.now().toString());
+    }
+}
@@ -0,0 +1,68 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.service.ShardingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class AccountBalanceMigrationTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    // sharding disabled: the provider has no ShardingService
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<ShardingService> noSharding = mock(ObjectProvider.class);
+    private final AccountBalanceMigration migration = new AccountBalanceMigration(jdbcTemplate, new ShardScope(noSharding));
+
+    @Test
+    void migrate_ShouldCopyLegacyBalancesOfAccountsWithoutABalanceRow() {
+        createBalanceTable();
+        jdbcTemplate.execute("create table tbl_user (id bigint auto_increment primary key, account_number varchar(20), "
+                + "account_balance decimal(19, 2), created_at timestamp, modify_at timestamp)");
+        jdbcTemplate.update("insert into tbl_user (account_number, account_balance, created_at) values "
+                + "('2023000001', 150.00, current_timestamp), ('2023000002', null, current_timestamp), "
+                + "('2023000003', 70.00, current_timestamp), (null, 5.00, current_timestamp)");
+        // already migrated: the balance row wins over the stale legacy column
+        jdbcTemplate.update("insert into tbl_account_balance (account_number, balance, version, updated_at) "
+                + "values ('2023000003', 20.00, 4, current_timestamp)");
+
+        migration.afterSingletonsInstantiated();
+        migration.afterSingletonsInstantiated();
+
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from tbl_account_balance", Integer.class));
+        assertBalance("2023000001", "150");
+        assertBalance("2023000002", "0");
+        assertBalance("2023000003", "20");
+    }
+
+    @Test
+    void migrate_ShouldSkipWhenTheLegacyColumnIsGone() {
+        createBalanceTable();
+        jdbcTemplate.execute("create table tbl_user (id bigint auto_increment primary key, account_number varchar(20), "
+                + "created_at timestamp, modify_at timestamp)");
+        jdbcTemplate.update("insert into tbl_user (account_number, created_at) values ('2023000001', current_timestamp)");
+
+        migration.afterSingletonsInstantiated();
+
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from tbl_account_balance", Integer.class));
+    }
+
+    private void createBalanceTable() {
+        jdbcTemplate.execute("create table tbl_account_balance (account_number varchar(20) primary key, "
+                + "balance decimal(19, 2), version bigint, updated_at timestamp)");
+    }
+
+    private void assertBalance(String accountNumber, String expected) {
+        BigDecimal balance = jdbcTemplate.queryForObject(
+                "select balance from tbl_account_balance where account_number = ?", BigDecimal.class, accountNumber);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance));
+    }
+}
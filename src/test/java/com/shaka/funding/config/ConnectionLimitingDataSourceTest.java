@@ -0,0 +1,80 @@
+package com.shaka.funding.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private final DataSource delegate = mock(DataSource.class);
+
+    @Test
+    void getConnection_ShouldWaitForAPermitUntilOneIsReleased() throws Exception {
+        when(delegate.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(delegate, 1, 5000);
+        Connection held = dataSource.getConnection();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Connection> waiting = executor.submit(() -> dataSource.getConnection());
+            while (dataSource.getQueueLength() == 0) {
+                Thread.sleep(5);
+            }
+            assertFalse(waiting.isDone());
+
+            held.close();
+
+            assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+            assertEquals(0, dataSource.getAvailablePermits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getConnection_ShouldTimeOutWhenNoPermitFreesUp() throws Exception {
+        when(delegate.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(delegate, 2, 100);
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        long start = System.nanoTime();
+        SQLTransientConnectionException e = assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+        assertEquals("Timed out after 100ms waiting for a database connection permit", e.getMessage());
+        verify(delegate, times(2)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldReleaseThePermitWhenTheDelegateFails() throws Exception {
+        when(delegate.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(delegate, 1, 100);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    void close_ShouldReleaseThePermitOnlyOnce() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(delegate.getConnection()).thenReturn(connection);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(delegate, 2, 100);
+
+        Connection limited = dataSource.getConnection();
+        limited.close();
+        limited.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+}
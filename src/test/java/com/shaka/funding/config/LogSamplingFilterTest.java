@@ -0,0 +1,50 @@
+package com.shaka.funding.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogSamplingFilterTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void decide_ShouldKeepOneInRateInfoEvents_ForSampledLoggers() {
+        LogSamplingFilter filter = filter("com.shaka.funding.controller", 4);
+        Logger logger = context.getLogger("com.shaka.funding.controller.UserController");
+
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, logger, Level.INFO, "msg", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertEquals(25, kept);
+    }
+
+    @Test
+    void decide_ShouldNotSampleWarningsOrOtherLoggers() {
+        LogSamplingFilter filter = filter("com.shaka.funding.controller", 4);
+        Logger sampled = context.getLogger("com.shaka.funding.controller.UserController");
+        Logger other = context.getLogger("com.shaka.funding.service.impl.LoanServiceImpl");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.WARN, "msg", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "msg", null, null));
+        }
+    }
+
+    private LogSamplingFilter filter(String loggers, int rate) {
+        LogSamplingFilter filter = new LogSamplingFilter();
+        filter.setLoggers(loggers);
+        filter.setRate(rate);
+        filter.setContext(context);
+        filter.start();
+        return filter;
+    }
+}
@@ -0,0 +1,71 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.FundingIntegrationTest;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Every admin-only endpoint refuses an authenticated customer. Requests carry whatever parameters
+ * and bodies the handler binds, so the guard is what answers rather than argument validation.
+ */
+@FundingIntegrationTest
+@AutoConfigureMockMvc
+class MethodSecurityTest {
+
+    private static final String DATE = LocalDate.now().toString();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    static Stream<MockHttpServletRequestBuilder> adminOnlyRequests() {
+        return Stream.of(
+                get("/api/user/getAccountDetails").param("accountNumber", "2023000001"),
+                put("/api/user/update").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                delete("/api/user/delete").param("accountNumber", "2023000001"),
+                get("/api/user/balanceEnquiry").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                get("/api/user/nameEnquiry").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                post("/api/user/import").contentType("text/csv").content(""),
+                get("/api/user/aggregates").param("accountNumber", "2023000001"),
+                post("/api/user/aggregates/rebuild"),
+                get("/api/v1/loans/user/1"),
+                patch("/api/v1/loans/1/status").param("status", "APPROVED"),
+                get("/api/v1/pricing/rules"),
+                post("/api/v1/pricing/rules").contentType(MediaType.APPLICATION_JSON).content("[]"),
+                post("/api/v1/pricing/reload"),
+                post("/api/v1/accruals/run").param("date", DATE),
+                get("/api/v1/accruals/status"),
+                post("/api/v1/collections/run").param("date", DATE),
+                get("/api/v1/collections/loans/1/installments"),
+                get("/api/v1/traces"),
+                get("/api/v1/traces/trace-1"),
+                post("/api/v1/standing-orders/run"),
+                post("/api/v1/analytics/rollups/backfill"),
+                post("/api/v1/analytics/rollups/verify").param("from", DATE).param("to", DATE),
+                post("/api/v1/archive/run"),
+                post("/api/v1/reconciliation/run").param("date", DATE),
+                get("/api/v1/reconciliation/discrepancies").param("date", DATE)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("adminOnlyRequests")
+    @WithMockUser(username = "security.customer@example.com")
+    void customer_ShouldBeForbiddenFromAdminEndpoints(MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(request)
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.status").value(403));
+    }
+}
@@ -0,0 +1,53 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.EnquiryRequest;
+import com.shaka.funding.service.PricingService;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.service.VelocityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class ObservationAspectTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private VelocityService velocityService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceEntryPoints_ShouldBeObservedAndCountedByResponseCode() {
+        String accountNumber = accountFixtures.account("observed.entry@example.com");
+
+        userService.balanceEnquiry(EnquiryRequest.builder().accountNumber(accountNumber).build());
+
+        assertNotNull(meterRegistry.find("funding.service.method")
+                .tags("class", "UserServiceImpl", "method", "balanceEnquiry").timer());
+        assertNotNull(meterRegistry.find("funding.bank.response").tags("method", "balanceEnquiry").counter());
+    }
+
+    @Test
+    void hotPathHelpers_ShouldNotBeObserved() {
+        String accountNumber = accountFixtures.account("observed.hot@example.com");
+
+        pricingService.quote(null, 12, BigDecimal.valueOf(1000));
+        velocityService.tryDebit(accountNumber, "observed.hot@example.com", BigDecimal.ONE);
+
+        assertNull(meterRegistry.find("funding.service.method").tags("method", "quote").timer());
+        assertNull(meterRegistry.find("funding.service.method").tags("method", "tryDebit").timer());
+        assertNull(meterRegistry.find("funding.repository.method").timer());
+    }
+}
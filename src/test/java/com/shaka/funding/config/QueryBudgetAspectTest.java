@@ -0,0 +1,190 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.exceptions.QueryBudgetExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryBudgetAspectTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    void setUp() throws Throwable {
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringType()).thenReturn(QueryBudgetAspectTest.class);
+        when(signature.getName()).thenReturn("balanceEnquiry");
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenAnswer(invocation -> {
+            counter.record("select count(*) from tbl_user where account_number=?");
+            counter.record("select * from tbl_user where account_number=?");
+            return "result";
+        });
+    }
+
+    @Test
+    void enforce_ShouldThrowAndNameStatements_WhenBudgetExceededInFailMode() {
+        QueryBudgetAspect aspect = new QueryBudgetAspect(meterRegistry, "FAIL");
+
+        QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class,
+                () -> aspect.enforce(joinPoint, budget(1)));
+
+        assertEquals(2, e.getStatements().size());
+        assertTrue(e.getMessage().contains("issued 2 SQL statements, budget is 1"));
+        assertTrue(e.getMessage().contains("select count(*) from tbl_user"));
+        assertEquals(1.0, meterRegistry.counter("funding.sql.budget.exceeded",
+                "method", "QueryBudgetAspectTest.balanceEnquiry").count());
+    }
+
+    @Test
+    void enforce_ShouldReturnResult_WhenWithinBudgetOrWarnOnly() throws Throwable {
+        assertEquals("result", new QueryBudgetAspect(meterRegistry, "FAIL").enforce(joinPoint, budget(2)));
+        assertEquals("result", new QueryBudgetAspect(meterRegistry, "WARN").enforce(joinPoint, budget(1)));
+    }
+
+    @Test
+    void scopes_ShouldNestAndOnlyCountWhileOpen() {
+        counter.record("select 1");
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open("request")) {
+            counter.record("select 2");
+            try (SqlStatementCounter.Scope inner = SqlStatementCounter.open("method")) {
+                counter.record("select 3");
+                assertEquals(1, inner.getCount());
+            }
+            counter.record("select 4");
+            assertEquals(3, outer.getCount());
+        }
+    }
+
+    @Test
+    void proxiedMethod_ShouldBeCheckedIncludingStatementsIssuedOnCommit() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(ProxyConfig.class)) {
+            BudgetedService service = context.getBean(BudgetedService.class);
+
+            assertEquals("result", service.withinBudget());
+            // one statement in the method and one flushed on commit
+            QueryBudgetExceededException e = assertThrows(QueryBudgetExceededException.class, service::overBudget);
+            assertTrue(e.getMessage().contains("BudgetedService.overBudget issued 2 SQL statements, budget is 1"));
+        }
+    }
+
+    @Test
+    void counter_ShouldSeeJdbcTemplateStatementsOnTheProxiedDataSource() {
+        DataSource dataSource = ProxyDataSourceBuilder.create(new DriverManagerDataSource("jdbc:h2:mem:budget;DB_CLOSE_DELAY=-1", "sa", ""))
+                .listener(counter)
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table tbl_budget (id int)");
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open("jdbc")) {
+            jdbcTemplate.update("insert into tbl_budget (id) values (?)", 1);
+            // one round trip for the whole batch
+            jdbcTemplate.batchUpdate("insert into tbl_budget (id) values (?)", List.of(new Object[]{2}, new Object[]{3}));
+            jdbcTemplate.queryForObject("select count(*) from tbl_budget", Integer.class);
+
+            assertEquals(3, scope.getCount());
+            assertEquals("select count(*) from tbl_budget", scope.getStatements().get(2));
+        }
+    }
+
+    private static QueryBudget budget(int value) {
+        return new QueryBudget() {
+            @Override
+            public int value() {
+                return value;
+            }
+
+            @Override
+            public Class<QueryBudget> annotationType() {
+                return QueryBudget.class;
+            }
+        };
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    @EnableTransactionManagement
+    static class ProxyConfig {
+        private final SqlStatementCounter counter = new SqlStatementCounter();
+
+        @Bean
+        QueryBudgetAspect queryBudgetAspect() {
+            return new QueryBudgetAspect(new SimpleMeterRegistry(), "FAIL");
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new AbstractPlatformTransactionManager() {
+                @Override
+                protected Object doGetTransaction() {
+                    return new Object();
+                }
+
+                @Override
+                protected void doBegin(Object transaction, TransactionDefinition definition) {
+                }
+
+                @Override
+                protected void doCommit(DefaultTransactionStatus status) {
+                    counter.record("update tbl_user set first_name=? where id=?");
+                }
+
+                @Override
+                protected void doRollback(DefaultTransactionStatus status) {
+                }
+            };
+        }
+
+        @Bean
+        BudgetedService budgetedService() {
+            return new BudgetedService(counter);
+        }
+    }
+
+    static class BudgetedService {
+        private final SqlStatementCounter counter;
+
+        BudgetedService(SqlStatementCounter counter) {
+            this.counter = counter;
+        }
+
+        @QueryBudget(2)
+        @Transactional
+        public String withinBudget() {
+            counter.record("select * from tbl_user where id=?");
+            return "result";
+        }
+
+        @QueryBudget(1)
+        @Transactional
+        public String overBudget() {
+            counter.record("select * from tbl_user where id=?");
+            return "result";
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.EnquiryRequest;
+import com.shaka.funding.dto.UserRequest;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("replica")
+class ReadWriteRoutingTest {
+
+    private static final BigDecimal REPLICA_ONLY_BALANCE = new BigDecimal("777.00");
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(lagMonitor.getReplicaDataSource());
+    }
+
+    @Test
+    void readOnlyEnquiry_ShouldBeServedByReplica() throws IOException {
+        String accountNumber = createAccount("replica.read@example.com");
+        replicate(0);
+        markOnReplica(accountNumber);
+        double before = routed("replica", "read-only");
+
+        BankResponse response = userService.balanceEnquiry(new EnquiryRequest(accountNumber));
+
+        assertEquals(0, REPLICA_ONLY_BALANCE.compareTo(response.getAccountInfo().getAccountBalance()));
+        assertTrue(routed("replica", "read-only") > before);
+    }
+
+    @Test
+    void enquiryAfterPosting_ShouldReadOwnWriteFromPrimary() throws IOException {
+        String accountNumber = createAccount("replica.ryw@example.com");
+        replicate(0);
+        markOnReplica(accountNumber);
+
+        userService.creditAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(100)));
+        BankResponse response = userService.balanceEnquiry(new EnquiryRequest(accountNumber));
+
+        assertEquals(0, BigDecimal.valueOf(100).compareTo(response.getAccountInfo().getAccountBalance()));
+        assertTrue(routed("primary", "read-your-writes") > 0);
+    }
+
+    @Test
+    void laggingReplica_ShouldFallBackToPrimary() throws IOException {
+        String accountNumber = createAccount("replica.lag@example.com");
+        replicate(60);
+        markOnReplica(accountNumber);
+
+        BankResponse response = userService.balanceEnquiry(new EnquiryRequest(accountNumber));
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(response.getAccountInfo().getAccountBalance()));
+        assertEquals(60, lagMonitor.getLagSeconds());
+        assertTrue(routed("primary", "replica-lag") > 0);
+    }
+
+    private String createAccount(String email) {
+        UserRequest request = new UserRequest();
+        request.setFirstName("Replica");
+        request.setLastName("Test");
+        request.setOtherName("User");
+        request.setEmail(email);
+        request.setPassword("password123");
+        request.setRole(Role.USER);
+        return userService.createAccount(request).getAccountInfo().getAccountNumber();
+    }
+
+    // snapshot the primary into the replica and set the lag the monitor will report
+    private void replicate(int lagSeconds) throws IOException {
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            jdbcTemplate.execute("SCRIPT TO '" + script.toAbsolutePath() + "'");
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + script.toAbsolutePath() + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+        replica.execute("create table replica_lag (lag_seconds int)");
+        replica.update("insert into replica_lag values (?)", lagSeconds);
+        lagMonitor.refresh();
+    }
+
+    // a balance that only exists on the replica shows which database served the read
+    private void markOnReplica(String accountNumber) {
+        replica.update("update tbl_account_balance set balance = ? where account_number = ?", REPLICA_ONLY_BALANCE, accountNumber);
+    }
+
+    private double routed(String target, String reason) {
+        return meterRegistry.counter("funding.datasource.route", "target", target, "reason", reason).count();
+    }
+}
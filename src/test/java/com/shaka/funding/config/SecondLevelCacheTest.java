@@ -0,0 +1,103 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.entity.AccountBalance;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.LoanRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loanById_ShouldBeServedFromCacheOnRepeatRead() {
+        Loan loan = loanRepository.save(loan(9001L));
+        // an insert with an identity id is not put into the cache, the first read is
+        loanRepository.findById(loan.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Loan.class, loan.getId()));
+        long hits = statistics().getDomainDataRegionStatistics(SecondLevelCacheConfig.LOAN_REGION).getHitCount();
+
+        loanRepository.findById(loan.getId());
+        loanRepository.findById(loan.getId());
+
+        assertTrue(statistics().getDomainDataRegionStatistics(SecondLevelCacheConfig.LOAN_REGION).getHitCount() >= hits + 2);
+    }
+
+    @Test
+    void loansByUser_ShouldUseQueryCacheUntilLoansChange() {
+        loanRepository.save(loan(9002L));
+        loanRepository.findByUserId(9002L);
+        long hits = statistics().getQueryCacheHitCount();
+
+        assertEquals(1, loanRepository.findByUserId(9002L).size());
+        assertTrue(statistics().getQueryCacheHitCount() > hits);
+
+        loanRepository.save(loan(9002L));
+        assertEquals(2, loanRepository.findByUserId(9002L).size());
+    }
+
+    @Test
+    void jdbcWrite_ShouldBeVisibleOnceEvicted() {
+        Loan loan = loanRepository.save(loan(9003L));
+        loanRepository.findById(loan.getId());
+        jdbcTemplate.update("update tbl_loan set status = 'REPAID' where id = ?", loan.getId());
+
+        cacheEvictor.evict(Loan.class, List.of(loan.getId()));
+
+        assertEquals("REPAID", loanRepository.findById(loan.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void balances_ShouldNeverBeCached() {
+        accountBalanceRepository.save(AccountBalance.builder().accountNumber("2024999001").balance(BigDecimal.TEN).build());
+
+        accountBalanceRepository.findByAccountNumber("2024999001");
+
+        assertFalse(entityManagerFactory.getCache().contains(AccountBalance.class, "2024999001"));
+    }
+
+    @Test
+    void regions_ShouldExposeStatisticsAndEvictionMetrics() {
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", SecondLevelCacheConfig.LOAN_REGION).meter());
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests")
+                .tag("region", SecondLevelCacheConfig.USER_REGION).meter());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static Loan loan(Long userId) {
+        return Loan.builder()
+                .userId(userId)
+                .amount(BigDecimal.valueOf(500))
+                .tenure(12)
+                .status("APPLIED")
+                .build();
+    }
+}
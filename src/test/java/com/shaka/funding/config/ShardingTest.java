@@ -0,0 +1,239 @@
+package com.shaka.funding.config;
+
+import com.shaka.funding.dto.*;
+import com.shaka.funding.entity.LoanInstallment;
+import com.shaka.funding.entity.PaymentFrequency;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.entity.StandingOrder;
+import com.shaka.funding.repository.TransactionRepository;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.*;
+import com.shaka.funding.service.impl.PartitionedBatchRunner;
+import com.shaka.funding.service.impl.StandingOrderServiceImpl;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("sharding")
+@AutoConfigureMockMvc
+class ShardingTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ShardingService shardingService;
+    @Autowired
+    private ShardDataSources shardDataSources;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    @Autowired
+    private StandingOrderService standingOrderService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private CollectionService collectionService;
+    @Autowired
+    private UserShardKeyMigration userShardKeyMigration;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void accounts_ShouldBeStoredOnTheirShard() {
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            accountNumbers.add(createAccount("shard.place" + i + "@example.com"));
+        }
+
+        for (String accountNumber : accountNumbers) {
+            int shard = shardingService.shardFor(accountNumber);
+            assertEquals(1, countUsers(shard, accountNumber), accountNumber + " not on shard " + shard);
+        }
+        // user ids are unique across shards
+        assertEquals(accountNumbers.size(), accountNumbers.stream()
+                .map(accountNumber -> userRepository.findByAccountNumber(accountNumber).getId())
+                .distinct().count());
+    }
+
+    @Test
+    void postingAndEnquiry_ShouldBeRoutedToOneShard() {
+        String accountNumber = createAccount("shard.posting@example.com");
+
+        userService.creditAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(250)));
+        userService.debitAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(50)));
+        BankResponse response = userService.balanceEnquiry(new EnquiryRequest(accountNumber));
+
+        assertEquals(0, BigDecimal.valueOf(200).compareTo(response.getAccountInfo().getAccountBalance()));
+        assertEquals(2, transactionRepository.findByAccountNumber(accountNumber).size());
+    }
+
+    @Test
+    void unkeyedQueries_ShouldScatterAcrossShards() {
+        String accountNumber = createAccount("shard.scatter@example.com");
+        long total = 0;
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            total += new JdbcTemplate(shardDataSources.get(shard)).queryForObject("select count(*) from tbl_user", Long.class);
+        }
+
+        assertEquals(accountNumber, userRepository.findByEmail("shard.scatter@example.com").getAccountNumber());
+        assertTrue(userRepository.existsByEmail("shard.scatter@example.com"));
+        assertEquals(total, userRepository.count());
+        assertEquals(total, userRepository.findAll().size());
+        Long id = userRepository.findByAccountNumber(accountNumber).getId();
+        assertTrue(userRepository.findById(id).isPresent());
+    }
+
+    @Test
+    void rebalance_ShouldMoveAccountsWithTheirTransactions() {
+        String accountNumber = createAccount("shard.move@example.com");
+        userService.creditAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(75)));
+        long key = AccountUtils.accountShardKey(accountNumber);
+        int target = (shardingService.shardFor(accountNumber) + 1) % shardingService.getShardCount();
+
+        RebalanceResponse response = shardingService.rebalance(new RebalanceRequest(key, key + 1, target));
+
+        assertEquals(1L, response.getMovedUsers());
+        assertEquals(1L, response.getMovedTransactions());
+        assertEquals(target, shardingService.shardFor(accountNumber));
+        assertEquals(1, countUsers(target, accountNumber));
+        BankResponse enquiry = userService.balanceEnquiry(new EnquiryRequest(accountNumber));
+        assertEquals(0, BigDecimal.valueOf(75).compareTo(enquiry.getAccountInfo().getAccountBalance()));
+        assertEquals(1, transactionRepository.findByAccountNumber(accountNumber).size());
+        LocalDate today = LocalDate.now();
+        assertEquals(0, BigDecimal.valueOf(75).compareTo(
+                transactionRollupService.getSummary(accountNumber, today, today, "TOTAL").getInflowAmount()));
+
+        // running it again finds nothing left to move
+        assertEquals(0L, shardingService.rebalance(new RebalanceRequest(key, key + 1, target)).getMovedUsers());
+    }
+
+    @Test
+    void rebalance_ShouldMoveARangeLargerThanOneBatchInSteps() {
+        String first = createAccount("shard.batch@example.com");
+        int target = shardingService.shardFor(first);
+        List<String> accountNumbers = new ArrayList<>(List.of(first));
+        // the sharding profile moves two accounts per step
+        for (int i = 0; accountNumbers.size() < 6; i++) {
+            String accountNumber = createAccount("shard.batch" + i + "@example.com");
+            if (shardingService.shardFor(accountNumber) != target) {
+                accountNumbers.add(accountNumber);
+            }
+        }
+        long lower = accountNumbers.stream().mapToLong(AccountUtils::accountShardKey).min().orElseThrow();
+        long upper = accountNumbers.stream().mapToLong(AccountUtils::accountShardKey).max().orElseThrow() + 1;
+
+        RebalanceResponse response = shardingService.rebalance(new RebalanceRequest(lower, upper, target));
+
+        assertTrue(response.getMovedUsers() >= 5, "moved " + response.getMovedUsers());
+        for (String accountNumber : accountNumbers) {
+            assertEquals(target, shardingService.shardFor(accountNumber));
+            assertEquals(1, countUsers(target, accountNumber), accountNumber + " not on shard " + target);
+        }
+        assertEquals(0L, shardingService.rebalance(new RebalanceRequest(lower, upper, target)).getMovedUsers());
+    }
+
+    @Test
+    void shardKeyMigration_ShouldKeyExistingAccounts() {
+        String accountNumber = createAccount("shard.key@example.com");
+        JdbcTemplate shard = new JdbcTemplate(shardDataSources.get(shardingService.shardFor(accountNumber)));
+        shard.update("update tbl_user set shard_key = null where account_number = ?", accountNumber);
+
+        userShardKeyMigration.afterSingletonsInstantiated();
+
+        assertEquals(AccountUtils.accountShardKey(accountNumber), shard.queryForObject(
+                "select shard_key from tbl_user where account_number = ?", Long.class, accountNumber));
+    }
+
+    @Test
+    void standingOrder_ShouldPostAcrossShards() {
+        String payer = createAccount("shard.payer@example.com");
+        String payee = createAccount("shard.payee@example.com");
+        for (int i = 0; shardingService.shardFor(payee) == shardingService.shardFor(payer); i++) {
+            payee = createAccount("shard.payee" + i + "@example.com");
+        }
+        userService.creditAccount(new CreditDebitRequest(payer, BigDecimal.valueOf(100)));
+        StandingOrder order = standingOrderService.createStandingOrder(StandingOrderRequest.builder()
+                .debitAccountNumber(payer).creditAccountNumber(payee)
+                .amount(BigDecimal.valueOf(30)).frequency(PaymentFrequency.DAILY).build());
+
+        BatchRunResponse wave = standingOrderService.runDueOrders(LocalDate.now().atTime(9, 0));
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, wave.getStatus());
+        assertEquals(0, BigDecimal.valueOf(70).compareTo(balance(payer)));
+        assertEquals(0, BigDecimal.valueOf(30).compareTo(balance(payee)));
+        assertEquals(StandingOrderServiceImpl.EXECUTION_SUCCESS,
+                standingOrderService.getExecutions(order.getId()).get(0).getStatus());
+    }
+
+    @Test
+    void collection_ShouldDebitBorrowersOnTheirShard() {
+        String accountNumber = createAccount("shard.borrower@example.com");
+        for (int i = 0; shardingService.shardFor(accountNumber) == ShardContext.DEFAULT_SHARD; i++) {
+            accountNumber = createAccount("shard.borrower" + i + "@example.com");
+        }
+        userService.creditAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(5000)));
+        Long userId = userRepository.findByAccountNumber(accountNumber).getId();
+        LoanResponse loan = loanService.applyForLoan(LoanRequest.builder()
+                .userId(userId).amount(BigDecimal.valueOf(1200)).tenure(12).build());
+        loanService.updateLoanStatus(loan.getId(), "APPROVED");
+
+        BatchRunResponse run = collectionService.runCollection(LocalDate.now().plusMonths(1));
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, run.getStatus());
+        LoanInstallment first = collectionService.getInstallments(loan.getId()).get(0);
+        assertEquals("PAID", first.getStatus());
+        assertEquals(0, BigDecimal.valueOf(5000).subtract(first.getAmountDue()).compareTo(balance(accountNumber)));
+        assertEquals(2, transactionRepository.findByAccountNumber(accountNumber).size());
+    }
+
+    @Test
+    @WithMockUser(username = "shard.customer@example.com")
+    void shardEndpoints_ShouldBeForbiddenToCustomers() throws Exception {
+        mockMvc.perform(get("/api/v1/shards")).andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/shards/rebalance").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/shards/reload")).andExpect(status().isForbidden());
+    }
+
+    private BigDecimal balance(String accountNumber) {
+        return userService.balanceEnquiry(new EnquiryRequest(accountNumber)).getAccountInfo().getAccountBalance();
+    }
+
+    private long countUsers(int shard, String accountNumber) {
+        return new JdbcTemplate(shardDataSources.get(shard))
+                .queryForObject("select count(*) from tbl_user where account_number = ?", Long.class, accountNumber);
+    }
+
+    private String createAccount(String email) {
+        UserRequest request = new UserRequest();
+        request.setFirstName("Shard");
+        request.setLastName("Test");
+        request.setOtherName("User");
+        request.setEmail(email);
+        request.setPassword("password123");
+        request.setRole(Role.USER);
+        return userService.createAccount(request).getAccountInfo().getAccountNumber();
+    }
+}
@@ -0,0 +1,52 @@
+package com.shaka.funding.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object lock = new Object();
+
+    @Test
+    void monitor_ShouldCountVirtualThreadsThatBlockWhilePinned() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(10));
+        monitor.start();
+        try {
+            // JFR streams events about once a second, and the stream may still be starting: pin until counted
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (pinned(meterRegistry) == 0 && System.nanoTime() < deadline) {
+                pinOnce();
+                Thread.sleep(200);
+            }
+            assertTrue(pinned(meterRegistry) >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    // sleeping inside synchronized keeps the virtual thread on its carrier
+    private void pinOnce() throws InterruptedException {
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+    }
+
+    private static double pinned(SimpleMeterRegistry meterRegistry) {
+        Counter counter = meterRegistry.find("funding.virtual-threads.pinned").counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
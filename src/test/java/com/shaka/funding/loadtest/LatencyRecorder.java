@@ -0,0 +1,67 @@
+package com.shaka.funding.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-thread latency samples for one operation; merged and sorted once at the end of a run.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+    private final Map<String, Long> errorsByCode = new TreeMap<>();
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    /**
+     * @param code the BankResponse response code, or what failed when there is none (HTTP status, exception)
+     */
+    void error(String code) {
+        errors++;
+        errorsByCode.merge(code, 1L, Long::sum);
+    }
+
+    long count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    Map<String, Long> errorsByCode() {
+        return errorsByCode;
+    }
+
+    static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            for (int i = 0; i < recorder.size; i++) {
+                merged.record(recorder.samples[i]);
+            }
+            merged.errors += recorder.errors;
+            recorder.errorsByCode.forEach((code, count) -> merged.errorsByCode.merge(code, count, Long::sum));
+        }
+        Arrays.sort(merged.samples, 0, merged.size);
+        return merged;
+    }
+
+    /**
+     * Percentile in milliseconds; only valid on a merged (sorted) recorder.
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(size - 1, Math.ceil(percentile / 100.0 * size) - 1);
+        return samples[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,273 @@
+package com.shaka.funding.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the application against an embedded MySQL-mode H2 database, seeds accounts and drives a
+ * mixed workload over HTTP. Writes throughput, latency percentiles and error counts per operation
+ * to target/loadtest-report.json. Run with {@code mvn -Ploadtest test}.
+ * <p>
+ * The API reports most failures (insufficient balance, velocity limit, unexpected errors) with
+ * HTTP 200 and a failure response code, so a request only succeeds when its response code is the
+ * operation's success code. Errors are broken down by response code in the report.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LoadTestHarnessTest {
+
+    private static final String ADMIN_EMAIL = "loadtest.admin@example.com";
+    private static final String PASSWORD = "password123";
+    // operations answering with a BankResponse, and the response code that means success
+    private static final Map<String, String> SUCCESS_CODES = Map.of(
+            "credit", AccountUtils.ACCOUNT_CREDITED_CODE,
+            "debit", AccountUtils.ACCOUNT_DEBITED_CODE,
+            "balance", AccountUtils.BALANCE_ENQUIRY_SUCCESS_CODE);
+    // name enquiry answers with the name itself, or one of these messages
+    private static final Set<String> NAME_ENQUIRY_FAILURES = Set.of(
+            AccountUtils.ACCOUNT_NOT_EXIST_MESSAGE, AccountUtils.NAME_ENQUIRY_FAILURE_MESSAGE);
+
+    private final int users = Integer.getInteger("loadtest.users", 1000);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+    private final int targetRps = Integer.getInteger("loadtest.targetRps", 0); // 0 means unthrottled
+    private final String mix = System.getProperty("loadtest.mix", "credit=40,debit=30,balance=15,name=10,loan=5");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void runMixedWorkload() throws Exception {
+        List<String> accounts = seed();
+        String token = login();
+        String[] operations = expandMix();
+
+        Map<String, List<LatencyRecorder>> recorders = new ConcurrentHashMap<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long intervalNanos = targetRps > 0 ? TimeUnit.SECONDS.toNanos(1) * concurrency / targetRps : 0;
+
+        long start = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < concurrency; t++) {
+            workers.add(executor.submit(() -> {
+                Map<String, LatencyRecorder> local = new HashMap<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long next = System.nanoTime();
+                while (!stop.get()) {
+                    if (intervalNanos > 0) {
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                        next += intervalNanos;
+                    }
+                    String operation = operations[random.nextInt(operations.length)];
+                    String account = accounts.get(random.nextInt(accounts.size()));
+                    LatencyRecorder recorder = local.computeIfAbsent(operation, key -> {
+                        LatencyRecorder created = new LatencyRecorder();
+                        recorders.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>())).add(created);
+                        return created;
+                    });
+                    long began = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = httpClient.send(request(operation, account, random, token),
+                                HttpResponse.BodyHandlers.ofString());
+                        recorder.record(System.nanoTime() - began);
+                        String errorCode = errorCode(operation, response);
+                        if (errorCode != null) {
+                            recorder.error(errorCode);
+                        }
+                    } catch (Exception e) {
+                        recorder.record(System.nanoTime() - began);
+                        recorder.error(e.getClass().getSimpleName());
+                    }
+                }
+            }));
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+        stop.set(true);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> report = report(recorders, elapsedSeconds);
+        File output = new File("target/loadtest-report.json");
+        output.getParentFile().mkdirs();
+        objectMapper.writeValue(output, report);
+
+        assertTrue((long) ((Map<?, ?>) report.get("total")).get("requests") > 0);
+    }
+
+    private HttpRequest request(String operation, String account, ThreadLocalRandom random, String token) {
+        String base = "http://localhost:" + port;
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json");
+        String amount = BigDecimal.valueOf(random.nextInt(1, 500)).toPlainString();
+        return switch (operation) {
+            case "credit" -> builder.uri(URI.create(base + "/api/user/credit"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"accountNumber\":\"" + account + "\",\"amount\":" + amount + "}"))
+                    .build();
+            case "debit" -> builder.uri(URI.create(base + "/api/user/debit"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"accountNumber\":\"" + account + "\",\"amount\":" + amount + "}"))
+                    .build();
+            case "balance" -> builder.uri(URI.create(base + "/api/user/balanceEnquiry"))
+                    .method("GET", HttpRequest.BodyPublishers.ofString("{\"accountNumber\":\"" + account + "\"}"))
+                    .build();
+            case "name" -> builder.uri(URI.create(base + "/api/user/nameEnquiry"))
+                    .method("GET", HttpRequest.BodyPublishers.ofString("{\"accountNumber\":\"" + account + "\"}"))
+                    .build();
+            case "loan" -> builder.uri(URI.create(base + "/api/v1/loans/apply"))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"userId\":" + random.nextInt(1, users + 1) + ",\"amount\":" + amount
+                                    + ",\"tenure\":" + random.nextInt(3, 37) + "}"))
+                    .build();
+            default -> throw new IllegalArgumentException("Unknown operation " + operation);
+        };
+    }
+
+    /**
+     * What went wrong with the response, or null if the operation succeeded.
+     */
+    private String errorCode(String operation, HttpResponse<String> response) throws Exception {
+        if (response.statusCode() != 200) {
+            return "HTTP " + response.statusCode();
+        }
+        String successCode = SUCCESS_CODES.get(operation);
+        if (successCode != null) {
+            String responseCode = objectMapper.readTree(response.body()).path("responseCode").asText("none");
+            return successCode.equals(responseCode) ? null : responseCode;
+        }
+        if (operation.equals("name") && NAME_ENQUIRY_FAILURES.contains(response.body())) {
+            return response.body();
+        }
+        return null;
+    }
+
+    /**
+     * Inserts the accounts with JDBC batches (one BCrypt hash shared by all) plus an admin user.
+     */
+    private List<String> seed() {
+        String hash = passwordEncoder.encode(PASSWORD);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<String> accounts = new ArrayList<>(users);
+        List<Object[]> rows = new ArrayList<>(users + 1);
+        List<Object[]> balances = new ArrayList<>(users + 1);
+        for (int i = 0; i < users; i++) {
+            String account = String.valueOf(3_000_000_000L + i);
+            accounts.add(account);
+            rows.add(new Object[]{"Load", "User" + i, "Test", account,
+                    "load.user" + i + "@example.com", hash, "USER", "ACTIVE", now, now});
+            balances.add(new Object[]{account, new BigDecimal("100000.00"), now});
+        }
+        rows.add(new Object[]{"Load", "Admin", "Test", "2999999999", ADMIN_EMAIL, hash, "ADMIN",
+                "ACTIVE", now, now});
+        balances.add(new Object[]{"2999999999", BigDecimal.ZERO, now});
+        jdbcTemplate.batchUpdate("insert into tbl_user (first_name, last_name, other_name, account_number, "
+                + "email, password, role, status, created_at, modify_at) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.batchUpdate("insert into tbl_account_balance (account_number, balance, version, updated_at) "
+                + "values (?, ?, 0, ?)", balances);
+        return accounts;
+    }
+
+    private String login() throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/api/user/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"email\":\"" + ADMIN_EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.path("accountInfo").path("token").asText();
+    }
+
+    private String[] expandMix() {
+        List<String> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+                operations.add(parts[0]);
+            }
+        }
+        return operations.toArray(String[]::new);
+    }
+
+    private Map<String, Object> report(Map<String, List<LatencyRecorder>> recorders, double elapsedSeconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("concurrency", concurrency);
+        report.put("targetRps", targetRps);
+        report.put("durationSeconds", elapsedSeconds);
+
+        List<LatencyRecorder> all = new ArrayList<>();
+        Map<String, Object> operations = new TreeMap<>();
+        recorders.forEach((operation, list) -> {
+            all.addAll(list);
+            operations.put(operation, summary(LatencyRecorder.merge(list), elapsedSeconds));
+        });
+        report.put("operations", operations);
+        report.put("total", summary(LatencyRecorder.merge(all), elapsedSeconds));
+        return report;
+    }
+
+    private Map<String, Object> summary(LatencyRecorder recorder, double elapsedSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", recorder.count());
+        summary.put("errors", recorder.errors());
+        summary.put("errorRate", recorder.count() == 0 ? 0.0 : (double) recorder.errors() / recorder.count());
+        summary.put("errorsByCode", recorder.errorsByCode());
+        summary.put("throughputPerSecond", recorder.count() / elapsedSeconds);
+        summary.put("successfulPerSecond", (recorder.count() - recorder.errors()) / elapsedSeconds);
+        summary.put("p50Ms", recorder.percentileMillis(50));
+        summary.put("p90Ms", recorder.percentileMillis(90));
+        summary.put("p99Ms", recorder.percentileMillis(99));
+        summary.put("p999Ms", recorder.percentileMillis(99.9));
+        summary.put("maxMs", recorder.percentileMillis(100));
+        return summary;
+    }
+}
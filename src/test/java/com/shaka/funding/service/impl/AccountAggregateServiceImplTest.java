@@ -0,0 +1,96 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.AccountAggregateResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.entity.DailyTransactionRollup;
+import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.repository.DailyTransactionRollupRepository;
+import com.shaka.funding.repository.TransactionRepository;
+import com.shaka.funding.service.AccountAggregateService;
+import com.shaka.funding.service.TransactionRollupService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class AccountAggregateServiceImplTest {
+
+    @Autowired
+    private AccountAggregateService accountAggregateService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private DailyTransactionRollupRepository dailyRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+
+    @Test
+    void getAggregates_ShouldSplit24hAnd30dWindowsFromTheRollups() {
+        String accountNumber = accountFixtures.fundedAccount("aggregate.windows@example.com", "100");
+        userService.debitAccount(new CreditDebitRequest(accountNumber, new BigDecimal("40")));
+        // a day inside the 30-day window but outside the last 24 hours
+        dailyRepository.save(DailyTransactionRollup.builder()
+                .accountNumber(accountNumber)
+                .bucketDate(LocalDate.now().minusDays(3))
+                .inflowAmount(BigDecimal.ZERO).inflowCount(0L)
+                .outflowAmount(new BigDecimal("60")).outflowCount(1L)
+                .updatedAt(LocalDateTime.now())
+                .build());
+
+        AccountAggregateResponse response = accountAggregateService.getAggregates(accountNumber);
+
+        assertEquals(0, new BigDecimal("40").compareTo(response.getDebitTotal24h()));
+        assertEquals(1L, response.getDebitCount24h());
+        assertEquals(0, new BigDecimal("100").compareTo(response.getCreditTotal24h()));
+        assertEquals(1L, response.getCreditCount24h());
+        assertEquals(0, new BigDecimal("200").compareTo(response.getTurnover30d()));
+        assertEquals(3L, response.getTransactionCount30d());
+    }
+
+    @Test
+    void getAggregates_ShouldCountThe24hWindowToTheSecondNotTheHour() {
+        String accountNumber = accountFixtures.account("aggregate.edge@example.com");
+        LocalDateTime windowStart = LocalDateTime.now().minusHours(24);
+        transactionRepository.save(debit(accountNumber, windowStart.plusMinutes(1), "30"));
+        transactionRepository.save(debit(accountNumber, windowStart.minusMinutes(1), "70"));
+        transactionRollupService.backfill(accountNumber);
+
+        AccountAggregateResponse response = accountAggregateService.getAggregates(accountNumber);
+
+        assertEquals(0, new BigDecimal("30").compareTo(response.getDebitTotal24h()));
+        assertEquals(1L, response.getDebitCount24h());
+    }
+
+    @Test
+    void getAggregates_ShouldBeZeroForAnAccountWithoutActivity() {
+        AccountAggregateResponse response = accountAggregateService.getAggregates("0000000000");
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(response.getDebitTotal24h()));
+        assertEquals(0L, response.getDebitCount24h());
+        assertEquals(0, BigDecimal.ZERO.compareTo(response.getTurnover30d()));
+        assertEquals(0L, response.getTransactionCount30d());
+    }
+
+    private static Transaction debit(String accountNumber, LocalDateTime at, String amount) {
+        return Transaction.builder()
+                .accountNumber(accountNumber)
+                .transactionType("DEBIT")
+                .transactionAmount(new BigDecimal(amount))
+                .transactionDate(at.toLocalDate())
+                .transactionTime(at.toLocalTime())
+                .status("SUCCESS")
+                .build();
+    }
+}
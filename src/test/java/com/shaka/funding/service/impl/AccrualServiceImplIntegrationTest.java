@@ -0,0 +1,125 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.entity.LoanAccrual;
+import com.shaka.funding.repository.LoanAccrualRepository;
+import com.shaka.funding.repository.LoanRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class AccrualServiceImplIntegrationTest {
+
+    @Autowired
+    private AccrualServiceImpl accrualService;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private LoanAccrualRepository loanAccrualRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int defaultChunkSize;
+    private int defaultThreads;
+
+    @BeforeEach
+    void smallChunks() {
+        // each test backfills its own loans over the same recent days; last_accrued_date keeps reruns idempotent
+        jdbcTemplate.update("delete from tbl_batch_checkpoint where job_name = ?", AccrualServiceImpl.JOB_NAME);
+        // a handful of loans then spans several chunks per partition
+        defaultChunkSize = (int) ReflectionTestUtils.getField(target(), "chunkSize");
+        ReflectionTestUtils.setField(target(), "chunkSize", 2);
+        // H2 can hand out a duplicate identity to concurrent batch inserts; partitions still run one after another
+        defaultThreads = (int) ReflectionTestUtils.getField(target(), "threads");
+        ReflectionTestUtils.setField(target(), "threads", 1);
+    }
+
+    @AfterEach
+    void restoreChunks() {
+        ReflectionTestUtils.setField(target(), "chunkSize", defaultChunkSize);
+        ReflectionTestUtils.setField(target(), "threads", defaultThreads);
+    }
+
+    @Test
+    void runAccrual_ShouldAccrueEveryActiveLoanOnceAcrossChunks() {
+        LocalDate date = LocalDate.now().minusDays(10);
+        List<Loan> loans = approvedLoans(7, date.minusDays(5), null);
+
+        BatchRunResponse response = accrualService.runAccrual(date);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, response.getStatus());
+        for (Loan loan : loans) {
+            assertEquals(date, loanRepository.findById(loan.getId()).orElseThrow().getLastAccruedDate());
+            assertEquals(1, loanAccrualRepository.findByLoanIdOrderByAccrualDate(loan.getId()).size());
+        }
+
+        BatchRunResponse again = accrualService.runAccrual(date);
+        assertEquals(0L, again.getProcessed());
+        for (Loan loan : loans) {
+            assertEquals(1, loanAccrualRepository.findByLoanIdOrderByAccrualDate(loan.getId()).size());
+        }
+    }
+
+    @Test
+    void scheduledAccrual_ShouldBackfillDaysMissedSinceTheLastAccrual() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<Loan> loans = approvedLoans(3, yesterday.minusDays(30), yesterday.minusDays(3));
+
+        accrualService.scheduledAccrual();
+
+        for (Loan loan : loans) {
+            assertEquals(yesterday, loanRepository.findById(loan.getId()).orElseThrow().getLastAccruedDate());
+            assertEquals(List.of(yesterday.minusDays(2), yesterday.minusDays(1), yesterday),
+                    loanAccrualRepository.findByLoanIdOrderByAccrualDate(loan.getId()).stream()
+                            .map(LoanAccrual::getAccrualDate)
+                            .toList());
+        }
+    }
+
+    @Test
+    void scheduledAccrual_ShouldStartALoanApprovedMidBackfillOnItsApprovalDay() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Loan behind = approvedLoans(1, yesterday.minusDays(30), yesterday.minusDays(4)).get(0);
+        Loan approvedMidway = approvedLoans(1, yesterday.minusDays(1), null).get(0);
+
+        accrualService.scheduledAccrual();
+
+        assertEquals(4, loanAccrualRepository.findByLoanIdOrderByAccrualDate(behind.getId()).size());
+        assertEquals(List.of(yesterday.minusDays(1), yesterday),
+                loanAccrualRepository.findByLoanIdOrderByAccrualDate(approvedMidway.getId()).stream()
+                        .map(LoanAccrual::getAccrualDate)
+                        .toList());
+    }
+
+    private List<Loan> approvedLoans(int count, LocalDate approvedDate, LocalDate lastAccruedDate) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> loanRepository.save(Loan.builder()
+                        .userId(9100L + i)
+                        .approvedDate(approvedDate)
+                        .amount(BigDecimal.valueOf(1000))
+                        .totalAmount(BigDecimal.valueOf(1050))
+                        .tenure(12)
+                        .status("APPROVED")
+                        .lastAccruedDate(lastAccruedDate)
+                        .build()))
+                .toList();
+    }
+
+    private AccrualServiceImpl target() {
+        return AopTestUtils.getTargetObject(accrualService);
+    }
+}
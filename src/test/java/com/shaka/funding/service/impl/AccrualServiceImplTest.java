@@ -0,0 +1,32 @@
+package com.shaka.funding.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccrualServiceImplTest {
+
+    @Test
+    void dailyAccrual_ShouldSpreadInterestOverTenure() {
+        // 50 interest over 12 months of 30 days
+        BigDecimal daily = AccrualServiceImpl.dailyAccrual(BigDecimal.valueOf(1000), BigDecimal.valueOf(1050), 12, BigDecimal.ZERO);
+
+        assertEquals(new BigDecimal("0.1389"), daily);
+    }
+
+    @Test
+    void dailyAccrual_ShouldNotExceedTotalInterest() {
+        BigDecimal daily = AccrualServiceImpl.dailyAccrual(BigDecimal.valueOf(1000), BigDecimal.valueOf(1050), 12, new BigDecimal("49.95"));
+
+        assertEquals(new BigDecimal("0.05"), daily);
+    }
+
+    @Test
+    void dailyAccrual_ShouldBeZeroWhenFullyAccrued() {
+        BigDecimal daily = AccrualServiceImpl.dailyAccrual(BigDecimal.valueOf(1000), BigDecimal.valueOf(1050), 12, BigDecimal.valueOf(50));
+
+        assertEquals(BigDecimal.ZERO, daily);
+    }
+}
@@ -0,0 +1,188 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.HoldRequest;
+import com.shaka.funding.entity.Loan;
+import com.shaka.funding.entity.LoanInstallment;
+import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.LoanInstallmentRepository;
+import com.shaka.funding.repository.LoanRepository;
+import com.shaka.funding.repository.TransactionRepository;
+import com.shaka.funding.service.CollectionService;
+import com.shaka.funding.service.FundHoldService;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Business dates lie in the past, so runs only pick up the installments these tests schedule and
+ * never those of loans approved elsewhere in the suite, which fall due from next month.
+ */
+@FundingIntegrationTest
+class CollectionServiceImplTest {
+
+    @Autowired
+    private CollectionService collectionService;
+    @Autowired
+    private FundHoldService fundHoldService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private LoanInstallmentRepository installmentRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_ShouldRecordPaidPartialAndFailedInstallments() {
+        LocalDate date = LocalDate.now().minusDays(40);
+        String paidAccount = accountFixtures.fundedAccount("collect.paid@example.com", "100");
+        String partialAccount = accountFixtures.fundedAccount("collect.partial@example.com", "30");
+        String failedAccount = accountFixtures.fundedAccount("collect.failed@example.com", "0");
+        Loan paidLoan = loan();
+        Loan partialLoan = loan();
+        Loan failedLoan = loan();
+        LoanInstallment paid = installment(paidLoan, 1, paidAccount, date, "50");
+        LoanInstallment partial = installment(partialLoan, 1, partialAccount, date, "50");
+        LoanInstallment failed = installment(failedLoan, 1, failedAccount, date, "50");
+
+        BatchRunResponse run = collectionService.runCollection(date);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, run.getStatus());
+        assertInstallment(paid, "PAID", "50");
+        assertInstallment(partial, "PARTIAL", "30");
+        assertInstallment(failed, "FAILED", "0");
+        assertBalance(paidAccount, "50");
+        assertBalance(partialAccount, "0");
+        assertBalance(failedAccount, "0");
+        assertEquals(0, new BigDecimal("950").compareTo(loanRepository.findById(paidLoan.getId()).orElseThrow().getOutstandingBalance()));
+        assertEquals(0, new BigDecimal("970").compareTo(loanRepository.findById(partialLoan.getId()).orElseThrow().getOutstandingBalance()));
+        assertEquals(1, installmentRepository.findById(failed.getId()).orElseThrow().getAttempts());
+        assertEquals("REPAID", loanRepository.findById(paidLoan.getId()).orElseThrow().getStatus());
+        assertEquals("OVERDUE", loanRepository.findById(failedLoan.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void run_ShouldOnlyCollectWhatHoldsLeaveAvailable() {
+        LocalDate date = LocalDate.now().minusDays(35);
+        String accountNumber = accountFixtures.fundedAccount("collect.held@example.com", "100");
+        fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("80")).expiresInSeconds(3600L).build());
+        LoanInstallment installment = installment(loan(), 1, accountNumber, date, "50");
+
+        collectionService.runCollection(date);
+
+        assertInstallment(installment, "PARTIAL", "20");
+        assertBalance(accountNumber, "80");
+    }
+
+    @Test
+    void rerun_ShouldReuseTheDerivedTransactionIdAndNotDebitTwice() {
+        LocalDate date = LocalDate.now().minusDays(30);
+        String accountNumber = accountFixtures.fundedAccount("collect.retry@example.com", "100");
+        String settledAccount = accountFixtures.fundedAccount("collect.rerun@example.com", "100");
+        LoanInstallment retried = installment(loan(), 1, accountNumber, date, "40");
+        LoanInstallment settled = installment(loan(), 1, settledAccount, date, "40");
+        // an earlier attempt posted the debit but its installment update never committed
+        String transactionId = CollectionServiceImpl.transactionId(retried.getId(), Date.valueOf(date));
+        jdbcTemplate.update("update tbl_account_balance set balance = balance - 40 where account_number = ?", accountNumber);
+        jdbcTemplate.update("insert into tbl_transaction (transaction_id, transaction_type, transaction_date, "
+                        + "transaction_time, transaction_amount, account_number, status) values (?, 'DEBIT', ?, ?, 40, ?, 'SUCCESS')",
+                transactionId, Date.valueOf(date), Time.valueOf(LocalTime.NOON), accountNumber);
+
+        collectionService.runCollection(date);
+        BatchRunResponse again = collectionService.runCollection(date);
+
+        assertEquals(0L, again.getProcessed());
+        assertInstallment(retried, "PAID", "40");
+        assertBalance(accountNumber, "60");
+        assertEquals(List.of(transactionId), debits(accountNumber));
+        assertInstallment(settled, "PAID", "40");
+        assertBalance(settledAccount, "60");
+        assertEquals(List.of(CollectionServiceImpl.transactionId(settled.getId(), Date.valueOf(date))), debits(settledAccount));
+    }
+
+    @Test
+    void run_ShouldMoveLoansBetweenOverdueApprovedAndRepaid() {
+        LocalDate firstDue = LocalDate.now().minusDays(25);
+        LocalDate secondDue = LocalDate.now().minusDays(18);
+        String accountNumber = accountFixtures.fundedAccount("collect.status@example.com", "0");
+        Loan loan = loan();
+        installment(loan, 1, accountNumber, firstDue, "50");
+        installment(loan, 2, accountNumber, secondDue, "50");
+
+        collectionService.runCollection(firstDue);
+        assertEquals("OVERDUE", loanRepository.findById(loan.getId()).orElseThrow().getStatus());
+
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("100")));
+        collectionService.runCollection(LocalDate.now().minusDays(20));
+        assertEquals("APPROVED", loanRepository.findById(loan.getId()).orElseThrow().getStatus());
+
+        collectionService.runCollection(secondDue);
+        assertEquals("REPAID", loanRepository.findById(loan.getId()).orElseThrow().getStatus());
+        assertBalance(accountNumber, "0");
+    }
+
+    private Loan loan() {
+        return loanRepository.save(Loan.builder()
+                .userId(9300L)
+                .amount(BigDecimal.valueOf(1000))
+                .totalAmount(BigDecimal.valueOf(1000))
+                .tenure(12)
+                .status("APPROVED")
+                .build());
+    }
+
+    private LoanInstallment installment(Loan loan, int sequence, String accountNumber, LocalDate dueDate, String amountDue) {
+        return installmentRepository.save(LoanInstallment.builder()
+                .loanId(loan.getId())
+                .sequence(sequence)
+                .accountNumber(accountNumber)
+                .accountBucket(AccountUtils.accountBucket(accountNumber, AccountUtils.ACCOUNT_BUCKETS))
+                .dueDate(dueDate)
+                .amountDue(new BigDecimal(amountDue))
+                .amountCollected(BigDecimal.ZERO)
+                .status("DUE")
+                .attempts(0)
+                .build());
+    }
+
+    private void assertInstallment(LoanInstallment installment, String status, String collected) {
+        LoanInstallment current = installmentRepository.findById(installment.getId()).orElseThrow();
+        assertEquals(status, current.getStatus());
+        assertEquals(0, new BigDecimal(collected).compareTo(current.getAmountCollected()));
+    }
+
+    private void assertBalance(String accountNumber, String expected) {
+        assertEquals(0, new BigDecimal(expected).compareTo(accountBalanceRepository.findByAccountNumber(accountNumber).getBalance()));
+    }
+
+    private List<String> debits(String accountNumber) {
+        return transactionRepository.findByAccountNumber(accountNumber).stream()
+                .filter(transaction -> "DEBIT".equals(transaction.getTransactionType()))
+                .map(Transaction::getTransactionId)
+                .toList();
+    }
+}
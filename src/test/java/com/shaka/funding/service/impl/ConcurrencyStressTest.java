@@ -0,0 +1,189 @@
+package com.shaka.funding.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.LoanRequest;
+import com.shaka.funding.dto.LoanResponse;
+import com.shaka.funding.dto.UserRequest;
+import com.shaka.funding.entity.AccountBalance;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.LoanInstallmentRepository;
+import com.shaka.funding.repository.LoanRepository;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.LoanService;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hammers the posting and loan paths from 200 threads against an embedded database and checks the
+ * ledger invariants. Throughput per scenario is written to target/stress-report.json, so
+ * regressions in correctness and speed show up together. Tuned with -Dstress.threads and
+ * -Dstress.opsPerThread.
+ */
+@SpringBootTest
+@ActiveProfiles("stress")
+class ConcurrencyStressTest {
+
+    // shared by the test methods, each of which runs on its own instance
+    private static final Map<String, Object> REPORT = new LinkedHashMap<>();
+
+    private final int threads = Integer.getInteger("stress.threads", 200);
+    private final int opsPerThread = Integer.getInteger("stress.opsPerThread", 5);
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private LoanService loanService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private LoanInstallmentRepository installmentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCreditsAndDebits_ShouldKeepBalanceEqualToLedger() throws Exception {
+        String accountNumber = createAccount("stress.balance@example.com");
+        userService.creditAccount(new CreditDebitRequest(accountNumber, BigDecimal.valueOf(1000)));
+
+        AtomicInteger credits = new AtomicInteger(1);
+        AtomicInteger debits = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger negativeBalances = new AtomicInteger();
+
+        long nanos = runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < opsPerThread; i++) {
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 100));
+                CreditDebitRequest request = new CreditDebitRequest(accountNumber, amount);
+                boolean credit = random.nextBoolean();
+                BankResponse response = credit ? userService.creditAccount(request) : userService.debitAccount(request);
+                switch (response.getResponseCode()) {
+                    case AccountUtils.ACCOUNT_CREDITED_CODE -> credits.incrementAndGet();
+                    case AccountUtils.ACCOUNT_DEBITED_CODE -> debits.incrementAndGet();
+                    case AccountUtils.INSUFFICIENT_BALANCE_CODE -> rejected.incrementAndGet();
+                    default -> fail("Unexpected response " + response.getResponseCode() + ": " + response.getResponseMessage());
+                }
+                if (response.getAccountInfo() != null && response.getAccountInfo().getAccountBalance().signum() < 0) {
+                    negativeBalances.incrementAndGet();
+                }
+            }
+        });
+        report("credit/debit", threads * opsPerThread, nanos);
+
+        AccountBalance balance = accountBalanceRepository.findByAccountNumber(accountNumber);
+        BigDecimal ledger = jdbcTemplate.queryForObject(
+                "select coalesce(sum(case when transaction_type = 'CREDIT' then transaction_amount "
+                        + "else -transaction_amount end), 0) from tbl_transaction where account_number = ?",
+                BigDecimal.class, accountNumber);
+        Integer rows = jdbcTemplate.queryForObject(
+                "select count(*) from tbl_transaction where account_number = ?", Integer.class, accountNumber);
+
+        assertEquals(0, negativeBalances.get(), "no posting may observe a negative balance");
+        assertTrue(balance.getBalance().signum() >= 0);
+        assertEquals(0, ledger.compareTo(balance.getBalance()),
+                "balance " + balance.getBalance() + " must equal the ledger " + ledger);
+        assertEquals(credits.get() + debits.get(), rows, "one transaction row per successful posting");
+    }
+
+    @Test
+    void concurrentLoanStatusUpdates_ShouldScheduleInstallmentsOnce() throws Exception {
+        createAccount("stress.loan@example.com");
+        Long userId = userRepository.findByEmail("stress.loan@example.com").getId();
+        LoanResponse loan = loanService.applyForLoan(LoanRequest.builder()
+                .userId(userId)
+                .amount(BigDecimal.valueOf(12000))
+                .tenure(12)
+                .build());
+
+        AtomicLong failures = new AtomicLong();
+        long nanos = runConcurrently(() -> {
+            for (int i = 0; i < opsPerThread; i++) {
+                try {
+                    loanService.updateLoanStatus(loan.getId(), "APPROVED");
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+            }
+        });
+        report("loan status", threads * opsPerThread, nanos);
+
+        assertEquals(0, failures.get());
+        assertEquals("APPROVED", loanRepository.findById(loan.getId()).orElseThrow().getStatus());
+        assertEquals(12, installmentRepository.findByLoanIdOrderBySequence(loan.getId()).size());
+    }
+
+    private String createAccount(String email) {
+        BankResponse response = userService.createAccount(UserRequest.builder()
+                .firstName("Stress")
+                .lastName("Test")
+                .otherName("User")
+                .email(email)
+                .password("password123")
+                .role(Role.USER)
+                .build());
+        assertEquals(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE, response.getResponseCode());
+        return response.getAccountInfo().getAccountNumber();
+    }
+
+    private long runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        return elapsed;
+    }
+
+    private void report(String name, int operations, long nanos) throws IOException {
+        double seconds = nanos / 1_000_000_000.0;
+        Map<String, Object> scenario = new LinkedHashMap<>();
+        scenario.put("threads", threads);
+        scenario.put("operations", operations);
+        scenario.put("durationSeconds", seconds);
+        scenario.put("throughputPerSecond", operations / seconds);
+        REPORT.put(name, scenario);
+
+        File output = new File("target/stress-report.json");
+        output.getParentFile().mkdirs();
+        objectMapper.writeValue(output, REPORT);
+    }
+}
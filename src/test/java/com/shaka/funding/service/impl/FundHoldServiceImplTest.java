@@ -0,0 +1,113 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.HoldRequest;
+import com.shaka.funding.dto.HoldResponse;
+import com.shaka.funding.entity.AccountBalance;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.FundHoldRepository;
+import com.shaka.funding.service.FundHoldService;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class FundHoldServiceImplTest {
+
+    @Autowired
+    private FundHoldService fundHoldService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    @Autowired
+    private FundHoldRepository fundHoldRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hold_ShouldReduceAvailableBalanceUntilCaptured() {
+        String accountNumber = accountFixtures.fundedAccount("hold.capture@example.com", "100");
+
+        HoldResponse hold = fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("70")).build());
+        assertEquals(AccountUtils.HOLD_PLACED_CODE, hold.getResponseCode());
+        assertEquals(0, new BigDecimal("30").compareTo(hold.getAvailableBalance()));
+
+        BankResponse debit = userService.debitAccount(new CreditDebitRequest(accountNumber, new BigDecimal("40")));
+        assertEquals(AccountUtils.INSUFFICIENT_BALANCE_CODE, debit.getResponseCode());
+        HoldResponse second = fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("40")).build());
+        assertEquals(AccountUtils.INSUFFICIENT_BALANCE_CODE, second.getResponseCode());
+
+        HoldResponse captured = fundHoldService.captureHold(hold.getHoldId(), new BigDecimal("50"));
+        assertEquals(AccountUtils.HOLD_CAPTURED_CODE, captured.getResponseCode());
+        AccountBalance balance = accountBalanceRepository.findByAccountNumber(accountNumber);
+        assertEquals(0, new BigDecimal("50").compareTo(balance.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balance.getHeldAmount()));
+
+        assertEquals(AccountUtils.HOLD_NOT_ACTIVE_CODE, fundHoldService.releaseHold(hold.getHoldId()).getResponseCode());
+    }
+
+    @Test
+    void release_ShouldRestoreAvailableBalance() {
+        String accountNumber = accountFixtures.fundedAccount("hold.release@example.com", "100");
+        HoldResponse hold = fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("60")).build());
+
+        assertEquals(AccountUtils.HOLD_AMOUNT_INVALID_CODE,
+                fundHoldService.captureHold(hold.getHoldId(), new BigDecimal("61")).getResponseCode());
+        HoldResponse released = fundHoldService.releaseHold(hold.getHoldId());
+
+        assertEquals(AccountUtils.HOLD_RELEASED_CODE, released.getResponseCode());
+        assertEquals(0, new BigDecimal("100").compareTo(released.getAvailableBalance()));
+        assertEquals(AccountUtils.HOLD_NOT_FOUND_CODE, fundHoldService.releaseHold("no-such-hold").getResponseCode());
+    }
+
+    @Test
+    void hold_ShouldExpireOnTimerWheel() throws InterruptedException {
+        String accountNumber = accountFixtures.fundedAccount("hold.expiry@example.com", "100");
+        HoldResponse hold = fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("80")).expiresInSeconds(1L).build());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        String status = FundHoldServiceImpl.STATUS_ACTIVE;
+        while (FundHoldServiceImpl.STATUS_ACTIVE.equals(status) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            status = fundHoldRepository.findById(hold.getHoldId()).orElseThrow().getStatus();
+        }
+
+        assertEquals(FundHoldServiceImpl.STATUS_EXPIRED, status);
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountBalanceRepository.findByAccountNumber(accountNumber).getHeldAmount()));
+    }
+
+    @Test
+    void sweep_ShouldExpireOverdueHoldsTheWheelIsNotTiming() {
+        String accountNumber = accountFixtures.fundedAccount("hold.sweep@example.com", "100");
+        HoldResponse hold = fundHoldService.placeHold(HoldRequest.builder()
+                .accountNumber(accountNumber).amount(new BigDecimal("60")).build());
+        // as if the node timing it had gone away: overdue in the table, still days out on this wheel
+        jdbcTemplate.update("update tbl_fund_hold set expires_at = ? where hold_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusHours(1)), hold.getHoldId());
+
+        ((FundHoldServiceImpl) AopTestUtils.getTargetObject(fundHoldService)).sweepExpiredHolds();
+
+        assertEquals(FundHoldServiceImpl.STATUS_EXPIRED, fundHoldRepository.findById(hold.getHoldId()).orElseThrow().getStatus());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountBalanceRepository.findByAccountNumber(accountNumber).getHeldAmount()));
+    }
+
+}
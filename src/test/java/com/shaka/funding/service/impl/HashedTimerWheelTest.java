@@ -0,0 +1,76 @@
+package com.shaka.funding.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+
+    private final BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+    private HashedTimerWheel<String> wheel;
+
+    @AfterEach
+    void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    void schedule_ShouldExpireInDeadlineOrder() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, expired::addAll);
+        long start = System.nanoTime();
+
+        wheel.schedule("late", Duration.ofMillis(200));
+        wheel.schedule("early", Duration.ofMillis(30));
+
+        assertEquals("early", expired.poll(5, TimeUnit.SECONDS));
+        assertEquals("late", expired.poll(5, TimeUnit.SECONDS));
+        // 200ms is more than two turns of an 8 x 10ms wheel, so this also covers remaining rounds
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_ShouldKeepTimeoutFromExpiring() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, expired::addAll);
+
+        HashedTimerWheel.Timeout<String> cancelled = wheel.schedule("cancelled", Duration.ofMillis(50));
+        wheel.schedule("kept", Duration.ofMillis(100));
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+
+        assertEquals("kept", expired.poll(5, TimeUnit.SECONDS));
+        assertNull(expired.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void schedule_ShouldExpirePastDeadlinesOnNextTick() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, expired::addAll);
+
+        wheel.schedule("overdue", Duration.ofSeconds(-5));
+
+        assertEquals("overdue", expired.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void expiry_ShouldSurviveFailingCallback() throws InterruptedException {
+        wheel = new HashedTimerWheel<>("test-wheel", Duration.ofMillis(10), 8, keys -> {
+            if (keys.contains("poison")) {
+                throw new IllegalStateException("callback failed");
+            }
+            expired.addAll(keys);
+        });
+
+        wheel.schedule("poison", Duration.ZERO);
+        wheel.schedule("after", Duration.ofMillis(50));
+
+        assertEquals(List.of("after"), List.of(expired.poll(5, TimeUnit.SECONDS)));
+    }
+}
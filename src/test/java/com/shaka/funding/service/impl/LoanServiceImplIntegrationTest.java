@@ -1,134 +1,159 @@
 package com.shaka.funding.service.impl;
 
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
 import com.shaka.funding.dto.LoanRequest;
+import com.shaka.funding.dto.LoanResponse;
+import com.shaka.funding.dto.PricingRuleRequest;
+import com.shaka.funding.dto.UserRequest;
 import com.shaka.funding.entity.Loan;
 import com.shaka.funding.repository.LoanRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.LoanService;
+import com.shaka.funding.service.PricingService;
+import com.shaka.funding.service.UserService;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.math.BigDecimal;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@FundingIntegrationTest
 @AutoConfigureMockMvc
-@ActiveProfiles("test")
 public class LoanServiceImplIntegrationTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @Mock
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
     private LoanRepository loanRepository;
 
-    @InjectMocks
-    private LoanServiceImpl loanService;
+    @Autowired
+    private UserRepository userRepository;
 
-    private LoanRequest loanRequest;
+    @Autowired
+    private AccountFixtures accountFixtures;
 
-    @BeforeEach
-    void setUp() {
-        MockitoAnnotations.openMocks(this);
+    @Autowired
+    private PricingService pricingService;
 
-        // Create a sample loan request
-        loanRequest = new LoanRequest();
-        loanRequest.setUserId(1L);
-        loanRequest.setAmount(BigDecimal.valueOf(1000));
-        loanRequest.setTenure(12); // 12 months
-    }
+    @Autowired
+    private UserService userService;
 
     @Test
-//    @WithMockUser(username = "testUser", roles = {"USER"}) // Simulate an authenticated user
+    @WithMockUser(username = "testUser", roles = {"USER"}) // Simulate an authenticated user
     void testApplyForLoan() throws Exception {
-        // Arrange: Mock the loan repository behavior
-        Loan savedLoan = new Loan();
-        savedLoan.setId(1L);
-        savedLoan.setUserId(1L);
-        savedLoan.setAmount(BigDecimal.valueOf(1000));
-        savedLoan.setTenure(12);
-        savedLoan.setInterestRate(BigDecimal.valueOf(5)); // 5% interest
-        savedLoan.setTotalAmount(BigDecimal.valueOf(1050)); // Total = Amount + (Amount * Interest Rate)
-        savedLoan.setStatus("APPLIED");
-
-        when(loanRepository.save(any(Loan.class))).thenReturn(savedLoan);
+        long userId = borrower("loan.apply@example.com");
 
         // Act: Perform the loan application request
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/loans/apply")
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/loans/apply")
                         .contentType("application/json")
-                        .content("{ \"userId\": 1, \"amount\": 1000, \"tenure\": 12 }"))
+                        .content("{ \"userId\": " + userId + ", \"amount\": 1000, \"tenure\": 12 }"))
                 .andExpect(status().isOk()) // Expect 200 OK
-                .andExpect(jsonPath("$.userId").value(1))
-                .andExpect(jsonPath("$.status").value("APPLIED"))
-                .andReturn();
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.status").value("APPLIED"));
 
-        // Verify that the loan repository was called
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        // Verify that the loan was stored
+        assertEquals(1, loanRepository.findByUserId(userId).size());
     }
 
     @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testGetLoansByUserId() throws Exception {
-        // Arrange: Mock the loan repository behavior
-        Loan loan = new Loan();
-        loan.setId(1L);
-        loan.setUserId(1L);
-        loan.setAmount(BigDecimal.valueOf(1000));
-        loan.setTenure(12);
-        loan.setInterestRate(BigDecimal.valueOf(5)); // 5% interest
-        loan.setTotalAmount(BigDecimal.valueOf(1050));
-        loan.setStatus("APPLIED");
-
-        when(loanRepository.findByUserId(1L)).thenReturn(List.of(loan));
-
-        // Act: Perform the get loans request for userId 1
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/loans/user/1")
+        long userId = borrower("loan.list@example.com");
+        apply(userId);
+
+        // Act: Perform the get loans request for the user
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/v1/loans/user/" + userId)
                         .contentType("application/json"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].userId").value(1))
-                .andExpect(jsonPath("$[0].status").value("APPLIED"))
-                .andReturn();
-
-        // Verify the repository method was called
-        verify(loanRepository, times(1)).findByUserId(1L);
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].userId").value(userId))
+                .andExpect(jsonPath("$[0].status").value("APPLIED"));
     }
 
     @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
     void testUpdateLoanStatus() throws Exception {
-        // Arrange: Mock the loan repository behavior
-        Loan loan = new Loan();
-        loan.setId(1L);
-        loan.setUserId(1L);
-        loan.setAmount(BigDecimal.valueOf(1000));
-        loan.setTenure(12);
-        loan.setInterestRate(BigDecimal.valueOf(5));
-        loan.setTotalAmount(BigDecimal.valueOf(1050));
-        loan.setStatus("APPLIED");
-
-        when(loanRepository.findById(1L)).thenReturn(java.util.Optional.of(loan));
-        when(loanRepository.save(any(Loan.class))).thenReturn(loan);
+        LoanResponse loan = apply(borrower("loan.approve@example.com"));
 
         // Act: Perform the update loan status request
-        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.patch("/loans/1/status")
-                        .contentType("application/json")
-                        .content("{ \"status\": \"APPROVED\" }"))
+        mockMvc.perform(MockMvcRequestBuilders.patch("/api/v1/loans/" + loan.getId() + "/status")
+                        .param("status", "APPROVED"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.status").value("APPROVED"))
-                .andReturn();
+                .andExpect(jsonPath("$.status").value("APPROVED"));
 
         // Verify that the loan status was updated
-        verify(loanRepository, times(1)).save(any(Loan.class));
+        assertEquals("APPROVED", loanRepository.findById(loan.getId()).map(Loan::getStatus).orElseThrow());
+    }
+
+    @Test
+    @WithMockUser(username = "testUser", roles = {"USER"})
+    void applyForLoan_ShouldIgnoreASegmentSentByTheBorrower() throws Exception {
+        publishPremiumRate();
+        long userId = borrower("loan.segment.body@example.com");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/v1/loans/apply")
+                        .contentType("application/json")
+                        .content("{ \"userId\": " + userId + ", \"amount\": 1000, \"tenure\": 12, \"segment\": \"PREMIUM\" }"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("APPLIED"));
+
+        Loan loan = loanRepository.findByUserId(userId).get(0);
+        assertEquals("STANDARD", loan.getSegment());
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(loan.getInterestRate()));
+    }
+
+    @Test
+    void applyForLoan_ShouldPriceTheSegmentStoredOnTheBorrower() {
+        publishPremiumRate();
+        String email = "loan.segment.profile@example.com";
+        String accountNumber = accountFixtures.account(email);
+        userService.updateAccount(UserRequest.builder().accountNumber(accountNumber).pricingSegment("PREMIUM").build());
+
+        apply(userRepository.findByEmail(email).getId());
+
+        Loan loan = loanRepository.findByUserId(userRepository.findByEmail(email).getId()).get(0);
+        assertEquals("PREMIUM", loan.getSegment());
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(loan.getInterestRate()));
+    }
+
+    // the default STANDARD tiers, so other tests price as before, plus a flat 2% PREMIUM segment
+    private void publishPremiumRate() {
+        pricingService.publishRules(List.of(
+                rule("STANDARD", 12, 5), rule("STANDARD", 24, 10), rule("STANDARD", null, 15),
+                rule("PREMIUM", null, 2)));
+    }
+
+    private PricingRuleRequest rule(String segment, Integer maxTenure, int rate) {
+        return PricingRuleRequest.builder()
+                .segment(segment)
+                .maxTenure(maxTenure)
+                .interestRate(BigDecimal.valueOf(rate))
+                .build();
+    }
+
+    private long borrower(String email) {
+        accountFixtures.account(email);
+        return userRepository.findByEmail(email).getId();
+    }
+
+    private LoanResponse apply(long userId) {
+        return loanService.applyForLoan(LoanRequest.builder()
+                .userId(userId)
+                .amount(BigDecimal.valueOf(1000))
+                .tenure(12)
+                .build());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.OutboxEventMessage;
+import com.shaka.funding.service.OutboxService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class OutboxRelayTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    // registered per test instead of as a bean, so the suite keeps sharing one context
+    @Autowired
+    private ApplicationEventMulticaster eventMulticaster;
+
+    private final List<OutboxEventMessage> received = new CopyOnWriteArrayList<>();
+    private ApplicationListener<ApplicationEvent> listener;
+
+    @BeforeEach
+    void listen() {
+        listener = event -> {
+            if (event instanceof PayloadApplicationEvent<?> payload && payload.getPayload() instanceof OutboxEventMessage message) {
+                received.add(message);
+            }
+        };
+        eventMulticaster.addApplicationListener(listener);
+    }
+
+    @AfterEach
+    void stopListening() {
+        eventMulticaster.removeApplicationListener(listener);
+    }
+
+    @Test
+    void accountEvents_ShouldBePublishedInCommitOrder() throws InterruptedException {
+        String accountNumber = accountFixtures.fundedAccount("outbox.order@example.com", "100");
+        userService.debitAccount(new CreditDebitRequest(accountNumber, new BigDecimal("30")));
+
+        List<OutboxEventMessage> events = awaitEvents(accountNumber, 3);
+
+        assertEquals(List.of(OutboxService.ACCOUNT_CREATED, OutboxService.ACCOUNT_CREDITED, OutboxService.ACCOUNT_DEBITED),
+                events.stream().map(OutboxEventMessage::getEventType).toList());
+        assertTrue(events.get(0).getId() < events.get(1).getId() && events.get(1).getId() < events.get(2).getId());
+        assertTrue(events.get(2).getPayload().contains("\"amount\":30"));
+    }
+
+    @Test
+    void rolledBackTransaction_ShouldPublishNothing() throws InterruptedException {
+        transactionTemplate.executeWithoutResult(status -> {
+            outboxService.record(OutboxService.ACCOUNT, "rolled-back", OutboxService.ACCOUNT_CREDITED, Map.of("amount", 1));
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status ->
+                outboxService.record(OutboxService.ACCOUNT, "committed", OutboxService.ACCOUNT_CREDITED, Map.of("amount", 2)));
+
+        awaitEvents("committed", 1);
+
+        assertTrue(received.stream().noneMatch(event -> "rolled-back".equals(event.getAggregateKey())));
+    }
+
+    @Test
+    void lateCommittingWriter_ShouldStillBePublishedAfterTheGapTimedOut() throws InterruptedException {
+        // room for two hand-placed ids ahead of anything the identity hands out
+        long base = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from tbl_outbox_event", Long.class) + 100;
+        jdbcTemplate.execute("alter table tbl_outbox_event alter column id restart with " + (base + 3));
+
+        // the event after the gap is old enough for the relay to move past the gap straight away
+        insertEvent(base + 2, "after-gap", LocalDateTime.now().minusMinutes(1));
+        awaitEvents("after-gap", 1);
+        awaitGapRows(base + 1, 1);
+
+        // the long transaction holding the skipped id commits
+        insertEvent(base + 1, "late-writer", LocalDateTime.now().minusMinutes(1));
+
+        assertEquals(base + 1, awaitEvents("late-writer", 1).get(0).getId());
+        awaitGapRows(base + 1, 0);
+    }
+
+    private void insertEvent(long id, String aggregateKey, LocalDateTime createdAt) {
+        jdbcTemplate.update("insert into tbl_outbox_event (id, aggregate_type, aggregate_key, event_type, payload, created_at) "
+                        + "values (?, ?, ?, ?, ?, ?)", id, OutboxService.ACCOUNT, aggregateKey, OutboxService.ACCOUNT_CREDITED,
+                "{}", Timestamp.valueOf(createdAt));
+    }
+
+    private List<OutboxEventMessage> awaitEvents(String aggregateKey, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<OutboxEventMessage> events = List.of();
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            events = received.stream().filter(event -> aggregateKey.equals(event.getAggregateKey())).toList();
+        }
+        assertEquals(count, events.size());
+        return events;
+    }
+
+    // the relay hands events to the sink before its gap bookkeeping commits
+    private void awaitGapRows(long id, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        int rows = -1;
+        while (rows != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            rows = jdbcTemplate.queryForObject("select count(*) from tbl_outbox_gap where id = ?", Integer.class, id);
+        }
+        assertEquals(count, rows);
+    }
+}
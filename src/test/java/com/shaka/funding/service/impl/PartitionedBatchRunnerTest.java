@@ -0,0 +1,170 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.BatchRunResponse;
+import com.shaka.funding.entity.BatchCheckpoint;
+import com.shaka.funding.repository.BatchCheckpointRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class PartitionedBatchRunnerTest {
+
+    private static final int CHUNK = 10;
+
+    @Autowired
+    private PartitionedBatchRunner batchRunner;
+    @Autowired
+    private BatchCheckpointRepository checkpointRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void run_ShouldWalkEveryPartitionInChunksAndCheckpointIt() {
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+
+        BatchRunResponse response = batchRunner.run("TEST_CHUNKS", "r1", 1, 100, 4, 4, chunks(seen));
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, response.getStatus());
+        assertEquals(100L, response.getProcessed());
+        assertEquals(LongStream.rangeClosed(1, 100).boxed().toList(), seen.stream().sorted().toList());
+        List<BatchCheckpoint> checkpoints = checkpointRepository.findByJobNameAndRunKeyOrderByPartitionIndex("TEST_CHUNKS", "r1");
+        assertEquals(4, checkpoints.size());
+        for (BatchCheckpoint checkpoint : checkpoints) {
+            assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, checkpoint.getStatus());
+            assertEquals(checkpoint.getUpperBound(), checkpoint.getLastProcessedId());
+            assertEquals(25L, checkpoint.getProcessedCount());
+        }
+
+        // a finished run is a no-op when started again
+        BatchRunResponse again = batchRunner.run("TEST_CHUNKS", "r1", 1, 100, 4, 4, chunks(seen));
+        assertEquals(0L, again.getProcessed());
+        assertEquals(100, seen.size());
+    }
+
+    @Test
+    void run_ShouldResumeAfterTheLastCommittedChunkWhenAPartitionFailed() {
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean failed = new AtomicBoolean();
+        PartitionedBatchRunner.ChunkHandler failOnce = (partition, afterId, upperBound) -> {
+            if (afterId >= 30 && failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("boom");
+            }
+            return chunks(seen).process(partition, afterId, upperBound);
+        };
+
+        BatchRunResponse first = batchRunner.run("TEST_RESUME", "r1", 1, 100, 1, 1, failOnce);
+
+        assertEquals(PartitionedBatchRunner.STATUS_FAILED, first.getStatus());
+        BatchCheckpoint checkpoint = checkpointRepository.findById("TEST_RESUME:r1:0").orElseThrow();
+        assertEquals(30L, checkpoint.getLastProcessedId());
+        assertEquals(PartitionedBatchRunner.STATUS_RUNNING, checkpoint.getStatus());
+
+        BatchRunResponse second = batchRunner.run("TEST_RESUME", "r1", 1, 100, 1, 1, failOnce);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, second.getStatus());
+        assertEquals(70L, second.getProcessed());
+        assertEquals(LongStream.rangeClosed(1, 100).boxed().toList(), seen.stream().sorted().toList());
+    }
+
+    @Test
+    void run_ShouldNotProcessAnIdTwiceWhenTwoNodesRunTheSameRun() throws Exception {
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        PartitionedBatchRunner.ChunkHandler slow = (partition, afterId, upperBound) -> {
+            started.countDown();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return chunks(seen).process(partition, afterId, upperBound);
+        };
+
+        CompletableFuture<BatchRunResponse> first = CompletableFuture.supplyAsync(
+                () -> batchRunner.run("TEST_SHARED", "r1", 1, 100, 2, 2, slow));
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        // the checkpoints exist now, so this run joins the partitions instead of creating them
+        BatchRunResponse second = batchRunner.run("TEST_SHARED", "r1", 1, 100, 2, 2, slow);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, first.get(60, TimeUnit.SECONDS).getStatus());
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, second.getStatus());
+        assertEquals(100, seen.size());
+        assertEquals(100, new HashSet<>(seen).size());
+    }
+
+    @Test
+    void run_ShouldRejectASecondNodeThatCreatesTheSameCheckpointsConcurrently() throws Exception {
+        List<Long> seen = Collections.synchronizedList(new ArrayList<>());
+        List<Long> seenByLoser = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        PartitionedBatchRunner.ChunkHandler paused = (partition, afterId, upperBound) -> {
+            started.countDown();
+            try {
+                assertTrue(resume.await(30, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return chunks(seen).process(partition, afterId, upperBound);
+        };
+        // the other node looked for checkpoints before this one committed them
+        BatchCheckpointRepository staleRepository = Mockito.mock(BatchCheckpointRepository.class,
+                AdditionalAnswers.delegatesTo(checkpointRepository));
+        Mockito.doReturn(List.of()).when(staleRepository).findByJobNameAndRunKeyOrderByPartitionIndex("TEST_RACE", "r1");
+        PartitionedBatchRunner otherNode = new PartitionedBatchRunner(staleRepository, transactionTemplate, meterRegistry);
+
+        CompletableFuture<BatchRunResponse> first = CompletableFuture.supplyAsync(
+                () -> batchRunner.run("TEST_RACE", "r1", 1, 100, 2, 2, paused));
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        try {
+            assertThrows(DataIntegrityViolationException.class,
+                    () -> otherNode.run("TEST_RACE", "r1", 1, 100, 2, 2, chunks(seenByLoser)));
+        } finally {
+            resume.countDown();
+        }
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, first.get(60, TimeUnit.SECONDS).getStatus());
+        assertTrue(seenByLoser.isEmpty());
+        assertEquals(LongStream.rangeClosed(1, 100).boxed().toList(), seen.stream().sorted().toList());
+        for (BatchCheckpoint checkpoint : checkpointRepository.findByJobNameAndRunKeyOrderByPartitionIndex("TEST_RACE", "r1")) {
+            assertEquals(checkpoint.getUpperBound(), checkpoint.getLastProcessedId());
+            assertEquals(50L, checkpoint.getProcessedCount());
+        }
+    }
+
+    /**
+     * Pretends every id in the range exists and processes up to {@link #CHUNK} of them per call.
+     */
+    private static PartitionedBatchRunner.ChunkHandler chunks(List<Long> seen) {
+        return (partition, afterId, upperBound) -> {
+            long last = Math.min(afterId + CHUNK, upperBound);
+            if (last <= afterId) {
+                return PartitionedBatchRunner.ChunkResult.EMPTY;
+            }
+            for (long id = afterId + 1; id <= last; id++) {
+                seen.add(id);
+            }
+            return new PartitionedBatchRunner.ChunkResult(last, (int) (last - afterId));
+        };
+    }
+}
@@ -0,0 +1,127 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.dto.PricingQuote;
+import com.shaka.funding.entity.PricingRule;
+import com.shaka.funding.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PricingTableTest {
+
+    @Test
+    void defaults_ShouldMatchLegacyTenureTiers() {
+        PricingTable table = PricingTable.defaults();
+
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(table.lookup(null, 12, BigDecimal.valueOf(1000)).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(10).compareTo(table.lookup(null, 13, BigDecimal.valueOf(1000)).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(15).compareTo(table.lookup(null, 60, BigDecimal.valueOf(1000)).getInterestRate()));
+        assertEquals(0L, table.lookup(null, 12, BigDecimal.ONE).getVersion());
+    }
+
+    @Test
+    void lookup_ShouldPickTenureTierAmountBandAndSegment() {
+        PricingTable table = PricingTable.compile(3L, List.of(
+                rule("STANDARD", 12, BigDecimal.valueOf(5000), 6),
+                rule("STANDARD", 12, null, 7),
+                rule("STANDARD", null, null, 12),
+                rule("PREMIUM", null, null, 4)
+        ));
+
+        assertEquals(0, BigDecimal.valueOf(6).compareTo(table.lookup("STANDARD", 6, BigDecimal.valueOf(5000)).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(7).compareTo(table.lookup("STANDARD", 6, BigDecimal.valueOf(5001)).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(table.lookup("STANDARD", 36, BigDecimal.ONE).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(table.lookup("PREMIUM", 36, BigDecimal.ONE).getInterestRate()));
+        // unknown segments are priced as STANDARD
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(table.lookup("UNKNOWN", 36, BigDecimal.ONE).getInterestRate()));
+        assertEquals(3L, table.getVersion());
+    }
+
+    @Test
+    void lookup_ShouldMatchSegmentRegardlessOfCase() {
+        PricingTable table = PricingTable.compile(1L, List.of(
+                rule("standard", null, null, 12),
+                rule("Premium", null, null, 4)
+        ));
+
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(table.lookup("premium", 36, BigDecimal.ONE).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(table.lookup(" PREMIUM ", 36, BigDecimal.ONE).getInterestRate()));
+        assertEquals(0, BigDecimal.valueOf(12).compareTo(table.lookup("Standard", 36, BigDecimal.ONE).getInterestRate()));
+    }
+
+    @Test
+    void lookup_ShouldReturnSameQuoteInstance() {
+        PricingTable table = PricingTable.defaults();
+
+        PricingQuote first = table.lookup("STANDARD", 6, BigDecimal.TEN);
+        PricingQuote second = table.lookup("STANDARD", 6, BigDecimal.ONE);
+
+        assertSame(first, second);
+        assertEquals(0, new BigDecimal("0.05").compareTo(first.getRateFraction()));
+    }
+
+    @Test
+    void compile_ShouldRejectDuplicateRules() {
+        List<PricingRule> rules = List.of(
+                rule("STANDARD", 12, null, 5),
+                rule("standard", 12, null, 6)
+        );
+
+        assertThrows(ValidationException.class, () -> PricingTable.compile(1L, rules));
+    }
+
+    @Test
+    void compile_ShouldRejectEmptyRuleSet() {
+        ValidationException e = assertThrows(ValidationException.class, () -> PricingTable.compile(1L, List.of()));
+
+        assertEquals(1, e.getErrors().size());
+    }
+
+    @Test
+    void compile_ShouldRejectRuleSetWithoutDefaultSegment() {
+        List<PricingRule> rules = List.of(rule("PREMIUM", null, null, 4));
+
+        ValidationException e = assertThrows(ValidationException.class, () -> PricingTable.compile(1L, rules));
+
+        assertTrue(e.getErrors().get(0).contains(PricingTable.DEFAULT_SEGMENT));
+    }
+
+    @Test
+    void compile_ShouldRejectSegmentWithoutOpenEndedTenureTier() {
+        List<PricingRule> rules = List.of(
+                rule("STANDARD", null, null, 12),
+                rule("PREMIUM", 12, null, 4),
+                rule("PREMIUM", 24, null, 6)
+        );
+
+        ValidationException e = assertThrows(ValidationException.class, () -> PricingTable.compile(1L, rules));
+
+        assertEquals(List.of("Segment PREMIUM has no rule without maxTenure, so tenures above 24 are not priced"),
+                e.getErrors());
+    }
+
+    @Test
+    void compile_ShouldRejectTierWithoutOpenEndedAmountBand() {
+        List<PricingRule> rules = List.of(
+                rule("STANDARD", 12, BigDecimal.valueOf(5000), 6),
+                rule("STANDARD", null, null, 12)
+        );
+
+        ValidationException e = assertThrows(ValidationException.class, () -> PricingTable.compile(1L, rules));
+
+        assertEquals(List.of("Segment STANDARD, maxTenure 12 has no rule without maxAmount, so amounts above 5000 are not priced"),
+                e.getErrors());
+    }
+
+    private PricingRule rule(String segment, Integer maxTenure, BigDecimal maxAmount, int rate) {
+        return PricingRule.builder()
+                .segment(segment)
+                .maxTenure(maxTenure)
+                .maxAmount(maxAmount)
+                .interestRate(BigDecimal.valueOf(rate))
+                .build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.ReconciliationResponse;
+import com.shaka.funding.entity.ReconciliationDiscrepancy;
+import com.shaka.funding.service.ReconciliationService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class ReconciliationServiceImplTest {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcile_ShouldReportAccountsWhoseBalanceDisagreesWithLedger() {
+        String clean = accountFixtures.account("reconcile.clean@example.com");
+        String drifted = accountFixtures.account("reconcile.drifted@example.com");
+        userService.creditAccount(new CreditDebitRequest(clean, new BigDecimal("100")));
+        userService.debitAccount(new CreditDebitRequest(clean, new BigDecimal("40")));
+        userService.creditAccount(new CreditDebitRequest(drifted, new BigDecimal("25")));
+        jdbcTemplate.update("update tbl_account_balance set balance = balance + 7 where account_number = ?", drifted);
+        LocalDate businessDate = LocalDate.of(2000, 1, 1);
+
+        ReconciliationResponse run = reconciliationService.reconcile(businessDate);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, run.getStatus());
+        assertTrue(run.getAccountsChecked() >= 2);
+        ReconciliationDiscrepancy discrepancy = run.getDiscrepancies().stream()
+                .filter(found -> drifted.equals(found.getAccountNumber()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, new BigDecimal("32").compareTo(discrepancy.getBalance()));
+        assertEquals(0, new BigDecimal("25").compareTo(discrepancy.getLedgerBalance()));
+        assertEquals(0, new BigDecimal("7").compareTo(discrepancy.getDifference()));
+        assertEquals(1L, discrepancy.getTransactionCount());
+        assertTrue(run.getDiscrepancies().stream().noneMatch(found -> clean.equals(found.getAccountNumber())));
+
+        // a completed run is not repeated, and its report is kept
+        ReconciliationResponse rerun = reconciliationService.reconcile(businessDate);
+        assertEquals(0L, rerun.getAccountsChecked());
+        assertEquals(run.getDiscrepancyCount(), rerun.getDiscrepancyCount());
+        assertTrue(reconciliationService.getDiscrepancies(businessDate).stream()
+                .anyMatch(found -> drifted.equals(found.getAccountNumber())));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.entity.ShardRange;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMapTest {
+
+    @Test
+    void evenSplit_ShouldCoverKeySpace() {
+        ShardMap map = ShardMap.evenSplit(3);
+
+        assertEquals(0, map.shardFor(0));
+        assertEquals(0, map.shardFor(333_332));
+        assertEquals(1, map.shardFor(333_333));
+        assertEquals(2, map.shardFor(AccountUtils.SHARD_KEY_SPACE - 1));
+        assertEquals(3, map.getRanges().size());
+    }
+
+    @Test
+    void shardForAccount_ShouldUseTrailingDigits() {
+        ShardMap map = ShardMap.evenSplit(2);
+
+        assertEquals(0, map.shardForAccount("2024000123"));
+        assertEquals(1, map.shardForAccount("2024999999"));
+        assertEquals(123L, AccountUtils.accountShardKey("2024000123"));
+    }
+
+    @Test
+    void withRange_ShouldSplitAndMergeRanges() {
+        ShardMap map = ShardMap.evenSplit(2).withRange(100, 200, 1, 2);
+
+        assertEquals(0, map.shardFor(99));
+        assertEquals(1, map.shardFor(100));
+        assertEquals(1, map.shardFor(199));
+        assertEquals(0, map.shardFor(200));
+        assertEquals(4, map.getRanges().size());
+
+        // moving the range back merges it into its neighbours again
+        assertEquals(2, map.withRange(100, 200, 0, 2).getRanges().size());
+    }
+
+    @Test
+    void compile_ShouldRejectGapsAndUnknownShards() {
+        ValidationException e = assertThrows(ValidationException.class, () -> ShardMap.compile(List.of(
+                range(0, 400_000, 0),
+                range(500_000, AccountUtils.SHARD_KEY_SPACE, 3)
+        ), 2));
+
+        assertEquals(2, e.getErrors().size());
+    }
+
+    private static ShardRange range(long lower, long upper, int shard) {
+        return ShardRange.builder().lowerBound(lower).upperBound(upper).shardIndex(shard).build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.shaka.funding.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAdd_ShouldEnforceCountAndAmount() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MINUTE, 60);
+        long now = 10 * MINUTE;
+
+        assertNotEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now, 1000, 3, 3000));
+        assertNotEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + SECOND, 1000, 3, 3000));
+
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + 2 * SECOND, 1, 2, -1));
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + 2 * SECOND, 1001, -1, 3000));
+        // rejected events were taken out again
+        assertNotEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + 2 * SECOND, 1000, 3, 3000));
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + 2 * SECOND, 1, 3, -1));
+    }
+
+    @Test
+    void remove_ShouldGiveBackTheEvent() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MINUTE, 60);
+        long now = 10 * MINUTE;
+
+        long epoch = counter.tryAdd(now, 1000, 1, -1);
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + SECOND, 1000, 1, -1));
+
+        counter.remove(epoch, 1000);
+
+        assertNotEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + SECOND, 1000, 1, -1));
+    }
+
+    @Test
+    void tryAdd_ShouldForgetEventsOutsideWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MINUTE, 60);
+        long now = 10 * MINUTE;
+
+        counter.tryAdd(now, 1000, 1, -1);
+
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + 30 * SECOND, 1, 1, -1));
+        assertNotEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + MINUTE + SECOND, 1, 1, -1));
+    }
+
+    @Test
+    void tryAdd_ShouldKeepEveryEventAddedWhileTheBucketRollsOver() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MINUTE, 60);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 1; round <= 200; round++) {
+                // every round lands on the same slot one window later, so each starts with a stale bucket
+                long now = round * MINUTE;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Long>> adds = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    adds.add(executor.submit(() -> {
+                        start.await();
+                        return counter.tryAdd(now, 10, -1, -1);
+                    }));
+                }
+                start.countDown();
+                for (Future<Long> add : adds) {
+                    assertNotEquals(SlidingWindowCounter.REJECTED, add.get(10, TimeUnit.SECONDS));
+                }
+
+                assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now, 0, 8, -1), "round " + round);
+                assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now, 1, -1, 80), "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void remove_ShouldIgnoreAnEventWhoseBucketWasReused() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MINUTE, 60);
+        long now = 10 * MINUTE;
+
+        long epoch = counter.tryAdd(now, 1000, -1, -1);
+        counter.tryAdd(now + MINUTE, 1000, -1, -1);
+
+        // the old event already left the window; taking it out again must not eat the new one
+        counter.remove(epoch, 1000);
+
+        assertEquals(SlidingWindowCounter.REJECTED, counter.tryAdd(now + MINUTE, 1000, 1, -1));
+    }
+}
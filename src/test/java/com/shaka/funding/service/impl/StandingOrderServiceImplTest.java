@@ -0,0 +1,105 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.StandingOrderRequest;
+import com.shaka.funding.entity.PaymentFrequency;
+import com.shaka.funding.entity.StandingOrder;
+import com.shaka.funding.entity.StandingOrderExecution;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.StandingOrderRepository;
+import com.shaka.funding.service.StandingOrderService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class StandingOrderServiceImplTest {
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+    @Autowired
+    private StandingOrderRepository standingOrderRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Test
+    void wave_ShouldExecuteEachOccurrenceOnce() {
+        String payer = accountFixtures.fundedAccount("standing.payer@example.com", "100");
+        String payee = accountFixtures.fundedAccount("standing.payee@example.com", "0");
+        StandingOrder order = standingOrderService.createStandingOrder(StandingOrderRequest.builder()
+                .debitAccountNumber(payer).creditAccountNumber(payee)
+                .amount(new BigDecimal("30")).frequency(PaymentFrequency.DAILY).build());
+
+        LocalDateTime now = LocalDate.now().atTime(9, 0);
+        standingOrderService.runDueOrders(now);
+        // a later wave of the same day finds nothing due
+        standingOrderService.runDueOrders(now.plusMinutes(15));
+
+        assertEquals(0, new BigDecimal("70").compareTo(accountBalanceRepository.findByAccountNumber(payer).getBalance()));
+        assertEquals(0, new BigDecimal("30").compareTo(accountBalanceRepository.findByAccountNumber(payee).getBalance()));
+        List<StandingOrderExecution> executions = standingOrderService.getExecutions(order.getId());
+        assertEquals(1, executions.size());
+        assertEquals(StandingOrderServiceImpl.EXECUTION_SUCCESS, executions.get(0).getStatus());
+        assertEquals(LocalDate.now().plusDays(1), standingOrderRepository.findById(order.getId()).orElseThrow().getNextRunDate());
+    }
+
+    @Test
+    void wave_ShouldRetryFailedOccurrenceWithBackoff() {
+        String payer = accountFixtures.fundedAccount("standing.broke@example.com", "10");
+        StandingOrder order = standingOrderService.createStandingOrder(StandingOrderRequest.builder()
+                .debitAccountNumber(payer).amount(new BigDecimal("50")).frequency(PaymentFrequency.MONTHLY).build());
+
+        LocalDateTime now = LocalDate.now().atTime(10, 0);
+        standingOrderService.runDueOrders(now);
+        StandingOrder retrying = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, retrying.getFailedAttempts());
+        assertEquals(now.plusMinutes(30), retrying.getNextAttemptAt());
+        assertEquals(LocalDate.now(), retrying.getNextRunDate());
+
+        // not retried before the backoff has passed, then posted once funded
+        standingOrderService.runDueOrders(now.plusMinutes(1));
+        assertEquals(1, standingOrderRepository.findById(order.getId()).orElseThrow().getFailedAttempts());
+        BankResponse credit = userService.creditAccount(new CreditDebitRequest(payer, new BigDecimal("100")));
+        assertNotNull(credit.getAccountInfo());
+        standingOrderService.runDueOrders(retrying.getNextAttemptAt());
+
+        StandingOrder executed = standingOrderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(0, executed.getFailedAttempts());
+        assertEquals(LocalDate.now().plusMonths(1), executed.getNextRunDate());
+        assertEquals(0, new BigDecimal("60").compareTo(accountBalanceRepository.findByAccountNumber(payer).getBalance()));
+        assertEquals(2, standingOrderService.getExecutions(order.getId()).get(0).getAttempts());
+    }
+
+    @Test
+    void create_ShouldRejectInvalidOrders() {
+        assertThrows(ValidationException.class, () -> standingOrderService.createStandingOrder(StandingOrderRequest.builder()
+                .creditAccountNumber("0000000000").amount(BigDecimal.TEN).frequency(PaymentFrequency.WEEKLY).build()));
+    }
+
+    @Test
+    void monthlyFrequency_ShouldStayAnchoredToStartDay() {
+        LocalDate start = LocalDate.of(2025, 1, 31);
+
+        LocalDate february = PaymentFrequency.MONTHLY.next(start, start);
+        LocalDate march = PaymentFrequency.MONTHLY.next(start, february);
+
+        assertEquals(LocalDate.of(2025, 2, 28), february);
+        assertEquals(LocalDate.of(2025, 3, 31), march);
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.ArchiveRunResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.entity.Transaction;
+import com.shaka.funding.service.TransactionArchiveService;
+import com.shaka.funding.service.TransactionService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class TransactionArchiveServiceImplTest {
+
+    @Autowired
+    private TransactionArchiveService transactionArchiveService;
+    @Autowired
+    private TransactionService transactionService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void archive_ShouldMoveOldTransactionsAndKeepThemInHistory() {
+        String accountNumber = accountFixtures.account("archive.history@example.com");
+        LocalDate today = LocalDate.now();
+        insertTransaction(accountNumber, "CREDIT", "80", today.minusDays(500));
+        insertTransaction(accountNumber, "DEBIT", "30", today.minusDays(400));
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("5")));
+
+        ArchiveRunResponse run = transactionArchiveService.archive();
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, run.getStatus());
+        assertTrue(run.getTransactions() >= 2);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from tbl_transaction where account_number = ?", Integer.class, accountNumber));
+        assertEquals(0, new BigDecimal("50").compareTo(jdbcTemplate.queryForObject(
+                "select archived_net from tbl_archived_balance where account_number = ?", BigDecimal.class, accountNumber)));
+        assertEquals(run.getArchivedBefore(), transactionArchiveService.hotHorizon());
+
+        List<Transaction> history = transactionService.getTransactions(accountNumber, today.minusDays(600), today);
+        assertEquals(List.of(today.minusDays(500), today.minusDays(400), today),
+                history.stream().map(Transaction::getTransactionDate).toList());
+        assertEquals(0, new BigDecimal("30").compareTo(history.get(1).getTransactionAmount()));
+        assertEquals("DEBIT", history.get(1).getTransactionType());
+        assertEquals(1, transactionService.getTransactions(accountNumber, today.minusDays(450), today.minusDays(1)).size());
+
+        // nothing is old enough any more
+        assertEquals(0L, transactionArchiveService.archive().getTransactions());
+    }
+
+    private void insertTransaction(String accountNumber, String type, String amount, LocalDate date) {
+        jdbcTemplate.update("insert into tbl_transaction (transaction_id, transaction_type, transaction_date, transaction_time, "
+                        + "transaction_amount, account_number, status) values (?, ?, ?, ?, ?, ?, 'SUCCESS')",
+                UUID.randomUUID().toString(), type, Date.valueOf(date), Time.valueOf(LocalTime.NOON),
+                new BigDecimal(amount), accountNumber);
+    }
+}
@@ -0,0 +1,92 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.dto.RollupCheckResponse;
+import com.shaka.funding.dto.TransactionSummaryResponse;
+import com.shaka.funding.exceptions.ValidationException;
+import com.shaka.funding.service.TransactionRollupService;
+import com.shaka.funding.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class TransactionRollupServiceImplTest {
+
+    @Autowired
+    private TransactionRollupService transactionRollupService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void postings_ShouldBeSummarizedFromRollups() {
+        String accountNumber = accountFixtures.account("rollup.summary@example.com");
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("100")));
+        userService.debitAccount(new CreditDebitRequest(accountNumber, new BigDecimal("30")));
+        LocalDate today = LocalDate.now();
+
+        TransactionSummaryResponse daily = transactionRollupService.getSummary(accountNumber, today.minusDays(7), today, "DAY");
+        assertEquals(0, new BigDecimal("100").compareTo(daily.getInflowAmount()));
+        assertEquals(1L, daily.getInflowCount());
+        assertEquals(0, new BigDecimal("30").compareTo(daily.getOutflowAmount()));
+        assertEquals(1L, daily.getOutflowCount());
+        assertEquals(0, new BigDecimal("70").compareTo(daily.getNetAmount()));
+        assertEquals(1, daily.getBuckets().size());
+        assertEquals(today.atStartOfDay(), daily.getBuckets().get(0).getPeriodStart());
+
+        TransactionSummaryResponse hourly = transactionRollupService.getSummary(accountNumber, today, today, "HOUR");
+        assertEquals(0, new BigDecimal("70").compareTo(hourly.getNetAmount()));
+        TransactionSummaryResponse monthly = transactionRollupService.getSummary(accountNumber, today.withDayOfMonth(1), today, "MONTH");
+        assertEquals(today.withDayOfMonth(1).atStartOfDay(), monthly.getBuckets().get(0).getPeriodStart());
+
+        assertThrows(ValidationException.class, () -> transactionRollupService.getSummary(accountNumber, today, today.minusDays(1), "DAY"));
+        assertThrows(ValidationException.class, () -> transactionRollupService.getSummary(accountNumber, today, today, "WEEK"));
+    }
+
+    @Test
+    void verify_ShouldReportAndRepairRollupsThatDisagreeWithLedger() {
+        String accountNumber = accountFixtures.account("rollup.verify@example.com");
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("50")));
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("update tbl_transaction_rollup_daily set inflow_amount = inflow_amount + 1 where account_number = ?",
+                accountNumber);
+
+        RollupCheckResponse check = transactionRollupService.verify(today, today, true);
+        assertTrue(check.getMismatches().stream().anyMatch(mismatch -> accountNumber.equals(mismatch.getAccountNumber())
+                && TransactionRollupService.INTERVAL_DAY.equals(mismatch.getGranularity())));
+
+        RollupCheckResponse recheck = transactionRollupService.verify(today, today, false);
+        assertTrue(recheck.getMismatches().stream().noneMatch(mismatch -> accountNumber.equals(mismatch.getAccountNumber())));
+        assertEquals(0, new BigDecimal("50").compareTo(
+                transactionRollupService.getSummary(accountNumber, today, today, "TOTAL").getInflowAmount()));
+    }
+
+    @Test
+    void backfill_ShouldRebuildRollupsFromTransactions() {
+        String accountNumber = accountFixtures.account("rollup.backfill@example.com");
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("40")));
+        userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("2")));
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("delete from tbl_transaction_rollup_hourly where account_number = ?", accountNumber);
+        jdbcTemplate.update("delete from tbl_transaction_rollup_daily where account_number = ?", accountNumber);
+
+        assertEquals(PartitionedBatchRunner.STATUS_COMPLETED, transactionRollupService.backfill(accountNumber).getStatus());
+
+        TransactionSummaryResponse summary = transactionRollupService.getSummary(accountNumber, today, today, "TOTAL");
+        assertEquals(0, new BigDecimal("42").compareTo(summary.getInflowAmount()));
+        assertEquals(2L, summary.getInflowCount());
+        assertTrue(summary.getBuckets().isEmpty());
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.entity.Transaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionSegmentTest {
+
+    private static final LocalDate START = LocalDate.of(2023, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_ShouldReadBackEveryColumnOfEveryAccount() throws Exception {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter(7);
+        List<Transaction> written = new ArrayList<>();
+        for (int account = 0; account < 20; account++) {
+            for (int day = 0; day < 10; day++) {
+                Transaction transaction = transaction("2023" + String.format("%06d", account), START.plusDays(day * 3L),
+                        LocalTime.of(day, account % 60, 5, 1_000), day % 2 == 0 ? "CREDIT" : "DEBIT",
+                        new BigDecimal(day + "." + String.format("%02d", account)), UUID.randomUUID().toString());
+                writer.add(transaction);
+                written.add(transaction);
+            }
+        }
+        Transaction odd = transaction("2023999999", START, null, "REVERSAL",
+                new BigDecimal("123456789012345678901234567890.12"), "legacy-42");
+        writer.add(odd);
+        written.add(odd);
+
+        Path file = directory.resolve("segment.seg");
+        TransactionSegmentWriter.Summary summary = writer.write(file);
+
+        assertEquals(201, summary.rowCount());
+        assertEquals(21, summary.accountCount());
+        assertEquals("2023000000", summary.minAccountNumber());
+        assertEquals("2023999999", summary.maxAccountNumber());
+        assertEquals(START.plusDays(27), summary.maxDate());
+        assertEquals(Files.size(file), summary.sizeBytes());
+
+        TransactionSegmentReader reader = TransactionSegmentReader.open(file);
+        assertEquals(201, reader.rowCount());
+        List<Transaction> scanned = new ArrayList<>();
+        reader.forEach(scanned::add);
+        assertEquals(written.size(), scanned.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertTransaction(written.get(i), scanned.get(i));
+        }
+    }
+
+    @Test
+    void find_ShouldReturnOnlyTheAccountsRowsWithinTheRange() throws Exception {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter(4);
+        for (String accountNumber : List.of("2023000001", "2023000002", "2023000003")) {
+            for (int day = 0; day < 10; day++) {
+                writer.add(transaction(accountNumber, START.plusDays(day), LocalTime.NOON, "CREDIT", BigDecimal.TEN,
+                        UUID.randomUUID().toString()));
+            }
+        }
+        Path file = directory.resolve("range.seg");
+        writer.write(file);
+        TransactionSegmentReader reader = TransactionSegmentReader.open(file);
+
+        List<Transaction> found = reader.find("2023000002", START.plusDays(3), START.plusDays(5));
+        assertEquals(List.of(START.plusDays(3), START.plusDays(4), START.plusDays(5)),
+                found.stream().map(Transaction::getTransactionDate).toList());
+        assertTrue(found.stream().allMatch(transaction -> "2023000002".equals(transaction.getAccountNumber())));
+        assertTrue(reader.find("2023000004", START, START.plusDays(9)).isEmpty());
+        assertTrue(reader.find("2023000001", START.plusDays(10), START.plusDays(20)).isEmpty());
+    }
+
+    @Test
+    void add_ShouldRejectRowsOutOfOrder() {
+        TransactionSegmentWriter writer = new TransactionSegmentWriter(4);
+        writer.add(transaction("2023000002", START, LocalTime.NOON, "CREDIT", BigDecimal.ONE, "b"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> writer.add(transaction("2023000001", START, LocalTime.NOON, "CREDIT", BigDecimal.ONE, "a")));
+    }
+
+    private static void assertTransaction(Transaction expected, Transaction actual) {
+        assertEquals(expected.getTransactionId(), actual.getTransactionId());
+        assertEquals(expected.getAccountNumber(), actual.getAccountNumber());
+        assertEquals(expected.getTransactionDate(), actual.getTransactionDate());
+        assertEquals(expected.getTransactionTime(), actual.getTransactionTime());
+        assertEquals(expected.getTransactionType(), actual.getTransactionType());
+        assertEquals(expected.getTransactionAmount(), actual.getTransactionAmount());
+        assertEquals(expected.getStatus(), actual.getStatus());
+    }
+
+    private static Transaction transaction(String accountNumber, LocalDate date, LocalTime time, String type,
+                                           BigDecimal amount, String id) {
+        return Transaction.builder()
+                .transactionId(id)
+                .accountNumber(accountNumber)
+                .transactionDate(date)
+                .transactionTime(time)
+                .transactionType(type)
+                .transactionAmount(amount)
+                .status("SUCCESS")
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.dto.UserImportError;
+import com.shaka.funding.dto.UserImportResponse;
+import com.shaka.funding.entity.Role;
+import com.shaka.funding.entity.User;
+import com.shaka.funding.repository.AccountBalanceRepository;
+import com.shaka.funding.repository.UserRepository;
+import com.shaka.funding.service.UserImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@FundingIntegrationTest
+class UserImportServiceImplTest {
+
+    @Autowired
+    private UserImportService userImportService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AccountBalanceRepository accountBalanceRepository;
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Test
+    void csvImport_ShouldCreateValidRowsAndReportTheRest() {
+        accountFixtures.account("import.existing@example.com");
+        String csv = """
+                firstName,lastName,email,password,address
+                Ada,Obi,import.ada@example.com,secret1,"12 Marina, Lagos"
+                Bola,Ade,import.bola@example.com,secret2,Abuja
+                Ada,Again,import.ada@example.com,secret3,Lagos
+                Chidi,Eze,import.existing@example.com,secret4,Enugu
+                Dayo,Ola,import.dayo@example.com,,Ibadan
+                """;
+
+        UserImportResponse response = userImportService.importUsers(stream(csv), "text/csv");
+
+        assertEquals(UserImportServiceImpl.STATUS_COMPLETED, response.getStatus());
+        assertEquals(5, response.getTotalRows());
+        assertEquals(2, response.getImportedRows());
+        assertEquals(3, response.getFailedRows());
+        assertEquals(List.of(4L, 5L, 6L), response.getErrors().stream().map(UserImportError::getLine).sorted().toList());
+
+        User ada = userRepository.findByEmail("import.ada@example.com");
+        assertEquals("12 Marina, Lagos", ada.getAddress());
+        assertEquals(Role.USER, ada.getRole());
+        assertTrue(passwordEncoder.matches("secret1", ada.getPassword()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountBalanceRepository.findByAccountNumber(ada.getAccountNumber()).getBalance()));
+        assertNotEquals(ada.getAccountNumber(), userRepository.findByEmail("import.bola@example.com").getAccountNumber());
+    }
+
+    @Test
+    void ndjsonImport_ShouldReportUnreadableRows() {
+        String ndjson = """
+                {"firstName":"Emeka","lastName":"Nwosu","email":"import.emeka@example.com","password":"secret5"}
+                {"firstName":"broken"
+                """;
+
+        UserImportResponse response = userImportService.importUsers(stream(ndjson), "application/x-ndjson");
+
+        assertEquals(1, response.getImportedRows());
+        assertEquals(1, response.getFailedRows());
+        assertEquals(2L, response.getErrors().get(0).getLine());
+        assertNotNull(userRepository.findByEmail("import.emeka@example.com"));
+    }
+
+    @Test
+    void splitCsv_ShouldHandleQuotedFields() {
+        assertEquals(List.of("a", "b, c", "say \"hi\"", ""), UserImportServiceImpl.splitCsv("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
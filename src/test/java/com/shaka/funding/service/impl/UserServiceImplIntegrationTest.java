@@ -0,0 +1,69 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.AccountFixtures;
+import com.shaka.funding.FundingIntegrationTest;
+import com.shaka.funding.config.EntityCacheEvictor;
+import com.shaka.funding.config.QueryBudgetAspect;
+import com.shaka.funding.dto.BankResponse;
+import com.shaka.funding.dto.CreditDebitRequest;
+import com.shaka.funding.service.UserService;
+import com.shaka.funding.utils.AccountUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Postings against their declared {@code @QueryBudget} with the second-level and query caches
+ * emptied first, so the budgets hold without the cached user lookup.
+ */
+@FundingIntegrationTest
+class UserServiceImplIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AccountFixtures accountFixtures;
+    @Autowired
+    private EntityCacheEvictor cacheEvictor;
+    @Autowired
+    private QueryBudgetAspect queryBudgetAspect;
+
+    private Object defaultMode;
+
+    @BeforeEach
+    void failOverBudget() {
+        defaultMode = ReflectionTestUtils.getField(queryBudgetAspect, "mode");
+        ReflectionTestUtils.setField(queryBudgetAspect, "mode", QueryBudgetAspect.Mode.FAIL);
+    }
+
+    @AfterEach
+    void restoreMode() {
+        ReflectionTestUtils.setField(queryBudgetAspect, "mode", defaultMode);
+    }
+
+    @Test
+    void creditAccount_ShouldStayWithinBudgetOnAColdCache() {
+        String accountNumber = accountFixtures.account("budget.credit@example.com");
+        cacheEvictor.evictAll();
+
+        BankResponse response = userService.creditAccount(new CreditDebitRequest(accountNumber, new BigDecimal("25")));
+
+        assertEquals(AccountUtils.ACCOUNT_CREDITED_CODE, response.getResponseCode());
+    }
+
+    @Test
+    void debitAccount_ShouldStayWithinBudgetOnAColdCache() {
+        String accountNumber = accountFixtures.fundedAccount("budget.debit@example.com", "100");
+        cacheEvictor.evictAll();
+
+        BankResponse response = userService.debitAccount(new CreditDebitRequest(accountNumber, new BigDecimal("25")));
+
+        assertEquals(AccountUtils.ACCOUNT_DEBITED_CODE, response.getResponseCode());
+    }
+}
@@ -1,14 +1,19 @@
 package com.shaka.funding.service.impl;
 
+import com.shaka.funding.config.ReadYourWritesGuard;
 import com.shaka.funding.dto.BankResponse;
 import com.shaka.funding.dto.LoginRequest;
 import com.shaka.funding.dto.UserRequest;
+import com.shaka.funding.entity.AccountBalance;
 import com.shaka.funding.entity.Role;
 //import com.shaka.funding.entity.User;
 import com.shaka.funding.entity.User;
+import com.shaka.funding.repository.AccountBalanceRepository;
 import com.shaka.funding.repository.UserRepository;
 import com.shaka.funding.service.JwtService;
+import com.shaka.funding.service.OutboxService;
 import com.shaka.funding.service.TransactionService;
+import com.shaka.funding.service.VelocityService;
 import com.shaka.funding.utils.AccountUtils;
 import org.apache.catalina.Authenticator;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +31,8 @@ import java.math.BigDecimal;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -35,11 +42,19 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+    @Mock
     private TransactionService transactionService;
     @Mock
     private JwtService jwtService;
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
+    @Mock
+    private VelocityService velocityService;
+    @Mock
+    private ReadYourWritesGuard readYourWritesGuard;
+    @Mock
+    private OutboxService outboxService;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -104,8 +119,9 @@ class UserServiceImplTest {
         LoginRequest loginRequest = new LoginRequest("john.doe@example.com", "password123");
         User mockUser = new User();
         mockUser.setAccountNumber("123456789");
-        mockUser.setAccountBalance(BigDecimal.valueOf(1000));
         when(userRepository.findByEmail(loginRequest.getEmail())).thenReturn(mockUser);
+        when(accountBalanceRepository.findByAccountNumber("123456789"))
+                .thenReturn(AccountBalance.builder().accountNumber("123456789").balance(BigDecimal.valueOf(1000)).build());
         when(jwtService.generateToken(any(User.class))).thenReturn("mock-jwt-token");
         when(authenticationManager.authenticate(any())).thenReturn(null); // Simulate successful authentication
 
@@ -117,6 +133,7 @@ class UserServiceImplTest {
         assertEquals(AccountUtils.ACCOUNT_FOUND_CODE, response.getResponseCode());
         assertEquals("Login successful", response.getResponseMessage());
         assertNotNull(response.getAccountInfo().getToken());
+        assertEquals(0, BigDecimal.valueOf(1000).compareTo(response.getAccountInfo().getAccountBalance()));
     }
 
     @Test
@@ -134,5 +151,51 @@ class UserServiceImplTest {
         assertEquals("Invalid credentials", response.getResponseMessage());
     }
 
+    @Test
+    void updateAccount_ShouldApplyOnlyProvidedFields_AndHashNewPassword() {
+        // Arrange
+        User stored = User.builder().accountNumber("2024000001").firstName("John").lastName("Doe")
+                .address("Lagos").password("old-hash").build();
+        when(userRepository.findByAccountNumber("2024000001")).thenReturn(stored);
+        when(passwordEncoder.matches("new-secret", "old-hash")).thenReturn(false);
+        when(passwordEncoder.encode("new-secret")).thenReturn("new-hash");
+        UserRequest patch = new UserRequest();
+        patch.setAccountNumber("2024000001");
+        patch.setAddress("Abuja");
+        patch.setPassword("new-secret");
+
+        // Act
+        BankResponse response = userService.updateAccount(patch);
+
+        // Assert
+        assertEquals(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE, response.getResponseCode());
+        assertEquals("John", stored.getFirstName());
+        assertEquals("Doe", stored.getLastName());
+        assertEquals("Abuja", stored.getAddress());
+        assertEquals("new-hash", stored.getPassword());
+        verify(userRepository).save(stored);
+        verify(readYourWritesGuard).recordWrite("2024000001");
+    }
+
+    @Test
+    void updateAccount_ShouldSkipWrite_WhenNothingChanged() {
+        // Arrange
+        User stored = User.builder().accountNumber("2024000001").firstName("John").password("hash").build();
+        when(userRepository.findByAccountNumber("2024000001")).thenReturn(stored);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        UserRequest patch = new UserRequest();
+        patch.setAccountNumber("2024000001");
+        patch.setFirstName("John");
+        patch.setPassword("secret");
+
+        // Act
+        BankResponse response = userService.updateAccount(patch);
 
-}
\ No newline at end of file
+        // Assert
+        assertEquals(AccountUtils.ACCOUNT_CREATION_SUCCESS_CODE, response.getResponseCode());
+        assertEquals("hash", stored.getPassword());
+        verify(userRepository, never()).save(any(User.class));
+        verify(passwordEncoder, never()).encode(any());
+        verify(readYourWritesGuard, never()).recordWrite(any());
+    }
+}
@@ -0,0 +1,123 @@
+package com.shaka.funding.service.impl;
+
+import com.shaka.funding.config.VelocityProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VelocityServiceImplTest {
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tryDebit_ShouldNeverAdmitMoreThanTheLimitUnderConcurrency() throws Exception {
+        VelocityServiceImpl service = new VelocityServiceImpl(properties(5), new SimpleMeterRegistry());
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return service.tryDebit("1234567890", null, BigDecimal.TEN);
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    admitted++;
+                }
+            }
+            assertTrue(admitted <= 5, "admitted " + admitted);
+            assertTrue(admitted > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void tryDebit_ShouldGiveTheReservationBackWhenTheTransactionRollsBack() {
+        VelocityServiceImpl service = new VelocityServiceImpl(properties(1), new SimpleMeterRegistry());
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        assertFalse(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertFalse(service.tryDebit("1234567890", null, BigDecimal.TEN));
+    }
+
+    @Test
+    void tryDebit_ShouldCountRejectionsPerRule() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VelocityServiceImpl service = new VelocityServiceImpl(properties(1), meterRegistry);
+
+        assertTrue(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        for (int i = 0; i < 3; i++) {
+            assertFalse(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        }
+
+        assertEquals(3.0, meterRegistry.counter("funding.velocity.rejections", "rule", "account-per-hour").count());
+    }
+
+    @Test
+    void evictIdle_ShouldKeepAKeyWhileAReservationInItIsOutstanding() throws InterruptedException {
+        VelocityProperties properties = properties(1);
+        properties.getRules().get(0).setWindow(Duration.ofMillis(20));
+        properties.setIdleEviction(Duration.ZERO);
+        VelocityServiceImpl service = new VelocityServiceImpl(properties, new SimpleMeterRegistry());
+        Map<?, ?> windows = (Map<?, ?>) ReflectionTestUtils.getField(service, "windows");
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(service.tryDebit("1234567890", null, BigDecimal.TEN));
+        Thread.sleep(50);
+        service.evictIdle();
+        assertEquals(1, windows.size());
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        service.evictIdle();
+        assertEquals(0, windows.size());
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static VelocityProperties properties(long maxCount) {
+        VelocityProperties.Rule rule = new VelocityProperties.Rule();
+        rule.setName("account-per-hour");
+        rule.setWindow(Duration.ofHours(1));
+        rule.setMaxCount(maxCount);
+        VelocityProperties properties = new VelocityProperties();
+        properties.setRules(List.of(rule));
+        return properties;
+    }
+}